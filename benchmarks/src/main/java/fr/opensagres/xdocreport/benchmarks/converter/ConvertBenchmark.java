@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.benchmarks.converter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.opensagres.xdocreport.benchmarks.NullOutputStream;
+import fr.opensagres.xdocreport.benchmarks.report.SyntheticReports;
+import fr.opensagres.xdocreport.converter.ConverterRegistry;
+import fr.opensagres.xdocreport.converter.ConverterTypeTo;
+import fr.opensagres.xdocreport.converter.ConverterTypeVia;
+import fr.opensagres.xdocreport.converter.IConverter;
+import fr.opensagres.xdocreport.converter.Options;
+import fr.opensagres.xdocreport.core.document.DocumentKind;
+import fr.opensagres.xdocreport.document.IXDocReport;
+import fr.opensagres.xdocreport.document.registry.XDocReportRegistry;
+import fr.opensagres.xdocreport.template.TemplateEngineKind;
+
+/**
+ * Converts a synthetic DOCX (with XWPF) and ODT (with ODFDOM) document merged with the given number of rows to PDF and
+ * XHTML.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MILLISECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class ConvertBenchmark
+{
+
+    @Param( { "DOCX", "ODT" } )
+    private DocumentKind documentKind;
+
+    @Param( { "PDF", "XHTML" } )
+    private ConverterTypeTo to;
+
+    @Param( { "1000" } )
+    private int rows;
+
+    private byte[] document;
+
+    private IConverter converter;
+
+    private Options options;
+
+    @Setup
+    public void setup()
+        throws Exception
+    {
+        // merge the template to get a real document.
+        byte[] template = SyntheticReports.create( documentKind, TemplateEngineKind.Freemarker );
+        IXDocReport report =
+            SyntheticReports.loadReport( new XDocReportRegistry(), template, TemplateEngineKind.Freemarker );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        report.process( SyntheticReports.createContext( report, rows ), out );
+        document = out.toByteArray();
+
+        ConverterTypeVia via = documentKind == DocumentKind.ODT ? ConverterTypeVia.ODFDOM : ConverterTypeVia.XWPF;
+        options = Options.getFrom( documentKind ).to( to ).via( via );
+        converter = ConverterRegistry.getRegistry().getConverter( options );
+        if ( converter == null )
+        {
+            throw new IllegalStateException( "No converter found for " + documentKind + " to " + to + " via " + via );
+        }
+    }
+
+    @Benchmark
+    public long convert()
+        throws Exception
+    {
+        NullOutputStream out = new NullOutputStream();
+        converter.convert( new ByteArrayInputStream( document ), out, options );
+        return out.getCount();
+    }
+}
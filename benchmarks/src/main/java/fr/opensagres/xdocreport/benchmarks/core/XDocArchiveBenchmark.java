@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.benchmarks.core;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.opensagres.xdocreport.benchmarks.NullOutputStream;
+import fr.opensagres.xdocreport.benchmarks.report.SyntheticReports;
+import fr.opensagres.xdocreport.core.document.DocumentKind;
+import fr.opensagres.xdocreport.core.io.XDocArchive;
+import fr.opensagres.xdocreport.template.TemplateEngineKind;
+
+/**
+ * Reads and writes the zip of a synthetic template with {@link XDocArchive}, which is done each time a report is
+ * loaded and merged.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class XDocArchiveBenchmark
+{
+
+    @Param( { "DOCX", "ODT", "PPTX" } )
+    private DocumentKind documentKind;
+
+    private byte[] zip;
+
+    private XDocArchive archive;
+
+    @Setup
+    public void setup()
+        throws Exception
+    {
+        zip = SyntheticReports.create( documentKind, TemplateEngineKind.Freemarker );
+        archive = XDocArchive.readZip( new ByteArrayInputStream( zip ) );
+    }
+
+    @Benchmark
+    public XDocArchive readZip()
+        throws Exception
+    {
+        return XDocArchive.readZip( new ByteArrayInputStream( zip ) );
+    }
+
+    @Benchmark
+    public long writeZip()
+        throws Exception
+    {
+        NullOutputStream out = new NullOutputStream();
+        XDocArchive.writeZip( archive, out );
+        return out.getCount();
+    }
+}
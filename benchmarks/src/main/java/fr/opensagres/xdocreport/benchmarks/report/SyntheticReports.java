@@ -0,0 +1,385 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.benchmarks.report;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import fr.opensagres.xdocreport.core.XDocReportException;
+import fr.opensagres.xdocreport.core.document.DocumentKind;
+import fr.opensagres.xdocreport.document.IXDocReport;
+import fr.opensagres.xdocreport.document.registry.XDocReportRegistry;
+import fr.opensagres.xdocreport.template.IContext;
+import fr.opensagres.xdocreport.template.TemplateEngineKind;
+import fr.opensagres.xdocreport.template.formatter.FieldsMetadata;
+
+/**
+ * Generates DOCX, ODT and PPTX templates (a title and a table with one row looping over the "lines" list) and the
+ * context to merge them, so the benchmarks don't need any document file.
+ */
+public class SyntheticReports
+{
+
+    public static final String[] LINE_FIELDS = { "lines.name", "lines.price", "lines.quantity" };
+
+    private static final String W_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+
+    private static final String R_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    private static final String PKG_RELS_NS = "http://schemas.openxmlformats.org/package/2006/relationships";
+
+    private static final String CT_NS = "http://schemas.openxmlformats.org/package/2006/content-types";
+
+    private static final String XML_DECL = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>";
+
+    /**
+     * Returns the bytes of the template of the given kind for the given template engine.
+     */
+    public static byte[] create( DocumentKind documentKind, TemplateEngineKind templateEngineKind )
+        throws IOException
+    {
+        switch ( documentKind )
+        {
+            case DOCX:
+                return createDocx( templateEngineKind );
+            case ODT:
+                return createOdt( templateEngineKind );
+            case PPTX:
+                return createPptx( templateEngineKind );
+            default:
+                throw new IllegalArgumentException( "Unsupported document kind " + documentKind );
+        }
+    }
+
+    /**
+     * Load the given template without registering it and declare the fields of the "lines" list.
+     */
+    public static IXDocReport loadReport( XDocReportRegistry registry, byte[] template,
+                                          TemplateEngineKind templateEngineKind )
+        throws IOException, XDocReportException
+    {
+        IXDocReport report = registry.loadReport( new ByteArrayInputStream( template ), templateEngineKind, false );
+        FieldsMetadata metadata = report.createFieldsMetadata();
+        for ( String field : LINE_FIELDS )
+        {
+            metadata.addFieldAsList( field );
+        }
+        return report;
+    }
+
+    /**
+     * Create the context with a title and the given number of lines.
+     */
+    public static IContext createContext( IXDocReport report, int rows )
+        throws XDocReportException
+    {
+        IContext context = report.createContext();
+        context.put( "title", "Synthetic report" );
+        List<Line> lines = new ArrayList<Line>( rows );
+        for ( int i = 0; i < rows; i++ )
+        {
+            lines.add( new Line( "Product " + i, i % 100 + 0.5f, i % 10 ) );
+        }
+        context.put( "lines", lines );
+        return context;
+    }
+
+    public static byte[] createDocx( TemplateEngineKind templateEngineKind )
+        throws IOException
+    {
+        StringBuilder document = new StringBuilder( XML_DECL );
+        document.append( "<w:document xmlns:w=\"" ).append( W_NS ).append( "\" xmlns:r=\"" ).append( R_NS );
+        document.append( "\"><w:body>" );
+        document.append( "<w:p><w:pPr><w:pStyle w:val=\"Title\"/></w:pPr><w:r><w:t>" );
+        document.append( field( "title", templateEngineKind ) ).append( "</w:t></w:r></w:p>" );
+        document.append( "<w:tbl><w:tblPr><w:tblW w:w=\"0\" w:type=\"auto\"/></w:tblPr><w:tblGrid>" );
+        for ( int i = 0; i < LINE_FIELDS.length; i++ )
+        {
+            document.append( "<w:gridCol w:w=\"3000\"/>" );
+        }
+        document.append( "</w:tblGrid>" );
+        // header row
+        document.append( "<w:tr>" );
+        for ( String field : LINE_FIELDS )
+        {
+            document.append( "<w:tc><w:tcPr><w:tcW w:w=\"3000\" w:type=\"dxa\"/></w:tcPr><w:p><w:r><w:rPr><w:b/>" );
+            document.append( "</w:rPr><w:t>" ).append( field ).append( "</w:t></w:r></w:p></w:tc>" );
+        }
+        document.append( "</w:tr>" );
+        // row which loops over the lines
+        document.append( "<w:tr>" );
+        for ( String field : LINE_FIELDS )
+        {
+            document.append( "<w:tc><w:tcPr><w:tcW w:w=\"3000\" w:type=\"dxa\"/></w:tcPr><w:p><w:r><w:t>" );
+            document.append( field( field, templateEngineKind ) ).append( "</w:t></w:r></w:p></w:tc>" );
+        }
+        document.append( "</w:tr></w:tbl>" );
+        document.append( "<w:sectPr><w:pgSz w:w=\"11906\" w:h=\"16838\"/>" );
+        document.append( "<w:pgMar w:top=\"1417\" w:right=\"1417\" w:bottom=\"1417\" w:left=\"1417\"/></w:sectPr>" );
+        document.append( "</w:body></w:document>" );
+
+        StringBuilder styles = new StringBuilder( XML_DECL );
+        styles.append( "<w:styles xmlns:w=\"" ).append( W_NS ).append( "\">" );
+        styles.append( "<w:docDefaults><w:rPrDefault><w:rPr><w:rFonts w:ascii=\"Arial\" w:hAnsi=\"Arial\"/>" );
+        styles.append( "<w:sz w:val=\"20\"/></w:rPr></w:rPrDefault></w:docDefaults>" );
+        styles.append( "<w:style w:type=\"paragraph\" w:default=\"1\" w:styleId=\"Normal\"><w:name w:val=\"Normal\"/>" );
+        styles.append( "</w:style>" );
+        styles.append( "<w:style w:type=\"paragraph\" w:styleId=\"Title\"><w:name w:val=\"Title\"/>" );
+        styles.append( "<w:basedOn w:val=\"Normal\"/><w:rPr><w:b/><w:sz w:val=\"36\"/></w:rPr></w:style>" );
+        styles.append( "</w:styles>" );
+
+        StringBuilder contentTypes = new StringBuilder( XML_DECL );
+        contentTypes.append( "<Types xmlns=\"" ).append( CT_NS ).append( "\">" );
+        contentTypes.append( "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>" );
+        contentTypes.append( "<Default Extension=\"xml\" ContentType=\"application/xml\"/>" );
+        contentTypes.append( "<Override PartName=\"/word/document.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.wordprocessingml.document.main+xml\"/>" );
+        contentTypes.append( "<Override PartName=\"/word/styles.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.wordprocessingml.styles+xml\"/>" );
+        contentTypes.append( "</Types>" );
+
+        StringBuilder rels = new StringBuilder( XML_DECL );
+        rels.append( "<Relationships xmlns=\"" ).append( PKG_RELS_NS ).append( "\">" );
+        rels.append( "<Relationship Id=\"rId1\" Type=\"" ).append( R_NS );
+        rels.append( "/officeDocument\" Target=\"word/document.xml\"/></Relationships>" );
+
+        StringBuilder documentRels = new StringBuilder( XML_DECL );
+        documentRels.append( "<Relationships xmlns=\"" ).append( PKG_RELS_NS ).append( "\">" );
+        documentRels.append( "<Relationship Id=\"rId1\" Type=\"" ).append( R_NS );
+        documentRels.append( "/styles\" Target=\"styles.xml\"/></Relationships>" );
+
+        ZipBuilder zip = new ZipBuilder();
+        zip.add( "[Content_Types].xml", contentTypes );
+        zip.add( "_rels/.rels", rels );
+        zip.add( "word/document.xml", document );
+        zip.add( "word/styles.xml", styles );
+        zip.add( "word/_rels/document.xml.rels", documentRels );
+        return zip.toByteArray();
+    }
+
+    public static byte[] createOdt( TemplateEngineKind templateEngineKind )
+        throws IOException
+    {
+        String namespaces =
+            " xmlns:office=\"urn:oasis:names:tc:opendocument:xmlns:office:1.0\""
+                + " xmlns:style=\"urn:oasis:names:tc:opendocument:xmlns:style:1.0\""
+                + " xmlns:text=\"urn:oasis:names:tc:opendocument:xmlns:text:1.0\""
+                + " xmlns:table=\"urn:oasis:names:tc:opendocument:xmlns:table:1.0\""
+                + " xmlns:fo=\"urn:oasis:names:tc:opendocument:xmlns:xsl-fo-compatible:1.0\" office:version=\"1.2\"";
+
+        StringBuilder content = new StringBuilder( XML_DECL );
+        content.append( "<office:document-content" ).append( namespaces ).append( ">" );
+        content.append( "<office:automatic-styles><style:style style:name=\"Bold\" style:family=\"text\">" );
+        content.append( "<style:text-properties fo:font-weight=\"bold\"/></style:style></office:automatic-styles>" );
+        content.append( "<office:body><office:text>" );
+        content.append( "<text:h text:outline-level=\"1\">" ).append( field( "title", templateEngineKind ) );
+        content.append( "</text:h>" );
+        content.append( "<table:table table:name=\"Lines\">" );
+        content.append( "<table:table-column table:number-columns-repeated=\"" ).append( LINE_FIELDS.length );
+        content.append( "\"/>" );
+        // header row
+        content.append( "<table:table-row>" );
+        for ( String field : LINE_FIELDS )
+        {
+            content.append( "<table:table-cell office:value-type=\"string\"><text:p><text:span text:style-name=\"Bold\">" );
+            content.append( field ).append( "</text:span></text:p></table:table-cell>" );
+        }
+        content.append( "</table:table-row>" );
+        // row which loops over the lines
+        content.append( "<table:table-row>" );
+        for ( String field : LINE_FIELDS )
+        {
+            content.append( "<table:table-cell office:value-type=\"string\"><text:p>" );
+            content.append( field( field, templateEngineKind ) ).append( "</text:p></table:table-cell>" );
+        }
+        content.append( "</table:table-row></table:table>" );
+        content.append( "</office:text></office:body></office:document-content>" );
+
+        StringBuilder styles = new StringBuilder( XML_DECL );
+        styles.append( "<office:document-styles" ).append( namespaces ).append( ">" );
+        styles.append( "<office:styles><style:default-style style:family=\"paragraph\">" );
+        styles.append( "<style:text-properties style:font-name=\"Arial\" fo:font-size=\"10pt\"/>" );
+        styles.append( "</style:default-style></office:styles></office:document-styles>" );
+
+        StringBuilder manifest = new StringBuilder( XML_DECL );
+        manifest.append( "<manifest:manifest xmlns:manifest=\"urn:oasis:names:tc:opendocument:xmlns:manifest:1.0\"" );
+        manifest.append( " manifest:version=\"1.2\">" );
+        manifest.append( "<manifest:file-entry manifest:full-path=\"/\"" );
+        manifest.append( " manifest:media-type=\"" ).append( DocumentKind.ODT.getMimeType() ).append( "\"/>" );
+        manifest.append( "<manifest:file-entry manifest:full-path=\"content.xml\" manifest:media-type=\"text/xml\"/>" );
+        manifest.append( "<manifest:file-entry manifest:full-path=\"styles.xml\" manifest:media-type=\"text/xml\"/>" );
+        manifest.append( "</manifest:manifest>" );
+
+        ZipBuilder zip = new ZipBuilder();
+        // the mimetype entry must be the first entry and must not be compressed.
+        zip.addStored( "mimetype", DocumentKind.ODT.getMimeType() );
+        zip.add( "META-INF/manifest.xml", manifest );
+        zip.add( "content.xml", content );
+        zip.add( "styles.xml", styles );
+        return zip.toByteArray();
+    }
+
+    public static byte[] createPptx( TemplateEngineKind templateEngineKind )
+        throws IOException
+    {
+        String namespaces =
+            " xmlns:a=\"http://schemas.openxmlformats.org/drawingml/2006/main\" xmlns:r=\"" + R_NS
+                + "\" xmlns:p=\"http://schemas.openxmlformats.org/presentationml/2006/main\"";
+
+        StringBuilder slide = new StringBuilder( XML_DECL );
+        slide.append( "<p:sld" ).append( namespaces ).append( "><p:cSld><p:spTree>" );
+        slide.append( "<p:nvGrpSpPr><p:cNvPr id=\"1\" name=\"\"/><p:cNvGrpSpPr/><p:nvPr/></p:nvGrpSpPr><p:grpSpPr/>" );
+        slide.append( "<p:sp><p:nvSpPr><p:cNvPr id=\"2\" name=\"Title\"/><p:cNvSpPr/><p:nvPr/></p:nvSpPr>" );
+        slide.append( "<p:spPr/><p:txBody><a:bodyPr/><a:p><a:r><a:t>" ).append( field( "title", templateEngineKind ) );
+        slide.append( "</a:t></a:r></a:p></p:txBody></p:sp>" );
+        // paragraph which loops over the lines
+        slide.append( "<p:sp><p:nvSpPr><p:cNvPr id=\"3\" name=\"Lines\"/><p:cNvSpPr/><p:nvPr/></p:nvSpPr>" );
+        slide.append( "<p:spPr/><p:txBody><a:bodyPr/><a:p><a:r><a:t>" );
+        for ( String field : LINE_FIELDS )
+        {
+            slide.append( field( field, templateEngineKind ) ).append( ' ' );
+        }
+        slide.append( "</a:t></a:r></a:p></p:txBody></p:sp>" );
+        slide.append( "</p:spTree></p:cSld></p:sld>" );
+
+        StringBuilder presentation = new StringBuilder( XML_DECL );
+        presentation.append( "<p:presentation" ).append( namespaces ).append( ">" );
+        presentation.append( "<p:sldIdLst><p:sldId id=\"256\" r:id=\"rId1\"/></p:sldIdLst>" );
+        presentation.append( "<p:sldSz cx=\"9144000\" cy=\"6858000\"/><p:notesSz cx=\"6858000\" cy=\"9144000\"/>" );
+        presentation.append( "</p:presentation>" );
+
+        StringBuilder contentTypes = new StringBuilder( XML_DECL );
+        contentTypes.append( "<Types xmlns=\"" ).append( CT_NS ).append( "\">" );
+        contentTypes.append( "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>" );
+        contentTypes.append( "<Default Extension=\"xml\" ContentType=\"application/xml\"/>" );
+        contentTypes.append( "<Override PartName=\"/ppt/presentation.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.presentationml.presentation.main+xml\"/>" );
+        contentTypes.append( "<Override PartName=\"/ppt/slides/slide1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.presentationml.slide+xml\"/>" );
+        contentTypes.append( "</Types>" );
+
+        StringBuilder rels = new StringBuilder( XML_DECL );
+        rels.append( "<Relationships xmlns=\"" ).append( PKG_RELS_NS ).append( "\">" );
+        rels.append( "<Relationship Id=\"rId1\" Type=\"" ).append( R_NS );
+        rels.append( "/officeDocument\" Target=\"ppt/presentation.xml\"/></Relationships>" );
+
+        StringBuilder presentationRels = new StringBuilder( XML_DECL );
+        presentationRels.append( "<Relationships xmlns=\"" ).append( PKG_RELS_NS ).append( "\">" );
+        presentationRels.append( "<Relationship Id=\"rId1\" Type=\"" ).append( R_NS );
+        presentationRels.append( "/slide\" Target=\"slides/slide1.xml\"/></Relationships>" );
+
+        ZipBuilder zip = new ZipBuilder();
+        zip.add( "[Content_Types].xml", contentTypes );
+        zip.add( "_rels/.rels", rels );
+        zip.add( "ppt/presentation.xml", presentation );
+        zip.add( "ppt/_rels/presentation.xml.rels", presentationRels );
+        zip.add( "ppt/slides/slide1.xml", slide );
+        return zip.toByteArray();
+    }
+
+    /**
+     * Returns the script of the given field for the given template engine.
+     */
+    private static String field( String fieldName, TemplateEngineKind templateEngineKind )
+    {
+        return templateEngineKind == TemplateEngineKind.Velocity ? "$" + fieldName : "${" + fieldName + "}";
+    }
+
+    /**
+     * Item of the "lines" list.
+     */
+    public static class Line
+    {
+
+        private final String name;
+
+        private final float price;
+
+        private final int quantity;
+
+        public Line( String name, float price, int quantity )
+        {
+            this.name = name;
+            this.price = price;
+            this.quantity = quantity;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public float getPrice()
+        {
+            return price;
+        }
+
+        public int getQuantity()
+        {
+            return quantity;
+        }
+    }
+
+    private static class ZipBuilder
+    {
+
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        private final ZipOutputStream zip = new ZipOutputStream( bytes );
+
+        public void add( String entryName, CharSequence content )
+            throws IOException
+        {
+            zip.putNextEntry( new ZipEntry( entryName ) );
+            zip.write( content.toString().getBytes( "UTF-8" ) );
+            zip.closeEntry();
+        }
+
+        public void addStored( String entryName, CharSequence content )
+            throws IOException
+        {
+            byte[] data = content.toString().getBytes( "UTF-8" );
+            CRC32 crc = new CRC32();
+            crc.update( data );
+            ZipEntry entry = new ZipEntry( entryName );
+            entry.setMethod( ZipEntry.STORED );
+            entry.setSize( data.length );
+            entry.setCompressedSize( data.length );
+            entry.setCrc( crc.getValue() );
+            zip.putNextEntry( entry );
+            zip.write( data );
+            zip.closeEntry();
+        }
+
+        public byte[] toByteArray()
+            throws IOException
+        {
+            zip.close();
+            return bytes.toByteArray();
+        }
+    }
+}
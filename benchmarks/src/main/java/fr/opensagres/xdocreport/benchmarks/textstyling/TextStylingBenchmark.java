@@ -0,0 +1,147 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.benchmarks.textstyling;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import fr.opensagres.xdocreport.document.docx.textstyling.DocxDocumentHandler;
+import fr.opensagres.xdocreport.document.odt.textstyling.ODTDocumentHandler;
+import fr.opensagres.xdocreport.document.textstyling.IDocumentHandler;
+import fr.opensagres.xdocreport.document.textstyling.ITextStylingTransformer;
+import fr.opensagres.xdocreport.document.textstyling.html.HTMLTextStylingTransformer;
+import fr.opensagres.xdocreport.document.textstyling.wiki.gwiki.GWikiTextStylingTransformer;
+import fr.opensagres.xdocreport.template.IContext;
+
+/**
+ * Transforms a styled text (paragraphs, bold, italic, lists and a link) with the HTML and the Google Wiki syntax to
+ * DOCX and ODT, as it is done for each field declared with a syntax kind when a report is merged.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.MICROSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class TextStylingBenchmark
+{
+
+    private static final int PARAGRAPHS = 20;
+
+    @Param( { "Html", "GWiki" } )
+    private String syntax;
+
+    @Param( { "DOCX", "ODT" } )
+    private String documentKind;
+
+    private ITextStylingTransformer transformer;
+
+    private String content;
+
+    @Setup
+    public void setup()
+    {
+        StringBuilder text = new StringBuilder();
+        if ( "Html".equals( syntax ) )
+        {
+            transformer = HTMLTextStylingTransformer.INSTANCE;
+            for ( int i = 0; i < PARAGRAPHS; i++ )
+            {
+                text.append( "<p>Paragraph " ).append( i ).append( " with <strong>bold</strong>, <em>italic</em> " );
+                text.append( "and a <a href=\"http://code.google.com/p/xdocreport\">link</a>.</p>" );
+                text.append( "<ul><li>first item</li><li>second item</li></ul>" );
+            }
+        }
+        else
+        {
+            transformer = GWikiTextStylingTransformer.INSTANCE;
+            for ( int i = 0; i < PARAGRAPHS; i++ )
+            {
+                text.append( "Paragraph " ).append( i ).append( " with *bold*, _italic_ " );
+                text.append( "and a [http://code.google.com/p/xdocreport link].\n\n" );
+                text.append( " * first item\n * second item\n\n" );
+            }
+        }
+        content = text.toString();
+    }
+
+    @Benchmark
+    public String transform()
+        throws Exception
+    {
+        IDocumentHandler handler = createDocumentHandler( new BenchmarkContext() );
+        transformer.transform( content, handler );
+        return handler.getTextBody();
+    }
+
+    private IDocumentHandler createDocumentHandler( IContext context )
+    {
+        if ( "ODT".equals( documentKind ) )
+        {
+            return new ODTDocumentHandler( null, context, "content.xml" );
+        }
+        return new DocxDocumentHandler( null, context, "word/document.xml" );
+    }
+
+    private static class BenchmarkContext
+        implements IContext
+    {
+
+        private final Map<String, Object> contextMap = new HashMap<String, Object>();
+
+        public Object put( String key, Object value )
+        {
+            return contextMap.put( key, value );
+        }
+
+        public Object get( String key )
+        {
+            return contextMap.get( key );
+        }
+
+        public void putMap( Map<String, Object> contextMap )
+        {
+            this.contextMap.putAll( contextMap );
+        }
+
+        public Map<String, Object> getContextMap()
+        {
+            return contextMap;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.benchmarks.xwpf;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.apache.poi.xwpf.usermodel.XWPFTableCell;
+import org.apache.poi.xwpf.usermodel.XWPFTableRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import fr.opensagres.poi.xwpf.converter.core.styles.XWPFStylesDocument;
+
+/**
+ * Resolves the run and paragraph properties of each run of a large docx with {@link XWPFStylesDocument}, as the PDF
+ * and XHTML converters do. Scores are given per run. To see the allocations per run, use the GC profiler and compare
+ * the gc.alloc.rate.norm value:
+ *
+ * <pre>
+ * mvn package -Pbenchmarks
+ * java -jar benchmarks/target/benchmarks.jar StyleValueLookupBenchmark -prof gc
+ * </pre>
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.AverageTime )
+@OutputTimeUnit( TimeUnit.NANOSECONDS )
+@Warmup( iterations = 5, time = 1 )
+@Measurement( iterations = 5, time = 1 )
+@Fork( 1 )
+public class StyleValueLookupBenchmark
+{
+
+    private XWPFDocument document;
+
+    private List<XWPFRun> runs;
+
+    private XWPFStylesDocument stylesDocument;
+
+    @Setup
+    public void setup()
+        throws Exception
+    {
+        document = SyntheticDocx.load( SyntheticDocx.create() );
+        runs = new ArrayList<XWPFRun>( SyntheticDocx.RUNS );
+        for ( XWPFParagraph paragraph : document.getParagraphs() )
+        {
+            runs.addAll( paragraph.getRuns() );
+        }
+        for ( XWPFTable table : document.getTables() )
+        {
+            for ( XWPFTableRow row : table.getRows() )
+            {
+                for ( XWPFTableCell cell : row.getTableCells() )
+                {
+                    for ( XWPFParagraph paragraph : cell.getParagraphs() )
+                    {
+                        runs.addAll( paragraph.getRuns() );
+                    }
+                }
+            }
+        }
+        if ( runs.size() != SyntheticDocx.RUNS )
+        {
+            throw new IllegalStateException( "Expected " + SyntheticDocx.RUNS + " runs but found " + runs.size() );
+        }
+        stylesDocument = new XWPFStylesDocument( document );
+    }
+
+    /**
+     * Lookup with a styles document whose cache is already filled (steady state of a conversion).
+     */
+    @Benchmark
+    @OperationsPerInvocation( SyntheticDocx.RUNS )
+    public void cachedLookup( Blackhole blackhole )
+    {
+        resolveRuns( stylesDocument, blackhole );
+    }
+
+    /**
+     * Lookup with a new styles document (one conversion of the docx).
+     */
+    @Benchmark
+    @OperationsPerInvocation( SyntheticDocx.RUNS )
+    public void newStylesDocument( Blackhole blackhole )
+        throws Exception
+    {
+        resolveRuns( new XWPFStylesDocument( document ), blackhole );
+    }
+
+    private void resolveRuns( XWPFStylesDocument stylesDocument, Blackhole blackhole )
+    {
+        for ( XWPFRun run : runs )
+        {
+            blackhole.consume( stylesDocument.getFontFamilyAscii( run ) );
+            blackhole.consume( stylesDocument.getFontSize( run ) );
+            blackhole.consume( stylesDocument.getFontStyleBold( run ) );
+            blackhole.consume( stylesDocument.getFontStyleItalic( run ) );
+            blackhole.consume( stylesDocument.getFontColor( run ) );
+            blackhole.consume( stylesDocument.getUnderline( run ) );
+
+            XWPFParagraph paragraph = (XWPFParagraph) run.getParent();
+            blackhole.consume( stylesDocument.getSpacingAfter( paragraph ) );
+            blackhole.consume( stylesDocument.getIndentationLeft( paragraph ) );
+            blackhole.consume( stylesDocument.getParagraphAlignment( paragraph ) );
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.benchmarks.xwpf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.apache.poi.xwpf.usermodel.XWPFTableCell;
+import org.apache.xmlbeans.XmlException;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.StylesDocument;
+
+/**
+ * Generates in memory a large docx which uses paragraph styles with basedOn chains, character styles and a styled
+ * table, so that benchmarks don't depend on files which are not shipped with the sources.
+ */
+public class SyntheticDocx
+{
+
+    public static final int PARAGRAPHS = 2000;
+
+    public static final int RUNS_PER_PARAGRAPH = 4;
+
+    public static final int TABLE_ROWS = 50;
+
+    public static final int TABLE_COLUMNS = 4;
+
+    /**
+     * Total number of runs of the generated docx (one run per table cell).
+     */
+    public static final int RUNS = PARAGRAPHS * RUNS_PER_PARAGRAPH + TABLE_ROWS * TABLE_COLUMNS;
+
+    private static final String W_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+
+    private static final int PARAGRAPH_STYLES = 5;
+
+    /**
+     * Returns the bytes of a docx generated with {@link #PARAGRAPHS} paragraphs and a table of {@link #TABLE_ROWS} x
+     * {@link #TABLE_COLUMNS} cells.
+     */
+    public static byte[] create()
+        throws IOException, XmlException
+    {
+        XWPFDocument document = new XWPFDocument();
+        document.createStyles().setStyles( StylesDocument.Factory.parse( createStyles() ).getStyles() );
+
+        for ( int i = 0; i < PARAGRAPHS; i++ )
+        {
+            XWPFParagraph paragraph = document.createParagraph();
+            paragraph.setStyle( "Level" + ( i % PARAGRAPH_STYLES + 1 ) );
+            for ( int j = 0; j < RUNS_PER_PARAGRAPH; j++ )
+            {
+                XWPFRun run = paragraph.createRun();
+                run.setText( "Paragraph " + i + " run " + j + " " );
+                if ( j % 2 == 1 )
+                {
+                    run.getCTR().addNewRPr().addNewRStyle().setVal( j % 4 == 1 ? "Strong" : "Emphasis" );
+                }
+            }
+        }
+
+        XWPFTable table = document.createTable( TABLE_ROWS, TABLE_COLUMNS );
+        table.setStyleID( "Grid" );
+        for ( int row = 0; row < TABLE_ROWS; row++ )
+        {
+            for ( int column = 0; column < TABLE_COLUMNS; column++ )
+            {
+                XWPFTableCell cell = table.getRow( row ).getCell( column );
+                cell.getParagraphs().get( 0 ).createRun().setText( "Cell " + row + "x" + column );
+            }
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        document.write( out );
+        document.close();
+        return out.toByteArray();
+    }
+
+    /**
+     * Load the given docx bytes with Apache POI.
+     */
+    public static XWPFDocument load( byte[] docx )
+        throws IOException
+    {
+        return new XWPFDocument( new ByteArrayInputStream( docx ) );
+    }
+
+    private static String createStyles()
+    {
+        StringBuilder styles = new StringBuilder();
+        styles.append( "<w:styles xmlns:w=\"" ).append( W_NS ).append( "\">" );
+        styles.append( "<w:docDefaults><w:rPrDefault><w:rPr><w:rFonts w:ascii=\"Calibri\" w:hAnsi=\"Calibri\"/>" );
+        styles.append( "<w:sz w:val=\"22\"/></w:rPr></w:rPrDefault>" );
+        styles.append( "<w:pPrDefault><w:pPr><w:spacing w:after=\"200\"/></w:pPr></w:pPrDefault></w:docDefaults>" );
+        styles.append( "<w:style w:type=\"paragraph\" w:default=\"1\" w:styleId=\"Normal\"><w:name w:val=\"Normal\"/>" );
+        styles.append( "</w:style>" );
+        // Level1 basedOn Normal, Level2 basedOn Level1, etc
+        String basedOn = "Normal";
+        for ( int i = 1; i <= PARAGRAPH_STYLES; i++ )
+        {
+            String styleId = "Level" + i;
+            styles.append( "<w:style w:type=\"paragraph\" w:styleId=\"" ).append( styleId ).append( "\">" );
+            styles.append( "<w:name w:val=\"" ).append( styleId ).append( "\"/>" );
+            styles.append( "<w:basedOn w:val=\"" ).append( basedOn ).append( "\"/>" );
+            styles.append( "<w:pPr><w:ind w:left=\"" ).append( i * 120 ).append( "\"/></w:pPr>" );
+            styles.append( "<w:rPr>" );
+            if ( i % 2 == 0 )
+            {
+                styles.append( "<w:i/>" );
+            }
+            styles.append( "<w:color w:val=\"00000" ).append( i ).append( "\"/>" );
+            styles.append( "</w:rPr></w:style>" );
+            basedOn = styleId;
+        }
+        styles.append( "<w:style w:type=\"character\" w:styleId=\"Emphasis\"><w:name w:val=\"Emphasis\"/>" );
+        styles.append( "<w:rPr><w:i/><w:u w:val=\"single\"/></w:rPr></w:style>" );
+        styles.append( "<w:style w:type=\"character\" w:styleId=\"Strong\"><w:name w:val=\"Strong\"/>" );
+        styles.append( "<w:basedOn w:val=\"Emphasis\"/><w:rPr><w:b/></w:rPr></w:style>" );
+        styles.append( "<w:style w:type=\"table\" w:styleId=\"Grid\"><w:name w:val=\"Grid\"/>" );
+        styles.append( "<w:tblPr><w:tblBorders><w:top w:val=\"single\" w:sz=\"4\"/></w:tblBorders></w:tblPr>" );
+        styles.append( "<w:tblStylePr w:type=\"firstRow\"><w:rPr><w:b/></w:rPr></w:tblStylePr>" );
+        styles.append( "<w:tblStylePr w:type=\"lastCol\"><w:rPr><w:i/></w:rPr></w:tblStylePr>" );
+        styles.append( "</w:style>" );
+        styles.append( "</w:styles>" );
+        return styles.toString();
+    }
+}
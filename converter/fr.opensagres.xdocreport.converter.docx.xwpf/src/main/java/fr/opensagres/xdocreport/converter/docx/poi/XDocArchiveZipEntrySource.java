@@ -0,0 +1,111 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.converter.docx.poi;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.util.ZipEntrySource;
+
+import fr.opensagres.xdocreport.core.io.XDocArchive;
+
+/**
+ * POI {@link ZipEntrySource} which reads the entries of a {@link XDocArchive}. It gives the capability to open an
+ * {@link OPCPackage} (see {@link OPCPackage#open(ZipEntrySource)}) from the entries which are stored in memory without
+ * writing them in a zip.
+ */
+public class XDocArchiveZipEntrySource
+    implements ZipEntrySource
+{
+
+    private final XDocArchive archive;
+
+    private final Map<String, ZipArchiveEntry> entries;
+
+    private boolean closed;
+
+    public XDocArchiveZipEntrySource( XDocArchive archive )
+    {
+        this.archive = archive;
+        this.entries = new LinkedHashMap<String, ZipArchiveEntry>();
+        for ( String entryName : archive.getEntryNames() )
+        {
+            ZipArchiveEntry entry = new ZipArchiveEntry( entryName );
+            InputStream entryInputStream = archive.getEntryInputStream( entryName );
+            if ( entryInputStream != null )
+            {
+                try
+                {
+                    // the entry input stream is a ByteArrayInputStream, available() returns the size of the entry.
+                    entry.setSize( entryInputStream.available() );
+                }
+                catch ( IOException e )
+                {
+                    // size is unknown
+                }
+            }
+            entries.put( entryName, entry );
+        }
+        this.closed = false;
+    }
+
+    public Enumeration<? extends ZipArchiveEntry> getEntries()
+    {
+        return Collections.enumeration( entries.values() );
+    }
+
+    public ZipArchiveEntry getEntry( String path )
+    {
+        return entries.get( path );
+    }
+
+    public InputStream getInputStream( ZipArchiveEntry entry )
+        throws IOException
+    {
+        InputStream entryInputStream = archive.getEntryInputStream( entry.getName() );
+        if ( entryInputStream == null )
+        {
+            throw new IOException( "Cannot find entry name=" + entry.getName() + " in the document archive." );
+        }
+        return entryInputStream;
+    }
+
+    public void close()
+        throws IOException
+    {
+        closed = true;
+    }
+
+    public boolean isClosed()
+    {
+        return closed;
+    }
+}
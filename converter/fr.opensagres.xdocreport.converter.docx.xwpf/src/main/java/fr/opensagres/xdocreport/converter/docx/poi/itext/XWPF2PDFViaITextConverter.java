@@ -28,8 +28,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.logging.Logger;
 
+import org.apache.poi.openxml4j.opc.OPCPackage;
 import org.apache.poi.xwpf.usermodel.XWPFDocument;
 
+import fr.opensagres.poi.xwpf.converter.core.IConverterListener;
 import fr.opensagres.poi.xwpf.converter.pdf.PdfConverter;
 import fr.opensagres.poi.xwpf.converter.pdf.PdfOptions;
 import fr.opensagres.xdocreport.converter.MimeMapping;
@@ -37,12 +39,23 @@ import fr.opensagres.xdocreport.converter.MimeMappingConstants;
 import fr.opensagres.xdocreport.converter.Options;
 import fr.opensagres.xdocreport.converter.OptionsHelper;
 import fr.opensagres.xdocreport.converter.XDocConverterException;
-import fr.opensagres.xdocreport.converter.internal.AbstractConverterNoEntriesSupport;
+import fr.opensagres.xdocreport.converter.docx.poi.XDocArchiveZipEntrySource;
+import fr.opensagres.xdocreport.converter.internal.AbstractConverterEntriesSupport;
+import fr.opensagres.xdocreport.core.io.IEntryInputStreamProvider;
+import fr.opensagres.xdocreport.core.io.XDocArchive;
 import fr.opensagres.xdocreport.core.logging.LogUtils;
+import fr.opensagres.xdocreport.core.metrics.IReportMetrics;
+import fr.opensagres.xdocreport.core.metrics.ReportMetricsRegistry;
+import fr.opensagres.xdocreport.core.metrics.ReportPhase;
 import fr.opensagres.xdocreport.core.utils.StringUtils;
 
+/**
+ * Converter DOCX to PDF with POI XWPF and iText. When the document to convert is a {@link XDocArchive} (ex : report
+ * merged with a template engine), the {@link XWPFDocument} is loaded from the entries of the archive instead of
+ * zipping the archive to unzip it with POI.
+ */
 public class XWPF2PDFViaITextConverter
-    extends AbstractConverterNoEntriesSupport
+    extends AbstractConverterEntriesSupport
 {
 
     private static final XWPF2PDFViaITextConverter INSTANCE = new XWPF2PDFViaITextConverter();
@@ -52,6 +65,20 @@ public class XWPF2PDFViaITextConverter
      */
     private static final Logger LOGGER = LogUtils.getLogger( XWPF2PDFViaITextConverter.class.getName() );
 
+    /**
+     * Reports the load of the styles by the PDF converter with the {@link ReportPhase#CONVERT_STYLES} phase.
+     */
+    private final IConverterListener stylesListener = new IConverterListener()
+    {
+        public void stylesLoaded( long duration )
+        {
+            XWPF2PDFViaITextConverter converter = XWPF2PDFViaITextConverter.this;
+            ReportMetricsRegistry.getRegistry().getMetrics().onPhase( ReportPhase.CONVERT_STYLES,
+                                                                      converter.getClass().getName(), converter,
+                                                                      duration );
+        }
+    };
+
     public static XWPF2PDFViaITextConverter getInstance()
     {
         return INSTANCE;
@@ -63,8 +90,11 @@ public class XWPF2PDFViaITextConverter
 
         try
         {
+            IReportMetrics metrics = ReportMetricsRegistry.getRegistry().getMetrics();
+            long startTime = System.nanoTime();
             XWPFDocument document = new XWPFDocument( in );
-            PdfConverter.getInstance().convert( document, out, toPdfOptions( options ) );
+            metrics.onPhase( ReportPhase.CONVERT_LOAD, getClass().getName(), this, System.nanoTime() - startTime );
+            convert( document, out, options, metrics );
         }
         catch ( Exception e )
         {
@@ -73,6 +103,59 @@ public class XWPF2PDFViaITextConverter
         }
     }
 
+    // @Override
+    public void convert( IEntryInputStreamProvider inProvider, OutputStream out, Options options )
+        throws XDocConverterException
+    {
+        if ( !( inProvider instanceof XDocArchive ) )
+        {
+            // the entries of the provider cannot be listed to rebuild the zipped document.
+            throw new XDocConverterException( "An XDocArchive is required to convert the entries with "
+                + getClass().getName() + " (entries provided by "
+                + ( inProvider != null ? inProvider.getClass().getName() : null ) + ")." );
+        }
+        try
+        {
+            IReportMetrics metrics = ReportMetricsRegistry.getRegistry().getMetrics();
+            long startTime = System.nanoTime();
+            OPCPackage pkg = OPCPackage.open( new XDocArchiveZipEntrySource( (XDocArchive) inProvider ) );
+            XWPFDocument document = new XWPFDocument( pkg );
+            metrics.onPhase( ReportPhase.CONVERT_LOAD, getClass().getName(), this, System.nanoTime() - startTime );
+            convert( document, out, options, metrics );
+        }
+        catch ( Exception e )
+        {
+            LOGGER.severe( e.getMessage() );
+            throw new XDocConverterException( e );
+        }
+    }
+
+    private void convert( XWPFDocument document, OutputStream out, Options options, IReportMetrics metrics )
+        throws Exception
+    {
+        long startTime = System.nanoTime();
+        PdfConverter.getInstance().convert( document, out, getPdfOptions( options ) );
+        metrics.onPhase( ReportPhase.CONVERT_WRITE, getClass().getName(), this, System.nanoTime() - startTime );
+    }
+
+    /**
+     * Returns the PDF options (the default options if there is no option) with the listener which reports the load of
+     * the styles to the report metrics, unless the options already have a listener.
+     */
+    private PdfOptions getPdfOptions( Options options )
+    {
+        PdfOptions pdfOptions = toPdfOptions( options );
+        if ( pdfOptions == null )
+        {
+            pdfOptions = PdfOptions.create();
+        }
+        if ( pdfOptions.getConverterListener() == null )
+        {
+            pdfOptions.setConverterListener( stylesListener );
+        }
+        return pdfOptions;
+    }
+
     public PdfOptions toPdfOptions( Options options )
     {
         if ( options == null )
@@ -40,6 +40,9 @@ import fr.opensagres.xdocreport.converter.OptionsHelper;
 import fr.opensagres.xdocreport.converter.XDocConverterException;
 import fr.opensagres.xdocreport.converter.internal.AbstractConverterNoEntriesSupport;
 import fr.opensagres.xdocreport.core.logging.LogUtils;
+import fr.opensagres.xdocreport.core.metrics.IReportMetrics;
+import fr.opensagres.xdocreport.core.metrics.ReportMetricsRegistry;
+import fr.opensagres.xdocreport.core.metrics.ReportPhase;
 
 public class XWPF2XHTMLConverter
     extends AbstractConverterNoEntriesSupport
@@ -63,8 +66,13 @@ public class XWPF2XHTMLConverter
     {
         try
         {
+            IReportMetrics metrics = ReportMetricsRegistry.getRegistry().getMetrics();
+            long startTime = System.nanoTime();
             XWPFDocument document = new XWPFDocument( in );
+            metrics.onPhase( ReportPhase.CONVERT_LOAD, getClass().getName(), this, System.nanoTime() - startTime );
+            startTime = System.nanoTime();
             XHTMLConverter.getInstance().convert( document, out, toXHTMLOptions( options ) );
+            metrics.onPhase( ReportPhase.CONVERT_WRITE, getClass().getName(), this, System.nanoTime() - startTime );
         }
         catch ( Exception e )
         {
@@ -0,0 +1,103 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.converter.docx.poi;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.lowagie.text.pdf.PdfReader;
+
+import fr.opensagres.xdocreport.converter.Options;
+import fr.opensagres.xdocreport.converter.docx.poi.itext.XWPF2PDFViaITextConverter;
+import fr.opensagres.xdocreport.core.io.XDocArchive;
+
+public class XDocArchiveZipEntrySourceTestCase
+{
+
+    private static final String DOCX = "DocxStructures.docx";
+
+    @Test
+    public void testOpenPackage()
+        throws Exception
+    {
+        XDocArchive archive = XDocArchive.readZip( XDocArchiveZipEntrySourceTestCase.class.getResourceAsStream( "/" + DOCX ) );
+        XDocArchiveZipEntrySource source = new XDocArchiveZipEntrySource( archive );
+        XWPFDocument document = new XWPFDocument( OPCPackage.open( source ) );
+
+        // the document loaded from the archive entries is the same as the document loaded from the zip.
+        XWPFDocument expected = new XWPFDocument( XDocArchiveZipEntrySourceTestCase.class.getResourceAsStream( "/" + DOCX ) );
+        Assert.assertEquals( getText( expected ), getText( document ) );
+        Assert.assertEquals( expected.getAllPictures().size(), document.getAllPictures().size() );
+
+        // the archive is not modified and can be read again.
+        Assert.assertNotNull( archive.getEntryInputStream( "word/document.xml" ) );
+        source.close();
+        Assert.assertTrue( source.isClosed() );
+    }
+
+    @Test
+    public void testConvertArchive()
+        throws Exception
+    {
+        XDocArchive archive = XDocArchive.readZip( XDocArchiveZipEntrySourceTestCase.class.getResourceAsStream( "/" + DOCX ) );
+
+        // XDocArchive is converted with the XDocArchiveZipEntrySource
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XWPF2PDFViaITextConverter.getInstance().convert( archive, out, Options.getFrom( "DOCX" ).to( "PDF" ) );
+
+        // the zipped document is converted with the POI zip
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        XWPF2PDFViaITextConverter.getInstance().convert( XDocArchiveZipEntrySourceTestCase.class.getResourceAsStream( "/"
+                                                             + DOCX ), expected, Options.getFrom( "DOCX" ).to( "PDF" ) );
+
+        Assert.assertTrue( new String( out.toByteArray(), 0, 5, "ISO-8859-1" ).startsWith( "%PDF" ) );
+        Assert.assertEquals( getPageCount( expected.toByteArray() ), getPageCount( out.toByteArray() ) );
+    }
+
+    private static String getText( XWPFDocument document )
+    {
+        StringBuilder text = new StringBuilder();
+        List<XWPFParagraph> paragraphs = document.getParagraphs();
+        for ( XWPFParagraph paragraph : paragraphs )
+        {
+            text.append( paragraph.getText() );
+            text.append( '\n' );
+        }
+        return text.toString();
+    }
+
+    private static int getPageCount( byte[] pdf )
+        throws IOException
+    {
+        return new PdfReader( pdf ).getNumberOfPages();
+    }
+}
@@ -30,6 +30,7 @@ import java.io.OutputStream;
 
 import org.odftoolkit.odfdom.doc.OdfTextDocument;
 
+import fr.opensagres.odfdom.converter.core.IConverterListener;
 import fr.opensagres.odfdom.converter.core.ODFConverterException;
 import fr.opensagres.odfdom.converter.pdf.PdfConverter;
 import fr.opensagres.odfdom.converter.pdf.PdfOptions;
@@ -38,16 +39,40 @@ import fr.opensagres.xdocreport.converter.MimeMappingConstants;
 import fr.opensagres.xdocreport.converter.Options;
 import fr.opensagres.xdocreport.converter.OptionsHelper;
 import fr.opensagres.xdocreport.converter.XDocConverterException;
-import fr.opensagres.xdocreport.converter.internal.AbstractConverterNoEntriesSupport;
+import fr.opensagres.xdocreport.converter.internal.AbstractConverterEntriesSupport;
+import fr.opensagres.xdocreport.core.io.IEntryInputStreamProvider;
+import fr.opensagres.xdocreport.core.io.XDocArchive;
+import fr.opensagres.xdocreport.core.metrics.IReportMetrics;
+import fr.opensagres.xdocreport.core.metrics.ReportMetricsRegistry;
+import fr.opensagres.xdocreport.core.metrics.ReportPhase;
 import fr.opensagres.xdocreport.core.utils.StringUtils;
 
+/**
+ * Converter ODT to PDF with ODFDOM and iText. ODFDOM can load a document only from a zip, so when the document to
+ * convert is a {@link XDocArchive} (ex : report merged with a template engine), the entries are stored in the zip
+ * without compression to avoid to deflate them and to inflate them again.
+ */
 public class ODF2PDFViaITextConverter
-    extends AbstractConverterNoEntriesSupport
+    extends AbstractConverterEntriesSupport
     implements MimeMappingConstants
 {
 
     private static final ODF2PDFViaITextConverter INSTANCE = new ODF2PDFViaITextConverter();
 
+    /**
+     * Reports the load of the styles by the PDF converter with the {@link ReportPhase#CONVERT_STYLES} phase.
+     */
+    private final IConverterListener stylesListener = new IConverterListener()
+    {
+        public void stylesLoaded( long duration )
+        {
+            ODF2PDFViaITextConverter converter = ODF2PDFViaITextConverter.this;
+            ReportMetricsRegistry.getRegistry().getMetrics().onPhase( ReportPhase.CONVERT_STYLES,
+                                                                      converter.getClass().getName(), converter,
+                                                                      duration );
+        }
+    };
+
     public static ODF2PDFViaITextConverter getInstance()
     {
         return INSTANCE;
@@ -58,8 +83,13 @@ public class ODF2PDFViaITextConverter
     {
         try
         {
+            IReportMetrics metrics = ReportMetricsRegistry.getRegistry().getMetrics();
+            long startTime = System.nanoTime();
             OdfTextDocument odfDocument = OdfTextDocument.loadDocument( in );
-            PdfConverter.getInstance().convert( odfDocument, out, toPdfOptions( options ) );
+            metrics.onPhase( ReportPhase.CONVERT_LOAD, getClass().getName(), this, System.nanoTime() - startTime );
+            startTime = System.nanoTime();
+            PdfConverter.getInstance().convert( odfDocument, out, getPdfOptions( options ) );
+            metrics.onPhase( ReportPhase.CONVERT_WRITE, getClass().getName(), this, System.nanoTime() - startTime );
         }
         catch ( ODFConverterException e )
         {
@@ -75,6 +105,45 @@ public class ODF2PDFViaITextConverter
         }
     }
 
+    // @Override
+    public void convert( IEntryInputStreamProvider inProvider, OutputStream out, Options options )
+        throws XDocConverterException
+    {
+        if ( !( inProvider instanceof XDocArchive ) )
+        {
+            // the entries of the provider cannot be listed to rebuild the zipped document.
+            throw new XDocConverterException( "An XDocArchive is required to convert the entries with "
+                + getClass().getName() + " (entries provided by "
+                + ( inProvider != null ? inProvider.getClass().getName() : null ) + ")." );
+        }
+        try
+        {
+            convert( XDocArchive.getInputStream( (XDocArchive) inProvider, false ), out, options );
+        }
+        catch ( IOException e )
+        {
+            throw new XDocConverterException( e );
+        }
+    }
+
+    /**
+     * Returns the PDF options (the default options if there is no option) with the listener which reports the load of
+     * the styles to the report metrics, unless the options already have a listener.
+     */
+    private PdfOptions getPdfOptions( Options options )
+    {
+        PdfOptions pdfOptions = toPdfOptions( options );
+        if ( pdfOptions == null )
+        {
+            pdfOptions = PdfOptions.create();
+        }
+        if ( pdfOptions.getConverterListener() == null )
+        {
+            pdfOptions.setConverterListener( stylesListener );
+        }
+        return pdfOptions;
+    }
+
     public PdfOptions toPdfOptions( Options options )
     {
         if ( options == null )
@@ -39,6 +39,9 @@ import fr.opensagres.xdocreport.converter.Options;
 import fr.opensagres.xdocreport.converter.OptionsHelper;
 import fr.opensagres.xdocreport.converter.XDocConverterException;
 import fr.opensagres.xdocreport.converter.internal.AbstractConverterNoEntriesSupport;
+import fr.opensagres.xdocreport.core.metrics.IReportMetrics;
+import fr.opensagres.xdocreport.core.metrics.ReportMetricsRegistry;
+import fr.opensagres.xdocreport.core.metrics.ReportPhase;
 
 public class ODF2XHTMLConverter
     extends AbstractConverterNoEntriesSupport
@@ -57,9 +60,14 @@ public class ODF2XHTMLConverter
     {
         try
         {
+            IReportMetrics metrics = ReportMetricsRegistry.getRegistry().getMetrics();
+            long startTime = System.nanoTime();
             OdfTextDocument odfDocument = OdfTextDocument.loadDocument( in );
+            metrics.onPhase( ReportPhase.CONVERT_LOAD, getClass().getName(), this, System.nanoTime() - startTime );
+            startTime = System.nanoTime();
             fr.opensagres.odfdom.converter.xhtml.XHTMLConverter.getInstance().convert( odfDocument, out,
                                                                                         toXHTMLOptions( options ) );
+            metrics.onPhase( ReportPhase.CONVERT_WRITE, getClass().getName(), this, System.nanoTime() - startTime );
         }
         catch ( ODFConverterException e )
         {
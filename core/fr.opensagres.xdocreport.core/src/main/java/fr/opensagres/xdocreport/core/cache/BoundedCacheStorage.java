@@ -0,0 +1,643 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.core.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe {@link ICacheStorage} implementation which can be bounded by number of entries and by weight (see
+ * {@link ICacheWeigher}) and which supports expiration of the entries :
+ * <ul>
+ * <li>time to live : entry expires when the given time elapsed since its creation.</li>
+ * <li>time to idle : entry expires when the given time elapsed since its last access.</li>
+ * </ul>
+ * When the cache is full, entries are evicted with the {@link CacheEvictionPolicy} in constant time : the entries are
+ * kept in an access-ordered list for LRU and in buckets of same access count for LFU. Lookups are lock-free,
+ * {@link #get(Object)} takes the write lock only to move the entry in those lists, the other writes are synchronized.
+ * Expired entries are removed when they are read, when they are selected to be evicted, or with {@link #cleanUp()}.
+ * <p>
+ * By default, the cache is not bounded and entries never expire.
+ * </p>
+ * 
+ * @param <K>
+ * @param <V>
+ */
+public class BoundedCacheStorage<K, V>
+    implements ICacheStorage<K, V>
+{
+
+    private final ConcurrentMap<K, CacheEntry<K, V>> map = new ConcurrentHashMap<K, CacheEntry<K, V>>();
+
+    private final Object writeLock = new Object();
+
+    /**
+     * Entries from the least to the most recently used (guarded by writeLock).
+     */
+    private final LinkedHashMap<K, CacheEntry<K, V>> recencyOrder =
+        new LinkedHashMap<K, CacheEntry<K, V>>( 16, 0.75f, true );
+
+    /**
+     * Bucket of the entries with the lowest access count, the buckets are linked by increasing access count (guarded
+     * by writeLock).
+     */
+    private FrequencyBucket<K> lowestFrequency;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    private final AtomicLong expirationCount = new AtomicLong();
+
+    private volatile int maxEntries;
+
+    private volatile long maxWeight;
+
+    private volatile long timeToLive;
+
+    private volatile long timeToIdle;
+
+    private volatile CacheEvictionPolicy evictionPolicy = CacheEvictionPolicy.LRU;
+
+    private volatile ICacheWeigher<K, V> weigher;
+
+    /**
+     * Total weight of the entries (guarded by writeLock).
+     */
+    private long totalWeight;
+
+    public V get( K key )
+    {
+        CacheEntry<K, V> entry = map.get( key );
+        if ( entry == null )
+        {
+            missCount.incrementAndGet();
+            return null;
+        }
+        long now = currentTimeMillis();
+        if ( isExpired( entry, now ) )
+        {
+            expire( key, entry );
+            missCount.incrementAndGet();
+            return null;
+        }
+        entry.lastAccessTime = now;
+        synchronized ( writeLock )
+        {
+            // the entry can have been removed since the lookup
+            if ( map.get( key ) == entry )
+            {
+                touch( key, entry );
+            }
+        }
+        hitCount.incrementAndGet();
+        return entry.value;
+    }
+
+    public void put( K key, V value )
+    {
+        long now = currentTimeMillis();
+        ICacheWeigher<K, V> weigher = this.weigher;
+        long weight = weigher != null ? weigher.weigh( key, value ) : 0;
+        CacheEntry<K, V> entry = new CacheEntry<K, V>( value, weight, now );
+        synchronized ( writeLock )
+        {
+            CacheEntry<K, V> oldEntry = map.put( key, entry );
+            if ( oldEntry != null )
+            {
+                unlink( key, oldEntry );
+                totalWeight -= oldEntry.weight;
+            }
+            link( key, entry );
+            totalWeight += weight;
+            evictIfNeeded( key, now );
+        }
+    }
+
+    public void remove( K key )
+    {
+        synchronized ( writeLock )
+        {
+            CacheEntry<K, V> entry = map.remove( key );
+            if ( entry != null )
+            {
+                unlink( key, entry );
+                totalWeight -= entry.weight;
+            }
+        }
+    }
+
+    public void clear()
+    {
+        synchronized ( writeLock )
+        {
+            map.clear();
+            recencyOrder.clear();
+            lowestFrequency = null;
+            totalWeight = 0;
+        }
+    }
+
+    public boolean containsKey( K key )
+    {
+        CacheEntry<K, V> entry = map.get( key );
+        if ( entry == null )
+        {
+            return false;
+        }
+        if ( isExpired( entry, currentTimeMillis() ) )
+        {
+            expire( key, entry );
+            return false;
+        }
+        return true;
+    }
+
+    public Collection<V> values()
+    {
+        long now = currentTimeMillis();
+        Collection<V> values = new ArrayList<V>( map.size() );
+        for ( Map.Entry<K, CacheEntry<K, V>> entry : map.entrySet() )
+        {
+            CacheEntry<K, V> cacheEntry = entry.getValue();
+            if ( isExpired( cacheEntry, now ) )
+            {
+                expire( entry.getKey(), cacheEntry );
+            }
+            else
+            {
+                values.add( cacheEntry.value );
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Remove the expired entries.
+     */
+    public void cleanUp()
+    {
+        synchronized ( writeLock )
+        {
+            removeExpiredEntries( currentTimeMillis() );
+        }
+    }
+
+    /**
+     * Returns the number of entries (expired entries which are not removed included).
+     * 
+     * @return
+     */
+    public int size()
+    {
+        return map.size();
+    }
+
+    /**
+     * Returns the total weight of the entries.
+     * 
+     * @return
+     */
+    public long getWeight()
+    {
+        synchronized ( writeLock )
+        {
+            return totalWeight;
+        }
+    }
+
+    /**
+     * Returns the number of {@link #get(Object)} which returned a cached value.
+     * 
+     * @return
+     */
+    public long getHitCount()
+    {
+        return hitCount.get();
+    }
+
+    /**
+     * Returns the number of {@link #get(Object)} which returned null.
+     * 
+     * @return
+     */
+    public long getMissCount()
+    {
+        return missCount.get();
+    }
+
+    /**
+     * Returns the number of entries evicted because the cache was full.
+     * 
+     * @return
+     */
+    public long getEvictionCount()
+    {
+        return evictionCount.get();
+    }
+
+    /**
+     * Returns the number of entries removed because they expired.
+     * 
+     * @return
+     */
+    public long getExpirationCount()
+    {
+        return expirationCount.get();
+    }
+
+    /**
+     * Reset the hit, miss, eviction and expiration counters.
+     */
+    public void resetStatistics()
+    {
+        hitCount.set( 0 );
+        missCount.set( 0 );
+        evictionCount.set( 0 );
+        expirationCount.set( 0 );
+    }
+
+    public int getMaxEntries()
+    {
+        return maxEntries;
+    }
+
+    /**
+     * Set the max number of entries of the cache (0 means no limit).
+     * 
+     * @param maxEntries
+     */
+    public void setMaxEntries( int maxEntries )
+    {
+        this.maxEntries = maxEntries;
+    }
+
+    public long getMaxWeight()
+    {
+        return maxWeight;
+    }
+
+    /**
+     * Set the max total weight of the entries of the cache (0 means no limit). The weight of an entry is computed
+     * with the {@link ICacheWeigher} when the entry is put in the cache. A single entry which is heavier than the max
+     * weight is kept (all the other entries are evicted).
+     * 
+     * @param maxWeight
+     */
+    public void setMaxWeight( long maxWeight )
+    {
+        this.maxWeight = maxWeight;
+    }
+
+    public ICacheWeigher<K, V> getWeigher()
+    {
+        return weigher;
+    }
+
+    /**
+     * Set the weigher used to compute the weight of the entries.
+     * 
+     * @param weigher
+     */
+    public void setWeigher( ICacheWeigher<K, V> weigher )
+    {
+        this.weigher = weigher;
+    }
+
+    public CacheEvictionPolicy getEvictionPolicy()
+    {
+        return evictionPolicy;
+    }
+
+    /**
+     * Set the policy used to evict entries when the cache is full.
+     * 
+     * @param evictionPolicy
+     */
+    public void setEvictionPolicy( CacheEvictionPolicy evictionPolicy )
+    {
+        this.evictionPolicy = evictionPolicy != null ? evictionPolicy : CacheEvictionPolicy.LRU;
+    }
+
+    public long getTimeToLive()
+    {
+        return timeToLive;
+    }
+
+    /**
+     * Set the time (in ms) after which an entry expires since its creation (0 means never).
+     * 
+     * @param timeToLive
+     */
+    public void setTimeToLive( long timeToLive )
+    {
+        this.timeToLive = timeToLive;
+    }
+
+    public long getTimeToIdle()
+    {
+        return timeToIdle;
+    }
+
+    /**
+     * Set the time (in ms) after which an entry expires since its last access (0 means never).
+     * 
+     * @param timeToIdle
+     */
+    public void setTimeToIdle( long timeToIdle )
+    {
+        this.timeToIdle = timeToIdle;
+    }
+
+    /**
+     * Returns the current time in ms.
+     * 
+     * @return
+     */
+    protected long currentTimeMillis()
+    {
+        return System.currentTimeMillis();
+    }
+
+    private boolean isExpired( CacheEntry<K, V> entry, long now )
+    {
+        long timeToLive = this.timeToLive;
+        if ( timeToLive > 0 && now - entry.creationTime >= timeToLive )
+        {
+            return true;
+        }
+        long timeToIdle = this.timeToIdle;
+        return timeToIdle > 0 && now - entry.lastAccessTime >= timeToIdle;
+    }
+
+    private void expire( K key, CacheEntry<K, V> entry )
+    {
+        synchronized ( writeLock )
+        {
+            // remove the entry only if it was not replaced
+            if ( map.remove( key, entry ) )
+            {
+                unlink( key, entry );
+                totalWeight -= entry.weight;
+                expirationCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Evict entries while the cache is full (must be called with writeLock). An evicted entry which has expired is
+     * counted as an expiration.
+     * 
+     * @param addedKey the key of the added entry which must not be evicted.
+     * @param now
+     */
+    private void evictIfNeeded( K addedKey, long now )
+    {
+        while ( isFull() && map.size() > 1 )
+        {
+            K victimKey = selectVictim( addedKey );
+            if ( victimKey == null )
+            {
+                return;
+            }
+            CacheEntry<K, V> victim = map.remove( victimKey );
+            unlink( victimKey, victim );
+            totalWeight -= victim.weight;
+            if ( isExpired( victim, now ) )
+            {
+                expirationCount.incrementAndGet();
+            }
+            else
+            {
+                evictionCount.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean isFull()
+    {
+        int maxEntries = this.maxEntries;
+        if ( maxEntries > 0 && map.size() > maxEntries )
+        {
+            return true;
+        }
+        long maxWeight = this.maxWeight;
+        return maxWeight > 0 && totalWeight > maxWeight;
+    }
+
+    private void removeExpiredEntries( long now )
+    {
+        if ( timeToLive <= 0 && timeToIdle <= 0 )
+        {
+            return;
+        }
+        Iterator<Map.Entry<K, CacheEntry<K, V>>> entries = map.entrySet().iterator();
+        while ( entries.hasNext() )
+        {
+            Map.Entry<K, CacheEntry<K, V>> entry = entries.next();
+            CacheEntry<K, V> cacheEntry = entry.getValue();
+            if ( isExpired( cacheEntry, now ) )
+            {
+                entries.remove();
+                unlink( entry.getKey(), cacheEntry );
+                totalWeight -= cacheEntry.weight;
+                expirationCount.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Returns the least recently used key (LRU) or the least frequently used key, the least recently used first if
+     * several keys have the same access count (LFU). At most 2 keys are visited since only the excluded key is skipped
+     * (must be called with writeLock).
+     * 
+     * @param excludedKey
+     * @return
+     */
+    private K selectVictim( K excludedKey )
+    {
+        if ( evictionPolicy == CacheEvictionPolicy.LFU )
+        {
+            for ( FrequencyBucket<K> bucket = lowestFrequency; bucket != null; bucket = bucket.next )
+            {
+                for ( K key : bucket.keys )
+                {
+                    if ( !key.equals( excludedKey ) )
+                    {
+                        return key;
+                    }
+                }
+            }
+            return null;
+        }
+        for ( K key : recencyOrder.keySet() )
+        {
+            if ( !key.equals( excludedKey ) )
+            {
+                return key;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Add the given new entry as the most recently used, with an access count of 0 (must be called with writeLock).
+     */
+    private void link( K key, CacheEntry<K, V> entry )
+    {
+        recencyOrder.put( key, entry );
+        FrequencyBucket<K> bucket = lowestFrequency;
+        if ( bucket == null || bucket.frequency != 0 )
+        {
+            bucket = new FrequencyBucket<K>( 0 );
+            bucket.next = lowestFrequency;
+            if ( lowestFrequency != null )
+            {
+                lowestFrequency.previous = bucket;
+            }
+            lowestFrequency = bucket;
+        }
+        bucket.keys.add( key );
+        entry.frequency = bucket;
+    }
+
+    /**
+     * Remove the given entry from the eviction lists (must be called with writeLock).
+     */
+    private void unlink( K key, CacheEntry<K, V> entry )
+    {
+        recencyOrder.remove( key );
+        FrequencyBucket<K> bucket = entry.frequency;
+        bucket.keys.remove( key );
+        if ( bucket.keys.isEmpty() )
+        {
+            removeBucket( bucket );
+        }
+        entry.frequency = null;
+    }
+
+    /**
+     * Mark the given entry as the most recently used and move it to the bucket of the next access count (must be
+     * called with writeLock).
+     */
+    private void touch( K key, CacheEntry<K, V> entry )
+    {
+        recencyOrder.get( key );
+        FrequencyBucket<K> bucket = entry.frequency;
+        if ( bucket.frequency == Long.MAX_VALUE )
+        {
+            return;
+        }
+        FrequencyBucket<K> next = bucket.next;
+        if ( next == null || next.frequency != bucket.frequency + 1 )
+        {
+            next = new FrequencyBucket<K>( bucket.frequency + 1 );
+            next.previous = bucket;
+            next.next = bucket.next;
+            if ( bucket.next != null )
+            {
+                bucket.next.previous = next;
+            }
+            bucket.next = next;
+        }
+        bucket.keys.remove( key );
+        next.keys.add( key );
+        entry.frequency = next;
+        if ( bucket.keys.isEmpty() )
+        {
+            removeBucket( bucket );
+        }
+    }
+
+    private void removeBucket( FrequencyBucket<K> bucket )
+    {
+        if ( bucket.previous != null )
+        {
+            bucket.previous.next = bucket.next;
+        }
+        else
+        {
+            lowestFrequency = bucket.next;
+        }
+        if ( bucket.next != null )
+        {
+            bucket.next.previous = bucket.previous;
+        }
+    }
+
+    private static class CacheEntry<K, V>
+    {
+
+        private final V value;
+
+        private final long weight;
+
+        private final long creationTime;
+
+        private volatile long lastAccessTime;
+
+        /**
+         * The bucket of the access count of this entry (guarded by writeLock).
+         */
+        private FrequencyBucket<K> frequency;
+
+        public CacheEntry( V value, long weight, long creationTime )
+        {
+            this.value = value;
+            this.weight = weight;
+            this.creationTime = creationTime;
+            this.lastAccessTime = creationTime;
+        }
+    }
+
+    /**
+     * Keys which have the same access count, from the least to the most recently used.
+     */
+    private static class FrequencyBucket<K>
+    {
+
+        private final long frequency;
+
+        private final LinkedHashSet<K> keys = new LinkedHashSet<K>();
+
+        private FrequencyBucket<K> previous;
+
+        private FrequencyBucket<K> next;
+
+        public FrequencyBucket( long frequency )
+        {
+            this.frequency = frequency;
+        }
+    }
+}
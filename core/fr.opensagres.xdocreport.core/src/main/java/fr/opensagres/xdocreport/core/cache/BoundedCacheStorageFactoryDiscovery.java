@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.core.cache;
+
+import java.util.logging.Logger;
+
+import fr.opensagres.xdocreport.core.logging.LogUtils;
+
+/**
+ * {@link ICacheStorageFactoryDiscovery} which creates {@link BoundedCacheStorage}. The limits of the created caches
+ * can be configured with the system properties :
+ * <ul>
+ * <li>fr.opensagres.xdocreport.core.cache.maxEntries : max number of entries (0 means no limit).</li>
+ * <li>fr.opensagres.xdocreport.core.cache.maxWeight : max total weight of the entries (0 means no limit).</li>
+ * <li>fr.opensagres.xdocreport.core.cache.evictionPolicy : LRU or LFU.</li>
+ * <li>fr.opensagres.xdocreport.core.cache.timeToLive : time to live of the entries in ms (0 means never).</li>
+ * <li>fr.opensagres.xdocreport.core.cache.timeToIdle : time to idle of the entries in ms (0 means never).</li>
+ * </ul>
+ * An invalid value is logged as a warning and the default value is used.
+ */
+public class BoundedCacheStorageFactoryDiscovery
+    implements ICacheStorageFactoryDiscovery
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger LOGGER = LogUtils.getLogger( BoundedCacheStorageFactoryDiscovery.class.getName() );
+
+    public static final String ID = "bounded";
+
+    private static final String PROPERTY_PREFIX = "fr.opensagres.xdocreport.core.cache.";
+
+    public static final String MAX_ENTRIES_PROPERTY = PROPERTY_PREFIX + "maxEntries";
+
+    public static final String MAX_WEIGHT_PROPERTY = PROPERTY_PREFIX + "maxWeight";
+
+    public static final String EVICTION_POLICY_PROPERTY = PROPERTY_PREFIX + "evictionPolicy";
+
+    public static final String TIME_TO_LIVE_PROPERTY = PROPERTY_PREFIX + "timeToLive";
+
+    public static final String TIME_TO_IDLE_PROPERTY = PROPERTY_PREFIX + "timeToIdle";
+
+    public String getId()
+    {
+        return ID;
+    }
+
+    public String getDescription()
+    {
+        return "Thread-safe cache bounded by number of entries and weight with LRU/LFU eviction.";
+    }
+
+    public <K, V> ICacheStorage<K, V> createCache()
+    {
+        BoundedCacheStorage<K, V> cache = new BoundedCacheStorage<K, V>();
+        cache.setMaxEntries( (int) getLong( MAX_ENTRIES_PROPERTY ) );
+        cache.setMaxWeight( getLong( MAX_WEIGHT_PROPERTY ) );
+        cache.setTimeToLive( getLong( TIME_TO_LIVE_PROPERTY ) );
+        cache.setTimeToIdle( getLong( TIME_TO_IDLE_PROPERTY ) );
+        cache.setEvictionPolicy( getEvictionPolicy() );
+        return cache;
+    }
+
+    private static CacheEvictionPolicy getEvictionPolicy()
+    {
+        String value = System.getProperty( EVICTION_POLICY_PROPERTY );
+        if ( value == null || value.trim().length() == 0 )
+        {
+            return CacheEvictionPolicy.LRU;
+        }
+        try
+        {
+            return CacheEvictionPolicy.valueOf( value.trim().toUpperCase() );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            LOGGER.warning( "Invalid value '" + value + "' for the system property " + EVICTION_POLICY_PROPERTY
+                + ", LRU is used." );
+            return CacheEvictionPolicy.LRU;
+        }
+    }
+
+    private static long getLong( String name )
+    {
+        String value = System.getProperty( name );
+        if ( value == null || value.trim().length() == 0 )
+        {
+            return 0;
+        }
+        try
+        {
+            long result = Long.parseLong( value.trim() );
+            if ( result >= 0 && ( !MAX_ENTRIES_PROPERTY.equals( name ) || result <= Integer.MAX_VALUE ) )
+            {
+                return result;
+            }
+        }
+        catch ( NumberFormatException e )
+        {
+            // log below
+        }
+        LOGGER.warning( "Invalid value '" + value + "' for the system property " + name + ", 0 (no limit) is used." );
+        return 0;
+    }
+}
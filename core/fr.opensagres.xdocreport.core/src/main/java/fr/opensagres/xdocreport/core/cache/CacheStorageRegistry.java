@@ -24,21 +24,34 @@
  */
 package fr.opensagres.xdocreport.core.cache;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import fr.opensagres.xdocreport.core.registry.AbstractRegistry;
 
 /**
- * Registry of {@link ICacheStorage}.
+ * Registry of {@link ICacheStorage}. The cache storage is created with the {@link ICacheStorageFactoryDiscovery}
+ * selected with {@link #setCacheStorageFactoryId(String)} (or the system property
+ * fr.opensagres.xdocreport.core.cache.factoryId), by default the thread-safe {@link BoundedCacheStorage} is used.
  */
 public class CacheStorageRegistry
     extends AbstractRegistry<ICacheStorageFactoryDiscovery>
 {
 
+    public static final String CACHE_STORAGE_FACTORY_ID_PROPERTY = "fr.opensagres.xdocreport.core.cache.factoryId";
+
     private static final CacheStorageRegistry INSTANCE = new CacheStorageRegistry();
 
+    private final Map<String, ICacheStorageFactoryDiscovery> factories =
+        new LinkedHashMap<String, ICacheStorageFactoryDiscovery>();
+
+    private String cacheStorageFactoryId;
+
     public CacheStorageRegistry()
     {
         super( ICacheStorageFactoryDiscovery.class );
-
+        this.cacheStorageFactoryId =
+            System.getProperty( CACHE_STORAGE_FACTORY_ID_PROPERTY, BoundedCacheStorageFactoryDiscovery.ID );
     }
 
     public static CacheStorageRegistry getRegistry()
@@ -48,16 +61,44 @@ public class CacheStorageRegistry
 
     protected boolean registerInstance( ICacheStorageFactoryDiscovery instance )
     {
-        return false;
+        factories.put( instance.getId(), instance );
+        return true;
     }
 
     protected void doDispose()
     {
+        factories.clear();
+    }
 
+    /**
+     * Set the id of the {@link ICacheStorageFactoryDiscovery} to use to create cache.
+     * 
+     * @param cacheStorageFactoryId
+     */
+    public void setCacheStorageFactoryId( String cacheStorageFactoryId )
+    {
+        this.cacheStorageFactoryId = cacheStorageFactoryId;
+    }
+
+    /**
+     * Returns the id of the {@link ICacheStorageFactoryDiscovery} to use to create cache.
+     * 
+     * @return
+     */
+    public String getCacheStorageFactoryId()
+    {
+        return cacheStorageFactoryId;
     }
 
-    public <K, V> ICacheStorage<K, V> createCache()
+    public synchronized <K, V> ICacheStorage<K, V> createCache()
     {
+        initializeIfNeeded();
+        ICacheStorageFactoryDiscovery factory =
+            cacheStorageFactoryId != null ? factories.get( cacheStorageFactoryId ) : null;
+        if ( factory != null )
+        {
+            return factory.createCache();
+        }
         return new MapCacheStorage<K, V>();
     }
 }
@@ -26,7 +26,17 @@ package fr.opensagres.xdocreport.core.cache;
 
 import fr.opensagres.xdocreport.core.discovery.IBaseDiscovery;
 
+/**
+ * Discovery used to create {@link ICacheStorage} instances. Instance of {@link ICacheStorageFactoryDiscovery} must be
+ * declared in files META-INF/services/fr.opensagres.xdocreport.core.cache.ICacheStorageFactoryDiscovery
+ */
 public interface ICacheStorageFactoryDiscovery extends IBaseDiscovery
 {
 
+    /**
+     * Create a new cache storage.
+     * 
+     * @return
+     */
+    <K, V> ICacheStorage<K, V> createCache();
 }
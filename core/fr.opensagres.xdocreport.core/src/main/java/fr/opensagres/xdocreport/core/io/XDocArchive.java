@@ -32,12 +32,17 @@ import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -45,6 +50,7 @@ import java.util.zip.ZipOutputStream;
 import fr.opensagres.xdocreport.core.EncodingConstants;
 import fr.opensagres.xdocreport.core.io.internal.OutputStream2InputStream;
 import fr.opensagres.xdocreport.core.io.internal.OutputStreamWriterCancelable;
+import fr.opensagres.xdocreport.core.io.internal.RawZipOutputStream;
 import fr.opensagres.xdocreport.core.utils.StringUtils;
 
 /**
@@ -55,22 +61,42 @@ public class XDocArchive
     implements IEntryInputStreamProvider, IEntryReaderProvider, IEntryWriterProvider, IEntryOutputStreamProvider
 {
 
-    private static final String MIMETYPE_ENTRY_NAME = "mimetype";
-
     /**
      * Cache entries of the original XML document (odt, docx....). This Map contains a key as entry name (ex : for docx
-     * word/document.xml) and the content of the XML file as array bytes.
+     * word/document.xml) and the content of the XML file as array bytes. The array bytes must never be modified once
+     * they are stored in this map, because they can be shared between copies of the archive (see
+     * {@link #createCopy()}).
      */
     private Map<String, byte[]> cacheEntries = new LinkedHashMap<String, byte[]>();
 
     /**
-     * Cache entries info.
+     * Cache entries info. This map (and the wildcard cache) is filled lazily when the archive is read, so it must
+     * support concurrent access : the preprocessed archive of a report is shared between the threads which generate
+     * reports.
      */
-    private Map<String, IEntryInfo> cacheEntriesInfo = new LinkedHashMap<String, IEntryInfo>();
+    private Map<String, IEntryInfo> cacheEntriesInfo = new ConcurrentHashMap<String, IEntryInfo>();
 
     private Map<String, Long> lastModifiedEntries;
 
-    private Map<String, Set<String>> cacheEntriesWilcard = null;
+    private final Map<String, Set<String>> cacheEntriesWilcard = new ConcurrentHashMap<String, Set<String>>();
+
+    /**
+     * Unmodifiable snapshot of the entry names returned by {@link #getEntryNames()}, or null if it must be recomputed
+     * because an entry was added.
+     */
+    private volatile Set<String> entryNames;
+
+    /**
+     * Compressed content of the entries computed when the archive is written as zip. This map is shared between the
+     * archive and its copies (see {@link #createCopy()}) to avoid compressing the static entries (images, fonts...) at
+     * each report generation.
+     */
+    private Map<String, CompressedEntry> compressedEntries = new ConcurrentHashMap<String, CompressedEntry>();
+
+    /**
+     * Names of the entries which were rewritten in a copy of an archive, or null if the archive is not a copy.
+     */
+    private Set<String> rewrittenEntries = null;
 
     public XDocArchive()
     {
@@ -90,22 +116,69 @@ public class XDocArchive
     }
 
     /**
-     * Returns the entry names of the XML document archive by using cache entries.
+     * Returns the entry names of the XML document archive by using cache entries. The returned set is an unmodifiable
+     * snapshot (entries can be written by other threads), which is shared by the calls until an entry is added.
      * 
      * @return
      */
     public Set<String> getEntryNames()
     {
-        return cacheEntries.keySet();
+        Set<String> names = entryNames;
+        if ( names == null )
+        {
+            synchronized ( this )
+            {
+                names = entryNames;
+                if ( names == null )
+                {
+                    names = Collections.unmodifiableSet( new LinkedHashSet<String>( cacheEntries.keySet() ) );
+                    entryNames = names;
+                }
+            }
+        }
+        return names;
     }
 
-    public Set<String> getEntryNames( final String wildcard )
+    /**
+     * Returns the estimated size in bytes of the XML document archive (sum of the uncompressed size of the entries).
+     *
+     * @return
+     */
+    public synchronized long getEstimatedSize()
+    {
+        long size = 0;
+        for ( byte[] entry : cacheEntries.values() )
+        {
+            size += entry.length;
+        }
+        return size;
+    }
+
+    /**
+     * Returns the estimated size in bytes of the entries of the XML document archive which are not in the given set
+     * of already counted entry contents, and add the entry contents of this archive to this set. As the copies of an
+     * archive share the content of the entries which are not rewritten, this method can be used with a set created
+     * with an {@link IdentityHashMap} to estimate the size of several archives without counting a shared content
+     * several times.
+     * 
+     * @param countedEntries the contents already counted.
+     * @return
+     */
+    public synchronized long getEstimatedSize( Set<byte[]> countedEntries )
     {
-        if ( cacheEntriesWilcard == null )
+        long size = 0;
+        for ( byte[] entry : cacheEntries.values() )
         {
-            cacheEntriesWilcard = new HashMap<String, Set<String>>();
+            if ( countedEntries.add( entry ) )
+            {
+                size += entry.length;
+            }
         }
+        return size;
+    }
 
+    public Set<String> getEntryNames( final String wildcard )
+    {
         Set<String> entryNamesWithWildcard = cacheEntriesWilcard.get( wildcard );
         if ( entryNamesWithWildcard != null )
         {
@@ -114,15 +187,21 @@ public class XDocArchive
 
         String regexp = wildcardToRegex( wildcard );
         entryNamesWithWildcard = new HashSet<String>();
-        Set<String> entryNames = getEntryNames();
-        for ( String entryName : entryNames )
+        synchronized ( this )
         {
-            if ( entryName.matches( regexp ) )
+            // compute and cache the entry names under the lock, so that an entry added meanwhile (which clears the
+            // wildcard cache) cannot be missed.
+            for ( String entryName : cacheEntries.keySet() )
             {
-                entryNamesWithWildcard.add( entryName );
+                if ( entryName.matches( regexp ) )
+                {
+                    entryNamesWithWildcard.add( entryName );
+                }
             }
+            // the set is shared between threads, it must not be modified.
+            entryNamesWithWildcard = Collections.unmodifiableSet( entryNamesWithWildcard );
+            cacheEntriesWilcard.put( wildcard, entryNamesWithWildcard );
         }
-        cacheEntriesWilcard.put( wildcard, entryNamesWithWildcard );
         return entryNamesWithWildcard;
     }
 
@@ -173,11 +252,17 @@ public class XDocArchive
      */
     public InputStream getEntryInputStream( String entryName )
     {
-        if ( !cacheEntries.containsKey( entryName ) )
+        byte[] content = getEntryContent( entryName );
+        if ( content == null )
         {
             return null;
         }
-        return new ByteArrayInputStream( (byte[]) cacheEntries.get( entryName ) );
+        return new ByteArrayInputStream( content );
+    }
+
+    private synchronized byte[] getEntryContent( String entryName )
+    {
+        return cacheEntries.get( entryName );
     }
 
     /**
@@ -219,7 +304,10 @@ public class XDocArchive
     }
 
     /**
-     * Create a copy of the {@link XDocArchive}.
+     * Create a copy of the {@link XDocArchive}. The copy is a copy-on-write archive : the content of each entry is
+     * shared with this archive and is only materialized in the copy when the entry is rewritten (with
+     * {@link #getEntryOutputStream(String)} or {@link #getEntryWriter(String)}). This is safe because an entry content
+     * is never modified in place : writing an entry always replaces the cached array bytes on close.
      * 
      * @return
      */
@@ -227,16 +315,17 @@ public class XDocArchive
     {
         // Create new instance of XDocArchive
         XDocArchive archiveCopy = new XDocArchive();
-        // Loop for cache entries
-        for ( Map.Entry<String, byte[]> entry : cacheEntries.entrySet() )
+        synchronized ( this )
         {
-            String name = entry.getKey();
-            byte[] entryData = entry.getValue();
-            byte[] entryDataCopy = new byte[entryData.length];
-            System.arraycopy( entryData, 0, entryDataCopy, 0, entryData.length );
-            // modify the cache entries in the new XDocArchive
-            archiveCopy.cacheEntries.put( name, entryDataCopy );
+            // Share the (immutable) cache entries with the new XDocArchive
+            archiveCopy.cacheEntries.putAll( cacheEntries );
+            // the copy has the same entry names, share the (immutable) entry names computed for wildcards
+            archiveCopy.cacheEntriesWilcard.putAll( cacheEntriesWilcard );
+            archiveCopy.entryNames = entryNames;
         }
+        // Share the compressed entries with the new XDocArchive
+        archiveCopy.compressedEntries = compressedEntries;
+        archiveCopy.rewrittenEntries = new HashSet<String>();
         return archiveCopy;
     }
 
@@ -246,7 +335,7 @@ public class XDocArchive
      * @param entryName
      * @return
      */
-    public boolean hasEntry( String entryName )
+    public synchronized boolean hasEntry( String entryName )
     {
         return cacheEntries.containsKey( entryName );
     }
@@ -360,11 +449,12 @@ public class XDocArchive
     public static void writeEntry( XDocArchive archive, String entryName, OutputStream outputStream )
         throws IOException
     {
-        if ( !archive.hasEntry( entryName ) )
+        byte[] entryData = archive.getEntryContent( entryName );
+        if ( entryData == null )
         {
             throw new IOException( "Cannot find entry name=" + entryName + " in the document archive." );
         }
-        outputStream.write( archive.cacheEntries.get( entryName ) );
+        outputStream.write( entryData );
     }
 
     /**
@@ -377,24 +467,51 @@ public class XDocArchive
     public static void writeZip( XDocArchive archive, OutputStream outputStream )
         throws IOException
     {
-        ZipOutputStream zipOutputStream = new ZipOutputStream( outputStream );
-        Set<String> entryNames = archive.getEntryNames();
-
-        // ODT spec requires 'mimetype' to be the first entry
-        writeZipEntry( zipOutputStream, archive, MIMETYPE_ENTRY_NAME, ZipEntry.STORED );
+        new XDocArchiveZipWriter( archive, outputStream ).close();
+    }
 
-        for ( String entryName : entryNames )
+    /**
+     * Write zip entry. Entry which is not rewritten in a copy of an archive is written with the compressed content
+     * cached by the archive (the content is compressed only the first time).
+     * 
+     * @param zipOutputStream
+     * @param archive
+     * @param entryName
+     * @param method
+     * @throws IOException
+     */
+    static void writeZipEntry( RawZipOutputStream zipOutputStream, XDocArchive archive, String entryName,
+                                       int method )
+        throws IOException
+    {
+        byte[] entryData = archive.getEntryContent( entryName );
+        if ( entryData == null )
         {
-            if ( !MIMETYPE_ENTRY_NAME.equals( entryName ) )
-            {
-                writeZipEntry( zipOutputStream, archive, entryName, ZipEntry.DEFLATED );
-            }
+            return;
+        }
+        if ( method == ZipEntry.STORED )
+        {
+            zipOutputStream.writeStoredEntry( entryName, entryData );
+        }
+        else if ( archive.isRewrittenEntry( entryName ) )
+        {
+            // entry was modified (merged with the template engine, new image...), compress it.
+            zipOutputStream.putNextEntry( entryName );
+            zipOutputStream.write( entryData, 0, entryData.length );
+            zipOutputStream.closeEntry();
+        }
+        else
+        {
+            // static entry, reuse the compressed content.
+            CompressedEntry compressedEntry = archive.getCompressedEntry( entryName, entryData );
+            zipOutputStream.writeRawEntry( entryName, ZipEntry.DEFLATED, compressedEntry.compressedData,
+                                           compressedEntry.crc, entryData.length );
         }
-        zipOutputStream.close();
     }
 
     /**
-     * Write zip entry.
+     * Write zip entry with a {@link ZipOutputStream} : the entry is compressed each time it is written. This is used
+     * when the archive cannot be written with a {@link RawZipOutputStream} (see {@link #isRawZipSupported()}).
      * 
      * @param zipOutputStream
      * @param archive
@@ -402,36 +519,118 @@ public class XDocArchive
      * @param method
      * @throws IOException
      */
-    private static void writeZipEntry( ZipOutputStream zipOutputStream, XDocArchive archive, String entryName,
-                                       int method )
+    static void writeZipEntry( ZipOutputStream zipOutputStream, XDocArchive archive, String entryName, int method )
         throws IOException
     {
-        InputStream entryInputStream = archive.getEntryInputStream( entryName );
-        if ( entryInputStream == null )
+        byte[] entryData = archive.getEntryContent( entryName );
+        if ( entryData == null )
         {
             return;
         }
         ZipEntry zipEntry = new ZipEntry( entryName );
-
         zipEntry.setMethod( method );
         if ( method == ZipEntry.STORED )
         {
-            byte[] inputBytes = IOUtils.toByteArray( entryInputStream );
             CRC32 crc = new CRC32();
-            crc.update( inputBytes );
+            crc.update( entryData );
             zipEntry.setCrc( crc.getValue() );
-            zipEntry.setSize( inputBytes.length );
-            zipEntry.setCompressedSize( inputBytes.length );
-            zipOutputStream.putNextEntry( zipEntry );
-            IOUtils.write( inputBytes, zipOutputStream );
+            zipEntry.setSize( entryData.length );
+            zipEntry.setCompressedSize( entryData.length );
         }
-        else
+        zipOutputStream.putNextEntry( zipEntry );
+        zipOutputStream.write( entryData );
+        zipOutputStream.closeEntry();
+    }
+
+    /**
+     * Returns true if this archive can be written with a {@link RawZipOutputStream} (which reuses the compressed
+     * content of the entries which are not rewritten) and false otherwise : the compressed contents are only reused
+     * for the copies of an archive (see {@link #createCopy()}), and the {@link RawZipOutputStream} doesn't support
+     * ZIP64 (too many entries or too large archive).
+     * 
+     * @return
+     */
+    synchronized boolean isRawZipSupported()
+    {
+        return rewrittenEntries != null && RawZipOutputStream.canWrite( cacheEntries.size(), getEstimatedSize() );
+    }
+
+    /**
+     * Returns true if the given entry was rewritten in this archive which is a copy of an another archive and false
+     * otherwise.
+     * 
+     * @param entryName
+     * @return
+     */
+    private synchronized boolean isRewrittenEntry( String entryName )
+    {
+        return rewrittenEntries != null && rewrittenEntries.contains( entryName );
+    }
+
+    /**
+     * Returns the compressed content of the given entry data and compute it if needed.
+     * 
+     * @param entryName
+     * @param entryData
+     * @return
+     */
+    private CompressedEntry getCompressedEntry( String entryName, byte[] entryData )
+    {
+        CompressedEntry compressedEntry = compressedEntries.get( entryName );
+        if ( compressedEntry == null || compressedEntry.entryData != entryData )
         {
-            zipOutputStream.putNextEntry( zipEntry );
-            IOUtils.copy( entryInputStream, zipOutputStream );
+            // the entry was never compressed or its content changed since the last compression.
+            compressedEntry = new CompressedEntry( entryData );
+            compressedEntries.put( entryName, compressedEntry );
+        }
+        return compressedEntry;
+    }
+
+    /**
+     * Compressed (deflated) content of an entry data.
+     */
+    private static class CompressedEntry
+    {
+
+        /**
+         * The uncompressed content used to check that the compressed content is up to date.
+         */
+        private final byte[] entryData;
+
+        private final byte[] compressedData;
+
+        private final long crc;
+
+        public CompressedEntry( byte[] entryData )
+        {
+            this.entryData = entryData;
+            CRC32 crc32 = new CRC32();
+            crc32.update( entryData );
+            this.crc = crc32.getValue();
+            this.compressedData = deflate( entryData );
+        }
+
+        private static byte[] deflate( byte[] data )
+        {
+            Deflater deflater = new Deflater( Deflater.DEFAULT_COMPRESSION, true );
+            try
+            {
+                deflater.setInput( data );
+                deflater.finish();
+                ByteArrayOutputStream out = new ByteArrayOutputStream( Math.max( 64, data.length / 2 ) );
+                byte[] buffer = new byte[8192];
+                while ( !deflater.finished() )
+                {
+                    int len = deflater.deflate( buffer );
+                    out.write( buffer, 0, len );
+                }
+                return out.toByteArray();
+            }
+            finally
+            {
+                deflater.end();
+            }
         }
-        IOUtils.closeQuietly( entryInputStream );
-        zipOutputStream.closeEntry();
     }
 
     /**
@@ -443,9 +642,25 @@ public class XDocArchive
      */
     public static InputStream getInputStream( XDocArchive archive )
         throws IOException
+    {
+        return getInputStream( archive, true );
+    }
+
+    /**
+     * Returns the input stream of the given {@link XDocArchive}. When the zip is read just after (ex : by a converter
+     * which loads the document from a zip), the entries should not be compressed to avoid to deflate them and to
+     * inflate them again.
+     * 
+     * @param archive
+     * @param compressed true if entries must be compressed and false if they must be stored.
+     * @return the input stream of the given {@link XDocArchive}.
+     * @throws IOException
+     */
+    public static InputStream getInputStream( XDocArchive archive, boolean compressed )
+        throws IOException
     {
         OutputStream2InputStream outputArchiveZipped = new OutputStream2InputStream();
-        XDocArchive.writeZip( archive, outputArchiveZipped );
+        new XDocArchiveZipWriter( archive, outputArchiveZipped, compressed ).close();
         return outputArchiveZipped.getInputStream();
     }
 
@@ -466,13 +681,27 @@ public class XDocArchive
         public void close()
             throws IOException
         {
-            // stream is closed, modify the cache
-            cacheEntries.put( entryName, toByteArray() );
-            if ( isTrackLastModified() )
+            byte[] content = toByteArray();
+            // stream is closed, modify the cache (entries can be written by several threads, ex : parallel
+            // preprocessing)
+            synchronized ( XDocArchive.this )
             {
-                lastModifiedEntries.put( entryName, System.currentTimeMillis() );
+                boolean newEntry = cacheEntries.put( entryName, content ) == null;
+                if ( rewrittenEntries != null )
+                {
+                    rewrittenEntries.add( entryName );
+                }
+                if ( isTrackLastModified() )
+                {
+                    lastModifiedEntries.put( entryName, System.currentTimeMillis() );
+                }
+                if ( newEntry )
+                {
+                    // entry names changed, the entry names and the wildcard cache must be recomputed
+                    entryNames = null;
+                    cacheEntriesWilcard.clear();
+                }
             }
-            cacheEntriesWilcard = null;
         }
     }
 
@@ -481,7 +710,7 @@ public class XDocArchive
         return lastModifiedEntries != null;
     }
 
-    public long getLastModifiedEntry( String entryName )
+    public synchronized long getLastModifiedEntry( String entryName )
     {
         if ( isTrackLastModified() )
         {
@@ -532,19 +761,21 @@ public class XDocArchive
         IEntryInfo info = cacheEntriesInfo.get( entryName );
         if ( info == null )
         {
+            // entry info is stateless, when several threads create it at the same time, any of them can be kept.
             info = new XDocArchiveEntryInfo( entryName );
             cacheEntriesInfo.put( entryName, info );
         }
         return info;
     }
 
-    public void dispose()
+    public synchronized void dispose()
     {
         if ( cacheEntries != null )
         {
             cacheEntries.clear();
         }
         cacheEntries = null;
+        entryNames = null;
         if ( cacheEntriesInfo != null )
         {
             cacheEntriesInfo.clear();
@@ -555,6 +786,13 @@ public class XDocArchive
             lastModifiedEntries.clear();
         }
         lastModifiedEntries = null;
+        // compressed entries can be shared with another archive, don't clear it
+        compressedEntries = null;
+        if ( rewrittenEntries != null )
+        {
+            rewrittenEntries.clear();
+        }
+        rewrittenEntries = null;
     }
 
 }
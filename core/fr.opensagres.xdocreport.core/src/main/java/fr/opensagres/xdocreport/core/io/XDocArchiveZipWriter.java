@@ -0,0 +1,224 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.core.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import fr.opensagres.xdocreport.core.EncodingConstants;
+import fr.opensagres.xdocreport.core.io.internal.OutputStreamWriterCancelable;
+import fr.opensagres.xdocreport.core.io.internal.RawZipOutputStream;
+
+/**
+ * Writer used to save a {@link XDocArchive} as zip in an output stream. Some entries can be streamed directly in the
+ * zip (see {@link #beginEntry(String)}) before the other entries of the archive are written with {@link #close()}.
+ * This is useful to write the merged content of a big XML entry without storing it in the {@link XDocArchive}.
+ * <p>
+ * The 'mimetype' entry of the archive (if any) is always written first (required by ODT spec).
+ * <p>
+ * A copy of an archive (see {@link XDocArchive#createCopy()}) is written with a {@link RawZipOutputStream} which
+ * reuses the compressed content of the entries which are not rewritten. Other archives, and archives which need ZIP64
+ * extensions (too many entries or too large), are written with a {@link ZipOutputStream}.
+ */
+public class XDocArchiveZipWriter
+{
+
+    private static final String MIMETYPE_ENTRY_NAME = "mimetype";
+
+    private final XDocArchive archive;
+
+    // not null if the archive is written with the compressed content of its entries
+    private final RawZipOutputStream rawZipOutputStream;
+
+    // not null if the archive is written by compressing its entries
+    private final ZipOutputStream zipOutputStream;
+
+    private final Set<String> writtenEntries;
+
+    private boolean mimetypeWritten;
+
+    private boolean entryOpened;
+
+    private final int method;
+
+    public XDocArchiveZipWriter( XDocArchive archive, OutputStream outputStream )
+    {
+        this( archive, outputStream, true );
+    }
+
+    /**
+     * Create a zip writer.
+     * 
+     * @param archive the archive to write.
+     * @param outputStream the output stream of the zip.
+     * @param compressed true if the entries of the archive must be compressed (deflated) and false if they must be
+     *            stored (ex : zip which is read just after in memory). The entries streamed with
+     *            {@link #beginEntry(String)} are always compressed.
+     */
+    public XDocArchiveZipWriter( XDocArchive archive, OutputStream outputStream, boolean compressed )
+    {
+        this.archive = archive;
+        this.method = compressed ? ZipEntry.DEFLATED : ZipEntry.STORED;
+        if ( archive.isRawZipSupported() )
+        {
+            this.rawZipOutputStream = new RawZipOutputStream( outputStream );
+            this.zipOutputStream = null;
+        }
+        else
+        {
+            this.rawZipOutputStream = null;
+            this.zipOutputStream = new ZipOutputStream( outputStream );
+        }
+        this.writtenEntries = new HashSet<String>();
+        this.mimetypeWritten = false;
+        this.entryOpened = false;
+    }
+
+    /**
+     * Begin to write the content of the given entry directly in the zip. The content of this entry in the
+     * {@link XDocArchive} will be ignored. The returned writer (UTF-8) must be closed to end the entry.
+     * 
+     * @param entryName
+     * @return
+     * @throws IOException
+     */
+    public Writer beginEntry( String entryName )
+        throws IOException
+    {
+        if ( entryOpened )
+        {
+            throw new IOException( "Entry is already opened in the zip." );
+        }
+        writeMimetypeIfNeeded();
+        OutputStream entryOutputStream;
+        if ( rawZipOutputStream != null )
+        {
+            rawZipOutputStream.putNextEntry( entryName );
+            entryOutputStream = rawZipOutputStream;
+        }
+        else
+        {
+            zipOutputStream.putNextEntry( new ZipEntry( entryName ) );
+            entryOutputStream = zipOutputStream;
+        }
+        writtenEntries.add( entryName );
+        entryOpened = true;
+        return new OutputStreamWriterCancelable( new EntryOutputStream( entryOutputStream ), EncodingConstants.UTF_8 );
+    }
+
+    /**
+     * Write the entries of the archive which were not streamed, and close the zip.
+     * 
+     * @throws IOException
+     */
+    public void close()
+        throws IOException
+    {
+        writeMimetypeIfNeeded();
+        for ( String entryName : archive.getEntryNames() )
+        {
+            if ( !MIMETYPE_ENTRY_NAME.equals( entryName ) && !writtenEntries.contains( entryName ) )
+            {
+                writeZipEntry( entryName, method );
+            }
+        }
+        if ( rawZipOutputStream != null )
+        {
+            rawZipOutputStream.close();
+        }
+        else
+        {
+            zipOutputStream.close();
+        }
+    }
+
+    private void writeMimetypeIfNeeded()
+        throws IOException
+    {
+        if ( !mimetypeWritten )
+        {
+            // ODT spec requires 'mimetype' to be the first entry
+            writeZipEntry( MIMETYPE_ENTRY_NAME, ZipEntry.STORED );
+            mimetypeWritten = true;
+        }
+    }
+
+    private void writeZipEntry( String entryName, int method )
+        throws IOException
+    {
+        if ( rawZipOutputStream != null )
+        {
+            XDocArchive.writeZipEntry( rawZipOutputStream, archive, entryName, method );
+        }
+        else
+        {
+            XDocArchive.writeZipEntry( zipOutputStream, archive, entryName, method );
+        }
+    }
+
+    /**
+     * Output stream of an entry which closes the zip entry instead of the zip when it is closed.
+     */
+    private class EntryOutputStream
+        extends FilterOutputStream
+    {
+
+        public EntryOutputStream( OutputStream out )
+        {
+            super( out );
+        }
+
+        @Override
+        public void write( byte[] b, int off, int len )
+            throws IOException
+        {
+            out.write( b, off, len );
+        }
+
+        @Override
+        public void close()
+            throws IOException
+        {
+            if ( entryOpened )
+            {
+                entryOpened = false;
+                if ( rawZipOutputStream != null )
+                {
+                    rawZipOutputStream.closeEntry();
+                }
+                else
+                {
+                    zipOutputStream.closeEntry();
+                }
+            }
+        }
+    }
+}
@@ -29,8 +29,6 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 
-import fr.opensagres.xdocreport.core.io.IOUtils;
-
 public class OutputStream2InputStream
     extends ByteArrayOutputStream
 {
@@ -42,8 +40,7 @@ public class OutputStream2InputStream
     public InputStream getInputStream()
         throws IOException
     {
-        ByteArrayOutputStream o = new ByteArrayOutputStream();
-        IOUtils.write( super.toByteArray(), o );
-        return new ByteArrayInputStream( o.toByteArray() );
+        // share the buffer instead of copying it
+        return new ByteArrayInputStream( buf, 0, count );
     }
 }
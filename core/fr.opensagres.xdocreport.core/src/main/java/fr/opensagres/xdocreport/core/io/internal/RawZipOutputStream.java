@@ -0,0 +1,483 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.core.io.internal;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+import fr.opensagres.xdocreport.core.EncodingConstants;
+
+/**
+ * Minimal ZIP writer which, unlike {@link java.util.zip.ZipOutputStream}, is able to write an entry with data which is
+ * already compressed (see {@link #writeRawEntry(String, int, byte[], long, long)}). This is used by
+ * {@link fr.opensagres.xdocreport.core.io.XDocArchive} to copy the static entries of a document archive (images,
+ * fonts...) without compressing them at each report generation.
+ * <p>
+ * Entries can be written :
+ * <ul>
+ * <li>with {@link #writeRawEntry(String, int, byte[], long, long)} when data is already compressed.</li>
+ * <li>with {@link #putNextEntry(String)}, the {@link OutputStream} methods and {@link #closeEntry()} to deflate the
+ * data while it is written (a data descriptor is written after the data).</li>
+ * </ul>
+ * ZIP64 extensions are not supported : {@link #canWrite(int, long)} must be checked before writing an archive with
+ * this stream (otherwise {@link java.util.zip.ZipOutputStream} must be used).
+ */
+public class RawZipOutputStream
+    extends OutputStream
+{
+
+    private static final long LOCAL_HEADER_SIG = 0x04034b50L;
+
+    private static final long DATA_DESCRIPTOR_SIG = 0x08074b50L;
+
+    private static final long CENTRAL_HEADER_SIG = 0x02014b50L;
+
+    private static final long END_HEADER_SIG = 0x06054b50L;
+
+    private static final int VERSION_STORED = 10;
+
+    private static final int VERSION_DEFLATED = 20;
+
+    /**
+     * General purpose flag : sizes and crc are written in a data descriptor after the data.
+     */
+    private static final int FLAG_DATA_DESCRIPTOR = 0x08;
+
+    /**
+     * General purpose flag : entry name is encoded with UTF-8.
+     */
+    private static final int FLAG_UTF8 = 0x800;
+
+    private static final long MAX_SIZE = 0xFFFFFFFFL;
+
+    private static final int MAX_ENTRIES = 0xFFFF;
+
+    /**
+     * Max uncompressed size of the entries accepted by {@link #canWrite(int, long)} : the half of the max size of a zip
+     * without ZIP64, to keep room for the headers, the deflate overhead of incompressible data and the entries which
+     * grow when they are streamed.
+     */
+    private static final long MAX_WRITABLE_SIZE = MAX_SIZE / 2;
+
+    private final OutputStream out;
+
+    private final List<EntryInfo> entries;
+
+    private final long dosTime;
+
+    private final byte[] writeBuffer = new byte[8];
+
+    private long written;
+
+    private EntryInfo current;
+
+    private Deflater deflater;
+
+    private CRC32 crc;
+
+    private byte[] deflateBuffer;
+
+    private boolean finished;
+
+    public RawZipOutputStream( OutputStream out )
+    {
+        this.out = out;
+        this.entries = new ArrayList<EntryInfo>();
+        this.dosTime = javaToDosTime( System.currentTimeMillis() );
+        this.written = 0;
+    }
+
+    /**
+     * Returns true if a zip with the given number of entries and the given uncompressed size can be written with this
+     * stream without ZIP64 extensions and false otherwise.
+     * 
+     * @param entryCount the number of entries.
+     * @param size the sum of the uncompressed size of the entries.
+     * @return
+     */
+    public static boolean canWrite( int entryCount, long size )
+    {
+        return entryCount <= MAX_ENTRIES && size <= MAX_WRITABLE_SIZE;
+    }
+
+    /**
+     * Write an entry with the given data which is already compressed with the given method.
+     * 
+     * @param name the entry name.
+     * @param method {@link ZipEntry#STORED} or {@link ZipEntry#DEFLATED}.
+     * @param data the (compressed) data of the entry.
+     * @param crc the CRC-32 of the uncompressed data.
+     * @param size the size of the uncompressed data.
+     * @throws IOException
+     */
+    public void writeRawEntry( String name, int method, byte[] data, long crc, long size )
+        throws IOException
+    {
+        ensureOpen();
+        if ( current != null )
+        {
+            closeEntry();
+        }
+        EntryInfo entry = new EntryInfo( name, method, 0 );
+        entry.crc = crc;
+        entry.size = size;
+        entry.compressedSize = data.length;
+        writeLocalHeader( entry );
+        writeBytes( data, 0, data.length );
+        entries.add( entry );
+    }
+
+    /**
+     * Write an entry with the given uncompressed data by using the {@link ZipEntry#STORED} method.
+     * 
+     * @param name the entry name.
+     * @param data the data of the entry.
+     * @throws IOException
+     */
+    public void writeStoredEntry( String name, byte[] data )
+        throws IOException
+    {
+        CRC32 crc = new CRC32();
+        crc.update( data );
+        writeRawEntry( name, ZipEntry.STORED, data, crc.getValue(), data.length );
+    }
+
+    /**
+     * Begin to write a new entry which is deflated while data is written in this stream. The entry is closed with
+     * {@link #closeEntry()} or when a next entry is written.
+     * 
+     * @param name the entry name.
+     * @throws IOException
+     */
+    public void putNextEntry( String name )
+        throws IOException
+    {
+        ensureOpen();
+        if ( current != null )
+        {
+            closeEntry();
+        }
+        if ( deflater == null )
+        {
+            deflater = new Deflater( Deflater.DEFAULT_COMPRESSION, true );
+            crc = new CRC32();
+            deflateBuffer = new byte[8192];
+        }
+        else
+        {
+            deflater.reset();
+            crc.reset();
+        }
+        current = new EntryInfo( name, ZipEntry.DEFLATED, FLAG_DATA_DESCRIPTOR );
+        writeLocalHeader( current );
+    }
+
+    @Override
+    public void write( int b )
+        throws IOException
+    {
+        byte[] buf = new byte[1];
+        buf[0] = (byte) ( b & 0xff );
+        write( buf, 0, 1 );
+    }
+
+    @Override
+    public void write( byte[] b, int off, int len )
+        throws IOException
+    {
+        ensureOpen();
+        if ( current == null )
+        {
+            throw new ZipException( "no current ZIP entry" );
+        }
+        if ( len == 0 )
+        {
+            return;
+        }
+        crc.update( b, off, len );
+        current.size += len;
+        deflater.setInput( b, off, len );
+        while ( !deflater.needsInput() )
+        {
+            deflate();
+        }
+    }
+
+    /**
+     * Close the current entry opened with {@link #putNextEntry(String)}.
+     * 
+     * @throws IOException
+     */
+    public void closeEntry()
+        throws IOException
+    {
+        ensureOpen();
+        if ( current == null )
+        {
+            return;
+        }
+        deflater.finish();
+        while ( !deflater.finished() )
+        {
+            deflate();
+        }
+        current.crc = crc.getValue();
+        checkSize( current );
+        // data descriptor
+        writeInt( DATA_DESCRIPTOR_SIG );
+        writeInt( current.crc );
+        writeInt( current.compressedSize );
+        writeInt( current.size );
+        entries.add( current );
+        current = null;
+    }
+
+    /**
+     * Finish writing the ZIP (writes the central directory) without closing the underlying stream.
+     * 
+     * @throws IOException
+     */
+    public void finish()
+        throws IOException
+    {
+        if ( finished )
+        {
+            return;
+        }
+        if ( current != null )
+        {
+            closeEntry();
+        }
+        if ( entries.size() > MAX_ENTRIES )
+        {
+            throw new ZipException( "too many entries (ZIP64 is not supported)" );
+        }
+        long centralOffset = written;
+        for ( EntryInfo entry : entries )
+        {
+            writeCentralHeader( entry );
+        }
+        long centralSize = written - centralOffset;
+        if ( centralOffset > MAX_SIZE )
+        {
+            throw new ZipException( "archive too large (ZIP64 is not supported)" );
+        }
+        writeInt( END_HEADER_SIG );
+        writeShort( 0 ); // number of this disk
+        writeShort( 0 ); // disk where central directory starts
+        writeShort( entries.size() );
+        writeShort( entries.size() );
+        writeInt( centralSize );
+        writeInt( centralOffset );
+        writeShort( 0 ); // comment length
+        if ( deflater != null )
+        {
+            deflater.end();
+            deflater = null;
+        }
+        finished = true;
+        out.flush();
+    }
+
+    @Override
+    public void flush()
+        throws IOException
+    {
+        out.flush();
+    }
+
+    @Override
+    public void close()
+        throws IOException
+    {
+        finish();
+        out.close();
+    }
+
+    private void deflate()
+        throws IOException
+    {
+        int len = deflater.deflate( deflateBuffer, 0, deflateBuffer.length );
+        if ( len > 0 )
+        {
+            writeBytes( deflateBuffer, 0, len );
+            current.compressedSize += len;
+        }
+    }
+
+    private void writeLocalHeader( EntryInfo entry )
+        throws IOException
+    {
+        if ( written > MAX_SIZE )
+        {
+            throw new ZipException( "archive too large (ZIP64 is not supported)" );
+        }
+        entry.offset = written;
+        boolean dataDescriptor = ( entry.flag & FLAG_DATA_DESCRIPTOR ) != 0;
+        writeInt( LOCAL_HEADER_SIG );
+        writeShort( entry.getVersion() );
+        writeShort( entry.flag );
+        writeShort( entry.method );
+        writeInt( dosTime );
+        if ( dataDescriptor )
+        {
+            writeInt( 0 );
+            writeInt( 0 );
+            writeInt( 0 );
+        }
+        else
+        {
+            checkSize( entry );
+            writeInt( entry.crc );
+            writeInt( entry.compressedSize );
+            writeInt( entry.size );
+        }
+        writeShort( entry.nameBytes.length );
+        writeShort( 0 ); // extra field length
+        writeBytes( entry.nameBytes, 0, entry.nameBytes.length );
+    }
+
+    private void writeCentralHeader( EntryInfo entry )
+        throws IOException
+    {
+        writeInt( CENTRAL_HEADER_SIG );
+        writeShort( VERSION_DEFLATED ); // version made by
+        writeShort( entry.getVersion() );
+        writeShort( entry.flag );
+        writeShort( entry.method );
+        writeInt( dosTime );
+        writeInt( entry.crc );
+        writeInt( entry.compressedSize );
+        writeInt( entry.size );
+        writeShort( entry.nameBytes.length );
+        writeShort( 0 ); // extra field length
+        writeShort( 0 ); // comment length
+        writeShort( 0 ); // disk number start
+        writeShort( 0 ); // internal file attributes
+        writeInt( 0 ); // external file attributes
+        writeInt( entry.offset );
+        writeBytes( entry.nameBytes, 0, entry.nameBytes.length );
+    }
+
+    private static void checkSize( EntryInfo entry )
+        throws ZipException
+    {
+        if ( entry.size > MAX_SIZE || entry.compressedSize > MAX_SIZE )
+        {
+            throw new ZipException( "entry " + entry.name + " too large (ZIP64 is not supported)" );
+        }
+    }
+
+    private void writeShort( int v )
+        throws IOException
+    {
+        writeBuffer[0] = (byte) ( v & 0xff );
+        writeBuffer[1] = (byte) ( ( v >>> 8 ) & 0xff );
+        writeBytes( writeBuffer, 0, 2 );
+    }
+
+    private void writeInt( long v )
+        throws IOException
+    {
+        writeBuffer[0] = (byte) ( v & 0xff );
+        writeBuffer[1] = (byte) ( ( v >>> 8 ) & 0xff );
+        writeBuffer[2] = (byte) ( ( v >>> 16 ) & 0xff );
+        writeBuffer[3] = (byte) ( ( v >>> 24 ) & 0xff );
+        writeBytes( writeBuffer, 0, 4 );
+    }
+
+    private void writeBytes( byte[] b, int off, int len )
+        throws IOException
+    {
+        out.write( b, off, len );
+        written += len;
+    }
+
+    private void ensureOpen()
+        throws IOException
+    {
+        if ( finished )
+        {
+            throw new IOException( "ZIP is already finished" );
+        }
+    }
+
+    /**
+     * Converts Java time to DOS time.
+     */
+    private static long javaToDosTime( long time )
+    {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis( time );
+        int year = calendar.get( Calendar.YEAR );
+        if ( year < 1980 )
+        {
+            return ( 1 << 21 ) | ( 1 << 16 );
+        }
+        return ( year - 1980 ) << 25 | ( calendar.get( Calendar.MONTH ) + 1 ) << 21
+            | calendar.get( Calendar.DAY_OF_MONTH ) << 16 | calendar.get( Calendar.HOUR_OF_DAY ) << 11
+            | calendar.get( Calendar.MINUTE ) << 5 | calendar.get( Calendar.SECOND ) >> 1;
+    }
+
+    private static class EntryInfo
+    {
+
+        private final String name;
+
+        private final byte[] nameBytes;
+
+        private final int method;
+
+        private final int flag;
+
+        private long crc;
+
+        private long size;
+
+        private long compressedSize;
+
+        private long offset;
+
+        public EntryInfo( String name, int method, int flag )
+        {
+            this.name = name;
+            this.nameBytes = name.getBytes( EncodingConstants.UTF_8 );
+            this.method = method;
+            this.flag = flag | FLAG_UTF8;
+        }
+
+        public int getVersion()
+        {
+            return method == ZipEntry.STORED ? VERSION_STORED : VERSION_DEFLATED;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.core.metrics;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import fr.opensagres.xdocreport.core.logging.LogUtils;
+
+/**
+ * {@link IReportMetrics} which dispatches the events to several listeners. An error of a listener is logged and
+ * doesn't stop the report generation.
+ */
+class CompositeReportMetrics
+    implements IReportMetrics
+{
+
+    /**
+     * Logger for this class
+     */
+    private static final Logger LOGGER = LogUtils.getLogger( CompositeReportMetrics.class.getName() );
+
+    private final IReportMetrics[] metrics;
+
+    public CompositeReportMetrics( IReportMetrics[] metrics )
+    {
+        this.metrics = metrics;
+    }
+
+    public void onPhase( ReportPhase phase, String name, Object source, long elapsedTimeNanos )
+    {
+        for ( int i = 0; i < metrics.length; i++ )
+        {
+            try
+            {
+                metrics[i].onPhase( phase, name, source, elapsedTimeNanos );
+            }
+            catch ( RuntimeException e )
+            {
+                LOGGER.log( Level.WARNING, "Error while calling the report metrics " + metrics[i], e );
+            }
+        }
+    }
+
+    public void onBytes( ReportPhase phase, String name, long bytes )
+    {
+        for ( int i = 0; i < metrics.length; i++ )
+        {
+            try
+            {
+                metrics[i].onBytes( phase, name, bytes );
+            }
+            catch ( RuntimeException e )
+            {
+                LOGGER.log( Level.WARNING, "Error while calling the report metrics " + metrics[i], e );
+            }
+        }
+    }
+
+    public void onCacheAccess( String cacheName, boolean hit )
+    {
+        for ( int i = 0; i < metrics.length; i++ )
+        {
+            try
+            {
+                metrics[i].onCacheAccess( cacheName, hit );
+            }
+            catch ( RuntimeException e )
+            {
+                LOGGER.log( Level.WARNING, "Error while calling the report metrics " + metrics[i], e );
+            }
+        }
+    }
+}
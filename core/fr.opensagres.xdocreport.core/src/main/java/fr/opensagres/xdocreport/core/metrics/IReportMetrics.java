@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.core.metrics;
+
+/**
+ * Listener of the metrics of the report generation : elapsed time of each {@link ReportPhase}, written bytes and
+ * accesses to the caches. Listeners are registered in the {@link ReportMetricsRegistry} (programmatically or with a
+ * {@link IReportMetricsDiscovery}).
+ * <p>
+ * Listeners are called by the threads which generate the reports (and by the threads of the executors used to
+ * preprocess and merge entries in parallel), so they must be thread-safe and fast. Arguments are never copied or
+ * allocated for a listener, so the source must not be kept.
+ * </p>
+ */
+public interface IReportMetrics
+{
+
+    /**
+     * Name of the cache of the reports registered in the XDocReportRegistry.
+     */
+    public static final String REPORTS_CACHE = "reports";
+
+    /**
+     * Name of the persistent store of the preprocessed documents.
+     */
+    public static final String PREPROCESSED_DOCUMENTS_CACHE = "preprocessedDocuments";
+
+    /**
+     * Name of the cache of the text styling transformation results.
+     */
+    public static final String TEXT_STYLING_CACHE = "textStyling";
+
+    /**
+     * Called when a phase is done.
+     * 
+     * @param phase the phase.
+     * @param name the name of the element of the phase (report id, entry name...) which can be null.
+     * @param source the object which has done the phase (report, preprocessor, converter) which can be null.
+     * @param elapsedTimeNanos the elapsed time in nanoseconds.
+     */
+    void onPhase( ReportPhase phase, String name, Object source, long elapsedTimeNanos );
+
+    /**
+     * Called when a phase has written some bytes.
+     * 
+     * @param phase the phase.
+     * @param name the name of the element of the phase which can be null.
+     * @param bytes the number of written bytes.
+     */
+    void onBytes( ReportPhase phase, String name, long bytes );
+
+    /**
+     * Called when a cache is accessed.
+     * 
+     * @param cacheName the cache name (see the *_CACHE constants).
+     * @param hit true if the value was found in the cache and false otherwise.
+     */
+    void onCacheAccess( String cacheName, boolean hit );
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.core.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import fr.opensagres.xdocreport.core.registry.AbstractRegistry;
+
+/**
+ * Registry of {@link IReportMetrics}. Listeners are registered with {@link #addMetrics(IReportMetrics)} or with the
+ * {@link IReportMetricsDiscovery} declared in META-INF/services. When no listener is registered,
+ * {@link #getMetrics()} returns {@link NoOpReportMetrics#INSTANCE} and the report generation doesn't allocate anything
+ * for the metrics.
+ */
+public class ReportMetricsRegistry
+    extends AbstractRegistry<IReportMetricsDiscovery>
+{
+
+    private static final ReportMetricsRegistry INSTANCE = new ReportMetricsRegistry();
+
+    private final List<IReportMetrics> listeners = new ArrayList<IReportMetrics>();
+
+    private volatile IReportMetrics metrics = NoOpReportMetrics.INSTANCE;
+
+    public ReportMetricsRegistry()
+    {
+        super( IReportMetricsDiscovery.class );
+    }
+
+    public static ReportMetricsRegistry getRegistry()
+    {
+        return INSTANCE;
+    }
+
+    protected boolean registerInstance( IReportMetricsDiscovery instance )
+    {
+        IReportMetrics discoveredMetrics = instance.getMetrics();
+        if ( discoveredMetrics == null )
+        {
+            return false;
+        }
+        addMetrics( discoveredMetrics );
+        return true;
+    }
+
+    protected synchronized void doDispose()
+    {
+        listeners.clear();
+        metrics = NoOpReportMetrics.INSTANCE;
+    }
+
+    /**
+     * Returns the metrics listener to call during the report generation : {@link NoOpReportMetrics#INSTANCE} if no
+     * listener is registered, the listener if there is only one listener, otherwise a listener which dispatches the
+     * events to all listeners.
+     * 
+     * @return
+     */
+    public IReportMetrics getMetrics()
+    {
+        initializeIfNeeded();
+        return metrics;
+    }
+
+    /**
+     * Returns true if at least one metrics listener is registered.
+     * 
+     * @return
+     */
+    public boolean isEnabled()
+    {
+        return getMetrics() != NoOpReportMetrics.INSTANCE;
+    }
+
+    /**
+     * Register the given metrics listener.
+     * 
+     * @param metrics
+     */
+    public synchronized void addMetrics( IReportMetrics metrics )
+    {
+        listeners.add( metrics );
+        updateMetrics();
+    }
+
+    /**
+     * Unregister the given metrics listener.
+     * 
+     * @param metrics
+     */
+    public synchronized void removeMetrics( IReportMetrics metrics )
+    {
+        listeners.remove( metrics );
+        updateMetrics();
+    }
+
+    private void updateMetrics()
+    {
+        switch ( listeners.size() )
+        {
+            case 0:
+                metrics = NoOpReportMetrics.INSTANCE;
+                break;
+            case 1:
+                metrics = listeners.get( 0 );
+                break;
+            default:
+                metrics = new CompositeReportMetrics( listeners.toArray( new IReportMetrics[listeners.size()] ) );
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.core.metrics;
+
+/**
+ * Phases of the report generation reported to {@link IReportMetrics}.
+ */
+public enum ReportPhase
+{
+
+    /**
+     * Load of a report (unzip of the document and creation of the report) by the registry. The name of the event is
+     * the report id.
+     */
+    LOAD,
+
+    /**
+     * Execution of all the preprocessors of a report. The name of the event is the report id.
+     */
+    PREPROCESS,
+
+    /**
+     * Execution of one preprocessor for one entry. The name of the event is the entry name and the source is the
+     * preprocessor.
+     */
+    PREPROCESS_ENTRY,
+
+    /**
+     * Generation of a report with process(). The name of the event is the report id. The bytes of this phase are the
+     * bytes written in the output stream.
+     */
+    PROCESS,
+
+    /**
+     * Merge of one XML entry with the template engine. The name of the event is the entry name.
+     */
+    MERGE_ENTRY,
+
+    /**
+     * Post processing of the image registry (copy of the dynamic images in the archive). The name of the event is the
+     * report id.
+     */
+    IMAGES_POSTPROCESS,
+
+    /**
+     * Write of the merged archive (or of the merged entry) in the output stream. The name of the event is the report
+     * id.
+     */
+    ZIP_WRITE,
+
+    /**
+     * Generation and conversion of a report with convert(). The name of the event is the report id. The bytes of this
+     * phase are the bytes written in the output stream.
+     */
+    CONVERT,
+
+    /**
+     * Load by the converter of the model of the document to convert (ex : creation of the POI XWPFDocument or of the
+     * ODFDOM document from the archive). The name of the event is the converter class name.
+     */
+    CONVERT_LOAD,
+
+    /**
+     * Load of the styles of the document model by the converter (style tables of the docx, styles of the odt). This
+     * phase is done during the {@link #CONVERT_WRITE} phase, once per layout pass for docx. The name of the event is
+     * the converter class name.
+     */
+    CONVERT_STYLES,
+
+    /**
+     * Conversion of the loaded model by the converter : load of the styles ({@link #CONVERT_STYLES}), layout and
+     * write of the converted document (PDF, XHTML...) in the output stream. The name of the event is the converter
+     * class name.
+     */
+    CONVERT_WRITE
+}
@@ -40,7 +40,7 @@ public abstract class AbstractRegistry<Discovery extends IBaseDiscovery>
      */
     private static final Logger LOGGER = LogUtils.getLogger( AbstractRegistry.class.getName() );
 
-    private boolean initialized;
+    private volatile boolean initialized;
 
     private final Class<Discovery> registryType;
 
@@ -55,6 +55,15 @@ public abstract class AbstractRegistry<Discovery extends IBaseDiscovery>
     }
 
     protected void initializeIfNeeded()
+    {
+        if ( !initialized )
+        {
+            // registries are used by the threads which generate reports, initialize it only once.
+            doInitialize();
+        }
+    }
+
+    private synchronized void doInitialize()
     {
         if ( !initialized )
         {
@@ -116,11 +125,11 @@ public abstract class AbstractRegistry<Discovery extends IBaseDiscovery>
     /**
      * Dispose the registry.
      */
-    public final void dispose()
+    public final synchronized void dispose()
     {
         doDispose();
         this.initialized = false;
     }
 
     protected abstract void doDispose();
-}
\ No newline at end of file
+}
\ No newline at end of file
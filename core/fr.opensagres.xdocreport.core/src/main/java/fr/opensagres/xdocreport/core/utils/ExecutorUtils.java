@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.core.utils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+import fr.opensagres.xdocreport.core.XDocReportException;
+
+/**
+ * Executor Utilities.
+ */
+public class ExecutorUtils
+{
+
+    /**
+     * Execute the given tasks in parallel and returns their results in the order of the tasks. The tasks (except the
+     * first) are submitted to the given executor, then the current thread executes, in the order of the tasks, each
+     * task which is not started by the executor, so the tasks are executed even if the executor is saturated or if the
+     * current thread is a thread of the executor (no deadlock). When a task fails, the not finished tasks are cancelled
+     * and the error of the task is thrown.
+     * 
+     * @param tasks the tasks to execute.
+     * @param executor the executor used to execute the tasks (except the first).
+     * @return the results of the tasks.
+     * @throws XDocReportException
+     * @throws IOException
+     */
+    public static <T> List<T> invokeAll( List<? extends Callable<T>> tasks, Executor executor )
+        throws XDocReportException, IOException
+    {
+        List<FutureTask<T>> futures = new ArrayList<FutureTask<T>>( tasks.size() );
+        try
+        {
+            for ( int i = 0; i < tasks.size(); i++ )
+            {
+                FutureTask<T> future = new FutureTask<T>( tasks.get( i ) );
+                futures.add( future );
+                if ( i > 0 )
+                {
+                    try
+                    {
+                        executor.execute( future );
+                    }
+                    catch ( RejectedExecutionException e )
+                    {
+                        // the task is executed by the current thread
+                    }
+                }
+            }
+            List<T> results = new ArrayList<T>( futures.size() );
+            for ( FutureTask<T> future : futures )
+            {
+                // execute the task with the current thread if the executor has not started it (run() does nothing if
+                // the task is already started or done).
+                future.run();
+                results.add( getResult( future ) );
+            }
+            return results;
+        }
+        finally
+        {
+            for ( FutureTask<T> future : futures )
+            {
+                future.cancel( true );
+            }
+        }
+    }
+
+    private static <T> T getResult( FutureTask<T> future )
+        throws XDocReportException, IOException
+    {
+        try
+        {
+            return future.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new XDocReportException( e );
+        }
+        catch ( ExecutionException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof XDocReportException )
+            {
+                throw (XDocReportException) cause;
+            }
+            if ( cause instanceof IOException )
+            {
+                throw (IOException) cause;
+            }
+            if ( cause instanceof RuntimeException )
+            {
+                throw (RuntimeException) cause;
+            }
+            if ( cause instanceof Error )
+            {
+                throw (Error) cause;
+            }
+            throw new XDocReportException( cause );
+        }
+    }
+}
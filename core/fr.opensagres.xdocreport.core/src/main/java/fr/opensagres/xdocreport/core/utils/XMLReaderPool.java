@@ -0,0 +1,111 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.core.utils;
+
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+import org.xml.sax.helpers.XMLReaderFactory;
+
+/**
+ * Pool of SAX {@link XMLReader} which caches an {@link XMLReader} per thread to avoid looking up the SAX
+ * implementation and creating a new parser for each parsed XML content (preprocessed entry, HTML text styling
+ * value...). Usage :
+ * 
+ * <pre>
+ * XMLReader xmlReader = XMLReaderPool.acquire();
+ * try
+ * {
+ *     xmlReader.setContentHandler( contentHandler );
+ *     xmlReader.parse( inputSource );
+ * }
+ * finally
+ * {
+ *     XMLReaderPool.release( xmlReader );
+ * }
+ * </pre>
+ * 
+ * The features and properties of an acquired {@link XMLReader} must not be modified (only handlers are reset when it
+ * is released).
+ */
+public class XMLReaderPool
+{
+
+    /**
+     * Handler used to reset the handlers of a released {@link XMLReader} (same behaviour as a new {@link XMLReader}).
+     */
+    private static final DefaultHandler EMPTY_HANDLER = new DefaultHandler();
+
+    /**
+     * Released {@link XMLReader} of the current thread.
+     */
+    private static final ThreadLocal<XMLReader> RELEASED_READER = new ThreadLocal<XMLReader>();
+
+    /**
+     * Returns the {@link XMLReader} released by the current thread or a new {@link XMLReader} if there is no released
+     * reader (first use or nested parsing).
+     * 
+     * @return
+     * @throws SAXException
+     */
+    public static XMLReader acquire()
+        throws SAXException
+    {
+        XMLReader xmlReader = RELEASED_READER.get();
+        if ( xmlReader != null )
+        {
+            RELEASED_READER.remove();
+            return xmlReader;
+        }
+        return XMLReaderFactory.createXMLReader();
+    }
+
+    /**
+     * Release the given {@link XMLReader} to reuse it for the next parsing of the current thread.
+     * 
+     * @param xmlReader the reader returned by {@link #acquire()}.
+     */
+    public static void release( XMLReader xmlReader )
+    {
+        if ( xmlReader == null )
+        {
+            return;
+        }
+        // reset handlers to avoid keeping in memory the handlers of the last parsing.
+        xmlReader.setContentHandler( EMPTY_HANDLER );
+        xmlReader.setErrorHandler( EMPTY_HANDLER );
+        xmlReader.setEntityResolver( EMPTY_HANDLER );
+        xmlReader.setDTDHandler( EMPTY_HANDLER );
+        RELEASED_READER.set( xmlReader );
+    }
+
+    /**
+     * Remove the released {@link XMLReader} of the current thread.
+     */
+    public static void clear()
+    {
+        RELEASED_READER.remove();
+    }
+}
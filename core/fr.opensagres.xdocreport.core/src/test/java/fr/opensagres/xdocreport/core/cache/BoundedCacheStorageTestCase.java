@@ -0,0 +1,243 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.core.cache;
+
+import junit.framework.TestCase;
+
+public class BoundedCacheStorageTestCase
+    extends TestCase
+{
+
+    private static class TestCacheStorage
+        extends BoundedCacheStorage<String, String>
+    {
+
+        private long time;
+
+        @Override
+        protected long currentTimeMillis()
+        {
+            return time;
+        }
+
+        public void tick()
+        {
+            time++;
+        }
+    }
+
+    public void testUnbounded()
+    {
+        TestCacheStorage cache = new TestCacheStorage();
+        for ( int i = 0; i < 100; i++ )
+        {
+            cache.put( "key" + i, "value" + i );
+        }
+        assertEquals( 100, cache.size() );
+        assertEquals( 100, cache.values().size() );
+        assertEquals( "value10", cache.get( "key10" ) );
+        assertNull( cache.get( "unknown" ) );
+        assertEquals( 1, cache.getHitCount() );
+        assertEquals( 1, cache.getMissCount() );
+        assertEquals( 0, cache.getEvictionCount() );
+
+        cache.remove( "key10" );
+        assertFalse( cache.containsKey( "key10" ) );
+        cache.clear();
+        assertEquals( 0, cache.size() );
+    }
+
+    public void testLRU()
+    {
+        TestCacheStorage cache = new TestCacheStorage();
+        cache.setMaxEntries( 2 );
+        cache.put( "a", "A" );
+        cache.tick();
+        cache.put( "b", "B" );
+        cache.tick();
+        // "a" is now the most recently used
+        assertEquals( "A", cache.get( "a" ) );
+        cache.tick();
+        cache.put( "c", "C" );
+
+        assertEquals( 2, cache.size() );
+        assertTrue( cache.containsKey( "a" ) );
+        assertFalse( cache.containsKey( "b" ) );
+        assertTrue( cache.containsKey( "c" ) );
+        assertEquals( 1, cache.getEvictionCount() );
+    }
+
+    public void testLFU()
+    {
+        TestCacheStorage cache = new TestCacheStorage();
+        cache.setMaxEntries( 2 );
+        cache.setEvictionPolicy( CacheEvictionPolicy.LFU );
+        cache.put( "a", "A" );
+        cache.tick();
+        cache.put( "b", "B" );
+        cache.tick();
+        cache.get( "a" );
+        cache.get( "a" );
+        cache.tick();
+        // "b" is the most recently used but the less frequently used
+        cache.get( "b" );
+        cache.tick();
+        cache.put( "c", "C" );
+
+        assertTrue( cache.containsKey( "a" ) );
+        assertFalse( cache.containsKey( "b" ) );
+        assertTrue( cache.containsKey( "c" ) );
+    }
+
+    public void testMaxWeight()
+    {
+        TestCacheStorage cache = new TestCacheStorage();
+        cache.setMaxWeight( 10 );
+        cache.setWeigher( new ICacheWeigher<String, String>()
+        {
+            public long weigh( String key, String value )
+            {
+                return value.length();
+            }
+        } );
+        cache.put( "a", "12345" );
+        cache.tick();
+        cache.put( "b", "1234" );
+        assertEquals( 9, cache.getWeight() );
+        cache.tick();
+        cache.put( "c", "12" );
+        assertEquals( 6, cache.getWeight() );
+        assertFalse( cache.containsKey( "a" ) );
+
+        // replace an entry updates the weight
+        cache.put( "c", "1" );
+        assertEquals( 5, cache.getWeight() );
+
+        // an entry heavier than the max weight is kept alone
+        cache.tick();
+        cache.put( "d", "12345678901" );
+        assertEquals( 1, cache.size() );
+        assertEquals( 11, cache.getWeight() );
+        assertEquals( "12345678901", cache.get( "d" ) );
+        assertEquals( 3, cache.getEvictionCount() );
+    }
+
+    public void testTimeToLive()
+    {
+        TestCacheStorage cache = new TestCacheStorage();
+        cache.setTimeToLive( 2 );
+        cache.put( "a", "A" );
+        cache.tick();
+        assertEquals( "A", cache.get( "a" ) );
+        cache.tick();
+        assertNull( cache.get( "a" ) );
+        assertEquals( 0, cache.size() );
+        assertEquals( 1, cache.getExpirationCount() );
+        assertEquals( 1, cache.getMissCount() );
+    }
+
+    public void testTimeToIdle()
+    {
+        TestCacheStorage cache = new TestCacheStorage();
+        cache.setTimeToIdle( 2 );
+        cache.put( "a", "A" );
+        cache.put( "b", "B" );
+        for ( int i = 0; i < 5; i++ )
+        {
+            cache.tick();
+            assertEquals( "A", cache.get( "a" ) );
+        }
+        assertTrue( cache.containsKey( "a" ) );
+        assertEquals( 1, cache.values().size() );
+        assertFalse( cache.containsKey( "b" ) );
+        assertEquals( 1, cache.getExpirationCount() );
+    }
+
+    public void testLFUWithSameAccessCount()
+    {
+        TestCacheStorage cache = new TestCacheStorage();
+        cache.setMaxEntries( 3 );
+        cache.setEvictionPolicy( CacheEvictionPolicy.LFU );
+        cache.put( "a", "A" );
+        cache.put( "b", "B" );
+        cache.put( "c", "C" );
+        cache.get( "b" );
+        cache.get( "a" );
+        cache.get( "c" );
+        cache.get( "c" );
+        // "a" and "b" were accessed once, "b" is the least recently used
+        cache.put( "d", "D" );
+        assertFalse( cache.containsKey( "b" ) );
+        cache.remove( "a" );
+        cache.put( "e", "E" );
+        cache.put( "f", "F" );
+        // "d" is the least recently used entry with no access
+        assertFalse( cache.containsKey( "d" ) );
+        assertTrue( cache.containsKey( "c" ) );
+        assertTrue( cache.containsKey( "e" ) );
+        assertTrue( cache.containsKey( "f" ) );
+        assertEquals( 2, cache.getEvictionCount() );
+    }
+
+    public void testEvictExpiredEntry()
+    {
+        TestCacheStorage cache = new TestCacheStorage();
+        cache.setMaxEntries( 2 );
+        cache.setTimeToLive( 2 );
+        cache.put( "a", "A" );
+        cache.tick();
+        cache.put( "b", "B" );
+        cache.tick();
+        cache.put( "c", "C" );
+        assertEquals( 2, cache.size() );
+        assertFalse( cache.containsKey( "a" ) );
+        assertEquals( 0, cache.getEvictionCount() );
+        assertEquals( 1, cache.getExpirationCount() );
+    }
+
+    public void testInvalidSystemProperties()
+    {
+        System.setProperty( BoundedCacheStorageFactoryDiscovery.MAX_ENTRIES_PROPERTY, "ten" );
+        System.setProperty( BoundedCacheStorageFactoryDiscovery.EVICTION_POLICY_PROPERTY, "FIFO" );
+        try
+        {
+            ICacheStorage<String, String> storage = new BoundedCacheStorageFactoryDiscovery().createCache();
+            BoundedCacheStorage<String, String> cache = (BoundedCacheStorage<String, String>) storage;
+            assertEquals( 0, cache.getMaxEntries() );
+            assertEquals( CacheEvictionPolicy.LRU, cache.getEvictionPolicy() );
+        }
+        finally
+        {
+            System.clearProperty( BoundedCacheStorageFactoryDiscovery.MAX_ENTRIES_PROPERTY );
+            System.clearProperty( BoundedCacheStorageFactoryDiscovery.EVICTION_POLICY_PROPERTY );
+        }
+    }
+
+    public void testRegistry()
+    {
+        ICacheStorage<String, String> cache = CacheStorageRegistry.getRegistry().createCache();
+        assertTrue( cache instanceof BoundedCacheStorage );
+    }
+}
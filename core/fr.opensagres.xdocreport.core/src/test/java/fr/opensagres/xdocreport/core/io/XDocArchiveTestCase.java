@@ -24,12 +24,22 @@
  */
 package fr.opensagres.xdocreport.core.io;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
 import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Set;
 import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
 
 import junit.framework.TestCase;
 import fr.opensagres.xdocreport.core.logging.LogUtils;
@@ -132,6 +142,234 @@ public class XDocArchiveTestCase
         contentWriter.close();
     }
 
+    public void testCreateCopyIsCopyOnWrite()
+        throws IOException
+    {
+        XDocArchive archive = new XDocArchive();
+        Writer contentWriter = archive.getEntryWriter( "content.xml" );
+        contentWriter.write( "original content" );
+        contentWriter.close();
+        Writer stylesWriter = archive.getEntryWriter( "styles.xml" );
+        stylesWriter.write( "original styles" );
+        stylesWriter.close();
+
+        XDocArchive copy = archive.createCopy();
+        assertEquals( archive.getEntryNames(), copy.getEntryNames() );
+
+        // rewrite an entry of the copy
+        contentWriter = copy.getEntryWriter( "content.xml" );
+        contentWriter.write( "merged content" );
+        contentWriter.close();
+
+        assertEquals( "merged content", IOUtils.toString( copy.getEntryReader( "content.xml" ) ) );
+        assertEquals( "original styles", IOUtils.toString( copy.getEntryReader( "styles.xml" ) ) );
+        // the original archive must not be impacted
+        assertEquals( "original content", IOUtils.toString( archive.getEntryReader( "content.xml" ) ) );
+        assertEquals( "original styles", IOUtils.toString( archive.getEntryReader( "styles.xml" ) ) );
+
+        // dispose the copy must not dispose the original archive
+        copy.dispose();
+        assertEquals( "original content", IOUtils.toString( archive.getEntryReader( "content.xml" ) ) );
+    }
+
+    public void testWriteZip()
+        throws IOException
+    {
+        InputStream input = XDocArchiveTestCase.class.getResourceAsStream( "empty.odt" );
+        XDocArchive archive = XDocArchive.readZip( input );
+
+        // the original archive is written with a ZipOutputStream
+        byte[] zip1 = toZip( archive );
+        assertZipEquals( archive, zip1 );
+
+        // copy and rewrite an entry : the copy is written with a RawZipOutputStream
+        XDocArchive copy = archive.createCopy();
+        // the static entries compressed by the first write are reused by the next ones
+        assertZipEquals( copy, toZip( copy ) );
+        Writer contentWriter = copy.getEntryWriter( "content.xml" );
+        contentWriter.write( "<merged/>" );
+        contentWriter.close();
+        byte[] zip3 = toZip( copy );
+        XDocArchive copyRead = assertZipEquals( copy, zip3 );
+        assertEquals( "<merged/>", IOUtils.toString( copyRead.getEntryReader( "content.xml" ) ) );
+
+        // the original archive must not be impacted
+        assertZipEquals( archive, toZip( archive ) );
+
+        // check that the zip can be read with its central directory
+        File file = File.createTempFile( "xdocarchive", ".zip" );
+        try
+        {
+            FileOutputStream out = new FileOutputStream( file );
+            out.write( zip3 );
+            out.close();
+            ZipFile zipFile = new ZipFile( file );
+            try
+            {
+                assertEquals( copy.getEntryNames().size(), zipFile.size() );
+                ZipEntry mimetype = zipFile.getEntry( "mimetype" );
+                assertEquals( ZipEntry.STORED, mimetype.getMethod() );
+                InputStream content = zipFile.getInputStream( zipFile.getEntry( "content.xml" ) );
+                assertEquals( "<merged/>", IOUtils.toString( content ) );
+            }
+            finally
+            {
+                zipFile.close();
+            }
+        }
+        finally
+        {
+            file.delete();
+        }
+    }
+
+    public void testWriteZipWithTooManyEntriesForRawZip()
+        throws IOException
+    {
+        XDocArchive archive = new XDocArchive();
+        write( archive, "mimetype", "application/vnd.oasis.opendocument.text" );
+        for ( int i = 0; i < 0xFFFF; i++ )
+        {
+            write( archive, "entry" + i + ".xml", "<e/>" );
+        }
+        XDocArchive copy = archive.createCopy();
+        // the entries can only be written with ZIP64 extensions
+        assertFalse( copy.isRawZipSupported() );
+
+        ZipInputStream zipInputStream = new ZipInputStream( new ByteArrayInputStream( toZip( copy ) ) );
+        int nbEntries = 0;
+        while ( zipInputStream.getNextEntry() != null )
+        {
+            nbEntries++;
+        }
+        zipInputStream.close();
+        assertEquals( 0xFFFF + 1, nbEntries );
+    }
+
+    public void testRawZipOnlyForCopy()
+        throws IOException
+    {
+        XDocArchive archive = XDocArchive.readZip( XDocArchiveTestCase.class.getResourceAsStream( "empty.odt" ) );
+        assertFalse( archive.isRawZipSupported() );
+        assertTrue( archive.createCopy().isRawZipSupported() );
+    }
+
+    public void testGetInputStreamNotCompressed()
+        throws IOException
+    {
+        InputStream input = XDocArchiveTestCase.class.getResourceAsStream( "empty.odt" );
+        XDocArchive archive = XDocArchive.readZip( input );
+
+        byte[] zip = IOUtils.toByteArray( XDocArchive.getInputStream( archive, false ) );
+        assertZipEquals( archive, zip );
+
+        // all entries are stored
+        ZipInputStream zipInputStream = new ZipInputStream( new ByteArrayInputStream( zip ) );
+        try
+        {
+            ZipEntry entry = null;
+            while ( ( entry = zipInputStream.getNextEntry() ) != null )
+            {
+                assertEquals( entry.getName(), ZipEntry.STORED, entry.getMethod() );
+            }
+        }
+        finally
+        {
+            zipInputStream.close();
+        }
+    }
+
+    public void testGetEntryNamesIsSnapshot()
+        throws IOException
+    {
+        XDocArchive archive = new XDocArchive();
+        write( archive, "a.xml", "<a/>" );
+        Set<String> entryNames = archive.getEntryNames();
+        for ( String entryName : entryNames )
+        {
+            // writing an entry while iterating the entry names must not throw ConcurrentModificationException
+            write( archive, "copy-" + entryName, "<copy/>" );
+        }
+        assertEquals( 1, entryNames.size() );
+        assertEquals( 2, archive.getEntryNames().size() );
+        assertEquals( 1, archive.getEntryNames( "copy-*" ).size() );
+    }
+
+    public void testGetEntryNamesIsSharedUntilEntryAdded()
+        throws IOException
+    {
+        XDocArchive archive = new XDocArchive();
+        write( archive, "a.xml", "<a/>" );
+        Set<String> entryNames = archive.getEntryNames();
+        assertSame( entryNames, archive.getEntryNames() );
+        try
+        {
+            entryNames.add( "b.xml" );
+            fail( "Entry names must not be modifiable" );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            // expected
+        }
+
+        // rewriting an entry doesn't change the entry names
+        write( archive, "a.xml", "<a>rewritten</a>" );
+        assertSame( entryNames, archive.getEntryNames() );
+
+        write( archive, "b.xml", "<b/>" );
+        assertNotSame( entryNames, archive.getEntryNames() );
+        assertEquals( 2, archive.getEntryNames().size() );
+    }
+
+    public void testGetEstimatedSizeCountsSharedEntriesOnce()
+        throws IOException
+    {
+        XDocArchive archive = new XDocArchive();
+        write( archive, "a.xml", "<a/>" );
+        write( archive, "b.xml", "<bb/>" );
+        XDocArchive copy = archive.createCopy();
+        write( copy, "b.xml", "<merged/>" );
+        assertEquals( 9, archive.getEstimatedSize() );
+
+        Set<byte[]> countedEntries = Collections.newSetFromMap( new IdentityHashMap<byte[], Boolean>() );
+        assertEquals( 9, archive.getEstimatedSize( countedEntries ) );
+        // only the rewritten entry of the copy is counted
+        assertEquals( 9, copy.getEstimatedSize( countedEntries ) );
+        assertEquals( 0, archive.getEstimatedSize( countedEntries ) );
+    }
+
+    private static void write( XDocArchive archive, String entryName, String content )
+        throws IOException
+    {
+        Writer writer = archive.getEntryWriter( entryName );
+        writer.write( content );
+        writer.close();
+    }
+
+    private static byte[] toZip( XDocArchive archive )
+        throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        XDocArchive.writeZip( archive, out );
+        return out.toByteArray();
+    }
+
+    private static XDocArchive assertZipEquals( XDocArchive expected, byte[] zip )
+        throws IOException
+    {
+        XDocArchive actual = XDocArchive.readZip( new ByteArrayInputStream( zip ) );
+        assertEquals( expected.getEntryNames(), actual.getEntryNames() );
+        for ( String entryName : expected.getEntryNames() )
+        {
+            ByteArrayOutputStream expectedData = new ByteArrayOutputStream();
+            XDocArchive.writeEntry( expected, entryName, expectedData );
+            ByteArrayOutputStream actualData = new ByteArrayOutputStream();
+            XDocArchive.writeEntry( actual, entryName, actualData );
+            assertTrue( entryName, Arrays.equals( expectedData.toByteArray(), actualData.toByteArray() ) );
+        }
+        return actual;
+    }
+
     /**
      * docx with entry name with '\'.
      * 
@@ -0,0 +1,114 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.core.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ExecutorUtilsTestCase
+{
+
+    @Test
+    public void testExecutorWhichNeverRunsTasks()
+        throws Exception
+    {
+        // saturated executor : queued tasks are never started
+        List<String> results = ExecutorUtils.invokeAll( createTasks( 3 ), new Executor()
+        {
+            public void execute( Runnable command )
+            {
+                // never executed
+            }
+        } );
+        assertEquals( Arrays.asList( "task0", "task1", "task2" ), results );
+    }
+
+    @Test
+    public void testExecutorWhichRejectsTasks()
+        throws Exception
+    {
+        List<String> results = ExecutorUtils.invokeAll( createTasks( 2 ), new Executor()
+        {
+            public void execute( Runnable command )
+            {
+                throw new RejectedExecutionException();
+            }
+        } );
+        assertEquals( Arrays.asList( "task0", "task1" ), results );
+    }
+
+    @Test( timeout = 10000 )
+    public void testInvokeAllFromAWorkerOfTheExecutor()
+        throws Exception
+    {
+        // the only thread of the executor calls invokeAll with the same executor
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try
+        {
+            Future<List<String>> results = executor.submit( new Callable<List<String>>()
+            {
+                public List<String> call()
+                    throws Exception
+                {
+                    return ExecutorUtils.invokeAll( createTasks( 4 ), executor );
+                }
+            } );
+            assertEquals( Arrays.asList( "task0", "task1", "task2", "task3" ), results.get( 5, TimeUnit.SECONDS ) );
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private static List<Callable<String>> createTasks( int nbTasks )
+    {
+        List<Callable<String>> tasks = new ArrayList<Callable<String>>( nbTasks );
+        for ( int i = 0; i < nbTasks; i++ )
+        {
+            final String result = "task" + i;
+            tasks.add( new Callable<String>()
+            {
+                public String call()
+                {
+                    return result;
+                }
+            } );
+        }
+        return tasks;
+    }
+}
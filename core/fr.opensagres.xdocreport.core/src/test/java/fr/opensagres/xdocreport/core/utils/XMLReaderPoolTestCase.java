@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.core.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.StringReader;
+
+import org.junit.After;
+import org.junit.Test;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+public class XMLReaderPoolTestCase
+{
+
+    @After
+    public void tearDown()
+    {
+        XMLReaderPool.clear();
+    }
+
+    @Test
+    public void testReuseReleasedReader()
+        throws Exception
+    {
+        XMLReader xmlReader = XMLReaderPool.acquire();
+        assertEquals( 2, countElements( xmlReader, "<a><b/></a>" ) );
+        XMLReaderPool.release( xmlReader );
+
+        XMLReader reusedReader = XMLReaderPool.acquire();
+        assertSame( xmlReader, reusedReader );
+        assertEquals( 3, countElements( reusedReader, "<a><b/><c/></a>" ) );
+        XMLReaderPool.release( reusedReader );
+    }
+
+    @Test
+    public void testResetHandlers()
+        throws Exception
+    {
+        XMLReader xmlReader = XMLReaderPool.acquire();
+        ElementCounter counter = new ElementCounter();
+        xmlReader.setContentHandler( counter );
+        XMLReaderPool.release( xmlReader );
+
+        assertNotSame( counter, xmlReader.getContentHandler() );
+        assertNotSame( counter, xmlReader.getErrorHandler() );
+    }
+
+    @Test
+    public void testNestedAcquire()
+        throws Exception
+    {
+        XMLReader xmlReader = XMLReaderPool.acquire();
+        XMLReader nestedReader = XMLReaderPool.acquire();
+        assertNotSame( xmlReader, nestedReader );
+        XMLReaderPool.release( nestedReader );
+        XMLReaderPool.release( xmlReader );
+    }
+
+    @Test
+    public void testReaderPerThread()
+        throws Exception
+    {
+        XMLReaderPool.release( XMLReaderPool.acquire() );
+        final XMLReader[] otherReader = new XMLReader[1];
+        Thread thread = new Thread()
+        {
+            @Override
+            public void run()
+            {
+                try
+                {
+                    otherReader[0] = XMLReaderPool.acquire();
+                }
+                catch ( Exception e )
+                {
+                    throw new RuntimeException( e );
+                }
+            }
+        };
+        thread.start();
+        thread.join();
+        assertNotSame( XMLReaderPool.acquire(), otherReader[0] );
+    }
+
+    private static int countElements( XMLReader xmlReader, String xml )
+        throws Exception
+    {
+        ElementCounter counter = new ElementCounter();
+        xmlReader.setContentHandler( counter );
+        xmlReader.parse( new InputSource( new StringReader( xml ) ) );
+        return counter.count;
+    }
+
+    private static class ElementCounter
+        extends DefaultHandler
+    {
+
+        private int count;
+
+        @Override
+        public void startElement( String uri, String localName, String qName, Attributes attributes )
+        {
+            count++;
+        }
+    }
+}
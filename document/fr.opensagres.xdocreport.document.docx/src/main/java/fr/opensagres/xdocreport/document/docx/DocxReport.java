@@ -36,15 +36,20 @@ import static fr.opensagres.xdocreport.document.docx.DocxConstants.WORD_RELS_XML
 import static fr.opensagres.xdocreport.document.docx.DocxConstants.WORD_STYLES_XML_ENTRY;
 
 import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
-
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 
 import fr.opensagres.xdocreport.converter.MimeMapping;
 import fr.opensagres.xdocreport.core.XDocReportException;
@@ -53,6 +58,8 @@ import fr.opensagres.xdocreport.core.io.IEntryOutputStreamProvider;
 import fr.opensagres.xdocreport.core.io.IEntryReaderProvider;
 import fr.opensagres.xdocreport.core.io.IEntryWriterProvider;
 import fr.opensagres.xdocreport.core.io.XDocArchive;
+import fr.opensagres.xdocreport.core.utils.ExecutorUtils;
+import fr.opensagres.xdocreport.core.utils.XMLReaderPool;
 import fr.opensagres.xdocreport.document.AbstractXDocReport;
 import fr.opensagres.xdocreport.document.docx.images.DocxImageRegistry;
 import fr.opensagres.xdocreport.document.docx.preprocessor.DefaultStyle;
@@ -63,11 +70,13 @@ import fr.opensagres.xdocreport.document.docx.preprocessor.sax.hyperlinks.Hyperl
 import fr.opensagres.xdocreport.document.docx.preprocessor.sax.hyperlinks.HyperlinkUtils;
 import fr.opensagres.xdocreport.document.docx.preprocessor.sax.hyperlinks.InitialHyperlinkMap;
 import fr.opensagres.xdocreport.document.docx.preprocessor.sax.notes.InitialNoteInfoMap;
+import fr.opensagres.xdocreport.document.docx.preprocessor.sax.notes.NoteInfo;
 import fr.opensagres.xdocreport.document.docx.preprocessor.sax.notes.NoteRegistry;
 import fr.opensagres.xdocreport.document.docx.preprocessor.sax.notes.NoteUtils;
 import fr.opensagres.xdocreport.document.docx.preprocessor.sax.notes.endnotes.DocxEndnotesPreprocessor;
 import fr.opensagres.xdocreport.document.docx.preprocessor.sax.notes.footnotes.DocxFootnotesPreprocessor;
 import fr.opensagres.xdocreport.document.docx.preprocessor.sax.numbering.DocxNumberingPreprocessor;
+import fr.opensagres.xdocreport.document.docx.preprocessor.sax.numbering.NumberingRegistry;
 import fr.opensagres.xdocreport.document.docx.preprocessor.sax.rels.DocxDocumentXMLRelsPreprocessor;
 import fr.opensagres.xdocreport.document.docx.preprocessor.sax.styles.DocxStylesPreprocessor;
 import fr.opensagres.xdocreport.document.docx.template.DocxContextHelper;
@@ -88,20 +97,25 @@ public class DocxReport
         WORD_ENDNOTES_XML_ENTRY,
         WORD_NUMBERING_XML_ENTRY };
 
-    private Set<String> allEntryNamesHyperlinks;
+    private static final String STYLES_NOTES_PREPROCESSING_GROUP = "styles-notes";
 
-    private Set<String> modifiedEntryNamesHyperlinks;
+    private static final String DOCUMENT_PREPROCESSING_GROUP = "document";
 
-    private DefaultStyle defaultStyle;
+    private static final String DEFAULT_STYLE_STATE = "defaultStyle";
 
-    private InitialNoteInfoMap initialFootNoteInfoMap;
+    private static final String HYPERLINKS_STATE = "hyperlinks";
 
-    private InitialNoteInfoMap initialEndNoteInfoMap;
-    
-    public DocxReport()
-    {
-        this.defaultStyle = new DefaultStyle();
-    }
+    private static final String FOOTNOTES_STATE = "footnotes";
+
+    private static final String ENDNOTES_STATE = "endnotes";
+
+    private static final Collection<Class<?>> PREPROCESSED_STATE_CLASSES =
+        Arrays.<Class<?>> asList( DefaultStyle.class, InitialNoteInfoMap.class, NoteInfo.class );
+
+    /**
+     * Key of the shared context of the preprocessing which stores the names of the entries which have hyperlinks.
+     */
+    private static final String HYPERLINKS_ENTRY_NAMES_KEY = "___HyperlinksEntryNames";
 
     public String getKind()
     {
@@ -131,6 +145,33 @@ public class DocxReport
         return DEFAULT_XML_ENTRIES;
     }
 
+    @Override
+    protected String getPreprocessingGroup( String entryName )
+    {
+        // styles and notes don't depend on each other and can be preprocessed in parallel
+        if ( WORD_STYLES_XML_ENTRY.equals( entryName ) || WORD_FOOTNOTES_XML_ENTRY.equals( entryName )
+            || WORD_ENDNOTES_XML_ENTRY.equals( entryName ) )
+        {
+            return STYLES_NOTES_PREPROCESSING_GROUP;
+        }
+        // document, headers and footers use the notes (preprocessed before) and their own hyperlinks. The
+        // relationships (which use the modified hyperlinks) are preprocessed after.
+        if ( WORD_DOCUMENT_XML_ENTRY.equals( entryName ) || WORD_HEADER_XML_ENTRY.equals( entryName )
+            || WORD_FOOTER_XML_ENTRY.equals( entryName ) )
+        {
+            return DOCUMENT_PREPROCESSING_GROUP;
+        }
+        return null;
+    }
+
+    @Override
+    protected boolean isIndependentXMLEntry( String xmlEntry )
+    {
+        // headers and footers can be merged in parallel (hyperlink registry is created per entry and relationships
+        // are merged after)
+        return WORD_HEADER_XML_ENTRY.equals( xmlEntry ) || WORD_FOOTER_XML_ENTRY.equals( xmlEntry );
+    }
+
     public MimeMapping getMimeMapping()
     {
         return MIME_MAPPING;
@@ -145,7 +186,7 @@ public class DocxReport
     }
 
     @Override
-    protected void onBeforePreprocessing( Map<String, Object> sharedContext, XDocArchive preprocessedArchive )
+    protected void onBeforePreprocessing( Map<String, Object> sharedContext, final XDocArchive preprocessedArchive )
         throws XDocReportException
     {
         super.onBeforePreprocessing( sharedContext, preprocessedArchive );
@@ -153,99 +194,176 @@ public class DocxReport
         // the whole entries (*.xml.rels like "word/_rels/document.xml.rels") in
         // the shared
         // context.
-        Set<String> xmlRelsEntryNames = preprocessedArchive.getEntryNames( WORD_RELS_XMLRELS_XML_ENTRY );
-        this.allEntryNamesHyperlinks = new HashSet<String>();
-        String entryName = null;
-        // Loop for each entries *.xml.rels
-        for ( String relsEntryName : xmlRelsEntryNames )
+        List<String> xmlRelsEntryNames =
+            new ArrayList<String>( preprocessedArchive.getEntryNames( WORD_RELS_XMLRELS_XML_ENTRY ) );
+        Set<String> allEntryNamesHyperlinks = new HashSet<String>();
+        List<HyperlinkContentHandler> contentHandlers = null;
+        Executor executor = getPreprocessExecutor();
+        if ( executor != null && xmlRelsEntryNames.size() > 1 )
         {
-            try
+            // parse the *.xml.rels in parallel
+            List<Callable<HyperlinkContentHandler>> tasks = new ArrayList<Callable<HyperlinkContentHandler>>();
+            for ( final String relsEntryName : xmlRelsEntryNames )
             {
-                HyperlinkContentHandler contentHandler = new HyperlinkContentHandler();
-                SAXParser saxParser = SAXParserFactory.newInstance().newSAXParser();
-				saxParser.parse(preprocessedArchive.getEntryInputStream(relsEntryName), contentHandler);
-                if ( contentHandler.getHyperlinks() != null )
+                tasks.add( new Callable<HyperlinkContentHandler>()
                 {
-                    // Current *.xml.rels document has hyperlinks, store it in
-                    // the
-                    // sharedContext with the key *.xml (ex : if the current
-                    // entry is "word/_rels/document.xml.rels", key used will be
-                    // * "word/document.xml").
-                    entryName = HyperlinkUtils.getEntryNameWithoutRels( relsEntryName );
-                    HyperlinkUtils.putInitialHyperlinkMap( entryName, sharedContext, contentHandler.getHyperlinks() );
-                    allEntryNamesHyperlinks.add( entryName );
-                }
+                    public HyperlinkContentHandler call()
+                        throws Exception
+                    {
+                        return parseHyperlinks( relsEntryName, preprocessedArchive );
+                    }
+                } );
             }
-            catch ( SAXException e )
+            try
             {
-                throw new XDocReportException( e );
+                contentHandlers = ExecutorUtils.invokeAll( tasks, executor );
             }
             catch ( IOException e )
             {
                 throw new XDocReportException( e );
             }
-			catch (ParserConfigurationException e)
-			{
-                throw new XDocReportException( e );
-			}
         }
+        else
+        {
+            contentHandlers = new ArrayList<HyperlinkContentHandler>( xmlRelsEntryNames.size() );
+            for ( String relsEntryName : xmlRelsEntryNames )
+            {
+                contentHandlers.add( parseHyperlinks( relsEntryName, preprocessedArchive ) );
+            }
+        }
+        String entryName = null;
+        // Loop for each entries *.xml.rels
+        for ( int i = 0; i < xmlRelsEntryNames.size(); i++ )
+        {
+            HyperlinkContentHandler contentHandler = contentHandlers.get( i );
+            if ( contentHandler.getHyperlinks() != null )
+            {
+                // Current *.xml.rels document has hyperlinks, store it in
+                // the
+                // sharedContext with the key *.xml (ex : if the current
+                // entry is "word/_rels/document.xml.rels", key used will be
+                // * "word/document.xml").
+                entryName = HyperlinkUtils.getEntryNameWithoutRels( xmlRelsEntryNames.get( i ) );
+                HyperlinkUtils.putInitialHyperlinkMap( entryName, sharedContext, contentHandler.getHyperlinks() );
+                allEntryNamesHyperlinks.add( entryName );
+            }
+        }
+        sharedContext.put( HYPERLINKS_ENTRY_NAMES_KEY, allEntryNamesHyperlinks );
         // Default style
-        sharedContext.put( DocxContextHelper.DEFAULT_STYLE_KEY, defaultStyle );
+        sharedContext.put( DocxContextHelper.DEFAULT_STYLE_KEY, new DefaultStyle() );
     }
 
-    @Override
-    protected void onAfterPreprocessing( Map<String, Object> sharedContext, XDocArchive preprocessedArchive )
+    /**
+     * Parse the given *.xml.rels entry to collect the hyperlinks.
+     */
+    private static HyperlinkContentHandler parseHyperlinks( String relsEntryName, XDocArchive preprocessedArchive )
         throws XDocReportException
     {
-        super.onAfterPreprocessing( sharedContext, preprocessedArchive );
-        // Compute if the docx has dynamic hyperlink
-        if ( sharedContext != null )
+        XMLReader xmlReader = null;
+        try
+        {
+            HyperlinkContentHandler contentHandler = new HyperlinkContentHandler();
+            xmlReader = XMLReaderPool.acquire();
+            xmlReader.setContentHandler( contentHandler );
+            xmlReader.parse( new InputSource( preprocessedArchive.getEntryInputStream( relsEntryName ) ) );
+            return contentHandler;
+        }
+        catch ( SAXException e )
+        {
+            throw new XDocReportException( e );
+        }
+        catch ( IOException e )
+        {
+            throw new XDocReportException( e );
+        }
+        finally
+        {
+            XMLReaderPool.release( xmlReader );
+        }
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Override
+    protected void savePreprocessedState( Map<String, Object> sharedContext, Map<String, Serializable> state )
+    {
+        super.savePreprocessedState( sharedContext, state );
+        // 1) Compute if the docx has dynamic hyperlink
+        HashSet<String> modifiedEntryNamesHyperlinks = new HashSet<String>();
+        InitialHyperlinkMap hyperlinkMap = null;
+        for ( String entryName : (Set<String>) sharedContext.get( HYPERLINKS_ENTRY_NAMES_KEY ) )
         {
-            // 1) Hyperlink
-            InitialHyperlinkMap hyperlinkMap = null;
-            modifiedEntryNamesHyperlinks = new HashSet<String>();
-            for ( String entryName : allEntryNamesHyperlinks )
+            hyperlinkMap = HyperlinkUtils.getInitialHyperlinkMap( entryName, sharedContext );
+            if ( hyperlinkMap != null && hyperlinkMap.isModified() )
             {
-                hyperlinkMap = HyperlinkUtils.getInitialHyperlinkMap( entryName, sharedContext );
-                if ( hyperlinkMap != null && hyperlinkMap.isModified() )
-                {
-                    modifiedEntryNamesHyperlinks.add( entryName );
-                }
+                modifiedEntryNamesHyperlinks.add( entryName );
             }
-            // 2) Footnotes
-            initialFootNoteInfoMap = NoteUtils.getInitialFootNoteInfoMap( sharedContext );
-            // 3) Endnotes
-            initialEndNoteInfoMap = NoteUtils.getInitialEndNoteInfoMap( sharedContext );            
         }
+        state.put( HYPERLINKS_STATE, modifiedEntryNamesHyperlinks );
+        // 2) Default style
+        state.put( DEFAULT_STYLE_STATE, (DefaultStyle) sharedContext.get( DocxContextHelper.DEFAULT_STYLE_KEY ) );
+        // 3) Footnotes
+        state.put( FOOTNOTES_STATE, NoteUtils.getInitialFootNoteInfoMap( sharedContext ) );
+        // 4) Endnotes
+        state.put( ENDNOTES_STATE, NoteUtils.getInitialEndNoteInfoMap( sharedContext ) );
     }
 
     @Override
-    protected void onBeforeProcessTemplateEngine( IContext context, XDocArchive outputArchive )
+    protected Collection<Class<?>> getPreprocessedStateClasses()
+    {
+        return PREPROCESSED_STATE_CLASSES;
+    }
+
+    @SuppressWarnings( "unchecked" )
+    @Override
+    protected void onBeforeProcessTemplateEngine( IContext context, XDocArchive outputArchive,
+                                                  Map<String, Serializable> preprocessedState )
         throws XDocReportException
     {
         // 1) Register commons Java model in the context
-        super.onBeforeProcessTemplateEngine( context, outputArchive );
+        super.onBeforeProcessTemplateEngine( context, outputArchive, preprocessedState );
         // 2) Register for each entries (word/document.xml, ... which definies hyperlink a hyperlink registry.
-        for ( String entryName : modifiedEntryNamesHyperlinks )
+        for ( String entryName : (Set<String>) preprocessedState.get( HYPERLINKS_STATE ) )
         {
             // docx has dynamic hyperlink, put an instance of HyperlinkRegistry
             // in the context.
             DocxContextHelper.putHyperlinkRegistry( context, entryName, new HyperlinkRegistry() );
         }
         // 3) Register default style instance
-        DocxContextHelper.putDefaultStyle( context, defaultStyle );
+        DocxContextHelper.putDefaultStyle( context, (DefaultStyle) preprocessedState.get( DEFAULT_STYLE_STATE ) );
         // 4) Register styles generator if not exists.
         DocxContextHelper.getStylesGenerator( context );
         // 5) Footnotes registry if need
-        if ( initialFootNoteInfoMap != null )
+        if ( preprocessedState.get( FOOTNOTES_STATE ) != null )
         {
             DocxContextHelper.putFootnoteRegistry( context, new NoteRegistry() );
         }
         // 6) Endnotes registry if need
-        if ( initialEndNoteInfoMap != null )
+        if ( preprocessedState.get( ENDNOTES_STATE ) != null )
         {
             DocxContextHelper.putEndnoteRegistry( context, new NoteRegistry() );
         }
+        // 7) Text styling creates lazily the numbering and hyperlink registries in the context. When headers and
+        // footers are merged in parallel (with a copy of the context), those registries must be created before.
+        if ( getProcessExecutor() != null && NumberingRegistry.hasDynamicNumbering( getFieldsMetadata() ) )
+        {
+            if ( DocxContextHelper.getNumberingRegistry( context ) == null )
+            {
+                DocxContextHelper.putNumberingRegistry( context, new NumberingRegistry() );
+            }
+            putHyperlinkRegistriesIfNeeded( context, outputArchive.getEntryNames( WORD_HEADER_XML_ENTRY ) );
+            putHyperlinkRegistriesIfNeeded( context, outputArchive.getEntryNames( WORD_FOOTER_XML_ENTRY ) );
+        }
+    }
+
+    private static void putHyperlinkRegistriesIfNeeded( IContext context, Set<String> entryNames )
+    {
+        for ( String entryName : entryNames )
+        {
+            if ( DocxContextHelper.getHyperlinkRegistry( context, entryName ) == null )
+            {
+                DocxContextHelper.putHyperlinkRegistry( context, entryName, new HyperlinkRegistry() );
+            }
+        }
     }
 
     @Override
@@ -67,8 +67,11 @@ public class DocxImageRegistry
 	public String getSize( float sizeAsPixel )
     {
         float sizeAsDxa = (sizeAsPixel / 96) * 914400;
-        String s = df.format(sizeAsDxa);
-        return s;
+        // DecimalFormat is not thread-safe and XML entries can be merged in parallel
+        synchronized ( df )
+        {
+            return df.format( sizeAsDxa );
+        }
     }
     
     @Override
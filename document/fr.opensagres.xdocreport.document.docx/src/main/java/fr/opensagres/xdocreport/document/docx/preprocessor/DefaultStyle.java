@@ -24,14 +24,18 @@
  */
 package fr.opensagres.xdocreport.document.docx.preprocessor;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.Map;
 
 import fr.opensagres.xdocreport.core.utils.StringUtils;
 
 public class DefaultStyle
+    implements Serializable
 {
 
+    private static final long serialVersionUID = 2951573628120938471L;
+
     private String hyperLinkStyleId;
 
     private Map<Integer, String> headersStyleId;
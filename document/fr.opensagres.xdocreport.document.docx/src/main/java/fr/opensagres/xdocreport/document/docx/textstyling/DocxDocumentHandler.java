@@ -628,6 +628,8 @@ public class DocxDocumentHandler
         {
             int abstractNumId = styleGen.getAbstractNumIdForList( true, defaultStyle );
             int numId = getNumberingRegistry().addNum( abstractNumId, getMaxNumId(), true ).getNumId();
+            // a new numbering is registered for each list, the transformation result cannot be reused
+            setCacheable( false );
             // numbersStack.push( numId );
             currentNumId = numId;
         }
@@ -648,6 +650,7 @@ public class DocxDocumentHandler
         {
             int abstractNumId = styleGen.getAbstractNumIdForList( false, defaultStyle );
             int numId = getNumberingRegistry().addNum( abstractNumId, getMaxNumId(), false ).getNumId();
+            setCacheable( false );
             // numbersStack.push( numId );
             currentNumId = numId;
         }
@@ -700,6 +703,9 @@ public class DocxDocumentHandler
             // 2) Update the hyperlink registry to modifiy the Hyperlink Relationship in the _rels/document.xml.rels
             HyperlinkRegistry registry = getHyperlinkRegistry();
             String rId = registry.registerHyperlink( ref );
+            // the relationship is registered in the context of the generation, the transformation result cannot be
+            // reused
+            setCacheable( false );
 
             // 3) Generate w:hyperlink
             String hyperlinkStyleName = styleGen.getHyperLinkStyleId( defaultStyle );
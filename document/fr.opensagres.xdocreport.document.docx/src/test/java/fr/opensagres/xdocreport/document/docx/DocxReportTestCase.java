@@ -27,9 +27,14 @@ package fr.opensagres.xdocreport.document.docx;
 import static org.easymock.EasyMock.*;
 
 import java.io.InputStream;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.junit.Test;
 
+import fr.opensagres.xdocreport.core.io.IOUtils;
+import fr.opensagres.xdocreport.core.io.XDocArchive;
 import fr.opensagres.xdocreport.document.IXDocReport;
 import fr.opensagres.xdocreport.document.docx.discovery.DocXReportFactoryDiscoveryTestCase;
 import fr.opensagres.xdocreport.document.registry.XDocReportRegistry;
@@ -65,6 +70,48 @@ public class DocxReportTestCase extends TestCase
         }
     }
 
+    @Test
+    public void testParallelPreprocess() throws Exception
+    {
+        IXDocReport expected = loadAndPreprocess( null );
+        ExecutorService executor = Executors.newFixedThreadPool( 4 );
+        try {
+            IXDocReport actual = loadAndPreprocess( executor );
+
+            XDocArchive expectedArchive = expected.getPreprocessedDocumentArchive();
+            XDocArchive actualArchive = actual.getPreprocessedDocumentArchive();
+            assertEquals( expectedArchive.getEntryNames(), actualArchive.getEntryNames() );
+            for ( String entryName : expectedArchive.getEntryNames() )
+            {
+                assertEquals( "Entry " + entryName + " should be preprocessed like sequential preprocessing",
+                              IOUtils.toString( expectedArchive.getEntryInputStream( entryName ) ),
+                              IOUtils.toString( actualArchive.getEntryInputStream( entryName ) ) );
+            }
+            assertEquals( expected.getPreprocessorTimings().size(), actual.getPreprocessorTimings().size() );
+            assertFalse( "Preprocessor timings should be available", actual.getPreprocessorTimings().isEmpty() );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private IXDocReport loadAndPreprocess( Executor executor ) throws Exception
+    {
+        InputStream is = DocXReportFactoryDiscoveryTestCase.class.getResourceAsStream( "DocxHelloWordWithFreemarker.docx" );
+        try {
+            DocxReport report = new DocxReport();
+            report.setTemplateEngine( createTemplateEngine() );
+            report.setPreprocessExecutor( executor );
+            report.load( is );
+            return report;
+        }
+        finally
+        {
+            is.close();
+        }
+    }
+
     private ITemplateEngine createTemplateEngine()
     {
         IDocumentFormatter documentFormatter = createNiceMock(IDocumentFormatter.class);
@@ -24,13 +24,19 @@
  */
 package fr.opensagres.xdocreport.document.docx.textstyling;
 
+import fr.opensagres.xdocreport.core.cache.BoundedCacheStorage;
+import fr.opensagres.xdocreport.core.document.DocumentKind;
+import fr.opensagres.xdocreport.core.document.SyntaxKind;
+import fr.opensagres.xdocreport.document.DocumentContextHelper;
 import fr.opensagres.xdocreport.document.docx.preprocessor.DefaultStyle;
 import fr.opensagres.xdocreport.document.docx.preprocessor.sax.hyperlinks.HyperlinkInfo;
 import fr.opensagres.xdocreport.document.docx.preprocessor.sax.hyperlinks.HyperlinkRegistry;
 import fr.opensagres.xdocreport.document.docx.template.DocxContextHelper;
 import fr.opensagres.xdocreport.document.preprocessor.sax.BufferedElement;
+import fr.opensagres.xdocreport.document.registry.TextStylingRegistry;
 import fr.opensagres.xdocreport.document.textstyling.IDocumentHandler;
 import fr.opensagres.xdocreport.document.textstyling.ITextStylingTransformer;
+import fr.opensagres.xdocreport.document.textstyling.ITransformResult;
 import fr.opensagres.xdocreport.document.textstyling.html.HTMLTextStylingTransformer;
 import fr.opensagres.xdocreport.template.IContext;
 import junit.framework.Assert;
@@ -889,4 +895,48 @@ public class DocxDocumentHandlerTestCase
         // System.err.println(handler.getTextEnd());
 
     }
+
+    @Test
+    public void testTextStylingCache()
+        throws Exception
+    {
+        IContext context = new MockContext();
+        BoundedCacheStorage<String, ITransformResult> cache = new BoundedCacheStorage<String, ITransformResult>();
+        cache.setMaxEntries( 10 );
+        DocumentContextHelper.putTextStylingCache( context, cache );
+
+        TextStylingRegistry registry = TextStylingRegistry.getRegistry();
+        String html = SyntaxKind.Html.name();
+        String docx = DocumentKind.DOCX.name();
+        ITransformResult result =
+            registry.transform( "<b>Bold</b> text", html, false, docx, null, context, "word/document.xml" );
+        IDocumentHandler handler = new DocxDocumentHandler( null, new MockContext(), "word/document.xml" );
+        HTMLTextStylingTransformer.INSTANCE.transform( "<b>Bold</b> text", handler );
+        Assert.assertEquals( handler.getTextBody(), result.getTextBody() );
+        // same content for the same entry is transformed once
+        ITransformResult cachedResult =
+            registry.transform( "<b>Bold</b> text", html, false, docx, null, context, "word/document.xml" );
+        Assert.assertSame( cachedResult,
+                           registry.transform( "<b>Bold</b> text", html, false, docx, null, context,
+                                               "word/document.xml" ) );
+        Assert.assertEquals( result.getTextBody(), cachedResult.getTextBody() );
+        Assert.assertEquals( 1, cache.size() );
+
+        // the result is not shared with another entry
+        registry.transform( "<b>Bold</b> text", html, false, docx, null, context, "word/header1.xml" );
+        Assert.assertEquals( 2, cache.size() );
+
+        // list registers a new numbering and is not cached
+        ITransformResult list =
+            registry.transform( "<ul><li>A</li></ul>", html, false, docx, null, context, "word/document.xml" );
+        Assert.assertNotSame( list,
+                              registry.transform( "<ul><li>A</li></ul>", html, false, docx, null, context,
+                                                  "word/document.xml" ) );
+        Assert.assertEquals( 2, cache.size() );
+
+        // hyperlink registers a new relationship and is not cached
+        registry.transform( "<a href=\"http://xdocreport.org\">XDocReport</a>", html, false, docx, null, context,
+                            "word/document.xml" );
+        Assert.assertEquals( 2, cache.size() );
+    }
 }
@@ -35,6 +35,7 @@ import fr.opensagres.xdocreport.document.preprocessor.sax.BufferedElement;
 import fr.opensagres.xdocreport.document.textstyling.AbstractDocumentHandler;
 import fr.opensagres.xdocreport.document.textstyling.IDocumentHandler.TextLocation;
 import fr.opensagres.xdocreport.document.textstyling.properties.BoldProperties;
+import fr.opensagres.xdocreport.document.textstyling.properties.ContainerProperties;
 import fr.opensagres.xdocreport.document.textstyling.properties.HeaderProperties;
 import fr.opensagres.xdocreport.document.textstyling.properties.ListItemProperties;
 import fr.opensagres.xdocreport.document.textstyling.properties.ListProperties;
@@ -107,7 +108,7 @@ public class ODTDocumentHandler
     public void startBold( BoldProperties properties )
             throws IOException
     {
-        internalStartSpan( styleGen.getTextStyleName( properties ), true );
+        internalStartSpan( getTextStyleName( properties ), true );
     }
 
     public void endBold()
@@ -224,6 +225,17 @@ public class ODTDocumentHandler
         }
     }
 
+    private String getTextStyleName( ContainerProperties properties )
+    {
+        String styleName = styleGen.getTextStyleName( properties );
+        if ( properties != null && styleName != null && !styleName.equals( properties.getStyleName() ) )
+        {
+            // a dynamic style is added for this generation, the transformation result cannot be reused
+            setCacheable( false );
+        }
+        return styleName;
+    }
+
     private void internalStartSpan( String styleName, boolean push )
         throws IOException
     {
@@ -307,7 +319,7 @@ public class ODTDocumentHandler
             }
             else
             {
-                styleName = styleGen.getTextStyleName( properties );
+                styleName = getTextStyleName( properties );
             }
         }
         internalStartParagraph( containerIsList, styleName );
@@ -480,7 +492,7 @@ public class ODTDocumentHandler
     public void startSpan( SpanProperties properties )
         throws IOException
     {
-        internalStartSpan( styleGen.getTextStyleName( properties ), true );
+        internalStartSpan( getTextStyleName( properties ), true );
     }
 
     public void endSpan()
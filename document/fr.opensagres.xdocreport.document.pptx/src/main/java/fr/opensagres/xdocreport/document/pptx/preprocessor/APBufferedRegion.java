@@ -154,21 +154,19 @@ public class APBufferedRegion
         if ( formatter != null && fieldsMetadata != null )
         {
 
-            Collection<String> fieldsAsList = fieldsMetadata.getFieldsAsList();
+            // search the fields list contained in the content with one pass over the content
+            Collection<String> fieldsAsList = fieldsMetadata.getFieldsAsList( content );
             for ( final String fieldName : fieldsAsList )
             {
-                if ( content.contains( fieldName ) )
+                this.itemNameList = formatter.extractItemNameList( content, fieldName, true );
+                if ( StringUtils.isNotEmpty( itemNameList ) )
                 {
-                    this.itemNameList = formatter.extractItemNameList( content, fieldName, true );
-                    if ( StringUtils.isNotEmpty( itemNameList ) )
+                    if ( !isIgnoreStartLoopDirective( itemNameList ) )
                     {
-                        if ( !isIgnoreStartLoopDirective( itemNameList ) )
-                        {
-                            setStartLoopDirective( formatter.getStartLoopDirective( itemNameList ) );
-                            addIgnoreStartLoopDirective( itemNameList );
-                        }
-                        return formatter.formatAsFieldItemList( content, fieldName, true );
+                        setStartLoopDirective( formatter.getStartLoopDirective( itemNameList ) );
+                        addIgnoreStartLoopDirective( itemNameList );
                     }
+                    return formatter.formatAsFieldItemList( content, fieldName, true );
                 }
             }
         }
@@ -26,18 +26,23 @@ package fr.opensagres.xdocreport.document.tools;
 
 import static fr.opensagres.xdocreport.document.tools.internal.MainHelper.getValue;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Properties;
 
 import org.xml.sax.SAXException;
 
 import fr.opensagres.xdocreport.document.tools.internal.BadArgException;
+import fr.opensagres.xdocreport.document.tools.json.JSONDataProvider;
 import fr.opensagres.xdocreport.template.formatter.FieldsMetadata;
 import fr.opensagres.xdocreport.template.formatter.FieldsMetadataXMLSerializer;
 
@@ -54,6 +59,7 @@ public class Main
         String templateEngineKind = null;
         String metadataFile = null;
         String dataDir = null;
+        String jsonStreamedArray = null;
 
         List<IDataProvider> dataProviders = new ArrayList<IDataProvider>();
         String arg = null;
@@ -94,6 +100,12 @@ public class Main
                 {
                     dataDir = getValue( args, i );
                 }
+                else if ( "-jsonStreamedArray".equals( arg ) )
+                {
+                    jsonStreamedArray = getValue( args, i );
+                    if ( jsonStreamedArray != null )
+                        i++;
+                }
             }
         }
         catch ( BadArgException e )
@@ -119,13 +131,13 @@ public class Main
 
         if ( fileErr == null )
         {
-            process( in, out, templateEngineKind, metadataFile, dataDir, dataProviders );
+            process( in, out, templateEngineKind, metadataFile, dataDir, jsonStreamedArray, dataProviders );
         }
         else
         {
             try
             {
-                process( in, out, templateEngineKind, metadataFile, dataDir, dataProviders );
+                process( in, out, templateEngineKind, metadataFile, dataDir, jsonStreamedArray, dataProviders );
             }
             catch ( Throwable e )
             {
@@ -136,7 +148,7 @@ public class Main
     }
 
     private static void process( String in, String out, String templateEngineKind, String metadataFile, String dataDir,
-                                 List<IDataProvider> dataProviders )
+                                 String jsonStreamedArray, List<IDataProvider> dataProviders )
         throws SAXException, IOException, FileNotFoundException, Exception
     {
         FieldsMetadata fieldsMetadata = null;
@@ -178,7 +190,7 @@ public class Main
                         }
                         IDataProvider provider =
                             DataProviderFactoryRegistry.getRegistry().create( extension, new FileInputStream( file ),
-                                                                              null );
+                                                                              getDataProperties( jsonStreamedArray ) );
                         if ( provider != null )
                         {
                             dataProviders.add( provider );
@@ -197,7 +209,8 @@ public class Main
                                                                                new FileOutputStream( file ) );
 
                 IDataProvider provider =
-                    DataProviderFactoryRegistry.getRegistry().create( extension, new FileInputStream( file ), null );
+                    DataProviderFactoryRegistry.getRegistry().create( extension, new FileInputStream( file ),
+                                                                      getDataProperties( jsonStreamedArray ) );
                 dataProviders.add( provider );
             }
         }
@@ -210,6 +223,24 @@ public class Main
         tools.process( new File( in ), fileOut, templateEngineKind, fieldsMetadata, dataProviders );
     }
 
+    /**
+     * Returns the properties of the data providers with the JSON array to stream (the array is then parsed item by item
+     * while the report is generated instead of being loaded) and null if there is no array to stream.
+     */
+    private static InputStream getDataProperties( String jsonStreamedArray )
+        throws IOException
+    {
+        if ( jsonStreamedArray == null )
+        {
+            return null;
+        }
+        Properties properties = new Properties();
+        properties.setProperty( JSONDataProvider.STREAMED_ARRAY_PROPERTY, jsonStreamedArray );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        properties.store( out, null );
+        return new ByteArrayInputStream( out.toByteArray() );
+    }
+
     private static void printUsage()
     {
 
@@ -217,6 +248,7 @@ public class Main
         System.out.print( "java " + Main.class.getName() );
         System.out.print( " -in <a file in>" );
         System.out.print( " -out <a file out>" );
+        System.out.print( " [-jsonStreamedArray <name of the JSON array to stream>]" );
         System.exit( -1 );
     }
 }
@@ -26,118 +26,62 @@ package fr.opensagres.xdocreport.document.tools.json;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
-
-import org.json.JSONArray;
-import org.json.JSONException;
-import org.json.JSONObject;
+import java.util.Properties;
 
 import fr.opensagres.xdocreport.core.XDocReportException;
 import fr.opensagres.xdocreport.document.IXDocReport;
+import fr.opensagres.xdocreport.document.json.JSONException;
+import fr.opensagres.xdocreport.document.json.JSONStreamReader;
 import fr.opensagres.xdocreport.document.tools.AbstractDataProvider;
 import fr.opensagres.xdocreport.template.IContext;
 
+/**
+ * JSON data provider. The JSON data is parsed directly into the context with {@link JSONStreamReader}. All the members
+ * are loaded, except the array member named by the {@link #STREAMED_ARRAY_PROPERTY} property of the data properties
+ * (or else by the {@link JSONStreamReader#STREAMED_ARRAY_PROPERTY} system property) which is parsed item by item while
+ * the report is generated : this array should be the last member of the root JSON object and must be iterated only
+ * once by the template.
+ */
 public class JSONDataProvider
     extends AbstractDataProvider
 {
 
-    private JSONObject jsonObject;
+    public static final String STREAMED_ARRAY_PROPERTY = "json.streamedArray";
+
+    private final String streamedArray;
 
     public JSONDataProvider( InputStream data, InputStream properties )
         throws Exception
     {
         super( data, properties );
-        jsonObject = new JSONObject( getDataAsString() );
+        this.streamedArray = getStreamedArray( properties );
     }
 
     public void populateContext( IXDocReport report, IContext context )
         throws IOException, XDocReportException
     {
-        Iterator i = jsonObject.keys();
-        while ( i.hasNext() )
+        try
+        {
+            JSONStreamReader reader = new JSONStreamReader( getData() );
+            reader.setStreamedArray( streamedArray );
+            reader.populate( context );
+        }
+        catch ( JSONException e )
         {
-            String key = (String) i.next();
-            try
-            {
-                Object value = jsonObject.get( key );
-                if ( value instanceof JSONObject )
-                {
-                    Map subBean = toMap( (JSONObject) value );
-                    context.put( key, subBean );
-                }
-                else if ( value instanceof JSONArray )
-                {
-                    JSONArray array = (JSONArray) value;
-                    int length = array.length();
-                    List list = new ArrayList( length );
-                    for ( int j = 0; j < length; j++ )
-                    {
-                        Object itemValue = array.get( j );
-                        if ( itemValue instanceof JSONObject )
-                        {
-                            list.add( toMap( (JSONObject) itemValue ) );
-                        }
-                        else
-                        {
-                            list.add( itemValue );
-                        }
-                    }
-                    context.put( key, list );
-                }
-                else
-                {
-                    context.put( key, value );
-                }
-            }
-            catch ( JSONException e )
-            {
-                throw new XDocReportException( e );
-            }
+            throw new XDocReportException( e );
         }
     }
 
-    private Map toMap( JSONObject jsonObject )
-        throws JSONException
+    private static String getStreamedArray( InputStream properties )
+        throws IOException
     {
-        Map parentBean = new HashMap();
-        Iterator i = jsonObject.keys();
-        while ( i.hasNext() )
+        String streamedArray = null;
+        if ( properties != null )
         {
-            String key = (String) i.next();
-            Object value = jsonObject.get( key );
-            if ( value instanceof JSONObject )
-            {
-                Map subBean = toMap( (JSONObject) value );
-                parentBean.put( key, subBean );
-            }
-            else if ( value instanceof JSONArray )
-            {
-                JSONArray array = (JSONArray) value;
-                int length = array.length();
-                List list = new ArrayList( length );
-                for ( int j = 0; j < length; j++ )
-                {
-                    Object itemValue = array.get( j );
-                    if ( itemValue instanceof JSONObject )
-                    {
-                        list.add( toMap( (JSONObject) itemValue ) );
-                    }
-                    else
-                    {
-                        list.add( itemValue );
-                    }
-                }
-                parentBean.put( key, list );
-            }
-            else
-            {
-                parentBean.put( key, value );
-            }
+            Properties p = new Properties();
+            p.load( properties );
+            streamedArray = p.getProperty( STREAMED_ARRAY_PROPERTY );
         }
-        return parentBean;
+        return streamedArray != null ? streamedArray : System.getProperty( JSONStreamReader.STREAMED_ARRAY_PROPERTY );
     }
 }
@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.document.tools.json;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.opensagres.xdocreport.document.json.JSONStreamReader;
+import fr.opensagres.xdocreport.template.IContext;
+
+public class JSONDataProviderTestCase
+{
+
+    private static final String DATA = "{\"title\":\"Report\", \"lines\":[{\"name\":\"a\"},{\"name\":\"b\"}]}";
+
+    @Test
+    public void loadedArray()
+        throws Exception
+    {
+        IContext context = populate( null );
+        Assert.assertEquals( "Report", context.get( "title" ) );
+        Assert.assertEquals( 2, ( (List<?>) context.get( "lines" ) ).size() );
+    }
+
+    @Test
+    public void streamedArrayFromDataProperties()
+        throws Exception
+    {
+        IContext context = populate( JSONDataProvider.STREAMED_ARRAY_PROPERTY + "=lines" );
+        Assert.assertTrue( context.get( "lines" ) instanceof Iterator );
+    }
+
+    @Test
+    public void streamedArrayFromSystemProperty()
+        throws Exception
+    {
+        System.setProperty( JSONStreamReader.STREAMED_ARRAY_PROPERTY, "lines" );
+        try
+        {
+            IContext context = populate( null );
+            Iterator<?> lines = (Iterator<?>) context.get( "lines" );
+            Assert.assertEquals( "a", ( (Map<?, ?>) lines.next() ).get( "name" ) );
+            Assert.assertEquals( "b", ( (Map<?, ?>) lines.next() ).get( "name" ) );
+            Assert.assertFalse( lines.hasNext() );
+        }
+        finally
+        {
+            System.clearProperty( JSONStreamReader.STREAMED_ARRAY_PROPERTY );
+        }
+    }
+
+    private static IContext populate( String properties )
+        throws Exception
+    {
+        JSONDataProvider provider =
+            new JSONDataProvider( new ByteArrayInputStream( DATA.getBytes( "UTF-8" ) ),
+                                  properties != null ? new ByteArrayInputStream( properties.getBytes( "ISO-8859-1" ) )
+                                                  : null );
+        IContext context = new MapContext();
+        provider.populateContext( null, context );
+        return context;
+    }
+
+    private static class MapContext
+        implements IContext
+    {
+
+        private final Map<String, Object> map = new HashMap<String, Object>();
+
+        public Object put( String key, Object value )
+        {
+            return map.put( key, value );
+        }
+
+        public Object get( String key )
+        {
+            return map.get( key );
+        }
+
+        public void putMap( Map<String, Object> contextMap )
+        {
+            map.putAll( contextMap );
+        }
+
+        public Map<String, Object> getContextMap()
+        {
+            return map;
+        }
+    }
+}
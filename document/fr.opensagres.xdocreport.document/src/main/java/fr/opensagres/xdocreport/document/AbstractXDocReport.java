@@ -26,16 +26,27 @@ package fr.opensagres.xdocreport.document;
 
 import static fr.opensagres.xdocreport.core.utils.StringUtils.EMPTY_STRING_ARRAY;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FilterWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Serializable;
+import java.io.StringWriter;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -43,12 +54,23 @@ import fr.opensagres.xdocreport.converter.ConverterRegistry;
 import fr.opensagres.xdocreport.converter.IConverter;
 import fr.opensagres.xdocreport.converter.Options;
 import fr.opensagres.xdocreport.converter.XDocConverterException;
+import fr.opensagres.xdocreport.core.EncodingConstants;
 import fr.opensagres.xdocreport.core.XDocReportException;
+import fr.opensagres.xdocreport.core.cache.BoundedCacheStorage;
+import fr.opensagres.xdocreport.core.cache.ICacheStorage;
+import fr.opensagres.xdocreport.core.io.CountingOutputStream;
 import fr.opensagres.xdocreport.core.io.IEntryOutputStreamProvider;
 import fr.opensagres.xdocreport.core.io.IEntryReaderProvider;
 import fr.opensagres.xdocreport.core.io.IEntryWriterProvider;
+import fr.opensagres.xdocreport.core.io.IOUtils;
 import fr.opensagres.xdocreport.core.io.XDocArchive;
+import fr.opensagres.xdocreport.core.io.XDocArchiveZipWriter;
 import fr.opensagres.xdocreport.core.logging.LogUtils;
+import fr.opensagres.xdocreport.core.metrics.IReportMetrics;
+import fr.opensagres.xdocreport.core.metrics.NoOpReportMetrics;
+import fr.opensagres.xdocreport.core.metrics.ReportMetricsRegistry;
+import fr.opensagres.xdocreport.core.metrics.ReportPhase;
+import fr.opensagres.xdocreport.core.utils.ExecutorUtils;
 import fr.opensagres.xdocreport.core.utils.StringUtils;
 import fr.opensagres.xdocreport.document.dump.DumperOptions;
 import fr.opensagres.xdocreport.document.dump.DumperRegistry;
@@ -56,15 +78,23 @@ import fr.opensagres.xdocreport.document.dump.IDumper;
 import fr.opensagres.xdocreport.document.images.DefaultImageHandler;
 import fr.opensagres.xdocreport.document.images.IImageRegistry;
 import fr.opensagres.xdocreport.document.preprocessor.IXDocPreprocessor;
+import fr.opensagres.xdocreport.document.preprocessor.PreprocessorTiming;
 import fr.opensagres.xdocreport.document.preprocessor.sax.BufferedElement;
+import fr.opensagres.xdocreport.document.registry.PreprocessedDocumentStore;
+import fr.opensagres.xdocreport.document.registry.PreprocessedDocumentStore.StoredDocument;
 import fr.opensagres.xdocreport.document.registry.TextStylingRegistry;
 import fr.opensagres.xdocreport.document.registry.XDocReportRegistry;
+import fr.opensagres.xdocreport.document.textstyling.ITransformResult;
 import fr.opensagres.xdocreport.template.FieldsExtractor;
+import fr.opensagres.xdocreport.template.ICompilableTemplateEngine;
+import fr.opensagres.xdocreport.template.ICompiledTemplate;
 import fr.opensagres.xdocreport.template.IContext;
 import fr.opensagres.xdocreport.template.ITemplateEngine;
 import fr.opensagres.xdocreport.template.TemplateContextHelper;
 import fr.opensagres.xdocreport.template.formatter.FieldsMetadata;
+import fr.opensagres.xdocreport.template.formatter.FieldsMetadataXMLSerializer;
 import fr.opensagres.xdocreport.template.formatter.IDocumentFormatter;
+import fr.opensagres.xdocreport.template.utils.TemplateUtils;
 
 /**
  * Abstract class for {@link IXDocReport} to implement to manage docx, odt...
@@ -100,12 +130,12 @@ public abstract class AbstractXDocReport
     /**
      * Zipped XML Document (odt, docx) which is the original XML Document..
      */
-    private XDocArchive originalArchive = null;
+    private volatile XDocArchive originalArchive = null;
 
     /**
      * Zipped XML Document (odt, docx) which is the original XML Document preprocessed.
      */
-    private XDocArchive preprocessedArchive = null;
+    private volatile XDocArchive preprocessedArchive = null;
 
     /**
      * XML entries which define XML document to merge with Java model with template engine.
@@ -118,9 +148,10 @@ public abstract class AbstractXDocReport
     private FieldsMetadata fieldsMetadata;
 
     /**
-     * True if preprocessing was done et false otherwise.
+     * Snapshot of the preprocessed document, null if preprocessing was not done. The snapshot is never modified once
+     * it is published, so the threads which generate reports can use it without lock.
      */
-    private boolean preprocessed;
+    private volatile PreprocessedDocument preprocessedDocument;
 
     /**
      * Cache or not for original document archive.
@@ -135,15 +166,55 @@ public abstract class AbstractXDocReport
     private long lastModified;
 
     /**
-     * Map of {@link BufferedElement} used for text styling to
+     * True if the first XML entry to merge (ex : word/document.xml for docx, content.xml for odt) must be written
+     * directly in the zip of the output stream and false otherwise.
      */
-    private Map<String, BufferedElement> elementsCache;
+    private boolean streamingProcess = false;
+
+    /**
+     * Executor used to merge in parallel the independent XML entries, null if XML entries are merged sequentially.
+     */
+    private transient Executor processExecutor;
+
+    /**
+     * Executor used to preprocess in parallel the entries of the same preprocessing group, null if entries are
+     * preprocessed sequentially.
+     */
+    private transient Executor preprocessExecutor;
+
+    /**
+     * Store used to reuse the preprocessed archive of the same original archive, null if preprocessed archives are not
+     * stored.
+     */
+    private transient PreprocessedDocumentStore preprocessedDocumentStore;
+
+    /**
+     * Time spent by each preprocessor of the last preprocessing.
+     */
+    private volatile List<PreprocessorTiming> preprocessorTimings = Collections.emptyList();
+
+    /**
+     * Max number of text styling transformation results cached by the report, 0 if results are not cached.
+     */
+    private int textStylingCacheSize = 0;
+
+    /**
+     * Text styling transformation results shared by the generations of the report, null if results are not cached.
+     * The cache is cleared when the template or the fields metadata change.
+     */
+    private transient volatile BoundedCacheStorage<String, ITransformResult> textStylingCache;
+
+    /**
+     * True if the XML entries to merge are compiled by the template engine once the document is preprocessed and
+     * false if the template engine parses (or looks up in its cache) the entries at each merge.
+     */
+    private boolean precompileTemplates = false;
 
     protected AbstractXDocReport()
     {
         // Register preprocessor.
         registerPreprocessors();
-        this.preprocessed = false;
+        this.preprocessedDocument = null;
     }
 
     /*
@@ -171,10 +242,6 @@ public abstract class AbstractXDocReport
     public void load( InputStream sourceStream )
         throws IOException, XDocReportException
     {
-        if ( preprocessed )
-        {
-            preprocessed = false;
-        }
         // Load zipped XML Document (odt, docx...)
         setDocumentArchive( XDocArchive.readZip( sourceStream ) );
     }
@@ -184,11 +251,12 @@ public abstract class AbstractXDocReport
      * @see fr.opensagres.xdocreport.core.document.IXDocReport#setDocumentArchive (fr.opensagres
      * .xdocreport.core.document.XDocArchive)
      */
-    public void setDocumentArchive( XDocArchive documentArchive )
+    public synchronized void setDocumentArchive( XDocArchive documentArchive )
         throws IOException, XDocReportException
     {
         this.lastModified = System.currentTimeMillis();
-        this.preprocessed = false;
+        this.preprocessedDocument = null;
+        clearTextStylingCache();
         if ( cacheOriginalDocument )
         {
             this.originalArchive = documentArchive;
@@ -239,6 +307,7 @@ public abstract class AbstractXDocReport
     public void setTemplateEngine( ITemplateEngine templateEngine )
     {
         this.templateEngine = templateEngine;
+        clearTextStylingCache();
     }
 
     /**
@@ -282,6 +351,7 @@ public abstract class AbstractXDocReport
     public void setFieldsMetadata( FieldsMetadata fieldsMetadata )
     {
         this.fieldsMetadata = fieldsMetadata;
+        clearTextStylingCache();
         ITemplateEngine templateEngine = this.getTemplateEngine();
         if ( templateEngine != null && fieldsMetadata != null )
         {
@@ -318,92 +388,435 @@ public abstract class AbstractXDocReport
     }
 
     /**
-     * Execute processors registered to modify entry names of the original document archive. Processors use
-     * {@link FieldsMetadata} and {@link IDocumentFormatter} (coming from {@link ITemplateEngine#getDocumentFormatter()}
-     * to manage lazy loop for table row.
+     * Execute processors registered to modify entry names of the original document archive if it was not done and
+     * returns the snapshot of the preprocessed document (or null if the template engine is not set). When the
+     * preprocessing is done, this method doesn't lock : reports can be generated in parallel by several threads.
      * 
      * @throws XDocReportException
      * @throws IOException
      */
-    private void doPreprocessorIfNeeded()
+    private PreprocessedDocument doPreprocessorIfNeeded()
         throws XDocReportException, IOException
     {
-        if ( preprocessed )
+        PreprocessedDocument document = preprocessedDocument;
+        if ( document != null )
         {
             // preprocessing is already done
-            return;
+            return document;
         }
-        if ( templateEngine == null )
+        synchronized ( this )
         {
-            // template engine is not set, so preprocessing cannot be done
-            return;
+            if ( preprocessedDocument == null && templateEngine != null )
+            {
+                preprocessedDocument = precompileTemplatesIfNeeded( doPreprocessor() );
+            }
+            return preprocessedDocument;
         }
+    }
+
+    /**
+     * Execute processors registered to modify entry names of the original document archive. Processors use
+     * {@link FieldsMetadata} and {@link IDocumentFormatter} (coming from {@link ITemplateEngine#getDocumentFormatter()}
+     * to manage lazy loop for table row.
+     * 
+     * @return the snapshot of the preprocessed document.
+     * @throws XDocReportException
+     * @throws IOException
+     */
+    private PreprocessedDocument doPreprocessor()
+        throws XDocReportException, IOException
+    {
+        XDocArchive preprocessedArchive = internalGetDocumentArchive();
         Map<String, Object> sharedContext = new HashMap<String, Object>();
+        Map<String, BufferedElement> elementsCache = null;
         if ( fieldsMetadata != null && fieldsMetadata.getFieldsAsTextStyling().size() > 0 )
         {
             elementsCache = new HashMap<String, BufferedElement>();
             sharedContext.put( DocumentContextHelper.ELEMENTS_KEY, elementsCache );
         }
+        // the buffered elements of the text styling cannot be stored : preprocessed archive is stored only without
+        // text styling.
+        PreprocessedDocumentStore store = elementsCache == null ? preprocessedDocumentStore : null;
+        String storeKey = null;
+        String fieldsMetadataXML = null;
+        if ( store != null )
+        {
+            fieldsMetadataXML = getFieldsMetadataXML();
+            storeKey = computeStoreKey( store, preprocessedArchive, fieldsMetadataXML );
+            PreprocessedDocument storedDocument = loadPreprocessedDocument( store, storeKey );
+            if ( storedDocument != null )
+            {
+                return storedDocument;
+            }
+        }
+        Executor executor = getPreprocessExecutor();
+        List<PreprocessorTiming> timings = new ArrayList<PreprocessorTiming>();
+        long startTime = System.nanoTime();
         onBeforePreprocessing( sharedContext, preprocessedArchive );
         try
         {
             IDocumentFormatter formatter = internalGetTemplateEngine().getDocumentFormatter();
-            
+
+            // entries of the adjacent entries of the same preprocessing group which are preprocessed in parallel
+            List<EntryPreprocessors> groupEntries = null;
+            String group = null;
             // Loop for each preprocessor registered
             for ( Entry<String, Collection<IXDocPreprocessor>> entry : preprocessors.entrySet() )
             {
                 String preprocessorName = entry.getKey();
                 Collection<IXDocPreprocessor> entryPreprocessors = entry.getValue();
-                if ( preprocessedArchive.hasEntry( preprocessorName ) )
+                // XML Document contains XML files (or wilcard entries) which must be preprocessed
+                Set<String> entryNames =
+                    preprocessedArchive.hasEntry( preprocessorName ) ? Collections.singleton( preprocessorName )
+                                    : preprocessedArchive.getEntryNames( preprocessorName );
+                String entryGroup =
+                    executor != null && entryNames.size() > 0 ? getPreprocessingGroup( preprocessorName ) : null;
+                if ( groupEntries != null && ( entryGroup == null || !entryGroup.equals( group ) ) )
                 {
-                    for ( IXDocPreprocessor preprocessor : entryPreprocessors )
+                    // end of the group, preprocess its entries before the current entry
+                    preprocessInParallel( groupEntries, preprocessedArchive, formatter, sharedContext, elementsCache,
+                                          executor, timings );
+                    groupEntries = null;
+                }
+                if ( entryGroup != null )
+                {
+                    if ( groupEntries == null )
+                    {
+                        groupEntries = new ArrayList<EntryPreprocessors>();
+                        group = entryGroup;
+                    }
+                    for ( String entryName : entryNames )
                     {
-                        // XML Document contains a XML file which must be
-                        // preprocessed
-                        preprocessor.preprocess( preprocessorName, preprocessedArchive, fieldsMetadata, formatter,
-                                                 sharedContext );
+                        groupEntries.add( new EntryPreprocessors( entryName, entryPreprocessors ) );
                     }
                 }
-                else
+                else if ( entryNames.size() > 0 )
                 {
-                    // Test if it's wilcard?
-                    Set<String> entriesNameFromWilcard = preprocessedArchive.getEntryNames( preprocessorName );
-                    if ( entriesNameFromWilcard.size() > 0 )
+                    for ( String entryName : entryNames )
                     {
-                        for ( String entryNameFromWilcard : entriesNameFromWilcard )
+                        for ( IXDocPreprocessor preprocessor : entryPreprocessors )
                         {
-                            for ( IXDocPreprocessor preprocessor : entryPreprocessors )
-                            {
-                                preprocessor.preprocess( entryNameFromWilcard, preprocessedArchive, fieldsMetadata,
-
-                                formatter, sharedContext );
-                            }
+                            preprocess( entryName, preprocessor, preprocessedArchive, formatter, sharedContext,
+                                        timings );
                         }
                     }
-                    else
+                }
+                else
+                {
+                    // entry not found, create it?
+                    for ( IXDocPreprocessor preprocessor : entryPreprocessors )
                     {
-                        // entry not found, create it?
-                        entryPreprocessors = entry.getValue();
-                        for ( IXDocPreprocessor preprocessor : entryPreprocessors )
+                        long preprocessorStartTime = System.nanoTime();
+                        if ( preprocessor.create( preprocessorName, preprocessedArchive, fieldsMetadata, formatter,
+                                                  sharedContext ) )
                         {
-                            if ( preprocessor.create( preprocessorName, preprocessedArchive, fieldsMetadata, formatter,
-                                                      sharedContext ) )
-                            {
-                                break;
-                            }
+                            long elapsedTime = System.nanoTime() - preprocessorStartTime;
+                            timings.add( new PreprocessorTiming( preprocessorName, preprocessor, elapsedTime ) );
+                            getMetrics().onPhase( ReportPhase.PREPROCESS_ENTRY, preprocessorName, preprocessor,
+                                                  elapsedTime );
+                            break;
                         }
                     }
                 }
             }
+            if ( groupEntries != null )
+            {
+                preprocessInParallel( groupEntries, preprocessedArchive, formatter, sharedContext, elementsCache,
+                                      executor, timings );
+            }
         }
         finally
         {
             onAfterPreprocessing( sharedContext, preprocessedArchive );
-            // Preprocessing is done
-            preprocessed = true;
-            sharedContext.clear();
-            sharedContext = null;
+            this.preprocessorTimings = Collections.unmodifiableList( timings );
+        }
+        Map<String, Serializable> preprocessedState = new HashMap<String, Serializable>();
+        savePreprocessedState( sharedContext, preprocessedState );
+        sharedContext.clear();
+        long elapsedTime = System.nanoTime() - startTime;
+        getMetrics().onPhase( ReportPhase.PREPROCESS, getId(), this, elapsedTime );
+        if ( LOGGER.isLoggable( Level.FINE ) )
+        {
+            LOGGER.fine( "End preprocessing done with " + ( elapsedTime / 1000000 ) + "(ms) : " + timings );
+        }
+        if ( storeKey != null )
+        {
+            storePreprocessedDocument( store, storeKey, preprocessedArchive, preprocessedState );
+        }
+        // Preprocessing is done
+        return new PreprocessedDocument( preprocessedArchive, elementsCache, preprocessedState );
+    }
+
+    /**
+     * Compile with the template engine the XML entries to merge of the given preprocessed document if
+     * {@link #isPrecompileTemplates()} is true. The compiled templates are held by the preprocessed document, so they
+     * are dropped as soon as the document archive is changed.
+     * 
+     * @param document the preprocessed document.
+     * @return the preprocessed document with the compiled templates.
+     * @throws XDocReportException
+     * @throws IOException
+     */
+    private PreprocessedDocument precompileTemplatesIfNeeded( PreprocessedDocument document )
+        throws XDocReportException, IOException
+    {
+        if ( !precompileTemplates || !( internalGetTemplateEngine() instanceof ICompilableTemplateEngine ) )
+        {
+            // the template engine doesn't support compiled templates
+            return document;
+        }
+        ICompilableTemplateEngine templateEngine = (ICompilableTemplateEngine) internalGetTemplateEngine();
+        XDocArchive archive = document.archive;
+        Map<String, ICompiledTemplate> compiledTemplates = new HashMap<String, ICompiledTemplate>();
+        for ( String xmlEntry : internalGetXMLEntries() )
+        {
+            Set<String> entryNames =
+                archive.hasEntry( xmlEntry ) ? Collections.singleton( xmlEntry ) : archive.getEntryNames( xmlEntry );
+            for ( String entryName : entryNames )
+            {
+                String templateName =
+                    StringUtils.isEmpty( getId() ) ? entryName : TemplateUtils.getCachedTemplateName( getId(),
+                                                                                                      entryName );
+                Reader reader = archive.getEntryReader( entryName );
+                try
+                {
+                    ICompiledTemplate compiledTemplate = templateEngine.compile( templateName, reader );
+                    if ( compiledTemplate == null )
+                    {
+                        // the template engine cannot compile this template
+                        return document;
+                    }
+                    compiledTemplates.put( entryName, compiledTemplate );
+                }
+                finally
+                {
+                    IOUtils.closeQuietly( reader );
+                }
+            }
+        }
+        return new PreprocessedDocument( archive, document.elementsCache, document.preprocessedState, templateEngine,
+                                         compiledTemplates );
+    }
+
+    /**
+     * Returns the key of the preprocessed document in the given store : the hash of the original archive and of the
+     * parameters of the preprocessing (report class and its version, template engine, fields metadata and
+     * preprocessors), or null if the key cannot be computed.
+     */
+    private String computeStoreKey( PreprocessedDocumentStore store, XDocArchive originalArchive,
+                                    String fieldsMetadataXML )
+        throws XDocReportException
+    {
+        List<String> parameters = new ArrayList<String>();
+        parameters.add( getClass().getName() );
+        // the preprocessors of another version of XDocReport can produce another preprocessed archive
+        parameters.add( getImplementationVersion( AbstractXDocReport.class ) );
+        parameters.add( getImplementationVersion( getClass() ) );
+        parameters.add( internalGetTemplateEngine().getKind() );
+        parameters.add( fieldsMetadataXML );
+        for ( Entry<String, Collection<IXDocPreprocessor>> entry : preprocessors.entrySet() )
+        {
+            StringBuilder preprocessor = new StringBuilder( entry.getKey() );
+            for ( IXDocPreprocessor entryPreprocessor : entry.getValue() )
+            {
+                preprocessor.append( ',' );
+                preprocessor.append( entryPreprocessor.getClass().getName() );
+            }
+            parameters.add( preprocessor.toString() );
         }
+        try
+        {
+            return store.computeKey( originalArchive, parameters.toArray( new String[parameters.size()] ) );
+        }
+        catch ( IOException e )
+        {
+            LOGGER.log( Level.WARNING, "Cannot compute the key of the preprocessed document", e );
+            return null;
+        }
+    }
+
+    /**
+     * Returns the version of the jar (from its manifest) of the given class or null if it is unknown.
+     */
+    private static String getImplementationVersion( Class<?> clazz )
+    {
+        Package classPackage = clazz.getPackage();
+        return classPackage != null ? classPackage.getImplementationVersion() : null;
+    }
+
+    /**
+     * Load the preprocessed document stored with the given key with the state of the report computed during the
+     * preprocessing.
+     * 
+     * @return the preprocessed document or null if the document is not stored.
+     */
+    private PreprocessedDocument loadPreprocessedDocument( PreprocessedDocumentStore store, String storeKey )
+    {
+        if ( storeKey == null )
+        {
+            return null;
+        }
+        try
+        {
+            StoredDocument storedDocument = store.load( storeKey, getPreprocessedStateClasses() );
+            getMetrics().onCacheAccess( IReportMetrics.PREPROCESSED_DOCUMENTS_CACHE, storedDocument != null );
+            if ( storedDocument == null )
+            {
+                return null;
+            }
+            this.preprocessedArchive = storedDocument.getPreprocessedArchive();
+            this.preprocessorTimings = Collections.emptyList();
+            if ( LOGGER.isLoggable( Level.FINE ) )
+            {
+                LOGGER.fine( "Preprocessed document loaded from " + store.getDirectory() + " with the key "
+                    + storeKey );
+            }
+            return new PreprocessedDocument( preprocessedArchive, null, storedDocument.getState() );
+        }
+        catch ( Exception e )
+        {
+            // the stored document is corrupted or was stored by an incompatible version : preprocess again
+            LOGGER.log( Level.WARNING, "Cannot load the preprocessed document with the key " + storeKey, e );
+            store.remove( storeKey );
+            return null;
+        }
+    }
+
+    /**
+     * Store the given preprocessed archive and the state of the report computed during the preprocessing.
+     */
+    private void storePreprocessedDocument( PreprocessedDocumentStore store, String storeKey,
+                                            XDocArchive preprocessedArchive, Map<String, Serializable> state )
+    {
+        try
+        {
+            store.store( storeKey, preprocessedArchive, state );
+        }
+        catch ( Exception e )
+        {
+            LOGGER.log( Level.WARNING, "Cannot store the preprocessed document with the key " + storeKey, e );
+            store.remove( storeKey );
+        }
+    }
+
+    private String getFieldsMetadataXML()
+        throws IOException
+    {
+        if ( fieldsMetadata == null )
+        {
+            return null;
+        }
+        StringWriter writer = new StringWriter();
+        FieldsMetadataXMLSerializer.getInstance().save( fieldsMetadata, writer, false );
+        return writer.toString();
+    }
+
+    /**
+     * Save in the given state the information of the shared context of the preprocessing which is required to process
+     * the preprocessed archive. This state is kept with the preprocessed archive (and stored with it when a
+     * {@link PreprocessedDocumentStore} is set) and is given to
+     * {@link #onBeforeProcessTemplateEngine(IContext, XDocArchive, Map)} : reports must not keep it in fields, because
+     * the report can be preprocessed again while other threads process it.
+     * 
+     * @param sharedContext the shared context of the preprocessing.
+     * @param state
+     */
+    protected void savePreprocessedState( Map<String, Object> sharedContext, Map<String, Serializable> state )
+    {
+        // Do nothing
+    }
+
+    /**
+     * Returns the classes (other than strings, numbers, booleans and <code>java.util</code> collections) of the objects
+     * saved by {@link #savePreprocessedState(Map, Map)}. Only those classes are read from the state stored by the
+     * {@link PreprocessedDocumentStore}.
+     * 
+     * @return
+     */
+    protected Collection<Class<?>> getPreprocessedStateClasses()
+    {
+        return Collections.emptyList();
+    }
+
+    /**
+     * Execute the given preprocessor for the given entry and store the time spent by the preprocessor in the given
+     * timings.
+     */
+    private void preprocess( String entryName, IXDocPreprocessor preprocessor, XDocArchive preprocessedArchive,
+                             IDocumentFormatter formatter, Map<String, Object> sharedContext,
+                             List<PreprocessorTiming> timings )
+        throws XDocReportException, IOException
+    {
+        long startTime = System.nanoTime();
+        preprocessor.preprocess( entryName, preprocessedArchive, fieldsMetadata, formatter, sharedContext );
+        long elapsedTime = System.nanoTime() - startTime;
+        timings.add( new PreprocessorTiming( entryName, preprocessor, elapsedTime ) );
+        getMetrics().onPhase( ReportPhase.PREPROCESS_ENTRY, entryName, preprocessor, elapsedTime );
+    }
+
+    /**
+     * Execute in parallel with the given executor the preprocessors of the given entries (which belong to the same
+     * preprocessing group). Each entry is preprocessed with a copy of the shared context, and the copies are merged in
+     * the shared context in the order of the entries once all entries are preprocessed : the result is the same than
+     * a sequential preprocessing as long as the entries of the group don't share information between them.
+     */
+    @SuppressWarnings( "unchecked" )
+    private void preprocessInParallel( List<EntryPreprocessors> entries, final XDocArchive preprocessedArchive,
+                                       final IDocumentFormatter formatter, Map<String, Object> sharedContext,
+                                       Map<String, BufferedElement> elementsCache, Executor executor,
+                                       List<PreprocessorTiming> timings )
+        throws XDocReportException, IOException
+    {
+        List<Callable<EntryPreprocessors>> tasks = new ArrayList<Callable<EntryPreprocessors>>( entries.size() );
+        for ( final EntryPreprocessors entry : entries )
+        {
+            entry.sharedContext = new HashMap<String, Object>( sharedContext );
+            if ( elementsCache != null )
+            {
+                // each entry registers its buffered elements in its own cache
+                entry.sharedContext.put( DocumentContextHelper.ELEMENTS_KEY, new HashMap<String, BufferedElement>() );
+            }
+            tasks.add( new Callable<EntryPreprocessors>()
+            {
+                public EntryPreprocessors call()
+                    throws Exception
+                {
+                    for ( IXDocPreprocessor preprocessor : entry.preprocessors )
+                    {
+                        preprocess( entry.entryName, preprocessor, preprocessedArchive, formatter,
+                                    entry.sharedContext, entry.timings );
+                    }
+                    return entry;
+                }
+            } );
+        }
+        for ( EntryPreprocessors entry : ExecutorUtils.invokeAll( tasks, executor ) )
+        {
+            // merge the copy of the shared context
+            Map<String, BufferedElement> entryElementsCache =
+                (Map<String, BufferedElement>) entry.sharedContext.remove( DocumentContextHelper.ELEMENTS_KEY );
+            sharedContext.putAll( entry.sharedContext );
+            if ( elementsCache != null && entryElementsCache != null )
+            {
+                elementsCache.putAll( entryElementsCache );
+            }
+            timings.addAll( entry.timings );
+        }
+    }
+
+    /**
+     * Returns the name of the preprocessing group of the given registered entry name (or wildcard), or null if the
+     * preprocessors of the entry must be executed sequentially. When an executor is set with
+     * {@link #setPreprocessExecutor(Executor)}, the adjacent registered entries (in the registration order) of the same
+     * group are preprocessed in parallel, so entries of a same group must not share information between them with the
+     * shared context.
+     * 
+     * @param entryName the registered entry name.
+     * @return
+     */
+    protected String getPreprocessingGroup( String entryName )
+    {
+        return null;
     }
 
     /**
@@ -492,12 +905,19 @@ public abstract class AbstractXDocReport
         throws XDocReportException, IOException
     {
         // 1) Start process report generation
-        long startTime = -1;
+        long startTime = System.nanoTime();
         if ( LOGGER.isLoggable( Level.FINE ) )
         {
-            startTime = System.currentTimeMillis();
             LOGGER.fine( "Start process report " );
         }
+        IReportMetrics metrics = getMetrics();
+        CountingOutputStream countingOut = null;
+        if ( metrics != NoOpReportMetrics.INSTANCE )
+        {
+            // count the written bytes only if metrics are enabled.
+            countingOut = new CountingOutputStream( out );
+            out = countingOut;
+        }
         XDocArchive outputArchive = null;
         try
         {
@@ -506,38 +926,55 @@ public abstract class AbstractXDocReport
 
             // 3) Execute preprocessors to modify original XML Document (odt,
             // docx..) only if preprocessing was not done.
-            doPreprocessorIfNeeded();
+            PreprocessedDocument document = doPreprocessorIfNeeded();
 
             // 4) Copy original archive to returns
-            outputArchive = internalGetDocumentArchive().createCopy();
+            outputArchive = document.archive.createCopy();
 
-            // 5) Loop for each entries (XML file from the zipped XML
-            // document (odt, docx...)
-            // to merge it with Java model from the context with template
-            // engine (freemarker, velocity).
-            processTemplateEngine( context, outputArchive );
+            if ( isStreamingProcess() && StringUtils.isEmpty( entryName ) )
+            {
+                // 5-6) merge the XML entries with the Java model and save the merged XML document archive into ouput
+                // stream by streaming the first XML entry in the zip.
+                processTemplateEngine( context, outputArchive, document, out );
+            }
+            else
+            {
+                // 5) Loop for each entries (XML file from the zipped XML
+                // document (odt, docx...)
+                // to merge it with Java model from the context with template
+                // engine (freemarker, velocity).
+                processTemplateEngine( context, outputArchive, document );
 
-            doPostprocessIfNeeded( outputArchive );
+                doPostprocessIfNeeded( outputArchive );
 
-            if ( StringUtils.isNotEmpty( entryName ) )
-            {
-                if ( !outputArchive.hasEntry( entryName ) )
+                if ( StringUtils.isNotEmpty( entryName ) )
                 {
-                    throw new XDocReportException( "No entry for the entry name=" + entryName );
+                    if ( !outputArchive.hasEntry( entryName ) )
+                    {
+                        throw new XDocReportException( "No entry for the entry name=" + entryName );
+                    }
+                    // 6) save the merged XML entry into ouput stream
+                    long zipStartTime = System.nanoTime();
+                    XDocArchive.writeEntry( outputArchive, entryName, out );
+                    metrics.onPhase( ReportPhase.ZIP_WRITE, getId(), this, System.nanoTime() - zipStartTime );
+                }
+                else
+                {
+                    // 6) save the merged XML document archive into ouput stream
+                    writeZip( outputArchive, out );
                 }
-                // 6) save the merged XML entry into ouput stream
-                XDocArchive.writeEntry( outputArchive, entryName, out );
             }
-            else
+            // 7) End process report generation
+            long elapsedTime = System.nanoTime() - startTime;
+            metrics.onPhase( ReportPhase.PROCESS, getId(), this, elapsedTime );
+            if ( countingOut != null )
             {
-                // 6) save the merged XML document archive into ouput stream
-                XDocArchive.writeZip( outputArchive, out );
+                metrics.onBytes( ReportPhase.PROCESS, getId(), countingOut.getCount() );
             }
-            // 7) End process report generation
             if ( LOGGER.isLoggable( Level.FINE ) )
             {
 
-                LOGGER.fine( "End process report done with " + ( System.currentTimeMillis() - startTime ) + "(ms)." );
+                LOGGER.fine( "End process report done with " + ( elapsedTime / 1000000 ) + "(ms)." );
             }
 
         }
@@ -546,8 +983,8 @@ public abstract class AbstractXDocReport
             // Error while report generation
             if ( LOGGER.isLoggable( Level.FINE ) )
             {
-                LOGGER.fine( "End process report with error done with " + ( System.currentTimeMillis() - startTime )
-                    + "(ms)." );
+                LOGGER.fine( "End process report with error done with "
+                    + ( ( System.nanoTime() - startTime ) / 1000000 ) + "(ms)." );
                 LOGGER.throwing( getClass().getName(), "process", e );
             }
             if ( e instanceof RuntimeException )
@@ -579,6 +1016,25 @@ public abstract class AbstractXDocReport
         // Empty default impl to avoid breaking compat
     }
 
+    /**
+     * Save the given merged archive into the given output stream and report the elapsed time to the metrics.
+     */
+    private void writeZip( XDocArchive outputArchive, OutputStream out )
+        throws IOException
+    {
+        long startTime = System.nanoTime();
+        XDocArchive.writeZip( outputArchive, out );
+        getMetrics().onPhase( ReportPhase.ZIP_WRITE, getId(), this, System.nanoTime() - startTime );
+    }
+
+    /**
+     * Returns the listener of the metrics of the report generation.
+     */
+    private static IReportMetrics getMetrics()
+    {
+        return ReportMetricsRegistry.getRegistry().getMetrics();
+    }
+
     public void save( ProcessState processState, OutputStream out )
         throws IOException, XDocReportException
     {
@@ -674,13 +1130,20 @@ public abstract class AbstractXDocReport
         throws XDocReportException, XDocConverterException, IOException
     {
         // 1) Start process report generation
-        long startTime = -1;
+        long startTime = System.nanoTime();
         if ( LOGGER.isLoggable( Level.FINE ) )
         {
             // Debug start process
-            startTime = System.currentTimeMillis();
             LOGGER.fine( "Start convert report " );
         }
+        IReportMetrics metrics = getMetrics();
+        CountingOutputStream countingOut = null;
+        if ( metrics != NoOpReportMetrics.INSTANCE )
+        {
+            // count the written bytes only if metrics are enabled.
+            countingOut = new CountingOutputStream( out );
+            out = countingOut;
+        }
         XDocArchive outputArchive = null;
         try
         {
@@ -688,16 +1151,17 @@ public abstract class AbstractXDocReport
             // 2) Execute preprocessors to modify original XML Document
             // (odt,
             // docx..) only if preprocessing was not done.
-            doPreprocessorIfNeeded();
+            internalGetTemplateEngine();
+            PreprocessedDocument document = doPreprocessorIfNeeded();
 
             // 4) Copy original arhvive to returns
-            outputArchive = internalGetDocumentArchive().createCopy();
+            outputArchive = document.archive.createCopy();
 
             // 5) Loop for each entries (XML file from the zipped XML
             // document (odt, docx...)
             // to merge it with Java model from the context with template
             // engine (freemarker, velocity).
-            processTemplateEngine( context, outputArchive );
+            processTemplateEngine( context, outputArchive, document );
 
             if ( converter.canSupportEntries() )
             {
@@ -711,10 +1175,15 @@ public abstract class AbstractXDocReport
             }
 
             // 7) End process report generation
+            long elapsedTime = System.nanoTime() - startTime;
+            metrics.onPhase( ReportPhase.CONVERT, getId(), this, elapsedTime );
+            if ( countingOut != null )
+            {
+                metrics.onBytes( ReportPhase.CONVERT, getId(), countingOut.getCount() );
+            }
             if ( LOGGER.isLoggable( Level.FINE ) )
             {
-                LOGGER.fine( "End convert report done with " + ( System.currentTimeMillis() - startTime )
-                    + "(ms)." );
+                LOGGER.fine( "End convert report done with " + ( elapsedTime / 1000000 ) + "(ms)." );
             }
         }
         catch ( Throwable e )
@@ -722,8 +1191,8 @@ public abstract class AbstractXDocReport
             // Error while report generation
             if ( LOGGER.isLoggable( Level.FINE ) )
             {
-                LOGGER.fine( "End convert report with error done with " + ( System.currentTimeMillis() - startTime )
-                    + "(ms)." );
+                LOGGER.fine( "End convert report with error done with "
+                    + ( ( System.nanoTime() - startTime ) / 1000000 ) + "(ms)." );
                 LOGGER.throwing( getClass().getName(), "convert", e );
             }
             if ( e instanceof RuntimeException )
@@ -755,35 +1224,266 @@ public abstract class AbstractXDocReport
         }
     }
 
-    private void processTemplateEngine( final IContext context, XDocArchive outputArchive )
+    /**
+     * Merge the XML entries with the Java model and save the merged XML document archive into the given output stream.
+     * The first XML entry (ex : word/document.xml for docx, content.xml for odt) is merged directly in the zip of the
+     * output stream to avoid storing the (big) merged content in memory. The other entries are stored in the output
+     * archive (they can be modified after the merge of the first entry, ex : styles, relationships, images) and are
+     * written once all entries are merged.
+     * 
+     * @param context
+     * @param outputArchive
+     * @param document the snapshot of the preprocessed document copied in the output archive.
+     * @param out
+     * @throws XDocReportException
+     * @throws IOException
+     */
+    private void processTemplateEngine( final IContext context, XDocArchive outputArchive,
+                                        PreprocessedDocument document, OutputStream out )
         throws XDocReportException, IOException
     {
         String[] xmlEntries = internalGetXMLEntries();
+        if ( xmlEntries.length == 0 || !outputArchive.hasEntry( xmlEntries[0] ) )
+        {
+            // the first XML entry is a wildcard or doesn't exist, streaming cannot be done.
+            processTemplateEngine( context, outputArchive, document );
+            doPostprocessIfNeeded( outputArchive );
+            writeZip( outputArchive, out );
+            return;
+        }
 
-        onBeforeProcessTemplateEngine( context, outputArchive );
+        XDocArchiveZipWriter zipWriter = new XDocArchiveZipWriter( outputArchive, out );
+        onBeforeProcessTemplateEngine( context, outputArchive, document );
+        // 5.1) merge the first XML entry directly in the zip
+        String streamedEntryName = xmlEntries[0];
+        Writer writer = zipWriter.beginEntry( streamedEntryName );
+        processEntry( streamedEntryName, outputArchive, writer, context, document );
+        // 5.2) merge the other XML entries in the output archive
+        processTemplateEngine( context, outputArchive, document, xmlEntries, 1 );
+        onAfterProcessTemplateEngine( context, outputArchive );
+
+        doPostprocessIfNeeded( outputArchive );
+
+        // 6) save the other entries of the output archive into ouput stream
+        long startTime = System.nanoTime();
+        zipWriter.close();
+        getMetrics().onPhase( ReportPhase.ZIP_WRITE, getId(), this, System.nanoTime() - startTime );
+    }
+
+    private void processTemplateEngine( final IContext context, XDocArchive outputArchive,
+                                        PreprocessedDocument document )
+        throws XDocReportException, IOException
+    {
+        String[] xmlEntries = internalGetXMLEntries();
+
+        onBeforeProcessTemplateEngine( context, outputArchive, document );
+        processTemplateEngine( context, outputArchive, document, xmlEntries, 0 );
+        onAfterProcessTemplateEngine( context, outputArchive );
+    }
+
+    private void processTemplateEngine( final IContext context, XDocArchive outputArchive,
+                                        PreprocessedDocument document, String[] xmlEntries, int startIndex )
+        throws XDocReportException, IOException
+    {
+        Executor executor = getProcessExecutor();
+        // entries of the adjacent independent XML entries which are merged in parallel
+        List<String> independentEntryNames = null;
         String entryName = null;
-        for ( int i = 0; i < xmlEntries.length; i++ )
+        for ( int i = startIndex; i < xmlEntries.length; i++ )
         {
             entryName = xmlEntries[i];
+            if ( executor != null && isIndependentXMLEntry( entryName ) )
+            {
+                if ( independentEntryNames == null )
+                {
+                    independentEntryNames = new ArrayList<String>();
+                }
+                if ( outputArchive.hasEntry( entryName ) )
+                {
+                    independentEntryNames.add( entryName );
+                }
+                else
+                {
+                    independentEntryNames.addAll( outputArchive.getEntryNames( entryName ) );
+                }
+                continue;
+            }
+            if ( independentEntryNames != null )
+            {
+                processTemplateEngineInParallel( context, outputArchive, document, independentEntryNames, executor );
+                independentEntryNames = null;
+            }
             if ( outputArchive.hasEntry( entryName ) )
             {
                 // 5.1) merge current XML file with Java model from the
                 // context with template engine (freemarker, velocity).
-                templateEngine.process( getId(), entryName, outputArchive, outputArchive, context );
+                processEntry( entryName, outputArchive, outputArchive.getEntryWriter( entryName ), context,
+                              document );
             }
             else
             {
                 // Test if it's wilcard?
-                Set<String> entriesNameFromWilcard = internalGetDocumentArchive().getEntryNames( entryName );
+                Set<String> entriesNameFromWilcard = outputArchive.getEntryNames( entryName );
                 for ( String entryNameFromWilcard : entriesNameFromWilcard )
                 {
                     // 5.2) merge current XML file with Java model from the
                     // context with template engine (freemarker, velocity).
-                    templateEngine.process( getId(), entryNameFromWilcard, outputArchive, outputArchive, context );
+                    processEntry( entryNameFromWilcard, outputArchive,
+                                  outputArchive.getEntryWriter( entryNameFromWilcard ), context, document );
                 }
             }
         }
-        onAfterProcessTemplateEngine( context, outputArchive );
+        if ( independentEntryNames != null )
+        {
+            processTemplateEngineInParallel( context, outputArchive, document, independentEntryNames, executor );
+        }
+    }
+
+    /**
+     * Merge the given XML entry with the Java model of the given context and write the result in the given writer
+     * (which is closed). The compiled template of the entry is used if templates are precompiled, otherwise the
+     * template engine reads the entry from the given output archive (or from its cache). The writer is closed here
+     * and not quietly by the template engine, so that an error while writing the end of the entry (ex : in the zip of
+     * the output stream when the entry is streamed) is thrown.
+     * 
+     * @param entryName
+     * @param outputArchive
+     * @param writer
+     * @param context
+     * @param document the snapshot of the preprocessed document copied in the output archive.
+     * @throws XDocReportException
+     * @throws IOException
+     */
+    private void processEntry( String entryName, XDocArchive outputArchive, Writer writer, IContext context,
+                               PreprocessedDocument document )
+        throws XDocReportException, IOException
+    {
+        long startTime = System.nanoTime();
+        ICompiledTemplate compiledTemplate = getCompiledTemplate( document, entryName );
+        boolean closed = false;
+        try
+        {
+            if ( compiledTemplate == null )
+            {
+                templateEngine.process( getId(), entryName, outputArchive, new UnclosableWriter( writer ), context );
+            }
+            else
+            {
+                ( (ICompilableTemplateEngine) templateEngine ).process( entryName, compiledTemplate, context,
+                                                                        new UnclosableWriter( writer ) );
+            }
+            writer.close();
+            closed = true;
+        }
+        finally
+        {
+            if ( !closed )
+            {
+                IOUtils.closeQuietly( writer );
+            }
+        }
+        getMetrics().onPhase( ReportPhase.MERGE_ENTRY, entryName, this, System.nanoTime() - startTime );
+    }
+
+    /**
+     * Returns the compiled template of the given entry of the given preprocessed document or null if the templates are
+     * not precompiled (or were compiled by another template engine).
+     */
+    private ICompiledTemplate getCompiledTemplate( PreprocessedDocument document, String entryName )
+    {
+        if ( document.compiledTemplates == null || document.templateEngine != templateEngine )
+        {
+            return null;
+        }
+        return document.compiledTemplates.get( entryName );
+    }
+
+    /**
+     * Merge the given independent XML entries in parallel with the given executor. Each entry is merged with a copy of
+     * the context in a buffer, and the merged entries are stored in the output archive by the current thread once all
+     * entries are merged (the output archive is only read while entries are merged).
+     * 
+     * @param context
+     * @param outputArchive
+     * @param document
+     * @param entryNames
+     * @param executor
+     * @throws XDocReportException
+     * @throws IOException
+     */
+    private void processTemplateEngineInParallel( final IContext context, final XDocArchive outputArchive,
+                                                  final PreprocessedDocument document, List<String> entryNames,
+                                                  Executor executor )
+        throws XDocReportException, IOException
+    {
+        if ( entryNames.isEmpty() )
+        {
+            return;
+        }
+        List<Callable<byte[]>> tasks = new ArrayList<Callable<byte[]>>( entryNames.size() );
+        for ( final String entryName : entryNames )
+        {
+            // copy the context to avoid that template engine (ex : velocity #set) modifies the shared context.
+            final IContext entryContext = templateEngine.createContext();
+            entryContext.putMap( context.getContextMap() );
+            TemplateContextHelper.putContext( entryContext );
+            tasks.add( new Callable<byte[]>()
+            {
+                public byte[] call()
+                    throws Exception
+                {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    Writer writer = new OutputStreamWriter( out, EncodingConstants.UTF_8 );
+                    processEntry( entryName, outputArchive, writer, entryContext, document );
+                    return out.toByteArray();
+                }
+            } );
+        }
+        List<byte[]> contents = ExecutorUtils.invokeAll( tasks, executor );
+        for ( int i = 0; i < contents.size(); i++ )
+        {
+            OutputStream out = outputArchive.getEntryOutputStream( entryNames.get( i ) );
+            try
+            {
+                out.write( contents.get( i ) );
+            }
+            finally
+            {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Register in the context the information of the given preprocessed document and call
+     * {@link #onBeforeProcessTemplateEngine(IContext, XDocArchive, Map)} with its state.
+     */
+    private void onBeforeProcessTemplateEngine( IContext context, XDocArchive outputArchive,
+                                                PreprocessedDocument document )
+        throws XDocReportException
+    {
+        // Add Bufferered element cache used for text styling
+        if ( document.elementsCache != null )
+        {
+            DocumentContextHelper.putElementsCache( context, document.elementsCache );
+        }
+        onBeforeProcessTemplateEngine( context, outputArchive, document.preprocessedState );
+    }
+
+    /**
+     * On before process template engine with the state saved by {@link #savePreprocessedState(Map, Map)} during the
+     * preprocessing of the merged document.
+     * 
+     * @param context
+     * @param outputArchive
+     * @param preprocessedState the (unmodifiable) state of the preprocessing.
+     * @throws XDocReportException
+     */
+    protected void onBeforeProcessTemplateEngine( IContext context, XDocArchive outputArchive,
+                                                  Map<String, Serializable> preprocessedState )
+        throws XDocReportException
+    {
+        onBeforeProcessTemplateEngine( context, outputArchive );
     }
 
     /**
@@ -821,14 +1521,15 @@ public abstract class AbstractXDocReport
         // 3) Register context
         TemplateContextHelper.putContext( context );
 
-        // 4) Add Bufferered element cache used for text styling
-        if ( elementsCache != null )
+        // 4) Register template engine
+        TemplateContextHelper.putTemplateEngine( context, templateEngine );
+
+        // 5) Register cache of text styling transformation results if needed
+        ICacheStorage<String, ITransformResult> textStylingCache = getTextStylingCache();
+        if ( textStylingCache != null )
         {
-            DocumentContextHelper.putElementsCache( context, elementsCache );
+            DocumentContextHelper.putTextStylingCache( context, textStylingCache );
         }
-
-        // 5) Register template engine
-        TemplateContextHelper.putTemplateEngine( context, templateEngine );
     }
 
     /**
@@ -844,7 +1545,10 @@ public abstract class AbstractXDocReport
         IImageRegistry imageRegistry = DocumentContextHelper.getImageRegistry( context );
         if ( imageRegistry != null )
         {
+            long startTime = System.nanoTime();
             imageRegistry.postProcess();
+            getMetrics().onPhase( ReportPhase.IMAGES_POSTPROCESS, getId(), imageRegistry, System.nanoTime()
+                - startTime );
         }
     }
 
@@ -982,6 +1686,181 @@ public abstract class AbstractXDocReport
         }
     }
 
+    /**
+     * Set true if the first XML entry to merge (ex : word/document.xml for docx, content.xml for odt) must be written
+     * directly in the zip of the output stream when the whole report is generated with process. This mode avoids
+     * storing the merged content of this entry in memory (useful for document with big table), but the output stream
+     * is written while the report is generated (it contains a partial zip if an error occurs).
+     * 
+     * @param streamingProcess
+     */
+    public void setStreamingProcess( boolean streamingProcess )
+    {
+        this.streamingProcess = streamingProcess;
+    }
+
+    /**
+     * Returns true if the first XML entry to merge must be written directly in the zip of the output stream and false
+     * otherwise.
+     * 
+     * @return
+     */
+    public boolean isStreamingProcess()
+    {
+        return streamingProcess;
+    }
+
+    /**
+     * Set the executor used to merge in parallel the independent XML entries (see
+     * {@link #isIndependentXMLEntry(String)}). Each independent XML entry is merged with a copy of the context, so
+     * those entries must not share variables with the other entries and the objects stored in the context which are
+     * used by those entries must be thread-safe.
+     * 
+     * @param processExecutor the executor or null to merge the XML entries sequentially.
+     */
+    public void setProcessExecutor( Executor processExecutor )
+    {
+        this.processExecutor = processExecutor;
+    }
+
+    public Executor getProcessExecutor()
+    {
+        return processExecutor;
+    }
+
+    /**
+     * Set the executor used to preprocess in parallel the entries of the same preprocessing group (see
+     * {@link #getPreprocessingGroup(String)}). The executor must be set before loading the document.
+     * 
+     * @param preprocessExecutor the executor or null to preprocess the entries sequentially.
+     */
+    public void setPreprocessExecutor( Executor preprocessExecutor )
+    {
+        this.preprocessExecutor = preprocessExecutor;
+    }
+
+    public Executor getPreprocessExecutor()
+    {
+        return preprocessExecutor;
+    }
+
+    /**
+     * Set true if the XML entries to merge must be compiled by the template engine once the document is preprocessed,
+     * in order to merge the compiled templates without parsing them or looking them up in the cache of the template
+     * engine (ex : Freemarker checks the last modified of the cached entry at each merge). The compiled templates are
+     * dropped when the document archive is changed. This flag must be set before the preprocessing.
+     * 
+     * @param precompileTemplates
+     */
+    public void setPrecompileTemplates( boolean precompileTemplates )
+    {
+        this.precompileTemplates = precompileTemplates;
+    }
+
+    public boolean isPrecompileTemplates()
+    {
+        return precompileTemplates;
+    }
+
+    /**
+     * Set the store used to reuse the preprocessed archive of the same original archive (after a restart or by
+     * another node sharing the store directory) instead of executing again the preprocessors. The store must be set
+     * before the preprocessing. Preprocessed archives of reports with fields as text styling are not stored.
+     * 
+     * @param preprocessedDocumentStore the store or null to always execute the preprocessors.
+     */
+    public void setPreprocessedDocumentStore( PreprocessedDocumentStore preprocessedDocumentStore )
+    {
+        this.preprocessedDocumentStore = preprocessedDocumentStore;
+    }
+
+    public PreprocessedDocumentStore getPreprocessedDocumentStore()
+    {
+        return preprocessedDocumentStore;
+    }
+
+    public List<PreprocessorTiming> getPreprocessorTimings()
+    {
+        return preprocessorTimings;
+    }
+
+    /**
+     * Set the max number of text styling transformation results cached by the report. The results are cached per
+     * entry and per field and are shared by the generations of the report, so a field which has the same content in a
+     * loop or in several generations is transformed only once. Results of transformation which register a list
+     * numbering, a hyperlink or a dynamic style in the generated document are never cached. The cache is cleared when
+     * the template or the fields metadata change.
+     * 
+     * @param textStylingCacheSize max number of cached results or 0 to disable the cache.
+     */
+    public synchronized void setTextStylingCacheSize( int textStylingCacheSize )
+    {
+        this.textStylingCacheSize = textStylingCacheSize;
+        BoundedCacheStorage<String, ITransformResult> textStylingCache = this.textStylingCache;
+        if ( textStylingCacheSize <= 0 )
+        {
+            this.textStylingCache = null;
+        }
+        else if ( textStylingCache != null )
+        {
+            textStylingCache.setMaxEntries( textStylingCacheSize );
+        }
+    }
+
+    public int getTextStylingCacheSize()
+    {
+        return textStylingCacheSize;
+    }
+
+    /**
+     * Returns the cache of the text styling transformation results of the report and null if the results are not
+     * cached.
+     * 
+     * @return
+     */
+    protected ICacheStorage<String, ITransformResult> getTextStylingCache()
+    {
+        BoundedCacheStorage<String, ITransformResult> textStylingCache = this.textStylingCache;
+        if ( textStylingCache == null && textStylingCacheSize > 0 )
+        {
+            synchronized ( this )
+            {
+                textStylingCache = this.textStylingCache;
+                if ( textStylingCache == null && textStylingCacheSize > 0 )
+                {
+                    textStylingCache = new BoundedCacheStorage<String, ITransformResult>();
+                    textStylingCache.setMaxEntries( textStylingCacheSize );
+                    this.textStylingCache = textStylingCache;
+                }
+            }
+        }
+        return textStylingCache;
+    }
+
+    /**
+     * Clear the cached text styling transformation results, which depend on the template and on the fields metadata.
+     */
+    private void clearTextStylingCache()
+    {
+        BoundedCacheStorage<String, ITransformResult> textStylingCache = this.textStylingCache;
+        if ( textStylingCache != null )
+        {
+            textStylingCache.clear();
+        }
+    }
+
+    /**
+     * Returns true if the given XML entry (or wildcard XML entry) doesn't depend on the other XML entries and can be
+     * merged in parallel with the adjacent independent XML entries when a process executor is set.
+     * 
+     * @param xmlEntry XML entry (ex : word/header*.xml).
+     * @return
+     */
+    protected boolean isIndependentXMLEntry( String xmlEntry )
+    {
+        return false;
+    }
+
     /**
      * Returns default entries which define XML document to use for conversion.
      * 
@@ -1001,7 +1880,7 @@ public abstract class AbstractXDocReport
      */
     public boolean isPreprocessed()
     {
-        return preprocessed;
+        return preprocessedDocument != null;
     }
 
     /**
@@ -1051,4 +1930,91 @@ public abstract class AbstractXDocReport
     {
         return DumperRegistry.getRegistry().findDumper( options.getKind() );
     }
+
+    /**
+     * Preprocessors of an entry preprocessed in parallel.
+     */
+    private static class EntryPreprocessors
+    {
+
+        private final String entryName;
+
+        private final Collection<IXDocPreprocessor> preprocessors;
+
+        private final List<PreprocessorTiming> timings = new ArrayList<PreprocessorTiming>();
+
+        private Map<String, Object> sharedContext;
+
+        public EntryPreprocessors( String entryName, Collection<IXDocPreprocessor> preprocessors )
+        {
+            this.entryName = entryName;
+            this.preprocessors = preprocessors;
+        }
+    }
+
+    /**
+     * Writer which ignores {@link #close()}, used to close the writer of a merged entry after the template engine
+     * which closes it quietly.
+     */
+    private static class UnclosableWriter
+        extends FilterWriter
+    {
+
+        public UnclosableWriter( Writer out )
+        {
+            super( out );
+        }
+
+        @Override
+        public void close()
+        {
+            // the wrapped writer is closed by processEntry
+        }
+    }
+
+    /**
+     * Immutable snapshot of the preprocessed document shared by the threads which generate reports.
+     */
+    private static class PreprocessedDocument
+    {
+
+        private final XDocArchive archive;
+
+        /**
+         * Map of {@link BufferedElement} used for text styling.
+         */
+        private final Map<String, BufferedElement> elementsCache;
+
+        /**
+         * Template engine which compiled the templates.
+         */
+        private final ITemplateEngine templateEngine;
+
+        /**
+         * State of the report computed during the preprocessing.
+         */
+        private final Map<String, Serializable> preprocessedState;
+
+        /**
+         * Compiled templates of the XML entries to merge, null if templates are not precompiled.
+         */
+        private final Map<String, ICompiledTemplate> compiledTemplates;
+
+        public PreprocessedDocument( XDocArchive archive, Map<String, BufferedElement> elementsCache,
+                                     Map<String, Serializable> preprocessedState )
+        {
+            this( archive, elementsCache, preprocessedState, null, null );
+        }
+
+        public PreprocessedDocument( XDocArchive archive, Map<String, BufferedElement> elementsCache,
+                                     Map<String, Serializable> preprocessedState, ITemplateEngine templateEngine,
+                                     Map<String, ICompiledTemplate> compiledTemplates )
+        {
+            this.archive = archive;
+            this.elementsCache = elementsCache != null ? Collections.unmodifiableMap( elementsCache ) : null;
+            this.preprocessedState = Collections.unmodifiableMap( preprocessedState );
+            this.templateEngine = templateEngine;
+            this.compiledTemplates = compiledTemplates;
+        }
+    }
 }
@@ -35,6 +35,7 @@ import fr.opensagres.xdocreport.converter.XDocConverterException;
 import fr.opensagres.xdocreport.core.XDocReportException;
 import fr.opensagres.xdocreport.core.utils.StringUtils;
 import fr.opensagres.xdocreport.document.registry.TemplateEngineInitializerRegistry;
+import fr.opensagres.xdocreport.document.registry.IReportLoader;
 import fr.opensagres.xdocreport.document.registry.XDocReportRegistry;
 import fr.opensagres.xdocreport.template.IContext;
 import fr.opensagres.xdocreport.template.ITemplateEngine;
@@ -291,20 +292,24 @@ public abstract class Generator<In, Out>
      * @throws IOException
      * @throws XDocReportException
      */
-    protected IXDocReport getReport( In request )
+    protected IXDocReport getReport( final In request )
         throws IOException, XDocReportException
     {
-        XDocReportRegistry registry = getRegistry( request );
+        final XDocReportRegistry registry = getRegistry( request );
         // 1) Get report id
         String reportId = getReportId( request );
         if ( StringUtils.isNotEmpty( reportId ) )
         {
-            // Search if report is cached in the registry
-            IXDocReport report = registry.getReport( reportId );
-            if ( report != null )
+            // Search if report is cached in the registry and load it otherwise (only one request loads the report
+            // when several requests ask the same not cached report).
+            return registry.getOrLoadReport( reportId, new IReportLoader()
             {
-                return report;
-            }
+                public IXDocReport loadReport( String reportId )
+                    throws IOException, XDocReportException
+                {
+                    return Generator.this.loadReport( reportId, registry, request );
+                }
+            } );
         }
         return loadReport( reportId, registry, request );
     }
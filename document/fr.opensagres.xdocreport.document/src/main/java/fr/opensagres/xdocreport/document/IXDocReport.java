@@ -28,7 +28,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 import fr.opensagres.xdocreport.converter.IConverter;
 import fr.opensagres.xdocreport.converter.MimeMapping;
@@ -39,6 +41,8 @@ import fr.opensagres.xdocreport.core.io.XDocArchive;
 import fr.opensagres.xdocreport.document.dump.DumperOptions;
 import fr.opensagres.xdocreport.document.dump.IDumper;
 import fr.opensagres.xdocreport.document.preprocessor.IXDocPreprocessor;
+import fr.opensagres.xdocreport.document.preprocessor.PreprocessorTiming;
+import fr.opensagres.xdocreport.document.registry.PreprocessedDocumentStore;
 import fr.opensagres.xdocreport.document.registry.XDocReportRegistry;
 import fr.opensagres.xdocreport.template.FieldsExtractor;
 import fr.opensagres.xdocreport.template.IContext;
@@ -350,6 +354,110 @@ public interface IXDocReport
      */
     void setCacheOriginalDocument( boolean cacheOriginalDocument );
 
+    /**
+     * Set true if the first XML entry to merge (ex : word/document.xml for docx, content.xml for odt) must be written
+     * directly in the zip of the output stream when the whole report is generated with process.
+     * 
+     * @param streamingProcess
+     */
+    void setStreamingProcess( boolean streamingProcess );
+
+    /**
+     * Returns true if the first XML entry to merge must be written directly in the zip of the output stream and false
+     * otherwise.
+     * 
+     * @return
+     */
+    boolean isStreamingProcess();
+
+    /**
+     * Set the executor used to merge in parallel the independent XML entries (ex : headers and footers for docx). If
+     * executor is null (default), the XML entries are merged sequentially.
+     * 
+     * @param processExecutor
+     */
+    void setProcessExecutor( Executor processExecutor );
+
+    /**
+     * Returns the executor used to merge in parallel the independent XML entries and null if XML entries are merged
+     * sequentially.
+     * 
+     * @return
+     */
+    Executor getProcessExecutor();
+
+    /**
+     * Set the executor used to preprocess in parallel the independent entries (ex : document, headers and footers for
+     * docx). If executor is null (default), the entries are preprocessed sequentially.
+     * 
+     * @param preprocessExecutor
+     */
+    void setPreprocessExecutor( Executor preprocessExecutor );
+
+    /**
+     * Returns the executor used to preprocess in parallel the independent entries and null if entries are preprocessed
+     * sequentially.
+     * 
+     * @return
+     */
+    Executor getPreprocessExecutor();
+
+    /**
+     * Set the store used to reuse the preprocessed archive of the same original archive instead of executing again the
+     * preprocessors. If store is null (default), the preprocessors are always executed.
+     * 
+     * @param preprocessedDocumentStore
+     */
+    void setPreprocessedDocumentStore( PreprocessedDocumentStore preprocessedDocumentStore );
+
+    /**
+     * Returns the store used to reuse the preprocessed archives and null if preprocessed archives are not stored.
+     * 
+     * @return
+     */
+    PreprocessedDocumentStore getPreprocessedDocumentStore();
+
+    /**
+     * Set true if the XML entries to merge must be compiled by the template engine once the document is preprocessed
+     * and false (default) if the template engine parses (or looks up in its cache) the entries at each merge. The
+     * entries are compiled only if the template engine implements
+     * {@link fr.opensagres.xdocreport.template.ICompilableTemplateEngine}.
+     * 
+     * @param precompileTemplates
+     */
+    void setPrecompileTemplates( boolean precompileTemplates );
+
+    /**
+     * Returns true if the XML entries to merge are compiled by the template engine once the document is preprocessed.
+     * 
+     * @return
+     */
+    boolean isPrecompileTemplates();
+
+    /**
+     * Returns the time spent by each preprocessor of the last preprocessing (empty if preprocessing was not done).
+     * 
+     * @return
+     */
+    List<PreprocessorTiming> getPreprocessorTimings();
+
+    /**
+     * Set the max number of text styling transformation results (ex : HTML field transformed to docx) which are cached
+     * by the report and shared by its generations, in order to transform only once the same content of the same field.
+     * If size is 0 (default), the results are not cached.
+     * 
+     * @param textStylingCacheSize
+     */
+    void setTextStylingCacheSize( int textStylingCacheSize );
+
+    /**
+     * Returns the max number of text styling transformation results which are cached by the report and 0 if results
+     * are not cached.
+     * 
+     * @return
+     */
+    int getTextStylingCacheSize();
+
     /**
      * Returns true if report was processed and false otherwise.
      * 
@@ -33,6 +33,7 @@ import fr.opensagres.xdocreport.converter.Options;
 import fr.opensagres.xdocreport.core.XDocReportException;
 import fr.opensagres.xdocreport.document.dispatcher.IXDocReportController;
 import fr.opensagres.xdocreport.document.dispatcher.IXDocReportLoader;
+import fr.opensagres.xdocreport.document.registry.IReportLoader;
 import fr.opensagres.xdocreport.document.registry.XDocReportRegistry;
 import fr.opensagres.xdocreport.template.formatter.FieldsMetadata;
 
@@ -157,16 +158,18 @@ public class XDocReport
      * @throws IOException
      * @throws XDocReportException
      */
-    public static IXDocReport getReport( String reportId, IXDocReportController controller, XDocReportRegistry registry )
+    public static IXDocReport getReport( String reportId, final IXDocReportController controller,
+                                         final XDocReportRegistry registry )
         throws IOException, XDocReportException
     {
-
-        IXDocReport report = registry.getReport( reportId );
-        if ( report != null )
+        return registry.getOrLoadReport( reportId, new IReportLoader()
         {
-            return report;
-        }
-        return loadReport( reportId, controller, registry );
+            public IXDocReport loadReport( String reportId )
+                throws IOException, XDocReportException
+            {
+                return XDocReport.loadReport( reportId, controller, registry );
+            }
+        } );
     }
 
     /**
@@ -311,16 +314,18 @@ public class XDocReport
      * @throws IOException
      * @throws XDocReportException
      */
-    public static IXDocReport getReport( String reportId, IXDocReportLoader reportLoader, XDocReportRegistry registry )
+    public static IXDocReport getReport( String reportId, final IXDocReportLoader reportLoader,
+                                         final XDocReportRegistry registry )
         throws IOException, XDocReportException
     {
-
-        IXDocReport report = registry.getReport( reportId );
-        if ( report != null )
+        return registry.getOrLoadReport( reportId, new IReportLoader()
         {
-            return report;
-        }
-        return loadReport( reportId, reportLoader, registry );
+            public IXDocReport loadReport( String reportId )
+                throws IOException, XDocReportException
+            {
+                return XDocReport.loadReport( reportId, reportLoader, registry );
+            }
+        } );
     }
 
     /**
@@ -255,5 +255,28 @@ public abstract class AbstractImageProvider
     }
 
     protected abstract boolean doIsValid();
+
+    /**
+     * Returns the key which identifies the content of the image (ex : the path of the image file) or null if the image
+     * has no such key. Images with the same key and format share the same binary entry in the generated document.
+     * 
+     * @return
+     */
+    public String getImageKey()
+    {
+        return null;
+    }
+
+    /**
+     * Returns true if the content of the image can be read several times with {@link #write(java.io.OutputStream)}
+     * at a low cost (ex : image in memory) and false otherwise. The content of a repeatable image which has no
+     * {@link #getImageKey()} is read to find an image with the same content in the generated document.
+     * 
+     * @return
+     */
+    public boolean isRepeatable()
+    {
+        return false;
+    }
     
 }
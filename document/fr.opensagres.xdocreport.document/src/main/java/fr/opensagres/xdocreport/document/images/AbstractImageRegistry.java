@@ -26,8 +26,14 @@ package fr.opensagres.xdocreport.document.images;
 
 import java.io.IOException;
 import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import fr.opensagres.xdocreport.core.XDocReportException;
 import fr.opensagres.xdocreport.core.io.IEntryOutputStreamProvider;
@@ -51,6 +57,17 @@ public abstract class AbstractImageRegistry
 
     private List<ImageProviderInfo> imageProviderInfos;
 
+    /**
+     * Registered images by image provider instance.
+     */
+    private final Map<IImageProvider, ImageProviderInfo> infosByProvider =
+        new IdentityHashMap<IImageProvider, ImageProviderInfo>();
+
+    /**
+     * Registered images by content key (see {@link #getImageKey(IImageProvider)}).
+     */
+    private final Map<String, ImageProviderInfo> infosByKey = new HashMap<String, ImageProviderInfo>();
+
     protected final IEntryReaderProvider readerProvider;
 
     protected final IEntryWriterProvider writerProvider;
@@ -86,10 +103,88 @@ public abstract class AbstractImageRegistry
         {
             return processNullImage( fieldName, imageProvider );
         }
-        // 3) Image provider is OK, create image info.
-        ImageProviderInfo info = createImageProviderInfo( imageProvider );
-        getImageProviderInfos().add( info );
-        return info;
+        // 3) Image provider is already registered (ex : same logo inserted in each row of a loop), reuse the image
+        // info.
+        synchronized ( this )
+        {
+            ImageProviderInfo info = infosByProvider.get( imageProvider );
+            if ( info != null )
+            {
+                return info;
+            }
+        }
+        // 4) Image provider is OK, create image info (image id is computed with the registered images count, XML entries
+        // can be merged in parallel). An image with the same content than a registered image shares the binary entry
+        // (and the relationship) of this image.
+        String key = getImageKey( imageProvider );
+        synchronized ( this )
+        {
+            ImageProviderInfo info = key != null ? infosByKey.get( key ) : null;
+            if ( info != null )
+            {
+                // the image provider is kept to compute the size of the image.
+                info = new ImageProviderInfo( imageProvider, info.getImageId(), info.getImageBasePath(),
+                                              info.getImageFileName() );
+            }
+            else
+            {
+                info = createImageProviderInfo( imageProvider );
+                getImageProviderInfos().add( info );
+                if ( key != null )
+                {
+                    infosByKey.put( key, info );
+                }
+            }
+            infosByProvider.put( imageProvider, info );
+            return info;
+        }
+    }
+
+    /**
+     * Returns the key used to share the binary entry of images with the same content : the image format and the key of
+     * the image provider (see {@link AbstractImageProvider#getImageKey()}), or the SHA-1 of the image content if the
+     * image provider is repeatable (see {@link AbstractImageProvider#isRepeatable()}). Returns null if the image is
+     * shared only with the same image provider instance : its content is read only once, when it is saved.
+     * 
+     * @param imageProvider
+     * @return
+     * @throws IOException
+     */
+    protected String getImageKey( IImageProvider imageProvider )
+        throws IOException
+    {
+        if ( !( imageProvider instanceof AbstractImageProvider ) )
+        {
+            return null;
+        }
+        AbstractImageProvider provider = (AbstractImageProvider) imageProvider;
+        String providerKey = provider.getImageKey();
+        if ( providerKey != null )
+        {
+            return imageProvider.getImageFormat() + "-key-" + providerKey;
+        }
+        if ( !provider.isRepeatable() )
+        {
+            return null;
+        }
+        MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance( "SHA-1" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            return null;
+        }
+        DigestOutputStream out = new DigestOutputStream( NullOutputStream.INSTANCE, digest );
+        imageProvider.write( out );
+        out.close();
+        StringBuilder key = new StringBuilder( String.valueOf( imageProvider.getImageFormat() ) ).append( "-sha1-" );
+        for ( byte b : digest.digest() )
+        {
+            key.append( Character.forDigit( ( b >> 4 ) & 0xF, 16 ) ).append( Character.forDigit( b & 0xF, 16 ) );
+        }
+        return key.toString();
     }
 
     private ImageProviderInfo processNullImage( String fieldName, IImageProvider imageProvider )
@@ -164,7 +259,7 @@ public abstract class AbstractImageRegistry
         return null;
     }
 
-    public List<ImageProviderInfo> getImageProviderInfos()
+    public synchronized List<ImageProviderInfo> getImageProviderInfos()
     {
         if ( imageProviderInfos == null )
         {
@@ -207,6 +302,8 @@ public abstract class AbstractImageRegistry
             imageProviderInfos.clear();
             imageProviderInfos = null;
         }
+        infosByProvider.clear();
+        infosByKey.clear();
     }
 
     protected void saveBinaryImages()
@@ -305,4 +402,24 @@ public abstract class AbstractImageRegistry
      * @return sizeAsPixel null in case the size cannot be computed
      */
     public abstract Float getSize( String sizeAsDxa );
+
+    /**
+     * Output stream which ignores the written bytes, used to compute the digest of the image content.
+     */
+    private static class NullOutputStream
+        extends OutputStream
+    {
+
+        private static final NullOutputStream INSTANCE = new NullOutputStream();
+
+        @Override
+        public void write( int b )
+        {
+        }
+
+        @Override
+        public void write( byte[] b, int off, int len )
+        {
+        }
+    }
 }
@@ -133,4 +133,10 @@ public class ByteArrayImageProvider
         return getImageByteArray() != null;
     }
 
+    @Override
+    public boolean isRepeatable()
+    {
+        return true;
+    }
+
 }
@@ -26,6 +26,7 @@ package fr.opensagres.xdocreport.document.images;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URL;
 
 import fr.opensagres.xdocreport.core.document.ImageFormat;
 
@@ -87,4 +88,11 @@ public class ClassPathImageProvider
     {
         return imageFormat;
     }
+
+    @Override
+    public String getImageKey()
+    {
+        URL url = clazz != null ? clazz.getResource( resourceName ) : classLoader.getResource( resourceName );
+        return url != null ? url.toExternalForm() : null;
+    }
 }
@@ -65,4 +65,10 @@ public class FileImageProvider
     {
         return imageFormat;
     }
+
+    @Override
+    public String getImageKey()
+    {
+        return imageFile.getAbsolutePath();
+    }
 }
@@ -0,0 +1,293 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.document.json;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import fr.opensagres.xdocreport.core.EncodingConstants;
+import fr.opensagres.xdocreport.template.IContext;
+
+/**
+ * Reader which parses a JSON object while populating a {@link IContext} without loading the whole JSON source :
+ * <ul>
+ * <li>each member of the root JSON object is put in the context as soon as it is parsed. Sub objects and sub arrays
+ * are parsed into {@link JSONObject} and {@link JSONArray} (which are {@link java.util.Map} and {@link java.util.List}),
+ * so there is no copy of the data.</li>
+ * <li>by default, array members are parsed into {@link JSONArray} like the other members, so they can be sized,
+ * indexed and iterated several times.</li>
+ * <li>when a streamed array is set with {@link #setStreamedArray(String)}, this array member of the root JSON object is
+ * not loaded : it is put in the context as a forward-only {@link Iterator} (which implements {@link Iterable} and can
+ * be iterated only once) whose items are parsed while the template loops over the array. The members which follow the
+ * array are parsed and put in the context when the array has been iterated, so the streamed array should be the last
+ * member of the root JSON object and the template must loop over it only once.</li>
+ * </ul>
+ */
+public class JSONStreamReader
+{
+
+    /**
+     * System property which gives the name of the array member to stream for the consumers which don't set it
+     * explicitly (tools data provider, reporting service).
+     */
+    public static final String STREAMED_ARRAY_PROPERTY = "xdocreport.json.streamedArray";
+
+    private final JSONTokener x;
+
+    private IContext context;
+
+    private String streamedArray;
+
+    public JSONStreamReader( Reader reader )
+    {
+        this.x = new JSONTokener( reader );
+    }
+
+    public JSONStreamReader( InputStream in )
+    {
+        this( new InputStreamReader( in, EncodingConstants.UTF_8 ) );
+    }
+
+    /**
+     * Set the name of the array member of the root JSON object which must be parsed item by item while the template
+     * loops over it. By default (null), all the arrays are loaded.
+     * 
+     * @param streamedArray
+     */
+    public void setStreamedArray( String streamedArray )
+    {
+        this.streamedArray = streamedArray;
+    }
+
+    /**
+     * Returns the name of the array member of the root JSON object which is parsed item by item or null if all the
+     * arrays are loaded.
+     * 
+     * @return
+     */
+    public String getStreamedArray()
+    {
+        return streamedArray;
+    }
+
+    /**
+     * Parse the members of the root JSON object and put them in the given context.
+     * 
+     * @param context
+     * @throws JSONException If there is a syntax error in the source.
+     */
+    public void populate( IContext context )
+        throws JSONException
+    {
+        if ( this.context != null )
+        {
+            throw new IllegalStateException( "JSON source is already read." );
+        }
+        this.context = context;
+        if ( x.nextClean() != '{' )
+        {
+            throw x.syntaxError( "A JSONObject text must begin with '{'" );
+        }
+        readMembers();
+    }
+
+    /**
+     * Parse the members of the root JSON object until the end of the object or until the streamed array member.
+     * 
+     * @throws JSONException
+     */
+    private void readMembers()
+        throws JSONException
+    {
+        char c;
+        String key;
+        for ( ;; )
+        {
+            c = x.nextClean();
+            switch ( c )
+            {
+                case 0:
+                    throw x.syntaxError( "A JSONObject text must end with '}'" );
+                case '}':
+                    return;
+                default:
+                    x.back();
+                    key = x.nextValue().toString();
+            }
+
+            // The key is followed by ':'. We will also tolerate '=' or '=>'.
+
+            c = x.nextClean();
+            if ( c == '=' )
+            {
+                if ( x.next() != '>' )
+                {
+                    x.back();
+                }
+            }
+            else if ( c != ':' )
+            {
+                throw x.syntaxError( "Expected a ':' after a key" );
+            }
+
+            if ( key.equals( streamedArray ) )
+            {
+                if ( x.nextClean() == '[' )
+                {
+                    // array is parsed while it is iterated, the next members will be parsed at the end of the array.
+                    context.put( key, new JSONArrayIterator() );
+                    return;
+                }
+                x.back();
+            }
+            context.put( key, x.nextValue() );
+            if ( !readSeparator() )
+            {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Read the separator which follows a member of the root JSON object.
+     * 
+     * @return true if there are other members and false otherwise.
+     * @throws JSONException
+     */
+    private boolean readSeparator()
+        throws JSONException
+    {
+        // Pairs are separated by ','. We will also tolerate ';'.
+        switch ( x.nextClean() )
+        {
+            case ';':
+            case ',':
+                return true;
+            case '}':
+                return false;
+            default:
+                throw x.syntaxError( "Expected a ',' or '}'" );
+        }
+    }
+
+    /**
+     * Forward-only iterator over the streamed array member of the root JSON object which parses each item when it is required.
+     */
+    private class JSONArrayIterator
+        implements Iterator<Object>, Iterable<Object>
+    {
+
+        private boolean first = true;
+
+        private boolean end;
+
+        private Object next;
+
+        private boolean hasNext;
+
+        public Iterator<Object> iterator()
+        {
+            return this;
+        }
+
+        public boolean hasNext()
+        {
+            if ( hasNext )
+            {
+                return true;
+            }
+            if ( end )
+            {
+                return false;
+            }
+            char c = x.nextClean();
+            if ( first )
+            {
+                first = false;
+            }
+            else
+            {
+                // Values are separated by ','. We will also tolerate ';'.
+                switch ( c )
+                {
+                    case ';':
+                    case ',':
+                        c = x.nextClean();
+                        break;
+                    case ']':
+                        endArray();
+                        return false;
+                    default:
+                        throw x.syntaxError( "Expected a ',' or ']'" );
+                }
+            }
+            switch ( c )
+            {
+                case ']':
+                    endArray();
+                    return false;
+                case ',':
+                    x.back();
+                    next = JSONObject.NULL;
+                    break;
+                default:
+                    x.back();
+                    next = x.nextValue();
+            }
+            hasNext = true;
+            return true;
+        }
+
+        public Object next()
+        {
+            if ( !hasNext() )
+            {
+                throw new NoSuchElementException();
+            }
+            Object item = next;
+            next = null;
+            hasNext = false;
+            return item;
+        }
+
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        private void endArray()
+        {
+            end = true;
+            // parse the members which follow the array.
+            if ( readSeparator() )
+            {
+                readMembers();
+            }
+        }
+    }
+}
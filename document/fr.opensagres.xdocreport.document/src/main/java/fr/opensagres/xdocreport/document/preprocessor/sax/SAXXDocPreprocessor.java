@@ -32,11 +32,11 @@ import java.util.Map;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
-import org.xml.sax.helpers.XMLReaderFactory;
 
 import fr.opensagres.xdocreport.core.XDocReportException;
 import fr.opensagres.xdocreport.core.io.IOUtils;
 import fr.opensagres.xdocreport.core.io.XDocArchive;
+import fr.opensagres.xdocreport.core.utils.XMLReaderPool;
 import fr.opensagres.xdocreport.document.preprocessor.AbstractXDocPreprocessor;
 import fr.opensagres.xdocreport.template.formatter.FieldsMetadata;
 import fr.opensagres.xdocreport.template.formatter.IDocumentFormatter;
@@ -53,9 +53,10 @@ public abstract class SAXXDocPreprocessor
                                IDocumentFormatter formatter, Map<String, Object> sharedContext )
         throws XDocReportException, IOException
     {
+        XMLReader xmlReader = null;
         try
         {
-            XMLReader xmlReader = XMLReaderFactory.createXMLReader();
+            xmlReader = XMLReaderPool.acquire();
             BufferedDocumentContentHandler<?> contentHandler =
                 createBufferedDocumentContentHandler( entryName, fieldsMetadata, formatter, sharedContext );
             xmlReader.setContentHandler( contentHandler );
@@ -76,6 +77,10 @@ public abstract class SAXXDocPreprocessor
         {
             throw new XDocReportException( e );
         }
+        finally
+        {
+            XMLReaderPool.release( xmlReader );
+        }
     }
 
     @Override
@@ -173,21 +173,22 @@ public abstract class TransformedBufferedDocumentContentHandler<Document extends
         if ( currentRow != null && formatter != null && fieldsMetadata != null)
         {
             // characters parsing belong to a row
-            // search if it contains fields list from metadata
-            Collection<String> fieldsAsList = fieldsMetadata.getFieldsAsList();
+            // search the fields list from metadata contained in the content (with one pass over the content)
+            Collection<String> fieldsAsList = fieldsMetadata.getFieldsAsList( content );
+            if ( fieldsAsList.isEmpty() )
+            {
+                return new ProcessRowResult( content, null, null, null, null );
+            }
             if ( !currentRow.isLoopTemplateDirectiveInitilalized() )
             {
                 for ( final String fieldName : fieldsAsList )
                 {
-                    if ( content.contains( fieldName ) )
+                    String itemNameList = formatter.extractItemNameList( content, fieldName, forceAsField );
+                    if ( StringUtils.isNotEmpty( itemNameList ) )
                     {
-                        String itemNameList = formatter.extractItemNameList( content, fieldName, forceAsField );
-                        if ( StringUtils.isNotEmpty( itemNameList ) )
-                        {
-                            currentRow.initializeLoopTemplateDirective( itemNameList, formatter, getStartNoParse(),
-                                                                        getEndNoParse() );
-                            break;
-                        }
+                        currentRow.initializeLoopTemplateDirective( itemNameList, formatter, getStartNoParse(),
+                                                                    getEndNoParse() );
+                        break;
                     }
                 }
             }
@@ -196,15 +197,12 @@ public abstract class TransformedBufferedDocumentContentHandler<Document extends
             {
                 for ( final String fieldName : fieldsAsList )
                 {
-                    if ( content.contains( fieldName ) )
+                    String newContent = formatter.formatAsFieldItemList( content, fieldName, forceAsField );
+                    if ( newContent != null )
                     {
-                        String newContent = formatter.formatAsFieldItemList( content, fieldName, forceAsField );
-                        if ( newContent != null )
-                        {
-                            return new ProcessRowResult( newContent, fieldName, currentRow.getItemNameList(),
-                                                         currentRow.getStartLoopDirective(),
-                                                         currentRow.getEndLoopDirective() );
-                        }
+                        return new ProcessRowResult( newContent, fieldName, currentRow.getItemNameList(),
+                                                     currentRow.getStartLoopDirective(),
+                                                     currentRow.getEndLoopDirective() );
                     }
                 }
             }
@@ -0,0 +1,406 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.document.registry;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import fr.opensagres.xdocreport.core.EncodingConstants;
+import fr.opensagres.xdocreport.core.io.IOUtils;
+import fr.opensagres.xdocreport.core.io.XDocArchive;
+
+/**
+ * Local directory which stores the preprocessed archives of the reports, so that a report loaded again (after a
+ * restart or by another node which shares the directory) reuses the preprocessed archive instead of executing again
+ * the preprocessors. A preprocessed document is stored with a key computed from the content of the original archive
+ * and the parameters of the preprocessing (report kind, template engine, fields metadata, preprocessors), with 2
+ * files :
+ * <ul>
+ * <li><code>key.zip</code> : the preprocessed archive.</li>
+ * <li><code>key.state</code> : the serialized state of the report computed during the preprocessing. Only strings,
+ * numbers, booleans, the <code>java.util</code> hash maps, hash sets and array lists and the state classes given to
+ * {@link #load(String, Collection)} are read from this file.</li>
+ * </ul>
+ * Each file is written in a temporary file which is renamed once complete, and the state file is written at the end,
+ * so a preprocessed document is available only when the 2 files are complete.
+ */
+public class PreprocessedDocumentStore
+{
+
+    private static final String VERSION = "2";
+
+    private static final String ZIP_EXTENSION = ".zip";
+
+    private static final String STATE_EXTENSION = ".state";
+
+    private static final String TMP_EXTENSION = ".tmp";
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * Classes of the state which are always read.
+     */
+    private static final List<Class<?>> DEFAULT_STATE_CLASSES =
+        Arrays.<Class<?>> asList( String.class, Number.class, Integer.class, Long.class, Boolean.class, HashMap.class,
+                                  LinkedHashMap.class, HashSet.class, LinkedHashSet.class, ArrayList.class );
+
+    private final File directory;
+
+    public PreprocessedDocumentStore( File directory )
+    {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the directory of the store.
+     * 
+     * @return
+     */
+    public File getDirectory()
+    {
+        return directory;
+    }
+
+    /**
+     * Returns the key of the preprocessed document for the given original archive and the given parameters of the
+     * preprocessing : the SHA-1 of the names and the content of the entries of the archive and of the parameters.
+     * 
+     * @param originalArchive the archive before preprocessing.
+     * @param parameters the parameters of the preprocessing.
+     * @return
+     * @throws IOException
+     */
+    public String computeKey( XDocArchive originalArchive, String... parameters )
+        throws IOException
+    {
+        MessageDigest digest = createDigest();
+        update( digest, VERSION );
+        for ( String parameter : parameters )
+        {
+            update( digest, parameter != null ? parameter : "" );
+        }
+        List<String> entryNames = new ArrayList<String>( originalArchive.getEntryNames() );
+        Collections.sort( entryNames );
+        byte[] buffer = new byte[8192];
+        for ( String entryName : entryNames )
+        {
+            update( digest, entryName );
+            InputStream input = originalArchive.getEntryInputStream( entryName );
+            try
+            {
+                int n;
+                while ( ( n = input.read( buffer ) ) != -1 )
+                {
+                    digest.update( buffer, 0, n );
+                }
+            }
+            finally
+            {
+                IOUtils.closeQuietly( input );
+            }
+        }
+        return toHex( digest.digest() );
+    }
+
+    /**
+     * Returns true if a preprocessed document is stored with the given key and false otherwise.
+     * 
+     * @param key
+     * @return
+     */
+    public boolean exists( String key )
+    {
+        return getFile( key, STATE_EXTENSION ).exists();
+    }
+
+    /**
+     * Load the preprocessed document stored with the given key whose state contains only strings, numbers, booleans
+     * and <code>java.util</code> collections.
+     * 
+     * @param key the key of the preprocessed document.
+     * @return the stored document or null if no document is stored with the key.
+     * @throws IOException
+     */
+    public StoredDocument load( String key )
+        throws IOException
+    {
+        return load( key, Collections.<Class<?>> emptyList() );
+    }
+
+    /**
+     * Load the preprocessed document stored with the given key.
+     * 
+     * @param key the key of the preprocessed document.
+     * @param stateClasses the other classes of the objects of the state, the state is not read (and an
+     *            {@link InvalidClassException} is thrown) if it contains an object of another class.
+     * @return the stored document or null if no document is stored with the key.
+     * @throws IOException
+     */
+    public StoredDocument load( String key, Collection<Class<?>> stateClasses )
+        throws IOException
+    {
+        File stateFile = getFile( key, STATE_EXTENSION );
+        if ( !stateFile.exists() )
+        {
+            return null;
+        }
+        Map<String, Serializable> state = readState( stateFile, stateClasses );
+        InputStream input = new BufferedInputStream( new FileInputStream( getFile( key, ZIP_EXTENSION ) ) );
+        try
+        {
+            return new StoredDocument( XDocArchive.readZip( input ), state );
+        }
+        finally
+        {
+            IOUtils.closeQuietly( input );
+        }
+    }
+
+    /**
+     * Store the given preprocessed document with the given key.
+     * 
+     * @param key the key of the preprocessed document.
+     * @param preprocessedArchive the preprocessed archive.
+     * @param state the state of the report computed during the preprocessing.
+     * @throws IOException
+     */
+    public void store( String key, XDocArchive preprocessedArchive, Map<String, Serializable> state )
+        throws IOException
+    {
+        if ( !directory.exists() && !directory.mkdirs() && !directory.exists() )
+        {
+            throw new IOException( "Cannot create the directory " + directory );
+        }
+        // archive
+        File zipFile = File.createTempFile( key, ZIP_EXTENSION + TMP_EXTENSION, directory );
+        try
+        {
+            OutputStream out = new BufferedOutputStream( new FileOutputStream( zipFile ) );
+            try
+            {
+                XDocArchive.writeZip( preprocessedArchive, out );
+            }
+            finally
+            {
+                IOUtils.closeQuietly( out );
+            }
+            rename( zipFile, getFile( key, ZIP_EXTENSION ) );
+        }
+        finally
+        {
+            zipFile.delete();
+        }
+        // state (written at the end to publish the preprocessed document)
+        File stateFile = File.createTempFile( key, STATE_EXTENSION + TMP_EXTENSION, directory );
+        try
+        {
+            ObjectOutputStream objectOut =
+                new ObjectOutputStream( new BufferedOutputStream( new FileOutputStream( stateFile ) ) );
+            try
+            {
+                objectOut.writeObject( new HashMap<String, Serializable>( state ) );
+            }
+            finally
+            {
+                IOUtils.closeQuietly( objectOut );
+            }
+            rename( stateFile, getFile( key, STATE_EXTENSION ) );
+        }
+        finally
+        {
+            stateFile.delete();
+        }
+    }
+
+    /**
+     * Remove the preprocessed document stored with the given key.
+     * 
+     * @param key
+     */
+    public void remove( String key )
+    {
+        getFile( key, STATE_EXTENSION ).delete();
+        getFile( key, ZIP_EXTENSION ).delete();
+    }
+
+    @SuppressWarnings( "unchecked" )
+    private static Map<String, Serializable> readState( File stateFile, Collection<Class<?>> stateClasses )
+        throws IOException
+    {
+        Map<String, Class<?>> classes = new HashMap<String, Class<?>>();
+        for ( Class<?> stateClass : DEFAULT_STATE_CLASSES )
+        {
+            classes.put( stateClass.getName(), stateClass );
+        }
+        for ( Class<?> stateClass : stateClasses )
+        {
+            classes.put( stateClass.getName(), stateClass );
+        }
+        ObjectInputStream input =
+            new StateInputStream( new BufferedInputStream( new FileInputStream( stateFile ) ), classes );
+        try
+        {
+            return (Map<String, Serializable>) input.readObject();
+        }
+        catch ( ClassNotFoundException e )
+        {
+            throw new IOException( "Cannot read the state " + stateFile + ": " + e.getMessage() );
+        }
+        finally
+        {
+            IOUtils.closeQuietly( input );
+        }
+    }
+
+    private File getFile( String key, String extension )
+    {
+        return new File( directory, key + extension );
+    }
+
+    private static void rename( File from, File to )
+        throws IOException
+    {
+        if ( !from.renameTo( to ) )
+        {
+            // renameTo fails on Windows if the target exists
+            to.delete();
+            if ( !from.renameTo( to ) )
+            {
+                throw new IOException( "Cannot write the file " + to );
+            }
+        }
+    }
+
+    private static MessageDigest createDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance( "SHA-1" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            throw new IllegalStateException( e );
+        }
+    }
+
+    private static void update( MessageDigest digest, String value )
+        throws IOException
+    {
+        digest.update( value.getBytes( EncodingConstants.UTF_8.name() ) );
+        // separator to distinguish ("ab", "c") from ("a", "bc")
+        digest.update( (byte) 0 );
+    }
+
+    private static String toHex( byte[] bytes )
+    {
+        char[] chars = new char[bytes.length * 2];
+        for ( int i = 0; i < bytes.length; i++ )
+        {
+            chars[i * 2] = HEX_DIGITS[( bytes[i] >> 4 ) & 0x0F];
+            chars[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0x0F];
+        }
+        return new String( chars );
+    }
+
+    /**
+     * Object input stream which reads only the objects of the given classes, so that a state file of the shared
+     * directory cannot instantiate any serializable class of the classpath.
+     */
+    private static class StateInputStream
+        extends ObjectInputStream
+    {
+
+        private final Map<String, Class<?>> classes;
+
+        public StateInputStream( InputStream input, Map<String, Class<?>> classes )
+            throws IOException
+        {
+            super( input );
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> resolveClass( ObjectStreamClass desc )
+            throws IOException, ClassNotFoundException
+        {
+            Class<?> stateClass = classes.get( desc.getName() );
+            if ( stateClass == null )
+            {
+                throw new InvalidClassException( desc.getName(), "Class not allowed in the state" );
+            }
+            return stateClass;
+        }
+    }
+
+    /**
+     * Preprocessed document loaded from the store.
+     */
+    public static class StoredDocument
+    {
+
+        private final XDocArchive preprocessedArchive;
+
+        private final Map<String, Serializable> state;
+
+        public StoredDocument( XDocArchive preprocessedArchive, Map<String, Serializable> state )
+        {
+            this.preprocessedArchive = preprocessedArchive;
+            this.state = state;
+        }
+
+        public XDocArchive getPreprocessedArchive()
+        {
+            return preprocessedArchive;
+        }
+
+        public Map<String, Serializable> getState()
+        {
+            return state;
+        }
+    }
+}
@@ -29,10 +29,14 @@ import java.io.StringWriter;
 import java.util.HashMap;
 import java.util.Map;
 
+import fr.opensagres.xdocreport.core.cache.ICacheStorage;
+import fr.opensagres.xdocreport.core.metrics.IReportMetrics;
+import fr.opensagres.xdocreport.core.metrics.ReportMetricsRegistry;
 import fr.opensagres.xdocreport.core.registry.AbstractRegistry;
 import fr.opensagres.xdocreport.document.DocumentContextHelper;
 import fr.opensagres.xdocreport.document.discovery.ITextStylingDocumentHandlerFactoryDiscovery;
 import fr.opensagres.xdocreport.document.preprocessor.sax.BufferedElement;
+import fr.opensagres.xdocreport.document.textstyling.AbstractDocumentHandler;
 import fr.opensagres.xdocreport.document.textstyling.BasicTransformResult;
 import fr.opensagres.xdocreport.document.textstyling.IDocumentHandler;
 import fr.opensagres.xdocreport.document.textstyling.ITextStylingTransformer;
@@ -112,11 +116,35 @@ public class TextStylingRegistry
                     }
                 }
 
+                // 2) Search the result of a previous transformation of the same content for the same field.
+                ICacheStorage<String, ITransformResult> cache = DocumentContextHelper.getTextStylingCache( context );
+                String key = null;
+                if ( cache != null )
+                {
+                    key = getCacheKey( content, syntaxKind, documentKind, elementId, entryName );
+                    ITransformResult result = cache.get( key );
+                    ReportMetricsRegistry.getRegistry().getMetrics().onCacheAccess( IReportMetrics.TEXT_STYLING_CACHE,
+                                                                                    result != null );
+                    if ( result != null )
+                    {
+                        return result;
+                    }
+                }
+
                 // Transformer found, create an instance of document handler
                 // (docx, odt, etc).
                 IDocumentHandler visitor = createDocumentHandler( documentKind, elementId, context, entryName );
                 // 3) Process the transformation.
-                return transformer.transform( content, visitor );
+                ITransformResult result = transformer.transform( content, visitor );
+                if ( cache != null && visitor instanceof AbstractDocumentHandler
+                    && ( (AbstractDocumentHandler) visitor ).isCacheable() )
+                {
+                    // the document handler is a writer, cache a copy of the result.
+                    cache.put( key,
+                               new BasicTransformResult( result.getTextBefore(), result.getTextBody(),
+                                                         result.getTextEnd() ) );
+                }
+                return result;
             }
             catch ( Throwable e )
             {
@@ -128,6 +156,21 @@ public class TextStylingRegistry
         return new BasicTransformResult( initialContent );
     }
 
+    /**
+     * Returns the key of the cached transformation result. The result of a transformation depends on the parent element
+     * of the field and on the entry (hyperlinks are registered per entry), so those information are a part of the key.
+     */
+    private static String getCacheKey( String content, String syntaxKind, String documentKind, String elementId,
+                                       String entryName )
+    {
+        StringBuilder key = new StringBuilder( content.length() + 64 );
+        key.append( syntaxKind ).append( '\n' );
+        key.append( documentKind ).append( '\n' );
+        key.append( entryName ).append( '\n' );
+        key.append( elementId ).append( '\n' );
+        return key.append( content ).toString();
+    }
+
     /**
      * Create an instance of document handler for the given document kind.
      * 
@@ -32,17 +32,32 @@ import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.logging.Logger;
 
 import fr.opensagres.xdocreport.converter.MimeMapping;
 import fr.opensagres.xdocreport.core.XDocReportException;
+import fr.opensagres.xdocreport.core.cache.BoundedCacheStorage;
 import fr.opensagres.xdocreport.core.cache.CacheStorageRegistry;
 import fr.opensagres.xdocreport.core.cache.ICacheStorage;
+import fr.opensagres.xdocreport.core.cache.ICacheWeigher;
 import fr.opensagres.xdocreport.core.io.IEntryInfo;
 import fr.opensagres.xdocreport.core.io.XDocArchive;
 import fr.opensagres.xdocreport.core.logging.LogUtils;
+import fr.opensagres.xdocreport.core.metrics.IReportMetrics;
+import fr.opensagres.xdocreport.core.metrics.ReportMetricsRegistry;
+import fr.opensagres.xdocreport.core.metrics.ReportPhase;
 import fr.opensagres.xdocreport.core.registry.AbstractRegistry;
 import fr.opensagres.xdocreport.core.utils.StringUtils;
 import fr.opensagres.xdocreport.document.IXDocReport;
@@ -81,7 +96,20 @@ public class XDocReportRegistry
      * IXDocReport cache.
      */
     private final ICacheStorage<String, IXDocReport> cachedReports;
+
+    /**
+     * Reports which are loading with {@link #getOrLoadReport(String, IReportLoader)}.
+     */
+    private final ConcurrentMap<String, FutureTask<IXDocReport>> loadingReports =
+        new ConcurrentHashMap<String, FutureTask<IXDocReport>>();
+
+    /**
+     * Store of the preprocessed archives of the loaded reports, null if preprocessed archives are not stored.
+     */
+    private transient PreprocessedDocumentStore preprocessedDocumentStore;
+
     private Timer cleanupTimer;
+
     public XDocReportRegistry()
     {
         super( IXDocReportFactoryDiscovery.class );
@@ -95,7 +123,13 @@ public class XDocReportRegistry
      */
     protected ICacheStorage<String, IXDocReport> createCache()
     {
-        return CacheStorageRegistry.getRegistry().createCache();
+        ICacheStorage<String, IXDocReport> cache = CacheStorageRegistry.getRegistry().createCache();
+        if ( cache instanceof BoundedCacheStorage )
+        {
+            // weight of the report is the size of the XML entries of the archives hosted by the report.
+            ( (BoundedCacheStorage<String, IXDocReport>) cache ).setWeigher( ReportWeigher.INSTANCE );
+        }
+        return cache;
     }
 
     public static XDocReportRegistry getRegistry()
@@ -334,6 +368,7 @@ public class XDocReportRegistry
         throws IOException, XDocReportException
     {
         initializeIfNeeded();
+        long startTime = System.nanoTime();
         // 2) zip was loaded, create an instance of report
         IXDocReport report = createReport( sourceStream );
         // 3) Update the report id if need.
@@ -342,6 +377,10 @@ public class XDocReportRegistry
             reportId = report.toString();
         }
         report.setId( reportId );
+        if ( preprocessedDocumentStore != null )
+        {
+            report.setPreprocessedDocumentStore( preprocessedDocumentStore );
+        }
         // 4) Search or set the template engine.
         if ( templateEngine == null && StringUtils.isNotEmpty( templateEngineKind ) )
         {
@@ -361,6 +400,8 @@ public class XDocReportRegistry
         {
             registerReport( report );
         }
+        ReportMetricsRegistry.getRegistry().getMetrics().onPhase( ReportPhase.LOAD, reportId, report,
+                                                                  System.nanoTime() - startTime );
         return report;
     }
 
@@ -471,6 +512,128 @@ public class XDocReportRegistry
         return cachedReports.get( reportId );
     }
 
+    /**
+     * Returns the report identified with the given id and load it with the given loader if it is not cached. When
+     * several threads ask the same not cached report at the same time, only one thread loads the report (and execute
+     * the preprocessors), the other threads wait for the end of this load and share the loaded report.
+     * 
+     * @param reportId the report id.
+     * @param loader the loader used if report is not cached.
+     * @return
+     * @throws IOException
+     * @throws XDocReportException
+     */
+    public IXDocReport getOrLoadReport( final String reportId, final IReportLoader loader )
+        throws IOException, XDocReportException
+    {
+        IXDocReport report = getReport( reportId );
+        ReportMetricsRegistry.getRegistry().getMetrics().onCacheAccess( IReportMetrics.REPORTS_CACHE, report != null );
+        if ( report != null )
+        {
+            return report;
+        }
+        FutureTask<IXDocReport> loadingReport = loadingReports.get( reportId );
+        if ( loadingReport == null )
+        {
+            FutureTask<IXDocReport> task = new FutureTask<IXDocReport>( new Callable<IXDocReport>()
+            {
+                public IXDocReport call()
+                    throws Exception
+                {
+                    // the report could be registered by a loader which has finished since the first check.
+                    IXDocReport report = getReport( reportId );
+                    return report != null ? report : loader.loadReport( reportId );
+                }
+            } );
+            loadingReport = loadingReports.putIfAbsent( reportId, task );
+            if ( loadingReport == null )
+            {
+                // the current thread is the loader
+                loadingReport = task;
+                try
+                {
+                    task.run();
+                }
+                finally
+                {
+                    loadingReports.remove( reportId, task );
+                }
+            }
+        }
+        return getLoadedReport( loadingReport );
+    }
+
+    /**
+     * Warm up the reports with the given ids in background with the given executor : each report which is not cached
+     * is loaded with the given loader (see {@link #getOrLoadReport(String, IReportLoader)}) and preprocessed, so that
+     * the first generation of the report doesn't pay the cost of the load and of the preprocessing. When a
+     * {@link PreprocessedDocumentStore} is set, the preprocessed archives stored by a previous run are reused.
+     * 
+     * @param reportIds the ids of the reports to warm up.
+     * @param loader the loader used for the reports which are not cached.
+     * @param executor the executor used to load the reports.
+     * @return the warmed up reports, in the order of the ids.
+     */
+    public List<Future<IXDocReport>> warmUpReports( Collection<String> reportIds, final IReportLoader loader,
+                                                    Executor executor )
+    {
+        List<Future<IXDocReport>> reports = new ArrayList<Future<IXDocReport>>( reportIds.size() );
+        for ( final String reportId : reportIds )
+        {
+            FutureTask<IXDocReport> task = new FutureTask<IXDocReport>( new Callable<IXDocReport>()
+            {
+                public IXDocReport call()
+                    throws Exception
+                {
+                    IXDocReport report = getOrLoadReport( reportId, loader );
+                    if ( report != null )
+                    {
+                        report.preprocess();
+                    }
+                    return report;
+                }
+            } );
+            executor.execute( task );
+            reports.add( task );
+        }
+        return reports;
+    }
+
+    private IXDocReport getLoadedReport( FutureTask<IXDocReport> loadingReport )
+        throws IOException, XDocReportException
+    {
+        try
+        {
+            return loadingReport.get();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new XDocReportException( e );
+        }
+        catch ( ExecutionException e )
+        {
+            Throwable cause = e.getCause();
+            if ( cause instanceof IOException )
+            {
+                throw (IOException) cause;
+            }
+            if ( cause instanceof XDocReportException )
+            {
+                throw (XDocReportException) cause;
+            }
+            if ( cause instanceof RuntimeException )
+            {
+                throw (RuntimeException) cause;
+            }
+            if ( cause instanceof Error )
+            {
+                throw (Error) cause;
+            }
+            throw new XDocReportException( cause );
+        }
+    }
+
     /**
      * Returns true if report identified with the given id exists in the registry and false otherwise.
      * 
@@ -560,6 +723,28 @@ public class XDocReportRegistry
         cachedReports.clear();
     }
 
+    /**
+     * Set the store of the preprocessed archives used by the reports loaded with the registry, so that a report loaded
+     * again (after a restart or by another node which shares the store directory) reuses the preprocessed archive
+     * instead of executing again the preprocessors.
+     * 
+     * @param preprocessedDocumentStore the store or null to always execute the preprocessors.
+     */
+    public void setPreprocessedDocumentStore( PreprocessedDocumentStore preprocessedDocumentStore )
+    {
+        this.preprocessedDocumentStore = preprocessedDocumentStore;
+    }
+
+    /**
+     * Returns the store of the preprocessed archives used by the reports loaded with the registry.
+     * 
+     * @return
+     */
+    public PreprocessedDocumentStore getPreprocessedDocumentStore()
+    {
+        return preprocessedDocumentStore;
+    }
+
     /**
      * Returns mime mapping for the file extension.
      * 
@@ -627,4 +812,28 @@ public class XDocReportRegistry
         reportFactoryDiscoveries.add( instance );
         return true;
     }
+
+    /**
+     * {@link ICacheWeigher} which estimates the size of the {@link IXDocReport} with the size of the original and
+     * preprocessed archives. The preprocessed archive is a copy-on-write copy of the original archive, so the entry
+     * contents shared by the archives are counted once.
+     */
+    private static class ReportWeigher
+        implements ICacheWeigher<String, IXDocReport>
+    {
+
+        private static final ReportWeigher INSTANCE = new ReportWeigher();
+
+        public long weigh( String reportId, IXDocReport report )
+        {
+            Set<byte[]> countedEntries = Collections.newSetFromMap( new IdentityHashMap<byte[], Boolean>() );
+            return getEstimatedSize( report.getOriginalDocumentArchive(), countedEntries )
+                + getEstimatedSize( report.getPreprocessedDocumentArchive(), countedEntries );
+        }
+
+        private static long getEstimatedSize( XDocArchive archive, Set<byte[]> countedEntries )
+        {
+            return archive != null ? archive.getEstimatedSize( countedEntries ) : 0;
+        }
+    }
 }
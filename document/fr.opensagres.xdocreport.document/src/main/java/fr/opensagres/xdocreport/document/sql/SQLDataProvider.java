@@ -26,12 +26,18 @@ package fr.opensagres.xdocreport.document.sql;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
-import fr.opensagres.xdocreport.core.utils.StringUtils;
 import fr.opensagres.xdocreport.template.IContext;
 import fr.opensagres.xdocreport.template.formatter.FieldsMetadata;
 
@@ -41,6 +47,18 @@ import fr.opensagres.xdocreport.template.formatter.FieldsMetadata;
  * <li>transform a {@link ResultSet} to {@link Map} which can be used instead of {@link IContext}.</li>
  * <li>update the {@link FieldsMetadata} with simple and list field from the {@link ResultSet}.</li>
  * </ul>
+ * The binding between the columns and the fields is computed once with the {@link java.sql.ResultSetMetaData}. By
+ * default the rows of the {@link ResultSet} are loaded in the constructor. In streaming mode (see
+ * {@link #SQLDataProvider(ResultSet, FieldsMetadata, boolean)}), the rows are read while the template loops over the
+ * list field :
+ * <ul>
+ * <li>the list is a forward-only {@link Iterator} (which can be iterated only once) over the {@link ResultSet}, so the
+ * {@link ResultSet} must stay opened until the report is generated.</li>
+ * <li>the item of the list is the same {@link Map} for each row, which returns the values of the current row.</li>
+ * <li>the lists share the cursor of the {@link ResultSet}.</li>
+ * <li>the simple fields are read from the first row in the constructor (the ResultSet stays on this row which is the
+ * first item of the lists), so they can be used outside the loops.</li>
+ * </ul>
  */
 public abstract class SQLDataProvider
     extends HashMap<String, Object>
@@ -57,73 +75,178 @@ public abstract class SQLDataProvider
      */
     public SQLDataProvider( ResultSet rs, FieldsMetadata metadata )
         throws SQLException
+    {
+        this( rs, metadata, false );
+    }
+
+    /**
+     * SQL Data provider constructor.
+     * 
+     * @param rs the SQL {@link ResultSet}
+     * @param metadata the {@link FieldsMetadata}.
+     * @param streaming true if the rows must be read while the report is generated and false if the rows must be
+     *            loaded in this constructor.
+     * @throws SQLException
+     */
+    public SQLDataProvider( ResultSet rs, FieldsMetadata metadata, boolean streaming )
+        throws SQLException
+    {
+        List<ColumnBinding> bindings = getColumnBindings( rs, metadata );
+        if ( streaming )
+        {
+            bindRows( rs, bindings );
+        }
+        else
+        {
+            loadRows( rs, bindings );
+        }
+    }
+
+    /**
+     * Compute the binding of each column of the given ResultSet and update the fields metadata.
+     * 
+     * @param rs
+     * @param metadata
+     * @return
+     * @throws SQLException
+     */
+    private List<ColumnBinding> getColumnBindings( ResultSet rs, FieldsMetadata metadata )
+        throws SQLException
+    {
+        int columnCount = getColumnCount( rs );
+        List<ColumnBinding> bindings = new ArrayList<ColumnBinding>( columnCount );
+        for ( int columnIndex = 1; columnIndex < columnCount + 1; columnIndex++ )
+        {
+            // retrieve table name + column label.
+            String tableName = getTableName( rs, columnIndex );
+            String columnLabel = getColumnLabel( rs, columnIndex );
+
+            String listName = getListName( tableName, columnLabel );
+            if ( listName != null )
+            {
+                String getterName = columnLabel;
+                boolean sameListName = ( listName.equals( tableName ) );
+                if ( !sameListName )
+                {
+                    getterName = tableName + "_" + columnLabel;
+                }
+                String fieldName = listName + "." + getterName;
+                metadata.addFieldAsList( fieldName );
+                if ( !sameListName )
+                {
+                    metadata.addFieldReplacement( tableName + "." + columnLabel, fieldName );
+                }
+                bindings.add( new ColumnBinding( columnIndex, listName, getterName ) );
+            }
+            else
+            {
+                // update fields metadata with the field as simple field.
+                metadata.addField( tableName + "." + columnLabel, null, null, null, null );
+                bindings.add( new ColumnBinding( columnIndex, tableName, columnLabel, false ) );
+            }
+        }
+        return bindings;
+    }
+
+    /**
+     * Load the whole rows of the ResultSet in {@link Map}.
+     * 
+     * @param rs
+     * @param bindings
+     * @throws SQLException
+     */
+    private void loadRows( ResultSet rs, List<ColumnBinding> bindings )
+        throws SQLException
     {
         Map<String, Object> pojoItem = null;
         // Loop for each row of the ResultSet.
         while ( rs.next() )
         {
             pojoItem = null;
-            int columnCount = getColumnCount( rs );
-            String tableName = null;
-            String columnLabel = null;
             // Loop for column of the current row
-            for ( int columnIndex = 1; columnIndex < columnCount + 1; columnIndex++ )
+            for ( ColumnBinding binding : bindings )
             {
-                // retrieve table name + column label.
-                tableName = getTableName( rs, columnIndex );
-                columnLabel = getColumnLabel( rs, columnIndex );
-
-                String listName = getListName( tableName, columnLabel );
-                if ( listName != null )
+                if ( binding.list )
                 {
                     // The field is a list, build a Collection
-                    Collection<Map<String, Object>> list = (Collection<Map<String, Object>>) super.get( listName );
+                    Collection<Map<String, Object>> list =
+                        (Collection<Map<String, Object>>) super.get( binding.name );
                     if ( list == null )
                     {
                         // initialize list if need.
                         list = new ArrayList<Map<String, Object>>();
-                        super.put( listName, list );
+                        super.put( binding.name, list );
                     }
                     if ( pojoItem == null )
                     {
                         pojoItem = new HashMap<String, Object>();
                         list.add( pojoItem );
                     }
-
-                    String getterName = columnLabel;
-                    boolean sameListName = ( listName.equals( tableName ) );
-                    if ( !sameListName )
-                    {
-                        getterName = tableName + "_" + columnLabel;
-
-                    }
                     // update the pojo item with current column value
-                    pojoItem.put( getterName, rs.getObject( columnIndex ) );
-                    String fieldName = listName + "." + getterName;
-                    metadata.addFieldAsList( fieldName );
-                    if ( !sameListName )
-                    {
-                        metadata.addFieldReplacement( tableName + "." + columnLabel, fieldName );
-                    }
-
+                    pojoItem.put( binding.propertyName, rs.getObject( binding.columnIndex ) );
                 }
                 else
                 {
                     // The field is a not list, build a Pojo with Map.
-                    Map<String, Object> pojo = (Map<String, Object>) super.get( tableName );
+                    Map<String, Object> pojo = (Map<String, Object>) super.get( binding.name );
                     if ( pojo == null )
                     {
                         pojo = new HashMap<String, Object>();
-                        super.put( tableName, pojo );
+                        super.put( binding.name, pojo );
                     }
                     // update the pojo item with current column value
-                    metadata.addField( tableName + "." + columnLabel, null, null, null, null );
-                    // update fields metadata with the field as simple field.
-                    pojo.put( columnLabel, rs.getObject( columnIndex ) );
+                    pojo.put( binding.propertyName, rs.getObject( binding.columnIndex ) );
                 }
             }
         }
+    }
 
+    /**
+     * Bind the lists to the current row of the ResultSet and load the pojo from the first row.
+     * 
+     * @param rs
+     * @param bindings
+     * @throws SQLException
+     */
+    private void bindRows( ResultSet rs, List<ColumnBinding> bindings )
+        throws SQLException
+    {
+        // group the columns by list/pojo name
+        Map<String, Map<String, Integer>> columnsByName = new LinkedHashMap<String, Map<String, Integer>>();
+        Map<String, Boolean> lists = new HashMap<String, Boolean>();
+        for ( ColumnBinding binding : bindings )
+        {
+            Map<String, Integer> columns = columnsByName.get( binding.name );
+            if ( columns == null )
+            {
+                columns = new LinkedHashMap<String, Integer>();
+                columnsByName.put( binding.name, columns );
+            }
+            columns.put( binding.propertyName, binding.columnIndex );
+            if ( binding.list )
+            {
+                lists.put( binding.name, Boolean.TRUE );
+            }
+        }
+        ResultSetCursor cursor = new ResultSetCursor( rs );
+        for ( Map.Entry<String, Map<String, Integer>> entry : columnsByName.entrySet() )
+        {
+            String name = entry.getKey();
+            if ( lists.containsKey( name ) )
+            {
+                super.put( name, new RowIterator( cursor, new RowMap( rs, entry.getValue() ) ) );
+            }
+            else if ( cursor.fetch() )
+            {
+                // The field is a not list, build a Pojo with Map from the first row.
+                Map<String, Object> pojo = new HashMap<String, Object>();
+                for ( Map.Entry<String, Integer> column : entry.getValue().entrySet() )
+                {
+                    pojo.put( column.getKey(), rs.getObject( column.getValue() ) );
+                }
+                super.put( name, pojo );
+            }
+        }
     }
 
     /**
@@ -177,4 +300,213 @@ public abstract class SQLDataProvider
      * @return
      */
     protected abstract String getListName( String tableName, String columnName );
+
+    /**
+     * Binding between a column of the ResultSet and a property of a list item or a pojo.
+     */
+    private static class ColumnBinding
+    {
+
+        private final int columnIndex;
+
+        /**
+         * list name or table name.
+         */
+        private final String name;
+
+        private final String propertyName;
+
+        private final boolean list;
+
+        public ColumnBinding( int columnIndex, String listName, String getterName )
+        {
+            this( columnIndex, listName, getterName, true );
+        }
+
+        public ColumnBinding( int columnIndex, String name, String propertyName, boolean list )
+        {
+            this.columnIndex = columnIndex;
+            this.name = name;
+            this.propertyName = propertyName;
+            this.list = list;
+        }
+    }
+
+    /**
+     * Forward-only cursor of the ResultSet shared by the lists.
+     */
+    private static class ResultSetCursor
+    {
+
+        private final ResultSet rs;
+
+        private Boolean hasNext;
+
+        public ResultSetCursor( ResultSet rs )
+        {
+            this.rs = rs;
+        }
+
+        /**
+         * Move the ResultSet to the row returned by the next call of {@link #next()} if it was not done (before the
+         * iteration, the ResultSet is moved to the first row).
+         * 
+         * @return true if the row exists.
+         * @throws SQLException
+         */
+        public boolean fetch()
+            throws SQLException
+        {
+            if ( hasNext == null )
+            {
+                hasNext = rs.next();
+            }
+            return hasNext;
+        }
+
+        public boolean hasNext()
+        {
+            try
+            {
+                return fetch();
+            }
+            catch ( SQLException e )
+            {
+                throw new IllegalStateException( e );
+            }
+        }
+
+        public void next()
+        {
+            if ( !hasNext() )
+            {
+                throw new NoSuchElementException();
+            }
+            // the ResultSet is now on the row to return, move to the next row at the next call of hasNext.
+            hasNext = null;
+        }
+    }
+
+    /**
+     * Iterator over the rows of the ResultSet which returns the same {@link RowMap} for each row. This class implements
+     * too {@link Iterable} and returns itself, so it can be iterated only once.
+     */
+    private static class RowIterator
+        implements Iterator<Map<String, Object>>, Iterable<Map<String, Object>>
+    {
+
+        private final ResultSetCursor cursor;
+
+        private final RowMap row;
+
+        public RowIterator( ResultSetCursor cursor, RowMap row )
+        {
+            this.cursor = cursor;
+            this.row = row;
+        }
+
+        public Iterator<Map<String, Object>> iterator()
+        {
+            return this;
+        }
+
+        public boolean hasNext()
+        {
+            return cursor.hasNext();
+        }
+
+        public Map<String, Object> next()
+        {
+            cursor.next();
+            return row;
+        }
+
+        public void remove()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * {@link Map} which returns the values of the current row of the ResultSet.
+     */
+    private static class RowMap
+        extends AbstractMap<String, Object>
+    {
+
+        private final ResultSet rs;
+
+        private final Map<String, Integer> columns;
+
+        private final Set<Map.Entry<String, Object>> entrySet = new AbstractSet<Map.Entry<String, Object>>()
+        {
+
+            @Override
+            public Iterator<Map.Entry<String, Object>> iterator()
+            {
+                final Iterator<String> names = columns.keySet().iterator();
+                return new Iterator<Map.Entry<String, Object>>()
+                {
+
+                    public boolean hasNext()
+                    {
+                        return names.hasNext();
+                    }
+
+                    public Map.Entry<String, Object> next()
+                    {
+                        String name = names.next();
+                        return new SimpleImmutableEntry<String, Object>( name, get( name ) );
+                    }
+
+                    public void remove()
+                    {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override
+            public int size()
+            {
+                return columns.size();
+            }
+        };
+
+        public RowMap( ResultSet rs, Map<String, Integer> columns )
+        {
+            this.rs = rs;
+            this.columns = columns;
+        }
+
+        @Override
+        public Object get( Object key )
+        {
+            Integer columnIndex = columns.get( key );
+            if ( columnIndex == null )
+            {
+                return null;
+            }
+            try
+            {
+                return rs.getObject( columnIndex );
+            }
+            catch ( SQLException e )
+            {
+                throw new IllegalStateException( e );
+            }
+        }
+
+        @Override
+        public boolean containsKey( Object key )
+        {
+            return columns.containsKey( key );
+        }
+
+        @Override
+        public Set<Map.Entry<String, Object>> entrySet()
+        {
+            return entrySet;
+        }
+    }
 }
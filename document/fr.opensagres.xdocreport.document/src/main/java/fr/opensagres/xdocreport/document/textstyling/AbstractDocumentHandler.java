@@ -64,6 +64,8 @@ public abstract class AbstractDocumentHandler
 
     private Stack<Writer> tempWriterStack;
 
+    private boolean cacheable;
+
     public AbstractDocumentHandler( BufferedElement parent, IContext context, String entryName )
     {
         this.parent = parent;
@@ -72,6 +74,7 @@ public abstract class AbstractDocumentHandler
         this.listStack = new Stack<Boolean>();
         this.entryName = entryName;
         this.tablesStack = null;
+        this.cacheable = true;
     }
 
     public void handleString( String s )
@@ -294,6 +297,27 @@ public abstract class AbstractDocumentHandler
         return entryName;
     }
 
+    /**
+     * Returns true if the result of the transformation can be reused for the same content in the same entry of the
+     * generated document and false otherwise (ex : transformation which registers a new list numbering).
+     * 
+     * @return
+     */
+    public boolean isCacheable()
+    {
+        return cacheable;
+    }
+
+    /**
+     * Set false if the result of the transformation must not be reused for the same content.
+     * 
+     * @param cacheable
+     */
+    protected void setCacheable( boolean cacheable )
+    {
+        this.cacheable = cacheable;
+    }
+
     @Override
     public String toString()
     {
@@ -24,16 +24,10 @@
  */
 package fr.opensagres.xdocreport.document.textstyling.html;
 
-import java.io.StringReader;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-import org.xml.sax.InputSource;
-import org.xml.sax.XMLReader;
-import org.xml.sax.helpers.XMLReaderFactory;
-
 import fr.opensagres.xdocreport.core.logging.LogUtils;
-import fr.opensagres.xdocreport.core.utils.StringEscapeUtils;
 import fr.opensagres.xdocreport.core.utils.StringUtils;
 import fr.opensagres.xdocreport.document.textstyling.AbstractTextStylingTransformer;
 import fr.opensagres.xdocreport.document.textstyling.IDocumentHandler;
@@ -41,7 +35,8 @@ import fr.opensagres.xdocreport.document.textstyling.ITextStylingTransformer;
 
 /**
  * HTML text styling transformer to transform HTML to another document kind (odt, docx, etc) syntax. The ODT, DOCX is
- * represented with the given {@link IDocumentHandler}.
+ * represented with the given {@link IDocumentHandler}. The HTML content is tokenized with {@link HTMLTokenizer} which
+ * resolves HTML entities without parsing an XML document declaring a DTD.
  */
 public class HTMLTextStylingTransformer
     extends AbstractTextStylingTransformer
@@ -49,11 +44,6 @@ public class HTMLTextStylingTransformer
 
     public static final ITextStylingTransformer INSTANCE = new HTMLTextStylingTransformer();
 
-    private static final String START_XML = "<?xml version=\"1.0\" ?>"
-        + StringEscapeUtils.Entities.HTML40.generateDocType( "entities" ) + "<root>";
-
-    private static final String END_XML = "</root>";
-
     /**
      * Logger for this class
      */
@@ -73,16 +63,13 @@ public class HTMLTextStylingTransformer
 
         // remove special characters \n, \r
         String xml = StringUtils.replaceEach( content, searchList, replacementList );
-        // add root element if xml doesn't contain xml root element.
-        xml = new StringBuilder( START_XML ).append( xml ).append( END_XML ).toString();
 
         if ( LOGGER.isLoggable( Level.FINE ) )
         {
             LOGGER.fine( xml );
         }
-        XMLReader xmlReader = XMLReaderFactory.createXMLReader();
-        xmlReader.setContentHandler( new HTMLTextStylingContentHandler( documentHandler ) );
-        xmlReader.parse( new InputSource( new StringReader( xml ) ) );
+        // tokenize the content as the content of a root element.
+        HTMLTokenizer.parse( xml, new HTMLTextStylingContentHandler( documentHandler ) );
     }
 
     protected String generateXhtmlFromContent( String content )
@@ -0,0 +1,464 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.document.textstyling.html;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.xml.sax.ContentHandler;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+import fr.opensagres.xdocreport.core.utils.StringEscapeUtils;
+
+/**
+ * Hand-written tokenizer of the (X)HTML content of a text styling field, which fires SAX events to a
+ * {@link ContentHandler}. HTML entities are resolved with {@link StringEscapeUtils.Entities#HTML40} without parsing a
+ * DTD declaring those entities, and the content is considered as the content of a root element. Events (and the
+ * characters chunks) are the same as those fired by a SAX parser, and the tokenizer throws a {@link SAXException} when
+ * the content is not well-formed.
+ */
+public class HTMLTokenizer
+{
+
+    public static final String ROOT_ELT = "root";
+
+    private static final String CDATA_START = "<![CDATA[";
+
+    private static final String CDATA_END = "]]>";
+
+    private static final String COMMENT_START = "<!--";
+
+    private static final String COMMENT_END = "-->";
+
+    private static final String PI_START = "<?";
+
+    private static final String PI_END = "?>";
+
+    private static final String CDATA_TYPE = "CDATA";
+
+    private final String content;
+
+    private final ContentHandler handler;
+
+    private final int length;
+
+    private int pos;
+
+    /**
+     * Buffer of the characters to fire with {@link ContentHandler#characters(char[], int, int)}.
+     */
+    private char[] text;
+
+    private int textLength;
+
+    private HTMLTokenizer( String content, ContentHandler handler )
+    {
+        this.content = content;
+        this.handler = handler;
+        this.length = content.length();
+        this.pos = 0;
+        this.text = new char[Math.min( Math.max( length, 16 ), 1024 )];
+        this.textLength = 0;
+    }
+
+    /**
+     * Tokenize the given (X)HTML content and fire SAX events to the given handler.
+     * 
+     * @param content the HTML content (without root element).
+     * @param handler the SAX handler.
+     * @throws SAXException if the content is not well-formed or if the handler throws an error.
+     */
+    public static void parse( String content, ContentHandler handler )
+        throws SAXException
+    {
+        new HTMLTokenizer( content, handler ).parse();
+    }
+
+    private void parse()
+        throws SAXException
+    {
+        handler.startDocument();
+        handler.startElement( "", ROOT_ELT, ROOT_ELT, new AttributesImpl() );
+        List<String> elements = new ArrayList<String>();
+        while ( pos < length )
+        {
+            char c = content.charAt( pos );
+            if ( c == '<' )
+            {
+                flushText();
+                if ( content.startsWith( COMMENT_START, pos ) )
+                {
+                    pos = indexOf( COMMENT_END, pos + COMMENT_START.length() ) + COMMENT_END.length();
+                }
+                else if ( content.startsWith( CDATA_START, pos ) )
+                {
+                    int start = pos + CDATA_START.length();
+                    int end = indexOf( CDATA_END, start );
+                    appendText( content, start, end );
+                    flushText();
+                    pos = end + CDATA_END.length();
+                }
+                else if ( content.startsWith( PI_START, pos ) )
+                {
+                    // processing instruction is ignored
+                    pos = indexOf( PI_END, pos + PI_START.length() ) + PI_END.length();
+                }
+                else if ( pos + 1 < length && content.charAt( pos + 1 ) == '/' )
+                {
+                    pos += 2;
+                    String name = parseName();
+                    skipWhitespaces();
+                    expect( '>' );
+                    if ( elements.isEmpty() || !elements.get( elements.size() - 1 ).equals( name ) )
+                    {
+                        throw error( "The end-tag for element type \"" + name + "\" is not expected." );
+                    }
+                    elements.remove( elements.size() - 1 );
+                    endElement( name );
+                }
+                else
+                {
+                    pos++;
+                    parseStartElement( elements );
+                }
+            }
+            else if ( c == '&' )
+            {
+                parseReference();
+            }
+            else
+            {
+                if ( c == ']' && content.startsWith( CDATA_END, pos ) )
+                {
+                    throw error( "The character sequence \"]]>\" must not appear in content unless used to mark the end of a CDATA section." );
+                }
+                appendText( c );
+                pos++;
+            }
+        }
+        flushText();
+        if ( !elements.isEmpty() )
+        {
+            throw error( "The element type \"" + elements.get( elements.size() - 1 )
+                + "\" must be terminated by the matching end-tag \"</" + elements.get( elements.size() - 1 ) + ">\"." );
+        }
+        handler.endElement( "", ROOT_ELT, ROOT_ELT );
+        handler.endDocument();
+    }
+
+    private void parseStartElement( List<String> elements )
+        throws SAXException
+    {
+        String name = parseName();
+        AttributesImpl attributes = new AttributesImpl();
+        while ( true )
+        {
+            boolean hasWhitespaces = skipWhitespaces();
+            char c = charAt( pos );
+            if ( c == '>' )
+            {
+                pos++;
+                elements.add( name );
+                handler.startElement( "", name, name, attributes );
+                return;
+            }
+            if ( c == '/' )
+            {
+                pos++;
+                expect( '>' );
+                handler.startElement( "", name, name, attributes );
+                endElement( name );
+                return;
+            }
+            if ( !hasWhitespaces )
+            {
+                throw error( "Element type \"" + name + "\" must be followed by either attribute specifications, \">\" or \"/>\"." );
+            }
+            String attrName = parseName();
+            skipWhitespaces();
+            expect( '=' );
+            skipWhitespaces();
+            char quote = charAt( pos );
+            if ( quote != '"' && quote != '\'' )
+            {
+                throw error( "Open quote is expected for attribute \"" + attrName + "\"." );
+            }
+            pos++;
+            int end = content.indexOf( quote, pos );
+            if ( end == -1 )
+            {
+                throw error( "The value of attribute \"" + attrName + "\" must be terminated by the matching quote." );
+            }
+            if ( attributes.getIndex( attrName ) != -1 )
+            {
+                throw error( "Attribute \"" + attrName + "\" was already specified for element \"" + name + "\"." );
+            }
+            attributes.addAttribute( "", attrName, attrName, CDATA_TYPE, parseAttributeValue( end ) );
+            pos = end + 1;
+        }
+    }
+
+    private String parseAttributeValue( int end )
+        throws SAXException
+    {
+        int ampersand = content.indexOf( '&', pos );
+        if ( ampersand == -1 || ampersand > end )
+        {
+            checkAttributeValue( pos, end );
+            return content.substring( pos, end );
+        }
+        StringBuilder value = new StringBuilder( end - pos );
+        int start = pos;
+        while ( ampersand != -1 && ampersand < end )
+        {
+            checkAttributeValue( start, ampersand );
+            value.append( content, start, ampersand );
+            pos = ampersand;
+            value.append( resolveReference( parseReferenceName() ) );
+            start = pos;
+            ampersand = content.indexOf( '&', pos );
+        }
+        checkAttributeValue( start, end );
+        value.append( content, start, end );
+        return value.toString();
+    }
+
+    private void checkAttributeValue( int start, int end )
+        throws SAXException
+    {
+        int index = content.indexOf( '<', start );
+        if ( index != -1 && index < end )
+        {
+            throw error( "The value of attribute must not contain the '<' character." );
+        }
+    }
+
+    /**
+     * Parse an entity or character reference in the text content. Like a SAX parser, references to predefined XML
+     * entities and character references are fired alone, whereas the character of an HTML entity is fired with the
+     * text which follows it.
+     */
+    private void parseReference()
+        throws SAXException
+    {
+        flushText();
+        String name = parseReferenceName();
+        appendText( resolveReference( name ) );
+        if ( name.charAt( 0 ) == '#' || isPredefinedEntity( name ) )
+        {
+            flushText();
+        }
+    }
+
+    /**
+     * Parse the name of the reference (ex : "amp" for "&amp;" or "#233" for "&#233;") at the current position.
+     */
+    private String parseReferenceName()
+        throws SAXException
+    {
+        int end = content.indexOf( ';', pos + 1 );
+        if ( end == -1 || end == pos + 1 )
+        {
+            throw error( "The entity name must immediately follow the '&' in the entity reference." );
+        }
+        String name = content.substring( pos + 1, end );
+        pos = end + 1;
+        return name;
+    }
+
+    private String resolveReference( String name )
+        throws SAXException
+    {
+        if ( name.charAt( 0 ) == '#' )
+        {
+            // character reference
+            int codePoint = -1;
+            try
+            {
+                if ( name.length() > 1 && ( name.charAt( 1 ) == 'x' ) )
+                {
+                    codePoint = Integer.parseInt( name.substring( 2 ), 16 );
+                }
+                else
+                {
+                    codePoint = Integer.parseInt( name.substring( 1 ) );
+                }
+            }
+            catch ( NumberFormatException e )
+            {
+                codePoint = -1;
+            }
+            if ( !isXMLChar( codePoint ) )
+            {
+                throw error( "Character reference \"&" + name + "\" is an invalid XML character." );
+            }
+            return new String( Character.toChars( codePoint ) );
+        }
+        if ( "apos".equals( name ) )
+        {
+            return "'";
+        }
+        int value = StringEscapeUtils.Entities.HTML40.entityValue( name );
+        if ( value == -1 )
+        {
+            throw error( "The entity \"" + name + "\" was referenced, but not declared." );
+        }
+        return String.valueOf( (char) value );
+    }
+
+    private static boolean isPredefinedEntity( String name )
+    {
+        return "amp".equals( name ) || "lt".equals( name ) || "gt".equals( name ) || "quot".equals( name )
+            || "apos".equals( name );
+    }
+
+    private static boolean isXMLChar( int c )
+    {
+        return c == 0x9 || c == 0xA || c == 0xD || ( c >= 0x20 && c <= 0xD7FF ) || ( c >= 0xE000 && c <= 0xFFFD )
+            || ( c >= 0x10000 && c <= 0x10FFFF );
+    }
+
+    private String parseName()
+        throws SAXException
+    {
+        int start = pos;
+        if ( pos >= length || !isNameStartChar( content.charAt( pos ) ) )
+        {
+            throw error( "The content of elements must consist of well-formed character data or markup." );
+        }
+        pos++;
+        while ( pos < length && isNameChar( content.charAt( pos ) ) )
+        {
+            pos++;
+        }
+        return content.substring( start, pos );
+    }
+
+    private static boolean isNameStartChar( char c )
+    {
+        return Character.isLetter( c ) || c == '_' || c == ':';
+    }
+
+    private static boolean isNameChar( char c )
+    {
+        return Character.isLetterOrDigit( c ) || c == '_' || c == ':' || c == '-' || c == '.';
+    }
+
+    private boolean skipWhitespaces()
+    {
+        int start = pos;
+        while ( pos < length && isWhitespace( content.charAt( pos ) ) )
+        {
+            pos++;
+        }
+        return pos > start;
+    }
+
+    private static boolean isWhitespace( char c )
+    {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    private char charAt( int index )
+        throws SAXException
+    {
+        if ( index >= length )
+        {
+            throw error( "XML document structures must start and end within the same entity." );
+        }
+        return content.charAt( index );
+    }
+
+    private void expect( char c )
+        throws SAXException
+    {
+        if ( charAt( pos ) != c )
+        {
+            throw error( "'" + c + "' is expected." );
+        }
+        pos++;
+    }
+
+    private int indexOf( String s, int from )
+        throws SAXException
+    {
+        int index = content.indexOf( s, from );
+        if ( index == -1 )
+        {
+            throw error( "XML document structures must start and end within the same entity." );
+        }
+        return index;
+    }
+
+    private void endElement( String name )
+        throws SAXException
+    {
+        handler.endElement( "", name, name );
+    }
+
+    private void appendText( char c )
+    {
+        ensureTextCapacity( 1 );
+        text[textLength++] = c;
+    }
+
+    private void appendText( String s )
+    {
+        appendText( s, 0, s.length() );
+    }
+
+    private void appendText( String s, int start, int end )
+    {
+        ensureTextCapacity( end - start );
+        s.getChars( start, end, text, textLength );
+        textLength += end - start;
+    }
+
+    private void ensureTextCapacity( int count )
+    {
+        if ( textLength + count > text.length )
+        {
+            char[] newText = new char[Math.max( text.length * 2, textLength + count )];
+            System.arraycopy( text, 0, newText, 0, textLength );
+            text = newText;
+        }
+    }
+
+    private void flushText()
+        throws SAXException
+    {
+        if ( textLength > 0 )
+        {
+            handler.characters( text, 0, textLength );
+            textLength = 0;
+        }
+    }
+
+    private SAXException error( String message )
+    {
+        return new SAXException( message + " (position " + pos + ")" );
+    }
+}
@@ -48,6 +48,7 @@ import fr.opensagres.xdocreport.document.IXDocReport;
 import fr.opensagres.xdocreport.document.ProcessState;
 import fr.opensagres.xdocreport.document.dump.DumperOptions;
 import fr.opensagres.xdocreport.document.dump.IDumper;
+import fr.opensagres.xdocreport.document.registry.IReportLoader;
 import fr.opensagres.xdocreport.document.registry.XDocReportRegistry;
 import fr.opensagres.xdocreport.template.IContext;
 import fr.opensagres.xdocreport.template.ITemplateEngine;
@@ -366,20 +367,24 @@ public abstract class AbstractProcessXDocReportServlet
      * @throws IOException
      * @throws XDocReportException
      */
-    protected IXDocReport getReport( HttpServletRequest request )
+    protected IXDocReport getReport( final HttpServletRequest request )
         throws IOException, XDocReportException
     {
-        XDocReportRegistry registry = getRegistry( request );
+        final XDocReportRegistry registry = getRegistry( request );
         // 1) Get report id
         String reportId = getReportId( request );
         if ( StringUtils.isNotEmpty( reportId ) )
         {
-            // Search if report is cached in the registry
-            IXDocReport report = registry.getReport( reportId );
-            if ( report != null )
+            // Search if report is cached in the registry and load it otherwise (only one request loads the report
+            // when several requests ask the same not cached report).
+            return registry.getOrLoadReport( reportId, new IReportLoader()
             {
-                return report;
-            }
+                public IXDocReport loadReport( String reportId )
+                    throws IOException, XDocReportException
+                {
+                    return AbstractProcessXDocReportServlet.this.loadReport( reportId, registry, request );
+                }
+            } );
         }
         return loadReport( reportId, registry, request );
     }
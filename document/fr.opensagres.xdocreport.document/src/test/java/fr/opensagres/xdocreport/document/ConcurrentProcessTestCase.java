@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.document;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+import fr.opensagres.xdocreport.core.XDocReportException;
+import fr.opensagres.xdocreport.core.io.IOUtils;
+import fr.opensagres.xdocreport.core.io.XDocArchive;
+import fr.opensagres.xdocreport.document.preprocessor.IXDocPreprocessor;
+import fr.opensagres.xdocreport.template.IContext;
+import fr.opensagres.xdocreport.template.formatter.FieldsMetadata;
+import fr.opensagres.xdocreport.template.formatter.IDocumentFormatter;
+
+/**
+ * Stress test which generates reports from several threads with the same shared {@link IXDocReport}.
+ */
+public class ConcurrentProcessTestCase
+    extends TestCase
+{
+
+    private static final int NB_THREADS = 16;
+
+    private static final int NB_PROCESS = 50;
+
+    public void testConcurrentProcess()
+        throws Exception
+    {
+        assertConcurrentProcess( false );
+    }
+
+    public void testConcurrentStreamingProcess()
+        throws Exception
+    {
+        assertConcurrentProcess( true );
+    }
+
+    private void assertConcurrentProcess( boolean streamingProcess )
+        throws Exception
+    {
+        // expected results computed with one report per thread
+        final byte[][] expectedResults = new byte[NB_THREADS][];
+        for ( int i = 0; i < NB_THREADS; i++ )
+        {
+            IXDocReport report = createReport( new CountPreprocessor() );
+            report.setStreamingProcess( streamingProcess );
+            expectedResults[i] = process( report, i );
+        }
+        XDocArchive expectedArchive = XDocArchive.readZip( new ByteArrayInputStream( expectedResults[3] ) );
+        assertEquals( "<content>Hi World 3!</content>",
+                      IOUtils.toString( expectedArchive.getEntryReader( MockXDocReport.CONTENT_XML_ENTRY ) ) );
+
+        // the shared report is not preprocessed, threads must preprocess it only once.
+        CountPreprocessor preprocessor = new CountPreprocessor();
+        final IXDocReport report = createReport( preprocessor );
+        report.setStreamingProcess( streamingProcess );
+        assertFalse( report.isPreprocessed() );
+
+        ExecutorService executor = Executors.newFixedThreadPool( NB_THREADS );
+        try
+        {
+            final CountDownLatch start = new CountDownLatch( 1 );
+            List<Future<Void>> results = new ArrayList<Future<Void>>();
+            for ( int i = 0; i < NB_THREADS; i++ )
+            {
+                final int index = i;
+                results.add( executor.submit( new Callable<Void>()
+                {
+                    public Void call()
+                        throws Exception
+                    {
+                        start.await();
+                        for ( int j = 0; j < NB_PROCESS; j++ )
+                        {
+                            assertEntriesEquals( expectedResults[index], process( report, index ) );
+                        }
+                        return null;
+                    }
+                } ) );
+            }
+            start.countDown();
+            for ( Future<Void> result : results )
+            {
+                // throws ExecutionException if the report generation failed or gave a bad result
+                result.get();
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        assertTrue( report.isPreprocessed() );
+        assertEquals( 1, preprocessor.count.get() );
+    }
+
+    private static IXDocReport createReport( IXDocPreprocessor preprocessor )
+        throws IOException, XDocReportException
+    {
+        XDocArchive archive = ReportTestUtils.createArchive( ReportTestUtils.HELLO_CONTENT, "<styles>${color}</styles>" );
+        ReportTestUtils.write( archive, "image.png", "binary" );
+
+        AbstractXDocReport report = new MockXDocReport();
+        report.addPreprocessor( MockXDocReport.CONTENT_XML_ENTRY, preprocessor );
+        // template engine is not set yet, so preprocessing is done at the first generation
+        report.setDocumentArchive( archive );
+        return ReportTestUtils.initReport( report, new MockTemplateEngine(), null );
+    }
+
+    private static byte[] process( IXDocReport report, int index )
+        throws IOException, XDocReportException
+    {
+        IContext context = report.createContext();
+        context.put( "name", "World " + index );
+        context.put( "color", "color" + index );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        report.process( context, out );
+        return out.toByteArray();
+    }
+
+    /**
+     * Compare the entry names (and order) and the bytes of each entry of the given zips (the zip themselves differ by
+     * the time of the entries).
+     */
+    private static void assertEntriesEquals( byte[] expected, byte[] actual )
+        throws IOException
+    {
+        XDocArchive expectedArchive = XDocArchive.readZip( new ByteArrayInputStream( expected ) );
+        XDocArchive actualArchive = XDocArchive.readZip( new ByteArrayInputStream( actual ) );
+        assertEquals( new ArrayList<String>( expectedArchive.getEntryNames() ),
+                      new ArrayList<String>( actualArchive.getEntryNames() ) );
+        for ( String entryName : expectedArchive.getEntryNames() )
+        {
+            byte[] expectedEntry = IOUtils.toByteArray( expectedArchive.getEntryInputStream( entryName ) );
+            byte[] actualEntry = IOUtils.toByteArray( actualArchive.getEntryInputStream( entryName ) );
+            assertTrue( "Entry " + entryName + " differs", Arrays.equals( expectedEntry, actualEntry ) );
+        }
+    }
+
+    /**
+     * Preprocessor which replaces "Hello" with "Hi" and counts its calls.
+     */
+    private static class CountPreprocessor
+        implements IXDocPreprocessor
+    {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        public void preprocess( String entryName, XDocArchive outputArchive, FieldsMetadata fieldsMetadata,
+                                IDocumentFormatter formatter, Map<String, Object> sharedContext )
+            throws XDocReportException, IOException
+        {
+            count.incrementAndGet();
+            String content = IOUtils.toString( outputArchive.getEntryReader( entryName ) );
+            ReportTestUtils.write( outputArchive, entryName, content.replace( "Hello", "Hi" ) );
+        }
+
+        public boolean create( String entryName, XDocArchive outputArchive, FieldsMetadata fieldsMetadata,
+                               IDocumentFormatter formatter, Map<String, Object> sharedContext )
+            throws XDocReportException, IOException
+        {
+            return false;
+        }
+    }
+}
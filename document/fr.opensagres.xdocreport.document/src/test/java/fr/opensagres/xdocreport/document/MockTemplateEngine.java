@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.document;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Map;
+
+import fr.opensagres.xdocreport.core.XDocReportException;
+import fr.opensagres.xdocreport.core.io.IOUtils;
+import fr.opensagres.xdocreport.template.AbstractTemplateEngine;
+import fr.opensagres.xdocreport.template.FieldsExtractor;
+import fr.opensagres.xdocreport.template.IContext;
+import fr.opensagres.xdocreport.template.formatter.IDocumentFormatter;
+
+/**
+ * Template engine which replaces each "${key}" of the template with the value of the key in the context.
+ */
+public class MockTemplateEngine
+    extends AbstractTemplateEngine
+{
+
+    public String getKind()
+    {
+        return "Mock";
+    }
+
+    public String getId()
+    {
+        return "Mock";
+    }
+
+    public IContext createContext()
+    {
+        return new MockContext();
+    }
+
+    public IContext createContext( Map<String, Object> contextMap )
+    {
+        IContext context = createContext();
+        context.putMap( contextMap );
+        return context;
+    }
+
+    public void extractFields( Reader reader, String entryName, FieldsExtractor extractor )
+        throws XDocReportException
+    {
+        // Do nothing
+    }
+
+    public IDocumentFormatter getDocumentFormatter()
+    {
+        return null;
+    }
+
+    public void process( String templateName, IContext context, Writer writer )
+        throws IOException, XDocReportException
+    {
+        throw new XDocReportException( "Template cache is not supported." );
+    }
+
+    public boolean isFieldNameStartsWithUpperCase()
+    {
+        return false;
+    }
+
+    @Override
+    protected void processWithCache( String templateName, IContext context, Writer writer )
+        throws XDocReportException, IOException
+    {
+        throw new XDocReportException( "Template cache is not supported." );
+    }
+
+    @Override
+    protected void processNoCache( String templateName, IContext context, Reader reader, Writer writer )
+        throws XDocReportException, IOException
+    {
+        String template = IOUtils.toString( reader );
+        int start = 0;
+        int index = template.indexOf( "${" );
+        while ( index != -1 )
+        {
+            int end = template.indexOf( '}', index );
+            writer.write( template, start, index - start );
+            Object value = context.get( template.substring( index + 2, end ) );
+            writer.write( value != null ? value.toString() : "" );
+            start = end + 1;
+            index = template.indexOf( "${", start );
+        }
+        writer.write( template, start, template.length() - start );
+    }
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.document;
+
+import fr.opensagres.xdocreport.converter.MimeMapping;
+import fr.opensagres.xdocreport.core.io.IEntryOutputStreamProvider;
+import fr.opensagres.xdocreport.core.io.IEntryReaderProvider;
+import fr.opensagres.xdocreport.core.io.IEntryWriterProvider;
+import fr.opensagres.xdocreport.document.images.IImageRegistry;
+
+/**
+ * Report which merges "content.xml" and "styles.xml" entries.
+ */
+public class MockXDocReport
+    extends AbstractXDocReport
+{
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String CONTENT_XML_ENTRY = "content.xml";
+
+    public static final String STYLES_XML_ENTRY = "styles.xml";
+
+    private static final String[] DEFAULT_XML_ENTRIES = { CONTENT_XML_ENTRY, STYLES_XML_ENTRY };
+
+    public String getKind()
+    {
+        return "Mock";
+    }
+
+    public MimeMapping getMimeMapping()
+    {
+        return null;
+    }
+
+    @Override
+    protected String[] getDefaultXMLEntries()
+    {
+        return DEFAULT_XML_ENTRIES;
+    }
+
+    @Override
+    protected void registerPreprocessors()
+    {
+        // Do nothing
+    }
+
+    @Override
+    protected IImageRegistry createImageRegistry( IEntryReaderProvider readerProvider,
+                                                  IEntryWriterProvider writerProvider,
+                                                  IEntryOutputStreamProvider outputStreamProvider )
+    {
+        return null;
+    }
+}
@@ -0,0 +1,198 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.document;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+import fr.opensagres.xdocreport.core.XDocReportException;
+import fr.opensagres.xdocreport.core.io.IOUtils;
+import fr.opensagres.xdocreport.core.io.XDocArchive;
+import fr.opensagres.xdocreport.document.preprocessor.IXDocPreprocessor;
+import fr.opensagres.xdocreport.document.preprocessor.PreprocessorTiming;
+import fr.opensagres.xdocreport.template.formatter.FieldsMetadata;
+import fr.opensagres.xdocreport.template.formatter.IDocumentFormatter;
+
+/**
+ * Test case for {@link AbstractXDocReport#setPreprocessExecutor(java.util.concurrent.Executor)}.
+ */
+public class ParallelPreprocessTestCase
+    extends TestCase
+{
+
+    private static final String HEADER_XML_ENTRY = "header*.xml";
+
+    private static final String HEADERS_PREPROCESSING_GROUP = "headers";
+
+    private static final int NB_HEADERS = 10;
+
+    private ExecutorService executor;
+
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        executor = Executors.newFixedThreadPool( 4 );
+    }
+
+    @Override
+    protected void tearDown()
+        throws Exception
+    {
+        executor.shutdown();
+    }
+
+    public void testParallelPreprocess()
+        throws IOException, XDocReportException
+    {
+        IXDocReport expected = createReport( null, false );
+        IXDocReport actual = createReport( executor, false );
+        assertSame( executor, actual.getPreprocessExecutor() );
+
+        XDocArchive expectedArchive = expected.getPreprocessedDocumentArchive();
+        XDocArchive actualArchive = actual.getPreprocessedDocumentArchive();
+        assertEquals( expectedArchive.getEntryNames(), actualArchive.getEntryNames() );
+        for ( String entryName : expectedArchive.getEntryNames() )
+        {
+            assertEquals( IOUtils.toString( expectedArchive.getEntryReader( entryName ) ),
+                          IOUtils.toString( actualArchive.getEntryReader( entryName ) ) );
+        }
+        assertEquals( "<HEADER3/>", IOUtils.toString( actualArchive.getEntryReader( "header3.xml" ) ) );
+        // the content is preprocessed after the headers with the shared context filled by the headers
+        assertEquals( "<content>" + NB_HEADERS + "</content>",
+                      IOUtils.toString( actualArchive.getEntryReader( MockXDocReport.CONTENT_XML_ENTRY ) ) );
+    }
+
+    public void testPreprocessorTimings()
+        throws IOException, XDocReportException
+    {
+        IXDocReport report = createReport( executor, false );
+        List<PreprocessorTiming> timings = report.getPreprocessorTimings();
+        assertEquals( NB_HEADERS + 1, timings.size() );
+        for ( PreprocessorTiming timing : timings )
+        {
+            assertNotNull( timing.getEntryName() );
+            assertNotNull( timing.getPreprocessor() );
+            assertTrue( timing.getElapsedTimeNanos() >= 0 );
+        }
+        assertEquals( MockXDocReport.CONTENT_XML_ENTRY, timings.get( NB_HEADERS ).getEntryName() );
+    }
+
+    public void testParallelPreprocessWithError()
+        throws IOException, XDocReportException
+    {
+        try
+        {
+            createReport( executor, true );
+            fail( "XDocReportException expected" );
+        }
+        catch ( XDocReportException e )
+        {
+            // error of the header preprocessed by the executor
+            assertEquals( "error while preprocessing header", e.getMessage() );
+        }
+    }
+
+    private static IXDocReport createReport( ExecutorService executor, final boolean error )
+        throws IOException, XDocReportException
+    {
+        XDocArchive archive = ReportTestUtils.createArchive( "<content/>", null );
+        for ( int i = 0; i < NB_HEADERS; i++ )
+        {
+            ReportTestUtils.write( archive, "header" + i + ".xml", "<header" + i + "/>" );
+        }
+
+        AbstractXDocReport report = new MockXDocReport()
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected String getPreprocessingGroup( String entryName )
+            {
+                return HEADER_XML_ENTRY.equals( entryName ) ? HEADERS_PREPROCESSING_GROUP : null;
+            }
+        };
+        // headers are preprocessed in parallel and register their entry name in the shared context
+        report.addPreprocessor( HEADER_XML_ENTRY, new MockPreprocessor()
+        {
+            @Override
+            protected String preprocess( String entryName, String content, Map<String, Object> sharedContext )
+                throws XDocReportException
+            {
+                if ( error )
+                {
+                    throw new XDocReportException( "error while preprocessing header" );
+                }
+                sharedContext.put( entryName, content );
+                return content.toUpperCase();
+            }
+        } );
+        // content uses the information registered by the headers
+        report.addPreprocessor( MockXDocReport.CONTENT_XML_ENTRY, new MockPreprocessor()
+        {
+            @Override
+            protected String preprocess( String entryName, String content, Map<String, Object> sharedContext )
+            {
+                int nbHeaders = 0;
+                for ( String key : sharedContext.keySet() )
+                {
+                    if ( key.startsWith( "header" ) )
+                    {
+                        nbHeaders++;
+                    }
+                }
+                return "<content>" + nbHeaders + "</content>";
+            }
+        } );
+        report.setPreprocessExecutor( executor );
+        return ReportTestUtils.initReport( report, new MockTemplateEngine(), archive );
+    }
+
+    private static abstract class MockPreprocessor
+        implements IXDocPreprocessor
+    {
+
+        public void preprocess( String entryName, XDocArchive outputArchive, FieldsMetadata fieldsMetadata,
+                                IDocumentFormatter formatter, Map<String, Object> sharedContext )
+            throws XDocReportException, IOException
+        {
+            String content = IOUtils.toString( outputArchive.getEntryReader( entryName ) );
+            ReportTestUtils.write( outputArchive, entryName, preprocess( entryName, content, sharedContext ) );
+        }
+
+        public boolean create( String entryName, XDocArchive outputArchive, FieldsMetadata fieldsMetadata,
+                               IDocumentFormatter formatter, Map<String, Object> sharedContext )
+        {
+            return false;
+        }
+
+        protected abstract String preprocess( String entryName, String content, Map<String, Object> sharedContext )
+            throws XDocReportException;
+    }
+}
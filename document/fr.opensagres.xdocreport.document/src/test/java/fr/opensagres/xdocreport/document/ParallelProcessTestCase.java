@@ -0,0 +1,153 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.document;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import junit.framework.TestCase;
+import fr.opensagres.xdocreport.core.XDocReportException;
+import fr.opensagres.xdocreport.core.io.IOUtils;
+import fr.opensagres.xdocreport.core.io.XDocArchive;
+import fr.opensagres.xdocreport.template.IContext;
+
+/**
+ * Test case for {@link AbstractXDocReport#setProcessExecutor(java.util.concurrent.Executor)}.
+ */
+public class ParallelProcessTestCase
+    extends TestCase
+{
+
+    private static final String HEADER_XML_ENTRY = "header*.xml";
+
+    private static final int NB_HEADERS = 10;
+
+    private ExecutorService executor;
+
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        executor = Executors.newFixedThreadPool( 4 );
+    }
+
+    @Override
+    protected void tearDown()
+        throws Exception
+    {
+        executor.shutdown();
+    }
+
+    public void testParallelProcess()
+        throws IOException, XDocReportException
+    {
+        IXDocReport report = createReport( "<header${index}>${name}</header${index}>" );
+        assertNull( report.getProcessExecutor() );
+        XDocArchive expected = process( report );
+
+        report.setProcessExecutor( executor );
+        assertSame( executor, report.getProcessExecutor() );
+        XDocArchive actual = process( report );
+
+        assertEquals( expected.getEntryNames(), actual.getEntryNames() );
+        for ( String entryName : expected.getEntryNames() )
+        {
+            assertEquals( IOUtils.toString( expected.getEntryReader( entryName ) ),
+                          IOUtils.toString( actual.getEntryReader( entryName ) ) );
+        }
+        assertEquals( "<header3>World</header3>", IOUtils.toString( actual.getEntryReader( "header3.xml" ) ) );
+        assertEquals( "<content>Hello World!</content>",
+                      IOUtils.toString( actual.getEntryReader( MockXDocReport.CONTENT_XML_ENTRY ) ) );
+    }
+
+    public void testParallelProcessWithError()
+        throws IOException, XDocReportException
+    {
+        IXDocReport report = createReport( "<header>${error}</header>" );
+        report.setProcessExecutor( executor );
+        IContext context = report.createContext();
+        context.put( "error", new Object()
+        {
+            @Override
+            public String toString()
+            {
+                throw new IllegalStateException( "error while merging header" );
+            }
+        } );
+        try
+        {
+            report.process( context, new ByteArrayOutputStream() );
+            fail( "IllegalStateException expected" );
+        }
+        catch ( IllegalStateException e )
+        {
+            // error of the header merged by the executor
+            assertEquals( "error while merging header", e.getMessage() );
+        }
+    }
+
+    private static IXDocReport createReport( String header )
+        throws IOException, XDocReportException
+    {
+        XDocArchive archive = ReportTestUtils.createArchive( ReportTestUtils.HELLO_CONTENT, "<styles>${color}</styles>" );
+        for ( int i = 0; i < NB_HEADERS; i++ )
+        {
+            ReportTestUtils.write( archive, "header" + i + ".xml", header.replace( "${index}", String.valueOf( i ) ) );
+        }
+
+        MockXDocReport report = new MockXDocReport()
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected String[] getDefaultXMLEntries()
+            {
+                return new String[] { MockXDocReport.CONTENT_XML_ENTRY, HEADER_XML_ENTRY,
+                    MockXDocReport.STYLES_XML_ENTRY };
+            }
+
+            @Override
+            protected boolean isIndependentXMLEntry( String xmlEntry )
+            {
+                return HEADER_XML_ENTRY.equals( xmlEntry );
+            }
+        };
+        return ReportTestUtils.initReport( report, new MockTemplateEngine(), archive );
+    }
+
+    private static XDocArchive process( IXDocReport report )
+        throws IOException, XDocReportException
+    {
+        IContext context = report.createContext();
+        context.put( "name", "World" );
+        context.put( "color", "red" );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        report.process( context, out );
+        return XDocArchive.readZip( new ByteArrayInputStream( out.toByteArray() ) );
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.document;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+import fr.opensagres.xdocreport.core.XDocReportException;
+import fr.opensagres.xdocreport.core.io.IOUtils;
+import fr.opensagres.xdocreport.core.io.XDocArchive;
+import fr.opensagres.xdocreport.template.ICompilableTemplateEngine;
+import fr.opensagres.xdocreport.template.ICompiledTemplate;
+import fr.opensagres.xdocreport.template.IContext;
+
+/**
+ * Test case for {@link AbstractXDocReport#setPrecompileTemplates(boolean)}.
+ */
+public class PrecompileTemplatesTestCase
+    extends TestCase
+{
+
+    public void testPrecompileTemplates()
+        throws IOException, XDocReportException
+    {
+        CompilingTemplateEngine templateEngine = new CompilingTemplateEngine();
+        IXDocReport report = createReport( templateEngine, true );
+        assertTrue( report.isPrecompileTemplates() );
+        report.setDocumentArchive( createArchive( "Hello" ) );
+        // content.xml and styles.xml are compiled once preprocessed
+        assertEquals( 2, templateEngine.nbCompilations.get() );
+
+        assertEquals( "<content>Hello World!</content>", process( report ) );
+        assertEquals( "<content>Hello World!</content>", process( report ) );
+        assertEquals( 2, templateEngine.nbCompilations.get() );
+        assertEquals( 4, templateEngine.nbCompiledProcesses.get() );
+
+        // the compiled templates are dropped when the archive changes
+        report.setDocumentArchive( createArchive( "Bye" ) );
+        assertEquals( 4, templateEngine.nbCompilations.get() );
+        assertEquals( "<content>Bye World!</content>", process( report ) );
+    }
+
+    public void testNoPrecompileTemplates()
+        throws IOException, XDocReportException
+    {
+        CompilingTemplateEngine templateEngine = new CompilingTemplateEngine();
+        IXDocReport report = createReport( templateEngine, false );
+        report.setDocumentArchive( createArchive( "Hello" ) );
+
+        assertEquals( "<content>Hello World!</content>", process( report ) );
+        assertEquals( 0, templateEngine.nbCompilations.get() );
+        assertEquals( 0, templateEngine.nbCompiledProcesses.get() );
+    }
+
+    public void testTemplateEngineWithoutCompilation()
+        throws IOException, XDocReportException
+    {
+        IXDocReport report = new MockXDocReport();
+        report.setId( "mock" );
+        report.setTemplateEngine( new MockTemplateEngine() );
+        report.setPrecompileTemplates( true );
+        report.setDocumentArchive( createArchive( "Hello" ) );
+
+        assertEquals( "<content>Hello World!</content>", process( report ) );
+    }
+
+    private static IXDocReport createReport( CompilingTemplateEngine templateEngine, boolean precompileTemplates )
+        throws IOException, XDocReportException
+    {
+        IXDocReport report = ReportTestUtils.initReport( new MockXDocReport(), templateEngine, null );
+        report.setPrecompileTemplates( precompileTemplates );
+        return report;
+    }
+
+    private static XDocArchive createArchive( String greeting )
+        throws IOException
+    {
+        return ReportTestUtils.createArchive( "<content>" + greeting + " ${name}!</content>", "<styles/>" );
+    }
+
+    private static String process( IXDocReport report )
+        throws IOException, XDocReportException
+    {
+        IContext context = report.createContext();
+        context.put( "name", "World" );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        report.process( context, out );
+        XDocArchive archive = XDocArchive.readZip( new ByteArrayInputStream( out.toByteArray() ) );
+        return IOUtils.toString( archive.getEntryReader( MockXDocReport.CONTENT_XML_ENTRY ) );
+    }
+
+    /**
+     * Template engine which supports compiled templates.
+     */
+    private static class CompilingTemplateEngine
+        extends MockTemplateEngine
+        implements ICompilableTemplateEngine
+    {
+
+        private final AtomicInteger nbCompilations = new AtomicInteger();
+
+        private final AtomicInteger nbCompiledProcesses = new AtomicInteger();
+
+        @Override
+        public ICompiledTemplate compile( final String templateName, Reader reader )
+            throws XDocReportException, IOException
+        {
+            nbCompilations.incrementAndGet();
+            final String template = IOUtils.toString( reader );
+            return new ICompiledTemplate()
+            {
+                public void process( IContext context, Writer writer )
+                    throws XDocReportException, IOException
+                {
+                    nbCompiledProcesses.incrementAndGet();
+                    processNoCache( templateName, context, new StringReader( template ), writer );
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.document;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+import fr.opensagres.xdocreport.core.XDocReportException;
+import fr.opensagres.xdocreport.core.metrics.IReportMetrics;
+import fr.opensagres.xdocreport.core.metrics.NoOpReportMetrics;
+import fr.opensagres.xdocreport.core.metrics.ReportMetricsRegistry;
+import fr.opensagres.xdocreport.core.metrics.ReportPhase;
+import fr.opensagres.xdocreport.template.IContext;
+
+/**
+ * Test case for the events sent to the {@link IReportMetrics} registered in the {@link ReportMetricsRegistry}.
+ */
+public class ReportMetricsTestCase
+    extends TestCase
+{
+
+    private RecordingReportMetrics metrics;
+
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        metrics = new RecordingReportMetrics();
+        ReportMetricsRegistry.getRegistry().addMetrics( metrics );
+    }
+
+    @Override
+    protected void tearDown()
+        throws Exception
+    {
+        ReportMetricsRegistry.getRegistry().removeMetrics( metrics );
+    }
+
+    public void testNoMetrics()
+    {
+        ReportMetricsRegistry registry = new ReportMetricsRegistry();
+        assertSame( NoOpReportMetrics.INSTANCE, registry.getMetrics() );
+        assertFalse( registry.isEnabled() );
+
+        IReportMetrics other = new NoOpReportMetrics();
+        registry.addMetrics( other );
+        assertSame( other, registry.getMetrics() );
+        assertTrue( registry.isEnabled() );
+
+        registry.removeMetrics( other );
+        assertSame( NoOpReportMetrics.INSTANCE, registry.getMetrics() );
+    }
+
+    public void testProcess()
+        throws IOException, XDocReportException
+    {
+        IXDocReport report = createReport();
+        IContext context = report.createContext();
+        context.put( "name", "World" );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        report.process( context, out );
+
+        assertEquals( Collections.singletonList( "mock" ), metrics.getNames( ReportPhase.PREPROCESS ) );
+        assertEquals( MockXDocReport.CONTENT_XML_ENTRY + "," + MockXDocReport.STYLES_XML_ENTRY,
+                      join( metrics.getNames( ReportPhase.MERGE_ENTRY ) ) );
+        assertEquals( Collections.singletonList( "mock" ), metrics.getNames( ReportPhase.ZIP_WRITE ) );
+        assertEquals( Collections.singletonList( "mock" ), metrics.getNames( ReportPhase.PROCESS ) );
+        assertEquals( Long.valueOf( out.size() ), metrics.bytes.get( 0 ) );
+
+        // the preprocessing is done once
+        metrics.names.clear();
+        report.process( context, new ByteArrayOutputStream() );
+        assertTrue( metrics.getNames( ReportPhase.PREPROCESS ).isEmpty() );
+        assertEquals( 2, metrics.getNames( ReportPhase.MERGE_ENTRY ).size() );
+    }
+
+    public void testSeveralMetrics()
+        throws IOException, XDocReportException
+    {
+        RecordingReportMetrics other = new RecordingReportMetrics();
+        ReportMetricsRegistry.getRegistry().addMetrics( other );
+        try
+        {
+            IXDocReport report = createReport();
+            report.process( report.createContext(), new ByteArrayOutputStream() );
+            assertEquals( metrics.names, other.names );
+            assertEquals( metrics.bytes, other.bytes );
+        }
+        finally
+        {
+            ReportMetricsRegistry.getRegistry().removeMetrics( other );
+        }
+    }
+
+    private static IXDocReport createReport()
+        throws IOException, XDocReportException
+    {
+        return ReportTestUtils.createReport( ReportTestUtils.createArchive( ReportTestUtils.HELLO_CONTENT, "<styles/>" ) );
+    }
+
+    private static String join( List<String> names )
+    {
+        StringBuilder result = new StringBuilder();
+        for ( String name : names )
+        {
+            if ( result.length() > 0 )
+            {
+                result.append( ',' );
+            }
+            result.append( name );
+        }
+        return result.toString();
+    }
+
+    private static class RecordingReportMetrics
+        extends NoOpReportMetrics
+    {
+
+        private final List<String> names = Collections.synchronizedList( new ArrayList<String>() );
+
+        private final List<Long> bytes = Collections.synchronizedList( new ArrayList<Long>() );
+
+        @Override
+        public void onPhase( ReportPhase phase, String name, Object source, long elapsedTimeNanos )
+        {
+            assertTrue( elapsedTimeNanos >= 0 );
+            names.add( phase + ":" + name );
+        }
+
+        @Override
+        public void onBytes( ReportPhase phase, String name, long bytes )
+        {
+            this.bytes.add( bytes );
+        }
+
+        public List<String> getNames( ReportPhase phase )
+        {
+            List<String> result = new ArrayList<String>();
+            String prefix = phase + ":";
+            synchronized ( names )
+            {
+                for ( String name : names )
+                {
+                    if ( name.startsWith( prefix ) )
+                    {
+                        result.add( name.substring( prefix.length() ) );
+                    }
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.document;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import fr.opensagres.xdocreport.core.XDocReportException;
+import fr.opensagres.xdocreport.core.io.XDocArchive;
+import fr.opensagres.xdocreport.template.ITemplateEngine;
+
+/**
+ * Utilities to create {@link MockXDocReport} reports for the tests.
+ */
+public class ReportTestUtils
+{
+
+    public static final String HELLO_CONTENT = "<content>Hello ${name}!</content>";
+
+    /**
+     * Create an archive with a "mimetype" entry, the given "content.xml" entry and the given "styles.xml" entry (if not
+     * null).
+     */
+    public static XDocArchive createArchive( String content, String styles )
+        throws IOException
+    {
+        XDocArchive archive = new XDocArchive();
+        write( archive, "mimetype", "application/mock" );
+        write( archive, MockXDocReport.CONTENT_XML_ENTRY, content );
+        if ( styles != null )
+        {
+            write( archive, MockXDocReport.STYLES_XML_ENTRY, styles );
+        }
+        return archive;
+    }
+
+    /**
+     * Create a {@link MockXDocReport} which merges the given archive with the {@link MockTemplateEngine}.
+     */
+    public static IXDocReport createReport( XDocArchive archive )
+        throws IOException, XDocReportException
+    {
+        return initReport( new MockXDocReport(), new MockTemplateEngine(), archive );
+    }
+
+    /**
+     * Set the id "mock", the template engine and the archive (if not null) of the given report.
+     */
+    public static <T extends IXDocReport> T initReport( T report, ITemplateEngine templateEngine, XDocArchive archive )
+        throws IOException, XDocReportException
+    {
+        report.setId( "mock" );
+        report.setTemplateEngine( templateEngine );
+        if ( archive != null )
+        {
+            report.setDocumentArchive( archive );
+        }
+        return report;
+    }
+
+    public static void write( XDocArchive archive, String entryName, String content )
+        throws IOException
+    {
+        Writer writer = archive.getEntryWriter( entryName );
+        writer.write( content );
+        writer.close();
+    }
+}
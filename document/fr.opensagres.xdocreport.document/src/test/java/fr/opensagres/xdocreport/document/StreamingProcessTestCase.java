@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.document;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import junit.framework.TestCase;
+import fr.opensagres.xdocreport.core.XDocReportException;
+import fr.opensagres.xdocreport.core.io.IOUtils;
+import fr.opensagres.xdocreport.core.io.XDocArchive;
+import fr.opensagres.xdocreport.template.IContext;
+
+/**
+ * Test case for {@link AbstractXDocReport#setStreamingProcess(boolean)}.
+ */
+public class StreamingProcessTestCase
+    extends TestCase
+{
+
+    public void testStreamingProcess()
+        throws IOException, XDocReportException
+    {
+        // no streaming
+        IXDocReport report = createReport();
+        byte[] result = process( report );
+
+        // streaming
+        IXDocReport streamingReport = createReport();
+        streamingReport.setStreamingProcess( true );
+        assertTrue( streamingReport.isStreamingProcess() );
+        byte[] streamingResult = process( streamingReport );
+
+        XDocArchive archive = XDocArchive.readZip( new ByteArrayInputStream( result ) );
+        XDocArchive streamingArchive = XDocArchive.readZip( new ByteArrayInputStream( streamingResult ) );
+        assertEquals( archive.getEntryNames(), streamingArchive.getEntryNames() );
+        for ( String entryName : archive.getEntryNames() )
+        {
+            assertEquals( IOUtils.toString( archive.getEntryReader( entryName ) ),
+                          IOUtils.toString( streamingArchive.getEntryReader( entryName ) ) );
+        }
+        assertEquals( "<content>Hello World!</content>",
+                      IOUtils.toString( streamingArchive.getEntryReader( MockXDocReport.CONTENT_XML_ENTRY ) ) );
+        assertEquals( "<styles>red</styles>",
+                      IOUtils.toString( streamingArchive.getEntryReader( MockXDocReport.STYLES_XML_ENTRY ) ) );
+        // the preprocessed archive must not be impacted
+        XDocArchive preprocessedArchive = streamingReport.getPreprocessedDocumentArchive();
+        assertEquals( "<content>Hello ${name}!</content>",
+                      IOUtils.toString( preprocessedArchive.getEntryReader( MockXDocReport.CONTENT_XML_ENTRY ) ) );
+    }
+
+    private static IXDocReport createReport()
+        throws IOException, XDocReportException
+    {
+        XDocArchive archive = ReportTestUtils.createArchive( ReportTestUtils.HELLO_CONTENT, "<styles>${color}</styles>" );
+        ReportTestUtils.write( archive, "image.png", "binary" );
+        return ReportTestUtils.createReport( archive );
+    }
+
+    private static byte[] process( IXDocReport report )
+        throws IOException, XDocReportException
+    {
+        IContext context = report.createContext();
+        context.put( "name", "World" );
+        context.put( "color", "red" );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        report.process( context, out );
+        return out.toByteArray();
+    }
+}
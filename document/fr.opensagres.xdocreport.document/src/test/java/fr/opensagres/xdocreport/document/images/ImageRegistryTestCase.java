@@ -0,0 +1,196 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.document.images;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.opensagres.xdocreport.core.document.ImageFormat;
+import fr.opensagres.xdocreport.core.io.IOUtils;
+import fr.opensagres.xdocreport.core.io.XDocArchive;
+
+public class ImageRegistryTestCase
+{
+
+    @Test
+    public void sameImageProvider()
+        throws Exception
+    {
+        XDocArchive archive = new XDocArchive();
+        TestImageRegistry registry = new TestImageRegistry( archive );
+        IImageProvider logo = createImageProvider( "logo.png" );
+
+        ImageProviderInfo info1 = registry.registerImage( logo, "logo", null );
+        ImageProviderInfo info2 = registry.registerImage( logo, "logo", null );
+        Assert.assertSame( info1, info2 );
+        Assert.assertEquals( 1, registry.getImageProviderInfos().size() );
+
+        registry.postProcess();
+        Assert.assertEquals( 1, archive.getEntryNames( "media/*" ).size() );
+    }
+
+    @Test
+    public void sameImageContent()
+        throws Exception
+    {
+        XDocArchive archive = new XDocArchive();
+        TestImageRegistry registry = new TestImageRegistry( archive );
+        IImageProvider logo1 = createImageProvider( "logo.png" );
+        logo1.setSize( 100f, 100f );
+        IImageProvider logo2 = createImageProvider( "logo.png" );
+        logo2.setSize( 50f, 50f );
+
+        ImageProviderInfo info1 = registry.registerImage( logo1, "logo", null );
+        ImageProviderInfo info2 = registry.registerImage( logo2, "logo", null );
+        // same binary entry
+        Assert.assertEquals( info1.getImageId(), info2.getImageId() );
+        Assert.assertEquals( info1.getImageFullPath(), info2.getImageFullPath() );
+        Assert.assertEquals( 1, registry.getImageProviderInfos().size() );
+        // each image keeps its size
+        Assert.assertEquals( "100", registry.getWidth( info1, null ) );
+        Assert.assertEquals( "50", registry.getWidth( info2, null ) );
+
+        registry.postProcess();
+        Assert.assertEquals( 1, archive.getEntryNames( "media/*" ).size() );
+    }
+
+    @Test
+    public void differentImageContent()
+        throws Exception
+    {
+        XDocArchive archive = new XDocArchive();
+        TestImageRegistry registry = new TestImageRegistry( archive );
+
+        ImageProviderInfo info1 = registry.registerImage( createImageProvider( "logo.png" ), "logo", null );
+        ImageProviderInfo info2 = registry.registerImage( createImageProvider( "AngeloZERR.jpg" ), "logo", null );
+        Assert.assertFalse( info1.getImageId().equals( info2.getImageId() ) );
+        Assert.assertEquals( 2, registry.getImageProviderInfos().size() );
+
+        registry.postProcess();
+        Assert.assertEquals( 2, archive.getEntryNames( "media/*" ).size() );
+    }
+
+    @Test
+    public void sameImageProviderKey()
+        throws Exception
+    {
+        XDocArchive archive = new XDocArchive();
+        TestImageRegistry registry = new TestImageRegistry( archive );
+
+        IImageProvider logo1 = new ClassPathImageProvider( ImageRegistryTestCase.class, "logo.png" );
+        IImageProvider logo2 = new ClassPathImageProvider( ImageRegistryTestCase.class, "logo.png" );
+        ImageProviderInfo info1 = registry.registerImage( logo1, "logo", null );
+        ImageProviderInfo info2 = registry.registerImage( logo2, "logo", null );
+        Assert.assertEquals( info1.getImageId(), info2.getImageId() );
+        Assert.assertEquals( 1, registry.getImageProviderInfos().size() );
+
+        registry.postProcess();
+        Assert.assertEquals( 1, archive.getEntryNames( "media/*" ).size() );
+    }
+
+    @Test
+    public void notRepeatableImageIsReadOnce()
+        throws Exception
+    {
+        XDocArchive archive = new XDocArchive();
+        TestImageRegistry registry = new TestImageRegistry( archive );
+        final byte[] content = IOUtils.toByteArray( ImageRegistryTestCase.class.getResourceAsStream( "logo.png" ) );
+        final int[] writeCount = new int[1];
+        IImageProvider logo = new AbstractInputStreamImageProvider( false )
+        {
+            @Override
+            protected InputStream getInputStream()
+            {
+                return new ByteArrayInputStream( content );
+            }
+
+            @Override
+            public void write( OutputStream outputStream )
+                throws IOException
+            {
+                writeCount[0]++;
+                super.write( outputStream );
+            }
+
+            public ImageFormat getImageFormat()
+            {
+                return ImageFormat.png;
+            }
+        };
+
+        registry.registerImage( logo, "logo", null );
+        registry.registerImage( logo, "logo", null );
+        Assert.assertEquals( 0, writeCount[0] );
+
+        registry.postProcess();
+        Assert.assertEquals( 1, writeCount[0] );
+        Assert.assertEquals( 1, archive.getEntryNames( "media/*" ).size() );
+    }
+
+    private static IImageProvider createImageProvider( String name )
+        throws IOException
+    {
+        return new ByteArrayImageProvider( IOUtils.toByteArray( ImageRegistryTestCase.class.getResourceAsStream( name ) ) );
+    }
+
+    private static class TestImageRegistry
+        extends AbstractImageRegistry
+    {
+
+        public TestImageRegistry( XDocArchive archive )
+        {
+            super( archive, archive, archive, null );
+        }
+
+        @Override
+        protected String getImageBasePath()
+        {
+            return "media/";
+        }
+
+        @Override
+        protected String getPath( ImageProviderInfo info )
+        {
+            return info.getImageId();
+        }
+
+        @Override
+        public String getSize( float sizeAsPixel )
+        {
+            return String.valueOf( (int) sizeAsPixel );
+        }
+
+        @Override
+        public Float getSize( String sizeAsDxa )
+        {
+            return sizeAsDxa != null ? Float.valueOf( sizeAsDxa ) : null;
+        }
+    }
+}
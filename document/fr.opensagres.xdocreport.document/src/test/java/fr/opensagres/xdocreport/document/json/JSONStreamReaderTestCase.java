@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.document.json;
+
+import java.io.StringReader;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import fr.opensagres.xdocreport.document.MockContext;
+
+public class JSONStreamReaderTestCase
+{
+
+    @Test
+    public void simpleMembers()
+        throws Exception
+    {
+        MockContext context = new MockContext();
+        new JSONStreamReader( new StringReader( "{\"name\":\"Pascal\", \"age\":20, \"address\":{\"city\":\"Lyon\"}}" ) ).populate( context );
+
+        Assert.assertEquals( "Pascal", context.get( "name" ) );
+        Assert.assertEquals( 20, context.get( "age" ) );
+        Assert.assertEquals( "Lyon", ( (Map) context.get( "address" ) ).get( "city" ) );
+    }
+
+    @Test
+    public void loadedArrays()
+        throws Exception
+    {
+        MockContext context = new MockContext();
+        new JSONStreamReader( new StringReader( "{\"lines\":[{\"name\":\"a\"},{\"name\":\"b\"}], \"total\":2}" ) ).populate( context );
+
+        // arrays are loaded by default : members after the array are available, the array can be sized, indexed and
+        // iterated several times.
+        Assert.assertEquals( 2, context.get( "total" ) );
+        List lines = (List) context.get( "lines" );
+        Assert.assertEquals( 2, lines.size() );
+        Assert.assertEquals( "b", ( (Map) lines.get( 1 ) ).get( "name" ) );
+        for ( int i = 0; i < 2; i++ )
+        {
+            Iterator it = lines.iterator();
+            Assert.assertEquals( "a", ( (Map) it.next() ).get( "name" ) );
+            Assert.assertEquals( "b", ( (Map) it.next() ).get( "name" ) );
+            Assert.assertFalse( it.hasNext() );
+        }
+    }
+
+    @Test
+    public void streamedArray()
+        throws Exception
+    {
+        MockContext context = new MockContext();
+        JSONStreamReader reader =
+            new JSONStreamReader( new StringReader( "{\"title\":\"Report\", \"tags\":[1,2], \"lines\":[{\"name\":\"a\", \"tags\":[1,2]},{\"name\":\"b\"},], \"total\":2}" ) );
+        reader.setStreamedArray( "lines" );
+        reader.populate( context );
+
+        // only the streamed array is an iterator
+        Assert.assertEquals( 2, ( (List) context.get( "tags" ) ).size() );
+
+        Assert.assertEquals( "Report", context.get( "title" ) );
+        // members after the array are parsed when the array is iterated
+        Assert.assertNull( context.get( "total" ) );
+
+        Iterator lines = (Iterator) context.get( "lines" );
+        Assert.assertTrue( lines.hasNext() );
+        Map line = (Map) lines.next();
+        Assert.assertEquals( "a", line.get( "name" ) );
+        Assert.assertEquals( 2, ( (JSONArray) line.get( "tags" ) ).size() );
+        Assert.assertEquals( "b", ( (Map) lines.next() ).get( "name" ) );
+        Assert.assertFalse( lines.hasNext() );
+
+        Assert.assertEquals( 2, context.get( "total" ) );
+    }
+
+    @Test
+    public void emptyArrays()
+        throws Exception
+    {
+        MockContext context = new MockContext();
+        JSONStreamReader reader = new JSONStreamReader( new StringReader( "{\"a\":[], \"b\":[null,,3]}" ) );
+        reader.setStreamedArray( "b" );
+        reader.populate( context );
+
+        Assert.assertTrue( ( (List) context.get( "a" ) ).isEmpty() );
+        Iterator b = (Iterator) context.get( "b" );
+        Assert.assertEquals( JSONObject.NULL, b.next() );
+        Assert.assertEquals( JSONObject.NULL, b.next() );
+        Assert.assertEquals( 3, b.next() );
+        Assert.assertFalse( b.hasNext() );
+    }
+}
@@ -0,0 +1,275 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.document.registry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.Serializable;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+import fr.opensagres.xdocreport.core.XDocReportException;
+import fr.opensagres.xdocreport.core.io.IOUtils;
+import fr.opensagres.xdocreport.core.io.XDocArchive;
+import fr.opensagres.xdocreport.document.IXDocReport;
+import fr.opensagres.xdocreport.document.MockTemplateEngine;
+import fr.opensagres.xdocreport.document.MockXDocReport;
+import fr.opensagres.xdocreport.document.ReportTestUtils;
+import fr.opensagres.xdocreport.document.preprocessor.IXDocPreprocessor;
+import fr.opensagres.xdocreport.document.registry.PreprocessedDocumentStore.StoredDocument;
+import fr.opensagres.xdocreport.template.IContext;
+import fr.opensagres.xdocreport.template.formatter.FieldsMetadata;
+import fr.opensagres.xdocreport.template.formatter.IDocumentFormatter;
+
+/**
+ * Test case for {@link PreprocessedDocumentStore} and {@link XDocReportRegistry#warmUpReports}.
+ */
+public class PreprocessedDocumentStoreTestCase
+    extends TestCase
+{
+
+    private File directory;
+
+    private AtomicInteger nbPreprocessings;
+
+    @Override
+    protected void setUp()
+        throws Exception
+    {
+        directory = File.createTempFile( "xdocreport", "store" );
+        directory.delete();
+        nbPreprocessings = new AtomicInteger();
+    }
+
+    @Override
+    protected void tearDown()
+        throws Exception
+    {
+        File[] files = directory.listFiles();
+        if ( files != null )
+        {
+            for ( File file : files )
+            {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    public void testReuseStoredDocument()
+        throws IOException, XDocReportException
+    {
+        PreprocessedDocumentStore store = new PreprocessedDocumentStore( directory );
+
+        StoreReport report = createReport( store, "<content/>", null );
+        assertEquals( 1, nbPreprocessings.get() );
+        assertEquals( "<CONTENT/>", getContent( report ) );
+        assertEquals( "state", getState( report ) );
+
+        // same template (ex : after a restart) : the stored document is used
+        report = createReport( store, "<content/>", null );
+        assertEquals( 1, nbPreprocessings.get() );
+        assertEquals( "<CONTENT/>", getContent( report ) );
+        assertEquals( "state", getState( report ) );
+        assertTrue( report.getPreprocessorTimings().isEmpty() );
+
+        // other template
+        report = createReport( store, "<other/>", null );
+        assertEquals( 2, nbPreprocessings.get() );
+        assertEquals( "<OTHER/>", getContent( report ) );
+    }
+
+    public void testFieldsMetadataIsPartOfTheKey()
+        throws IOException, XDocReportException
+    {
+        PreprocessedDocumentStore store = new PreprocessedDocumentStore( directory );
+        FieldsMetadata fieldsMetadata = new FieldsMetadata();
+        fieldsMetadata.addFieldAsList( "developers.Name" );
+
+        createReport( store, "<content/>", null );
+        createReport( store, "<content/>", fieldsMetadata );
+        assertEquals( 2, nbPreprocessings.get() );
+        createReport( store, "<content/>", fieldsMetadata );
+        assertEquals( 2, nbPreprocessings.get() );
+
+        // zip + state without fields metadata, zip + state with fields metadata (no temporary files)
+        assertEquals( 4, directory.listFiles().length );
+    }
+
+    public void testStateReadsOnlyAllowedClasses()
+        throws IOException
+    {
+        PreprocessedDocumentStore store = new PreprocessedDocumentStore( directory );
+        Map<String, Serializable> state = new HashMap<String, Serializable>();
+        state.put( "date", new Date( 0 ) );
+        store.store( "key", createArchive( "<content/>" ), state );
+        try
+        {
+            store.load( "key" );
+            fail( "Date is not a state class" );
+        }
+        catch ( InvalidClassException e )
+        {
+            assertEquals( Date.class.getName(), e.classname );
+        }
+        StoredDocument storedDocument = store.load( "key", Collections.<Class<?>> singleton( Date.class ) );
+        assertEquals( new Date( 0 ), storedDocument.getState().get( "date" ) );
+    }
+
+    public void testWarmUpReports()
+        throws Exception
+    {
+        final PreprocessedDocumentStore store = new PreprocessedDocumentStore( directory );
+        final XDocReportRegistry registry = new XDocReportRegistry();
+        IReportLoader loader = new IReportLoader()
+        {
+            public IXDocReport loadReport( String reportId )
+                throws IOException, XDocReportException
+            {
+                IXDocReport report = createReport( store, "<" + reportId + "/>", null );
+                report.setId( reportId );
+                registry.registerReport( report );
+                return report;
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool( 2 );
+        try
+        {
+            List<Future<IXDocReport>> reports =
+                registry.warmUpReports( Arrays.asList( "report1", "report2", "report3" ), loader, executor );
+            assertEquals( 3, reports.size() );
+            for ( int i = 0; i < reports.size(); i++ )
+            {
+                IXDocReport report = reports.get( i ).get();
+                assertTrue( report.isPreprocessed() );
+                assertSame( report, registry.getReport( "report" + ( i + 1 ) ) );
+                assertEquals( "<REPORT" + ( i + 1 ) + "/>", getContent( report ) );
+            }
+            assertEquals( 3, nbPreprocessings.get() );
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private StoreReport createReport( PreprocessedDocumentStore store, String content, FieldsMetadata fieldsMetadata )
+        throws IOException, XDocReportException
+    {
+        StoreReport report = new StoreReport();
+        report.setId( "store" );
+        report.addPreprocessor( MockXDocReport.CONTENT_XML_ENTRY, new UpperCasePreprocessor() );
+        report.setTemplateEngine( new MockTemplateEngine() );
+        report.setFieldsMetadata( fieldsMetadata );
+        report.setPreprocessedDocumentStore( store );
+        report.setDocumentArchive( createArchive( content ) );
+        return report;
+    }
+
+    private static XDocArchive createArchive( String content )
+        throws IOException
+    {
+        XDocArchive archive = new XDocArchive();
+        ReportTestUtils.write( archive, MockXDocReport.CONTENT_XML_ENTRY, content );
+        return archive;
+    }
+
+    private static String getState( StoreReport report )
+        throws IOException, XDocReportException
+    {
+        report.process( report.createContext(), new ByteArrayOutputStream() );
+        return report.state;
+    }
+
+    private static String getContent( IXDocReport report )
+        throws IOException
+    {
+        XDocArchive archive = report.getPreprocessedDocumentArchive();
+        return IOUtils.toString( archive.getEntryReader( MockXDocReport.CONTENT_XML_ENTRY ) );
+    }
+
+    /**
+     * Report which computes a state during the preprocessing.
+     */
+    private static class StoreReport
+        extends MockXDocReport
+    {
+
+        private static final long serialVersionUID = 1L;
+
+        private String state;
+
+        @Override
+        protected void savePreprocessedState( Map<String, Object> sharedContext, Map<String, Serializable> state )
+        {
+            super.savePreprocessedState( sharedContext, state );
+            state.put( "state", (String) sharedContext.get( "state" ) );
+        }
+
+        @Override
+        protected void onBeforeProcessTemplateEngine( IContext context, XDocArchive outputArchive,
+                                                      Map<String, Serializable> preprocessedState )
+            throws XDocReportException
+        {
+            super.onBeforeProcessTemplateEngine( context, outputArchive, preprocessedState );
+            this.state = (String) preprocessedState.get( "state" );
+        }
+    }
+
+    private class UpperCasePreprocessor
+        implements IXDocPreprocessor
+    {
+
+        public void preprocess( String entryName, XDocArchive outputArchive, FieldsMetadata fieldsMetadata,
+                                IDocumentFormatter formatter, Map<String, Object> sharedContext )
+            throws XDocReportException, IOException
+        {
+            nbPreprocessings.incrementAndGet();
+            String content = IOUtils.toString( outputArchive.getEntryReader( entryName ) );
+            Writer writer = outputArchive.getEntryWriter( entryName );
+            writer.write( content.toUpperCase() );
+            writer.close();
+            sharedContext.put( "state", "state" );
+        }
+
+        public boolean create( String entryName, XDocArchive outputArchive, FieldsMetadata fieldsMetadata,
+                               IDocumentFormatter formatter, Map<String, Object> sharedContext )
+        {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.document.registry;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.TestCase;
+import fr.opensagres.xdocreport.core.XDocReportException;
+import fr.opensagres.xdocreport.document.IXDocReport;
+import fr.opensagres.xdocreport.document.MockXDocReport;
+
+public class XDocReportRegistryTestCase
+    extends TestCase
+{
+
+    private static final int NB_THREADS = 20;
+
+    public void testGetOrLoadReportLoadsOnlyOnce()
+        throws Exception
+    {
+        final XDocReportRegistry registry = new XDocReportRegistry();
+        final AtomicInteger nbLoads = new AtomicInteger();
+        final IReportLoader loader = new IReportLoader()
+        {
+            public IXDocReport loadReport( String reportId )
+                throws IOException, XDocReportException
+            {
+                nbLoads.incrementAndGet();
+                sleep();
+                IXDocReport report = new MockXDocReport();
+                report.setId( reportId );
+                registry.registerReport( report );
+                return report;
+            }
+        };
+
+        List<Future<IXDocReport>> reports = getOrLoadReport( registry, loader );
+        IXDocReport report = reports.get( 0 ).get();
+        assertNotNull( report );
+        for ( Future<IXDocReport> other : reports )
+        {
+            assertSame( report, other.get() );
+        }
+        assertEquals( 1, nbLoads.get() );
+        assertSame( report, registry.getReport( "report" ) );
+    }
+
+    public void testGetOrLoadReportWithError()
+        throws Exception
+    {
+        final XDocReportRegistry registry = new XDocReportRegistry();
+        final AtomicInteger nbLoads = new AtomicInteger();
+        IReportLoader loader = new IReportLoader()
+        {
+            public IXDocReport loadReport( String reportId )
+                throws IOException, XDocReportException
+            {
+                nbLoads.incrementAndGet();
+                sleep();
+                throw new XDocReportException( "Cannot load " + reportId );
+            }
+        };
+
+        List<Future<IXDocReport>> reports = getOrLoadReport( registry, loader );
+        for ( Future<IXDocReport> report : reports )
+        {
+            try
+            {
+                report.get();
+                fail( "XDocReportException expected" );
+            }
+            catch ( ExecutionException e )
+            {
+                assertTrue( e.getCause() instanceof XDocReportException );
+            }
+        }
+        assertEquals( 1, nbLoads.get() );
+
+        // the failed load is not kept, the next call loads again the report
+        try
+        {
+            registry.getOrLoadReport( "report", loader );
+            fail( "XDocReportException expected" );
+        }
+        catch ( XDocReportException e )
+        {
+            // expected
+        }
+        assertEquals( 2, nbLoads.get() );
+    }
+
+    private static List<Future<IXDocReport>> getOrLoadReport( final XDocReportRegistry registry,
+                                                               final IReportLoader loader )
+        throws InterruptedException
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( NB_THREADS );
+        try
+        {
+            final CountDownLatch start = new CountDownLatch( 1 );
+            List<Future<IXDocReport>> reports = new ArrayList<Future<IXDocReport>>();
+            for ( int i = 0; i < NB_THREADS; i++ )
+            {
+                reports.add( executor.submit( new Callable<IXDocReport>()
+                {
+                    public IXDocReport call()
+                        throws Exception
+                    {
+                        start.await();
+                        return registry.getOrLoadReport( "report", loader );
+                    }
+                } ) );
+            }
+            start.countDown();
+            for ( Future<IXDocReport> report : reports )
+            {
+                try
+                {
+                    report.get();
+                }
+                catch ( ExecutionException e )
+                {
+                    // checked by the caller
+                }
+            }
+            return reports;
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private static void sleep()
+    {
+        try
+        {
+            Thread.sleep( 100 );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
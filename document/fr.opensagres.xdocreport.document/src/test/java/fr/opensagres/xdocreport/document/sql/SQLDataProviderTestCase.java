@@ -0,0 +1,195 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.document.sql;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+import junit.framework.TestCase;
+import fr.opensagres.xdocreport.template.formatter.FieldsMetadata;
+
+public class SQLDataProviderTestCase
+    extends TestCase
+{
+
+    private static final String[] TABLES = { "products", "products", "shop" };
+
+    private static final String[] COLUMNS = { "name", "price", "city" };
+
+    private static final Object[][] ROWS = { { "Apple", 1, "Paris" }, { "Pear", 2, "Paris" },
+        { "Plum", 3, "Paris" } };
+
+    public void testLoadRows()
+        throws Exception
+    {
+        FieldsMetadata metadata = new FieldsMetadata();
+        SQLDataProvider provider = new ProductsDataProvider( createResultSet(), metadata, false );
+
+        assertTrue( metadata.getFieldsAsList().contains( "products.name" ) );
+        assertTrue( metadata.getFieldsAsList().contains( "products.price" ) );
+
+        Collection<Map<String, Object>> products = (Collection<Map<String, Object>>) provider.get( "products" );
+        assertEquals( 3, products.size() );
+        Iterator<Map<String, Object>> it = products.iterator();
+        assertEquals( "Apple", it.next().get( "name" ) );
+        assertEquals( 2, it.next().get( "price" ) );
+
+        Map<String, Object> shop = (Map<String, Object>) provider.get( "shop" );
+        assertEquals( "Paris", shop.get( "city" ) );
+    }
+
+    public void testStreamRows()
+        throws Exception
+    {
+        FieldsMetadata metadata = new FieldsMetadata();
+        SQLDataProvider provider = new ProductsDataProvider( createResultSet(), metadata, true );
+
+        assertTrue( metadata.getFieldsAsList().contains( "products.name" ) );
+        assertTrue( metadata.getFieldsAsList().contains( "products.price" ) );
+
+        Iterator<Map<String, Object>> products = (Iterator<Map<String, Object>>) provider.get( "products" );
+        Map<String, Object> row = null;
+        int count = 0;
+        while ( products.hasNext() )
+        {
+            Map<String, Object> current = products.next();
+            if ( row != null )
+            {
+                // same row view for each row
+                assertSame( row, current );
+            }
+            row = current;
+            assertEquals( ROWS[count][0], row.get( "name" ) );
+            assertEquals( ROWS[count][1], row.get( "price" ) );
+            assertEquals( 2, row.size() );
+            count++;
+        }
+        assertEquals( ROWS.length, count );
+    }
+
+    public void testStreamRowsWithSimpleField()
+        throws Exception
+    {
+        FieldsMetadata metadata = new FieldsMetadata();
+        SQLDataProvider provider = new ProductsDataProvider( createResultSet(), metadata, true );
+
+        assertFalse( metadata.getFieldsAsList().contains( "shop.city" ) );
+        // the simple field can be used before the loop...
+        Map<String, Object> shop = (Map<String, Object>) provider.get( "shop" );
+        assertEquals( "Paris", shop.get( "city" ) );
+        assertEquals( 1, shop.size() );
+
+        // ... the loop starts with the first row...
+        Iterator<Map<String, Object>> products = (Iterator<Map<String, Object>>) provider.get( "products" );
+        int count = 0;
+        while ( products.hasNext() )
+        {
+            assertEquals( ROWS[count][0], products.next().get( "name" ) );
+            count++;
+        }
+        assertEquals( ROWS.length, count );
+
+        // ... and the simple field can be used after the loop.
+        assertEquals( "Paris", shop.get( "city" ) );
+    }
+
+    private static class ProductsDataProvider
+        extends SQLDataProvider
+    {
+
+        private static final long serialVersionUID = 1L;
+
+        public ProductsDataProvider( ResultSet rs, FieldsMetadata metadata, boolean streaming )
+            throws SQLException
+        {
+            super( rs, metadata, streaming );
+        }
+
+        @Override
+        protected String getListName( String tableName, String columnName )
+        {
+            return "shop".equals( tableName ) ? null : tableName;
+        }
+    }
+
+    private static ResultSet createResultSet()
+    {
+        final ResultSetMetaData metaData =
+            (ResultSetMetaData) Proxy.newProxyInstance( SQLDataProviderTestCase.class.getClassLoader(),
+                                                        new Class[] { ResultSetMetaData.class },
+                                                        new InvocationHandler()
+                                                        {
+                                                            public Object invoke( Object proxy, Method method,
+                                                                                  Object[] args )
+                                                            {
+                                                                String name = method.getName();
+                                                                if ( "getColumnCount".equals( name ) )
+                                                                {
+                                                                    return COLUMNS.length;
+                                                                }
+                                                                if ( "getTableName".equals( name ) )
+                                                                {
+                                                                    return TABLES[(Integer) args[0] - 1];
+                                                                }
+                                                                if ( "getColumnLabel".equals( name ) )
+                                                                {
+                                                                    return COLUMNS[(Integer) args[0] - 1];
+                                                                }
+                                                                throw new UnsupportedOperationException( name );
+                                                            }
+                                                        } );
+        return (ResultSet) Proxy.newProxyInstance( SQLDataProviderTestCase.class.getClassLoader(),
+                                                   new Class[] { ResultSet.class }, new InvocationHandler()
+                                                   {
+                                                       private int row = -1;
+
+                                                       public Object invoke( Object proxy, Method method,
+                                                                             Object[] args )
+                                                       {
+                                                           String name = method.getName();
+                                                           if ( "getMetaData".equals( name ) )
+                                                           {
+                                                               return metaData;
+                                                           }
+                                                           if ( "next".equals( name ) )
+                                                           {
+                                                               return ++row < ROWS.length;
+                                                           }
+                                                           if ( "getObject".equals( name ) )
+                                                           {
+                                                               return ROWS[row][(Integer) args[0] - 1];
+                                                           }
+                                                           throw new UnsupportedOperationException( name );
+                                                       }
+                                                   } );
+    }
+}
@@ -0,0 +1,161 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.document.textstyling.html;
+
+import java.io.StringReader;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import fr.opensagres.xdocreport.core.utils.StringEscapeUtils;
+import fr.opensagres.xdocreport.core.utils.XMLReaderPool;
+
+public class HTMLTokenizerTestCase
+{
+
+    private static final String START_XML = "<?xml version=\"1.0\" ?>"
+        + StringEscapeUtils.Entities.HTML40.generateDocType( "entities" ) + "<root>";
+
+    private static final String END_XML = "</root>";
+
+    @Test
+    public void sameEventsAsSAXParser()
+        throws Exception
+    {
+        String[] contents =
+            { "", "text", "<b>bold</b> and <i>italic</i>", "<p><br/><br /></p>", "a&eacute;&eacute;b",
+                "&eacute; &#233;", "<b>&eacute;t&eacute;</b>", "&amp;&lt;&gt;&quot;&apos;", "&#x41;&#128512;z",
+                "&auml; &uuml; &eacute;", "<![CDATA[<b>]]>text", "a<!-- comment -->b", "a<?pi data?>b",
+                "<a href=\"http://www.google.com?a=1&amp;b=&eacute;\">Google</a>",
+                "<span style='color: rgb(255, 0, 0);' >Test</span>", "<ul><li>1</li><li>2</li></ul>", "a]b",
+                "<table border=\"1\"><tr><td>cell</td></tr></table>", "<h1 >title</h1 >" };
+        for ( String content : contents )
+        {
+            Assert.assertEquals( content, parseWithSAX( content ), parseWithTokenizer( content ) );
+        }
+    }
+
+    @Test
+    public void notWellFormed()
+    {
+        String[] contents =
+            { "<b>text", "<b>text</i>", "text</b>", "&unknown;", "a & b", "a < b", "a]]>b", "<a href=\"<\">a</a>",
+                "<a href=\"a\" href=\"b\">a</a>", "<a href=a>a</a>", "<![CDATA[text", "&#1;" };
+        for ( String content : contents )
+        {
+            try
+            {
+                parseWithTokenizer( content );
+                Assert.fail( "SAXException expected for " + content );
+            }
+            catch ( SAXException e )
+            {
+                // not well-formed
+            }
+        }
+    }
+
+    private static String parseWithSAX( String content )
+        throws Exception
+    {
+        XMLReader reader = XMLReaderPool.acquire();
+        try
+        {
+            EventsHandler handler = new EventsHandler();
+            reader.setContentHandler( handler );
+            reader.parse( new InputSource( new StringReader( START_XML + content + END_XML ) ) );
+            return handler.toString();
+        }
+        finally
+        {
+            XMLReaderPool.release( reader );
+        }
+    }
+
+    private static String parseWithTokenizer( String content )
+        throws SAXException
+    {
+        EventsHandler handler = new EventsHandler();
+        HTMLTokenizer.parse( content, handler );
+        return handler.toString();
+    }
+
+    /**
+     * Handler which traces the SAX events.
+     */
+    private static class EventsHandler
+        extends DefaultHandler
+    {
+
+        private final StringBuilder events = new StringBuilder();
+
+        @Override
+        public void startDocument()
+        {
+            events.append( "startDocument\n" );
+        }
+
+        @Override
+        public void endDocument()
+        {
+            events.append( "endDocument\n" );
+        }
+
+        @Override
+        public void startElement( String uri, String localName, String name, Attributes attributes )
+        {
+            events.append( "start[" ).append( uri ).append( "|" ).append( localName ).append( "|" ).append( name );
+            for ( int i = 0; i < attributes.getLength(); i++ )
+            {
+                events.append( " " ).append( attributes.getQName( i ) ).append( "=" ).append( attributes.getValue( i ) );
+            }
+            events.append( "]\n" );
+        }
+
+        @Override
+        public void endElement( String uri, String localName, String name )
+        {
+            events.append( "end[" ).append( uri ).append( "|" ).append( localName ).append( "|" ).append( name ).append( "]\n" );
+        }
+
+        @Override
+        public void characters( char[] ch, int start, int length )
+        {
+            events.append( "characters[" ).append( ch, start, length ).append( "]\n" );
+        }
+
+        @Override
+        public String toString()
+        {
+            return events.toString();
+        }
+    }
+}
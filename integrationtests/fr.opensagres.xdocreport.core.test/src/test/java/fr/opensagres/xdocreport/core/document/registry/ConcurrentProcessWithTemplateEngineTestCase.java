@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.core.document.registry;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import fr.opensagres.xdocreport.core.io.IOUtils;
+import fr.opensagres.xdocreport.core.io.XDocArchive;
+import fr.opensagres.xdocreport.document.IXDocReport;
+import fr.opensagres.xdocreport.document.registry.XDocReportRegistry;
+import fr.opensagres.xdocreport.template.IContext;
+import fr.opensagres.xdocreport.template.TemplateEngineKind;
+
+/**
+ * Test case for several threads which generate the same report loaded with Freemarker and Velocity.
+ */
+public class ConcurrentProcessWithTemplateEngineTestCase
+{
+
+    private static final int NB_THREADS = 16;
+
+    @Test
+    public void testWithFreemarker()
+        throws Exception
+    {
+        checkConcurrentProcess( "ODTHelloWordWithFreemarker.odt", TemplateEngineKind.Freemarker, false );
+    }
+
+    @Test
+    public void testWithFreemarkerAndPrecompiledTemplates()
+        throws Exception
+    {
+        checkConcurrentProcess( "ODTHelloWordWithFreemarker.odt", TemplateEngineKind.Freemarker, true );
+    }
+
+    @Test
+    public void testWithVelocity()
+        throws Exception
+    {
+        checkConcurrentProcess( "ODTHelloWordWithVelocity.odt", TemplateEngineKind.Velocity, false );
+    }
+
+    @Test
+    public void testWithVelocityAndPrecompiledTemplates()
+        throws Exception
+    {
+        checkConcurrentProcess( "ODTHelloWordWithVelocity.odt", TemplateEngineKind.Velocity, true );
+    }
+
+    private static void checkConcurrentProcess( String fileName, TemplateEngineKind templateEngineKind,
+                                                boolean precompileTemplates )
+        throws Exception
+    {
+        final IXDocReport report =
+            new XDocReportRegistry().loadReport( ConcurrentProcessWithTemplateEngineTestCase.class.getResourceAsStream( fileName ),
+                                                 templateEngineKind, false );
+        report.setPrecompileTemplates( precompileTemplates );
+
+        // the first generation (with the preprocessing) is done by the threads too
+        ExecutorService executor = Executors.newFixedThreadPool( NB_THREADS );
+        try
+        {
+            List<Future<String>> results = new ArrayList<Future<String>>();
+            for ( int i = 0; i < NB_THREADS * 4; i++ )
+            {
+                final String name = "world" + i;
+                results.add( executor.submit( new Callable<String>()
+                {
+                    public String call()
+                        throws Exception
+                    {
+                        return processContentXML( report, name );
+                    }
+                } ) );
+            }
+            for ( int i = 0; i < results.size(); i++ )
+            {
+                String contentXML = results.get( i ).get();
+                assertTrue( "content.xml must contain '>Hello world" + i + "!<'",
+                            contentXML.contains( ">Hello world" + i + "!<" ) );
+            }
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
+    private static String processContentXML( IXDocReport report, String name )
+        throws Exception
+    {
+        IContext context = report.createContext();
+        context.put( "name", name );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        report.process( context, out );
+        XDocArchive archive = XDocArchive.readZip( new ByteArrayInputStream( out.toByteArray() ) );
+        return IOUtils.toString( archive.getEntryReader( "content.xml" ) );
+    }
+}
@@ -0,0 +1,104 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.core.document.registry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import org.junit.Test;
+
+import fr.opensagres.xdocreport.core.XDocReportException;
+import fr.opensagres.xdocreport.core.io.IOUtils;
+import fr.opensagres.xdocreport.core.io.XDocArchive;
+import fr.opensagres.xdocreport.document.IXDocReport;
+import fr.opensagres.xdocreport.document.registry.XDocReportRegistry;
+import fr.opensagres.xdocreport.template.IContext;
+import fr.opensagres.xdocreport.template.TemplateEngineKind;
+
+/**
+ * Test case for {@link IXDocReport#setPrecompileTemplates(boolean)} with Freemarker and Velocity : the reports
+ * generated with the compiled templates must be the same than the reports generated without.
+ */
+public class PrecompileTemplatesWithTemplateEngineTestCase
+{
+
+    @Test
+    public void testWithFreemarker()
+        throws Exception
+    {
+        checkPrecompileTemplates( "ODTHelloWordWithFreemarker.odt", TemplateEngineKind.Freemarker );
+    }
+
+    @Test
+    public void testWithVelocity()
+        throws Exception
+    {
+        checkPrecompileTemplates( "ODTHelloWordWithVelocity.odt", TemplateEngineKind.Velocity );
+    }
+
+    private static void checkPrecompileTemplates( String fileName, TemplateEngineKind templateEngineKind )
+        throws Exception
+    {
+        IXDocReport report = loadReport( fileName, templateEngineKind, false );
+        IXDocReport precompiledReport = loadReport( fileName, templateEngineKind, true );
+
+        // the compiled templates are reused by the second generation with another context
+        String[] names = { "world", "XDocReport", "world" };
+        for ( String name : names )
+        {
+            String expected = processContentXML( report, name );
+            String contentXML = processContentXML( precompiledReport, name );
+            assertTrue( "content.xml must contain '>Hello " + name + "!<'",
+                        contentXML.contains( ">Hello " + name + "!<" ) );
+            assertEquals( expected, contentXML );
+        }
+    }
+
+    private static IXDocReport loadReport( String fileName, TemplateEngineKind templateEngineKind,
+                                           boolean precompileTemplates )
+        throws IOException, XDocReportException
+    {
+        IXDocReport report =
+            new XDocReportRegistry().loadReport( PrecompileTemplatesWithTemplateEngineTestCase.class.getResourceAsStream( fileName ),
+                                                 templateEngineKind, false );
+        report.setPrecompileTemplates( precompileTemplates );
+        return report;
+    }
+
+    private static String processContentXML( IXDocReport report, String name )
+        throws IOException, XDocReportException
+    {
+        IContext context = report.createContext();
+        context.put( "name", name );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        report.process( context, out );
+        XDocArchive archive = XDocArchive.readZip( new ByteArrayInputStream( out.toByteArray() ) );
+        return IOUtils.toString( archive.getEntryReader( "content.xml" ) );
+    }
+}
@@ -39,6 +39,8 @@ import fr.opensagres.xdocreport.core.XDocReportException;
 import fr.opensagres.xdocreport.core.io.IOUtils;
 import fr.opensagres.xdocreport.template.AbstractTemplateEngine;
 import fr.opensagres.xdocreport.template.FieldsExtractor;
+import fr.opensagres.xdocreport.template.ICompilableTemplateEngine;
+import fr.opensagres.xdocreport.template.ICompiledTemplate;
 import fr.opensagres.xdocreport.template.IContext;
 import fr.opensagres.xdocreport.template.TemplateEngineKind;
 import fr.opensagres.xdocreport.template.config.ITemplateEngineConfiguration;
@@ -60,7 +62,7 @@ import freemarker.template.TemplateModelException;
  */
 public class FreemarkerTemplateEngine
     extends AbstractTemplateEngine
-    implements FreemarkerConstants
+    implements ICompilableTemplateEngine, FreemarkerConstants
 {
 
     private static final String DOLLAR_VARIABLE = "DollarVariable";
@@ -73,6 +75,12 @@ public class FreemarkerTemplateEngine
 
     private boolean forceModifyReader = false;
 
+    /**
+     * Delay in seconds between 2 checks of the last modified of a cached template entry (see
+     * {@link Configuration#setTemplateUpdateDelay(int)}).
+     */
+    private int templateUpdateDelay = 0;
+
     private final List<TemplateLoader> templateLoaders;
 
     public FreemarkerTemplateEngine()
@@ -122,6 +130,18 @@ public class FreemarkerTemplateEngine
         process( context, writer, template );
     }
 
+    /**
+     * Parse the given template once : the returned template is merged without looking up the template in the
+     * Freemarker cache, so the last modified of the entry is not checked at each merge.
+     */
+    @Override
+    public ICompiledTemplate compile( String templateName, Reader reader )
+        throws XDocReportException, IOException
+    {
+        return new FreemarkerCompiledTemplate( new Template( templateName, getReader( reader ),
+                                                             getFreemarkerConfiguration() ) );
+    }
+
     /**
      * Returns Reader to use for process template merge.
      * 
@@ -189,16 +209,30 @@ public class FreemarkerTemplateEngine
                                                                                  templateLoaders.toArray( new TemplateLoader[0] ) ) );
         // as soon as report changes when source (odt, docx,...) change,
         // template entry must be refreshed.
-        try
-        {
-            this.freemarkerConfiguration.setSetting( Configuration.TEMPLATE_UPDATE_DELAY_KEY, "0" );
-        }
-        catch ( TemplateException e )
-        {
-        }
+        this.freemarkerConfiguration.setTemplateUpdateDelay( templateUpdateDelay );
         this.freemarkerConfiguration.setLocalizedLookup( false );
     }
 
+    /**
+     * Set the delay in seconds between 2 checks of the last modified of a cached template entry. With the default
+     * delay (0), each merge of a report entry checks the last modified of the entry of the report in the
+     * {@link fr.opensagres.xdocreport.template.cache.ITemplateCacheInfoProvider}. A greater delay avoids this lookup,
+     * but a report reloaded with the same id is merged with the old template until the delay expires. Reports which
+     * precompile their templates don't use the Freemarker cache and are not impacted by this delay.
+     * 
+     * @param templateUpdateDelay delay in seconds.
+     */
+    public void setTemplateUpdateDelay( int templateUpdateDelay )
+    {
+        this.templateUpdateDelay = templateUpdateDelay;
+        getFreemarkerConfiguration().setTemplateUpdateDelay( templateUpdateDelay );
+    }
+
+    public int getTemplateUpdateDelay()
+    {
+        return templateUpdateDelay;
+    }
+
     public void extractFields( Reader reader, String entryName, FieldsExtractor extractor )
         throws XDocReportException
     {
@@ -314,6 +348,27 @@ public class FreemarkerTemplateEngine
         return true;
     }
 
+    /**
+     * Freemarker template parsed once and merged several times.
+     */
+    private class FreemarkerCompiledTemplate
+        implements ICompiledTemplate
+    {
+
+        private final Template template;
+
+        public FreemarkerCompiledTemplate( Template template )
+        {
+            this.template = template;
+        }
+
+        public void process( IContext context, Writer writer )
+            throws XDocReportException, IOException
+        {
+            FreemarkerTemplateEngine.this.process( context, writer, template );
+        }
+    }
+
     /**
      * Add a Freemarker template loader.
      * 
@@ -38,6 +38,7 @@ import fr.opensagres.xdocreport.template.ITemplateEngine;
 import fr.opensagres.xdocreport.template.cache.ITemplateCacheInfoProvider;
 import fr.opensagres.xdocreport.template.utils.TemplateUtils;
 import fr.opensagres.xdocreport.template.velocity.VelocityConstants;
+import fr.opensagres.xdocreport.template.velocity.internal.VelocityTemplateEngine;
 
 /**
  * Velocity resource loader {@link ResourceLoader} implementation used to cache entry name of {@link XDocArchive} which
@@ -55,6 +56,11 @@ public class XDocReportEntryResourceLoader
     {
         super.commonInit( rs, configuration );
         this.templateEngine = (ITemplateEngine) rs.getProperty( VELOCITY_TEMPLATE_ENGINE_KEY );
+        if ( templateEngine instanceof VelocityTemplateEngine )
+        {
+            // give the runtime services to the template engine to compile the templates of the reports
+            ( (VelocityTemplateEngine) templateEngine ).setRuntimeServices( rs );
+        }
     }
 
     @Override
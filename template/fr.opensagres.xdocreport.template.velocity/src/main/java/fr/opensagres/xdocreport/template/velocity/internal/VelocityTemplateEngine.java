@@ -34,12 +34,16 @@ import java.util.Properties;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
 import org.apache.velocity.app.VelocityEngine;
+import org.apache.velocity.runtime.RuntimeServices;
+import org.apache.velocity.runtime.parser.ParseException;
 
 import fr.opensagres.xdocreport.core.EncodingConstants;
 import fr.opensagres.xdocreport.core.XDocReportException;
 import fr.opensagres.xdocreport.core.io.IOUtils;
 import fr.opensagres.xdocreport.template.AbstractTemplateEngine;
 import fr.opensagres.xdocreport.template.FieldsExtractor;
+import fr.opensagres.xdocreport.template.ICompilableTemplateEngine;
+import fr.opensagres.xdocreport.template.ICompiledTemplate;
 import fr.opensagres.xdocreport.template.IContext;
 import fr.opensagres.xdocreport.template.TemplateEngineKind;
 import fr.opensagres.xdocreport.template.config.ITemplateEngineConfiguration;
@@ -53,14 +57,21 @@ import fr.opensagres.xdocreport.template.velocity.VelocityFieldsExtractor;
  */
 public class VelocityTemplateEngine
     extends AbstractTemplateEngine
-    implements VelocityConstants
+    implements ICompilableTemplateEngine, VelocityConstants
 {
 
     private static String ID = TemplateEngineKind.Velocity.name();
 
     private VelocityDocumentFormatter formatter = new VelocityDocumentFormatter();
 
-    private VelocityEngine velocityEngine;
+    private volatile VelocityEngine velocityEngine;
+
+    /**
+     * Runtime services of the initialized velocity engine used to compile templates, null if the
+     * {@link fr.opensagres.xdocreport.template.velocity.cache.XDocReportEntryResourceLoader} is not used by the
+     * velocity engine.
+     */
+    private volatile RuntimeServices runtimeServices;
 
     private final Properties velocityEngineProperties;
 
@@ -109,18 +120,95 @@ public class VelocityTemplateEngine
         velocityEngine.evaluate( (VelocityContext) context, writer, templateName, reader );
     }
 
-    protected synchronized VelocityEngine getVelocityEngine()
+    /**
+     * Parse the given template once with the runtime services of the velocity engine : the returned template is merged
+     * without parsing the template (see {@link #processNoCache(String, IContext, Reader, Writer)}) or looking up the
+     * template in the resource cache of velocity (see {@link #processWithCache(String, IContext, Writer)}).
+     */
+    @Override
+    public ICompiledTemplate compile( String templateName, Reader reader )
+        throws XDocReportException, IOException
+    {
+        getVelocityEngine();
+        RuntimeServices runtimeServices = this.runtimeServices;
+        if ( runtimeServices == null )
+        {
+            return null;
+        }
+        try
+        {
+            Template template = new Template();
+            template.setRuntimeServices( runtimeServices );
+            template.setName( templateName );
+            template.setEncoding( EncodingConstants.UTF_8.name() );
+            template.setData( runtimeServices.parse( reader, templateName ) );
+            template.initDocument();
+            return new VelocityCompiledTemplate( template );
+        }
+        catch ( ParseException e )
+        {
+            throw new XDocReportException( e );
+        }
+    }
+
+    /**
+     * Returns the velocity engine (initialized once). The engine is published with a volatile field to avoid locking
+     * at each merge.
+     * 
+     * @return
+     * @throws XDocReportException
+     */
+    protected VelocityEngine getVelocityEngine()
+        throws XDocReportException
+    {
+        VelocityEngine engine = velocityEngine;
+        if ( engine != null )
+        {
+            return engine;
+        }
+        synchronized ( this )
+        {
+            if ( velocityEngine == null )
+            {
+                VelocityEngine newEngine = new VelocityEngine();
+                initializeVelocityEngine( newEngine, velocityEngineProperties );
+                velocityEngine = newEngine;
+            }
+            return velocityEngine;
+        }
+    }
+
+    /**
+     * Set the runtime services of the velocity engine. This method is called by
+     * {@link fr.opensagres.xdocreport.template.velocity.cache.XDocReportEntryResourceLoader} when the velocity engine
+     * is initialized.
+     * 
+     * @param runtimeServices
+     */
+    public void setRuntimeServices( RuntimeServices runtimeServices )
+    {
+        this.runtimeServices = runtimeServices;
+    }
+
+    /**
+     * Initialize the velocity engine with the given properties. The velocity engine is created if it doesn't exist.
+     * 
+     * @param velocityEngineProperties
+     * @throws XDocReportException
+     */
+    public synchronized void initializeVelocityEngine( Properties velocityEngineProperties )
         throws XDocReportException
     {
-        if ( velocityEngine == null )
+        VelocityEngine engine = velocityEngine;
+        if ( engine == null )
         {
-            velocityEngine = new VelocityEngine();
-            initializeVelocityEngine( velocityEngineProperties );
+            engine = new VelocityEngine();
         }
-        return velocityEngine;
+        initializeVelocityEngine( engine, velocityEngineProperties );
+        velocityEngine = engine;
     }
 
-    public void initializeVelocityEngine( Properties velocityEngineProperties )
+    private void initializeVelocityEngine( VelocityEngine velocityEngine, Properties velocityEngineProperties )
         throws XDocReportException
     {
         ClassLoader backupCL = Thread.currentThread().getContextClassLoader();
@@ -187,4 +275,25 @@ public class VelocityTemplateEngine
     {
         return false;
     }
+
+    /**
+     * Velocity template parsed once and merged several times.
+     */
+    private static class VelocityCompiledTemplate
+        implements ICompiledTemplate
+    {
+
+        private final Template template;
+
+        public VelocityCompiledTemplate( Template template )
+        {
+            this.template = template;
+        }
+
+        public void process( IContext context, Writer writer )
+            throws XDocReportException, IOException
+        {
+            template.merge( (VelocityContext) context, writer );
+        }
+    }
 }
@@ -31,6 +31,7 @@ import java.io.Writer;
 import java.util.Collection;
 
 import junit.framework.TestCase;
+import fr.opensagres.xdocreport.template.ICompiledTemplate;
 import fr.opensagres.xdocreport.template.IContext;
 import fr.opensagres.xdocreport.template.ITemplateEngine;
 import fr.opensagres.xdocreport.template.config.AbstractTemplateEngineConfiguration;
@@ -76,6 +77,32 @@ public class VelocityTemplateEngineConfigurationTestCase
         assertEquals( "Project: A<text:line-break>B.", writer.toString() );
     }
 
+    public void testEscapeXMLCompiledTemplate()
+        throws Exception
+    {
+        ITemplateEngine templateEngine = new VelocityTemplateEngineDiscovery().createTemplateEngine();
+
+        ITemplateEngineConfiguration configuration = new JUnitTemplateEngineConfiguration();
+        templateEngine.setConfiguration( configuration );
+
+        // the template is parsed once and merged with several contexts
+        ICompiledTemplate template =
+            templateEngine.compile( "compiled", new StringReader( "Project: ${project.name}." ) );
+        assertNotNull( template );
+
+        Writer writer = new StringWriter();
+        IContext context = templateEngine.createContext();
+        context.put( "project.name", "A&B" );
+        template.process( context, writer );
+        assertEquals( "Project: A&amp;B.", writer.toString() );
+
+        writer = new StringWriter();
+        context = templateEngine.createContext();
+        context.put( "project.name", "C<D" );
+        template.process( context, writer );
+        assertEquals( "Project: C&lt;D.", writer.toString() );
+    }
+
     private static class JUnitTemplateEngineConfiguration
         extends AbstractTemplateEngineConfiguration
     {
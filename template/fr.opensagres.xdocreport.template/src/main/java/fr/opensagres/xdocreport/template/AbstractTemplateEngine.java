@@ -137,19 +137,7 @@ public abstract class AbstractTemplateEngine
                 LOGGER.fine( ( "End template engine id=" + getId() + " for the entry=" + entryName + " done with "
                     + ( System.currentTimeMillis() - startTime ) + "(ms)." ) );
             }
-            if ( e instanceof RuntimeException )
-            {
-                throw (RuntimeException) e;
-            }
-            if ( e instanceof IOException )
-            {
-                throw (IOException) e;
-            }
-            if ( e instanceof XDocReportException )
-            {
-                throw (XDocReportException) e;
-            }
-            throw new XDocReportException( e );
+            throw toXDocReportException( e );
         }
         finally
         {
@@ -185,6 +173,75 @@ public abstract class AbstractTemplateEngine
 
     }
 
+    /**
+     * Merge the given compiled template like {@link #process(String, String, IEntryReaderProvider, Writer, IContext)}
+     * (same logs and same errors) : this method implements
+     * {@link ICompilableTemplateEngine#process(String, ICompiledTemplate, IContext, Writer)} for the template engines
+     * which support compiled templates.
+     */
+    public void process( String entryName, ICompiledTemplate compiledTemplate, IContext context, Writer writer )
+        throws XDocReportException, IOException
+    {
+        long startTime = -1;
+        if ( LOGGER.isLoggable( Level.FINE ) )
+        {
+            startTime = System.currentTimeMillis();
+            LOGGER.fine( format( "Start template engine id=%s for the entry=%s with compiled template", getId(),
+                                 entryName ) );
+        }
+        try
+        {
+            writer = getWriter( writer );
+            compiledTemplate.process( context, writer );
+            if ( LOGGER.isLoggable( Level.FINE ) )
+            {
+                LOGGER.fine( format( "Result template engine id=" + getId() + "  for the entry=" + entryName + ": " ) );
+                LOGGER.fine( prettyPrint( ( (MultiWriter) writer ).getWriter( 1 ).toString() ) );
+
+                LOGGER.fine( "End template engine id=" + getId() + " for the entry=" + entryName + " done with "
+                    + ( System.currentTimeMillis() - startTime ) + "(ms)." );
+            }
+        }
+        catch ( Throwable e )
+        {
+            if ( LOGGER.isLoggable( Level.FINE ) )
+            {
+                LOGGER.fine( ( "End template engine id=" + getId() + " for the entry=" + entryName + " done with "
+                    + ( System.currentTimeMillis() - startTime ) + "(ms)." ) );
+            }
+            throw toXDocReportException( e );
+        }
+        finally
+        {
+            if ( writer != null )
+            {
+                IOUtils.closeQuietly( writer );
+            }
+        }
+    }
+
+    /**
+     * Returns the given error to throw : runtime and I/O exceptions are thrown as is, the other errors are wrapped in a
+     * {@link XDocReportException}.
+     */
+    private static XDocReportException toXDocReportException( Throwable e )
+        throws IOException
+    {
+        if ( e instanceof RuntimeException )
+        {
+            throw (RuntimeException) e;
+        }
+        if ( e instanceof IOException )
+        {
+            throw (IOException) e;
+        }
+        if ( e instanceof XDocReportException )
+        {
+            return (XDocReportException) e;
+        }
+        return new XDocReportException( e );
+    }
+
     public void extractFields( IEntryReaderProvider readerProvider, String entryName, FieldsExtractor extractor )
         throws XDocReportException
     {
@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.template;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+import fr.opensagres.xdocreport.core.XDocReportException;
+
+/**
+ * Optional interface of a {@link ITemplateEngine} which is able to parse a template once and to merge it several
+ * times without parsing it again. The report checks if its template engine implements this interface before
+ * precompiling the templates.
+ */
+public interface ICompilableTemplateEngine
+    extends ITemplateEngine
+{
+
+    /**
+     * Parse the given template to merge it several times without parsing it again (see
+     * {@link #process(String, ICompiledTemplate, IContext, Writer)}).
+     * 
+     * @param templateName template name
+     * @param reader template reader to parse
+     * @return the compiled template or null if the template engine cannot compile the template.
+     * @throws XDocReportException
+     * @throws IOException
+     */
+    ICompiledTemplate compile( String templateName, Reader reader )
+        throws XDocReportException, IOException;
+
+    /**
+     * Merge Java model coming from the given context with the given compiled template and register the merge result in
+     * the given writer (which is closed).
+     * 
+     * @param entryName entry name
+     * @param compiledTemplate the template compiled by {@link #compile(String, Reader)}
+     * @param context Java model context
+     * @param writer merge result writer
+     * @throws XDocReportException
+     * @throws IOException
+     */
+    void process( String entryName, ICompiledTemplate compiledTemplate, IContext context, Writer writer )
+        throws XDocReportException, IOException;
+}
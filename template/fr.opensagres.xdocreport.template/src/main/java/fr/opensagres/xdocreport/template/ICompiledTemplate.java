@@ -0,0 +1,50 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.template;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import fr.opensagres.xdocreport.core.XDocReportException;
+
+/**
+ * Template parsed once by {@link ICompilableTemplateEngine#compile(String, java.io.Reader)} and merged several times
+ * with different contexts. A compiled template is immutable and can be merged by several threads at the same time.
+ */
+public interface ICompiledTemplate
+{
+
+    /**
+     * Merge Java model coming from the given context with the template and register the merge result in the given
+     * writer.
+     * 
+     * @param context Java model context
+     * @param writer merge result writer
+     * @throws XDocReportException
+     * @throws IOException
+     */
+    void process( IContext context, Writer writer )
+        throws XDocReportException, IOException;
+}
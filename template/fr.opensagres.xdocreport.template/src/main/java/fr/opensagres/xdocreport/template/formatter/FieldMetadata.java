@@ -112,6 +112,7 @@ public class FieldMetadata
         {
             fieldsMetadata.fieldsAsList.remove( getFieldName() );
         }
+        fieldsMetadata.fieldsModified();
     }
 
     /**
@@ -141,6 +142,7 @@ public class FieldMetadata
         {
             fieldsMetadata.fieldsAsImage.remove( getImageName() );
         }
+        fieldsMetadata.fieldsModified();
     }
 
     public String getSyntaxKind()
@@ -164,6 +166,7 @@ public class FieldMetadata
         {
             fieldsMetadata.fieldsAsTextStyling.remove( getFieldName() );
         }
+        fieldsMetadata.fieldsModified();
     }
 
     public void setSyntaxWithDirective( boolean syntaxWithDirective )
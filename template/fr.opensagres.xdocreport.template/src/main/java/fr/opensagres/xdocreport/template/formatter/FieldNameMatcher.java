@@ -0,0 +1,249 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.template.formatter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Matcher which searches several field names in a text with one pass over the text (Aho-Corasick automaton). The
+ * automaton is built once with the field names and can be used by several threads.
+ */
+public class FieldNameMatcher
+{
+
+    private final String[] fieldNames;
+
+    private final Node root;
+
+    /**
+     * Build the matcher for the given field names.
+     * 
+     * @param fieldNames the field names. The order of this collection is the order of the field names returned by
+     *            {@link #findFieldNames(String)}.
+     */
+    public FieldNameMatcher( Collection<String> fieldNames )
+    {
+        this.fieldNames = fieldNames.toArray( new String[fieldNames.size()] );
+        this.root = new Node();
+        // 1) build the trie with the field names
+        for ( int i = 0; i < this.fieldNames.length; i++ )
+        {
+            String fieldName = this.fieldNames[i];
+            Node node = root;
+            for ( int j = 0; j < fieldName.length(); j++ )
+            {
+                node = node.addChild( fieldName.charAt( j ) );
+            }
+            node.addOutput( i );
+        }
+        // 2) compute the failure links (breadth-first) and merge the outputs of the failure node.
+        LinkedList<Node> queue = new LinkedList<Node>();
+        root.freeze();
+        for ( Node child : root.children )
+        {
+            child.fail = root;
+            queue.add( child );
+        }
+        while ( !queue.isEmpty() )
+        {
+            Node node = queue.removeFirst();
+            node.freeze();
+            for ( int i = 0; i < node.chars.length; i++ )
+            {
+                char c = node.chars[i];
+                Node child = node.children[i];
+                Node fail = node.fail;
+                while ( fail != root && fail.getChild( c ) == null )
+                {
+                    fail = fail.fail;
+                }
+                Node failChild = fail.getChild( c );
+                child.fail = failChild != null ? failChild : root;
+                child.addOutputs( child.fail );
+                queue.add( child );
+            }
+        }
+    }
+
+    /**
+     * Returns the field names contained in the given text, in the order of the field names given to the constructor.
+     * 
+     * @param text
+     * @return
+     */
+    public List<String> findFieldNames( String text )
+    {
+        if ( fieldNames.length == 0 || text == null )
+        {
+            return Collections.emptyList();
+        }
+        boolean[] found = new boolean[fieldNames.length];
+        boolean hasFound = markOutputs( root, found, false );
+        Node node = root;
+        for ( int i = 0; i < text.length(); i++ )
+        {
+            char c = text.charAt( i );
+            Node next = node.getChild( c );
+            while ( next == null && node != root )
+            {
+                node = node.fail;
+                next = node.getChild( c );
+            }
+            node = next != null ? next : root;
+            hasFound = markOutputs( node, found, hasFound );
+        }
+        if ( !hasFound )
+        {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<String>();
+        for ( int i = 0; i < found.length; i++ )
+        {
+            if ( found[i] )
+            {
+                result.add( fieldNames[i] );
+            }
+        }
+        return result;
+    }
+
+    private static boolean markOutputs( Node node, boolean[] found, boolean hasFound )
+    {
+        int[] outputs = node.outputs;
+        if ( outputs != null )
+        {
+            for ( int output : outputs )
+            {
+                found[output] = true;
+            }
+            return true;
+        }
+        return hasFound;
+    }
+
+    /**
+     * Node of the automaton. The children are stored in arrays sorted by character once the trie is built.
+     */
+    private static class Node
+    {
+
+        private static final char[] NO_CHARS = new char[0];
+
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private char[] chars = NO_CHARS;
+
+        private Node[] children = NO_CHILDREN;
+
+        private List<Node> childrenList;
+
+        private List<Character> charsList;
+
+        private int[] outputs;
+
+        private Node fail;
+
+        public Node addChild( char c )
+        {
+            if ( charsList == null )
+            {
+                charsList = new ArrayList<Character>();
+                childrenList = new ArrayList<Node>();
+            }
+            int index = charsList.indexOf( c );
+            if ( index != -1 )
+            {
+                return childrenList.get( index );
+            }
+            Node child = new Node();
+            charsList.add( c );
+            childrenList.add( child );
+            return child;
+        }
+
+        public void freeze()
+        {
+            if ( charsList == null )
+            {
+                return;
+            }
+            int size = charsList.size();
+            char[] sortedChars = new char[size];
+            for ( int i = 0; i < size; i++ )
+            {
+                sortedChars[i] = charsList.get( i );
+            }
+            Arrays.sort( sortedChars );
+            Node[] sortedChildren = new Node[size];
+            for ( int i = 0; i < size; i++ )
+            {
+                sortedChildren[i] = childrenList.get( charsList.indexOf( sortedChars[i] ) );
+            }
+            this.chars = sortedChars;
+            this.children = sortedChildren;
+            this.charsList = null;
+            this.childrenList = null;
+        }
+
+        public Node getChild( char c )
+        {
+            if ( chars.length == 0 )
+            {
+                return null;
+            }
+            int index = Arrays.binarySearch( chars, c );
+            return index >= 0 ? children[index] : null;
+        }
+
+        public void addOutput( int output )
+        {
+            if ( outputs == null )
+            {
+                outputs = new int[] { output };
+            }
+            else
+            {
+                outputs = Arrays.copyOf( outputs, outputs.length + 1 );
+                outputs[outputs.length - 1] = output;
+            }
+        }
+
+        public void addOutputs( Node node )
+        {
+            if ( node.outputs != null )
+            {
+                for ( int output : node.outputs )
+                {
+                    addOutput( output );
+                }
+            }
+        }
+    }
+}
@@ -100,6 +100,10 @@ public class FieldsMetadata
 
     private List<FieldMetadata> sortedFieldsAsImage;
 
+    private FieldNameMatcher fieldsAsListMatcher;
+
+    private FieldNameMatcher fieldsAsTextStylingMatcher;
+
     private List<ICustomFormatter> customFormatters;
 
     public FieldsMetadata()
@@ -131,6 +135,8 @@ public class FieldsMetadata
         this.sortedFieldsAsList = null;
         this.sortedFieldsAsTextStyling = null;
         this.sortedFieldsAsImage = null;
+        this.fieldsAsListMatcher = null;
+        this.fieldsAsTextStylingMatcher = null;
         this.customFormatters = null;
     }
 
@@ -335,6 +341,22 @@ public class FieldsMetadata
         return sortedFieldsAsList;
     }
 
+    /**
+     * Returns the fields name which belongs to a list and which are contained in the given content. The content is
+     * parsed once whatever the number of fields.
+     * 
+     * @param content
+     * @return the fields name in the order of {@link #getFieldsAsList()}.
+     */
+    public List<String> getFieldsAsList( String content )
+    {
+        if ( fieldsAsListMatcher == null )
+        {
+            fieldsAsListMatcher = new FieldNameMatcher( getFieldsAsList() );
+        }
+        return fieldsAsListMatcher.findFieldNames( content );
+    }
+
     /**
      * Returns list of fields name which are considered as an image.
      * 
@@ -374,15 +396,32 @@ public class FieldsMetadata
 	 *         null otherwise.
 	 */
 	public FieldMetadata getFieldAsTextStyling(String content) {
-		Collection<FieldMetadata> fieldsAsTextStyling = getFieldsAsTextStyling();
-		for (FieldMetadata field : fieldsAsTextStyling) {
-			if (content.contains(field.getFieldName())) {
-				return field;
+		if (fieldsAsTextStyling.isEmpty()) {
+			return null;
+		}
+		if (fieldsAsTextStylingMatcher == null) {
+			List<String> fieldNames = new ArrayList<String>();
+			for (FieldMetadata field : getFieldsAsTextStyling()) {
+				fieldNames.add(field.getFieldName());
 			}
+			fieldsAsTextStylingMatcher = new FieldNameMatcher(fieldNames);
 		}
-		return null;
+		List<String> fieldNames = fieldsAsTextStylingMatcher.findFieldNames(content);
+		return fieldNames.isEmpty() ? null : fieldsAsTextStyling.get(fieldNames.get(0));
 	}
 
+    /**
+     * Reset the sorted fields and the fields matchers when a field is modified.
+     */
+    void fieldsModified()
+    {
+        this.sortedFieldsAsList = null;
+        this.sortedFieldsAsTextStyling = null;
+        this.sortedFieldsAsImage = null;
+        this.fieldsAsListMatcher = null;
+        this.fieldsAsTextStylingMatcher = null;
+    }
+
     /**
      * Returns true if there are fields as image and false otherwise.
      * 
@@ -34,9 +34,9 @@ import java.util.Collection;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
-import org.xml.sax.helpers.XMLReaderFactory;
 
 import fr.opensagres.xdocreport.core.utils.StringUtils;
+import fr.opensagres.xdocreport.core.utils.XMLReaderPool;
 import fr.opensagres.xdocreport.template.formatter.sax.FieldsMetadataContentHandler;
 
 /**
@@ -79,11 +79,7 @@ public class FieldsMetadataXMLSerializer
     public FieldsMetadata load( Reader input )
         throws SAXException, IOException
     {
-        XMLReader saxReader = XMLReaderFactory.createXMLReader();
-        FieldsMetadataContentHandler myContentHandler = new FieldsMetadataContentHandler();
-        saxReader.setContentHandler( myContentHandler );
-        saxReader.parse( new InputSource( input ) );
-        return myContentHandler.getFieldsMetadata();
+        return load( new InputSource( input ) );
     }
 
     /**
@@ -104,12 +100,24 @@ public class FieldsMetadataXMLSerializer
     public FieldsMetadata load( InputStream inputStream )
         throws SAXException, IOException
     {
+        return load( new InputSource( inputStream ) );
+    }
 
-        XMLReader saxReader = XMLReaderFactory.createXMLReader();
-        FieldsMetadataContentHandler myContentHandler = new FieldsMetadataContentHandler();
-        saxReader.setContentHandler( myContentHandler );
-        saxReader.parse( new InputSource( inputStream ) );
-        return myContentHandler.getFieldsMetadata();
+    private FieldsMetadata load( InputSource input )
+        throws SAXException, IOException
+    {
+        XMLReader saxReader = XMLReaderPool.acquire();
+        try
+        {
+            FieldsMetadataContentHandler myContentHandler = new FieldsMetadataContentHandler();
+            saxReader.setContentHandler( myContentHandler );
+            saxReader.parse( input );
+            return myContentHandler.getFieldsMetadata();
+        }
+        finally
+        {
+            XMLReaderPool.release( saxReader );
+        }
     }
 
     /**
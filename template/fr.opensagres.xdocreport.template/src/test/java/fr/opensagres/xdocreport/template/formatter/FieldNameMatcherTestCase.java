@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.template.formatter;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FieldNameMatcherTestCase
+{
+
+    @Test
+    public void findFieldNames()
+        throws Exception
+    {
+        FieldNameMatcher matcher =
+            new FieldNameMatcher( Arrays.asList( "lines.price", "lines.name", "lines.n", "name", "developers.mail" ) );
+
+        List<String> fieldNames = matcher.findFieldNames( "${lines.name} - ${lines.price}" );
+        Assert.assertEquals( Arrays.asList( "lines.price", "lines.name", "lines.n", "name" ), fieldNames );
+
+        Assert.assertEquals( Arrays.asList( "developers.mail" ), matcher.findFieldNames( "$developers.mail" ) );
+        Assert.assertTrue( matcher.findFieldNames( "lines.pric" ).isEmpty() );
+        Assert.assertTrue( matcher.findFieldNames( "" ).isEmpty() );
+    }
+
+    @Test
+    public void sameResultAsContains()
+        throws Exception
+    {
+        List<String> names = Arrays.asList( "abcd", "bc", "bcde", "c", "aab", "de" );
+        FieldNameMatcher matcher = new FieldNameMatcher( names );
+        String[] texts = { "aabcde", "xbcdx", "abab", "dedede", "cc", "zzz" };
+        for ( String text : texts )
+        {
+            List<String> fieldNames = matcher.findFieldNames( text );
+            for ( String name : names )
+            {
+                Assert.assertEquals( text + " / " + name, text.contains( name ), fieldNames.contains( name ) );
+            }
+        }
+    }
+
+    @Test
+    public void fieldsMetadata()
+        throws Exception
+    {
+        FieldsMetadata metadata = new FieldsMetadata();
+        metadata.addFieldAsList( "lines.name" );
+        Assert.assertEquals( Arrays.asList( "lines.name" ), metadata.getFieldsAsList( "${lines.name} ${lines.price}" ) );
+
+        // matcher is rebuilt when fields are modified
+        metadata.addFieldAsList( "lines.price" );
+        Assert.assertEquals( Arrays.asList( "lines.price", "lines.name" ),
+                             metadata.getFieldsAsList( "${lines.name} ${lines.price}" ) );
+
+        Assert.assertNull( metadata.getFieldAsTextStyling( "${comment}" ) );
+        metadata.addFieldAsTextStyling( "comment", "Html" );
+        Assert.assertEquals( "comment", metadata.getFieldAsTextStyling( "${comment}" ).getFieldName() );
+    }
+}
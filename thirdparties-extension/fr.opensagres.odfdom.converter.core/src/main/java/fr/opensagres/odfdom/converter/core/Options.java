@@ -29,6 +29,8 @@ public class Options
 
     private IImageExtractor extractor;
 
+    private IConverterListener converterListener;
+
     /**
      * Set the image extractor.
      * 
@@ -49,4 +51,24 @@ public class Options
         return extractor;
     }
 
+    /**
+     * Set the listener notified of the steps of the conversions done with these options.
+     * 
+     * @param converterListener the listener or null (default).
+     */
+    public void setConverterListener( IConverterListener converterListener )
+    {
+        this.converterListener = converterListener;
+    }
+
+    /**
+     * Returns the listener notified of the steps of the conversions or null if there is no listener.
+     * 
+     * @return the converter listener.
+     */
+    public IConverterListener getConverterListener()
+    {
+        return converterListener;
+    }
+
 }
@@ -36,6 +36,7 @@ import org.odftoolkit.odfdom.incubator.doc.office.OdfOfficeMasterStyles;
 import org.odftoolkit.odfdom.pkg.OdfElement;
 
 import fr.opensagres.odfdom.converter.core.AbstractODFConverter;
+import fr.opensagres.odfdom.converter.core.IConverterListener;
 import fr.opensagres.odfdom.converter.core.IODFConverter;
 import fr.opensagres.odfdom.converter.core.ODFConverterException;
 import fr.opensagres.odfdom.converter.pdf.internal.ElementVisitorForIText;
@@ -59,7 +60,13 @@ public class PdfConverter
         try
         {
             // process styles
+            long startTime = System.nanoTime();
             StyleEngineForIText styleEngine = processStyles( odfDocument, options );
+            IConverterListener listener = options != null ? options.getConverterListener() : null;
+            if ( listener != null )
+            {
+                listener.stylesLoaded( System.nanoTime() - startTime );
+            }
 
             // process content
             ByteArrayOutputStream tempOut = new ByteArrayOutputStream();
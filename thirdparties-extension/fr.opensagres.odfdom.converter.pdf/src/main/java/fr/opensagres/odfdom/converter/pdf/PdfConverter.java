@@ -36,6 +36,7 @@ import org.odftoolkit.odfdom.incubator.doc.office.OdfOfficeMasterStyles;
 import org.odftoolkit.odfdom.pkg.OdfElement;
 
 import fr.opensagres.odfdom.converter.core.AbstractODFConverter;
+import fr.opensagres.odfdom.converter.core.IConverterListener;
 import fr.opensagres.odfdom.converter.core.IODFConverter;
 import fr.opensagres.odfdom.converter.core.ODFConverterException;
 import fr.opensagres.odfdom.converter.pdf.internal.ElementVisitorForIText;
@@ -59,7 +60,30 @@ public class PdfConverter
         try
         {
             // process styles
+            long startTime = System.nanoTime();
             StyleEngineForIText styleEngine = processStyles( odfDocument, options );
+            IConverterListener listener = options != null ? options.getConverterListener() : null;
+            if ( listener != null )
+            {
+                listener.stylesLoaded( System.nanoTime() - startTime );
+            }
+
+            if ( options != null && options.isSinglePass() )
+            {
+                // process content once, the total page count fields are written when the PDF document is closed.
+                if ( styleEngine.getBackgroundImage() == null )
+                {
+                    processBody( odfDocument, out, styleEngine, options, null );
+                }
+                else
+                {
+                    ByteArrayOutputStream tempOut = new ByteArrayOutputStream();
+                    processBody( odfDocument, tempOut, styleEngine, options, null );
+                    styleEngine.getBackgroundImage().insert( tempOut ).writeTo( out );
+                }
+                out.close();
+                return;
+            }
 
             // process content
             ByteArrayOutputStream tempOut = new ByteArrayOutputStream();
@@ -118,7 +142,7 @@ public class PdfConverter
         return styleEngine;
     }
 
-    private ElementVisitorForIText processBody( OdfDocument odfDocument, ByteArrayOutputStream out,
+    private ElementVisitorForIText processBody( OdfDocument odfDocument, OutputStream out,
                                                 StyleEngineForIText styleEngine, PdfOptions options,
                                                 Integer forcedPageCount )
         throws Exception
@@ -47,6 +47,8 @@ public class PdfOptions
 
     private IPdfWriterConfiguration configuration;
 
+    private boolean singlePass;
+
     private PdfOptions()
     {
         this.fontEncoding = BaseFont.IDENTITY_H;
@@ -136,4 +138,31 @@ public class PdfOptions
     {
         return DEFAULT;
     }
+
+    /**
+     * Set true to write the PDF in one pass when the document contains total page count fields (text:page-count). By
+     * default, the document is written a second time when the page count of the fields is not the actual page count.
+     * In single pass mode, the total page count is written when the PDF document is closed, in an area which is
+     * reserved for 4 digits.
+     * 
+     * @param singlePass true to write the PDF in one pass.
+     * @return this instance
+     */
+    public PdfOptions singlePass( boolean singlePass )
+    {
+        this.singlePass = singlePass;
+        return this;
+    }
+
+    /**
+     * Returns true if the PDF is written in one pass when the document contains total page count fields and false
+     * otherwise.
+     * 
+     * @return
+     */
+    public boolean isSinglePass()
+    {
+        return singlePass;
+    }
+
 }
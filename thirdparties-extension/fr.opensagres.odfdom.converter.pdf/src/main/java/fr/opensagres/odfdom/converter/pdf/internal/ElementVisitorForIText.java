@@ -136,6 +136,8 @@ public class ElementVisitorForIText
     private Integer forcedPageCount; // page count processing
 
     private Integer expectedPageCount; // page count processing
+
+    private final boolean singlePass; // page count processing
     
     // Image Cache
     private Map<String, Image> imageCache = new HashMap<String, Image>();
@@ -146,6 +148,7 @@ public class ElementVisitorForIText
         super( odfDocument, options.getExtractor(), out, null );
         this.styleEngine = styleEngine;
         this.forcedPageCount = forcedPageCount;
+        this.singlePass = options.isSinglePass();
         // this.options = options != null ? options : PDFViaITextOptions.create();
         // Create document
         try
@@ -756,6 +759,11 @@ public class ElementVisitorForIText
         {
             createAndAddChunk( forcedPageCount.toString(), null, false );
         }
+        else if ( singlePass )
+        {
+            // page count is written when the PDF document is closed
+            createAndAddTotalPageCountChunk();
+        }
         else
         {
             String textContent = ele.getTextContent();
@@ -815,6 +823,24 @@ public class ElementVisitorForIText
         }
     }
 
+    private void createAndAddTotalPageCountChunk()
+    {
+        Font font = null;
+        Style style = currentContainer.getLastStyleApplied();
+        if ( style != null && style.getTextProperties() != null )
+        {
+            font = style.getTextProperties().getFont();
+        }
+        try
+        {
+            currentContainer.addElement( document.createTotalPageCountChunk( font != null ? font : new Font() ) );
+        }
+        catch ( DocumentException e )
+        {
+            throw new ODFConverterException( e );
+        }
+    }
+
     @Override
     public void save()
         throws IOException
@@ -24,11 +24,17 @@
  */
 package fr.opensagres.poi.xwpf.converter.core;
 
+import fr.opensagres.poi.xwpf.converter.core.styles.XWPFStylesDataCache;
+
 public class Options
 {
 
     private IImageExtractor extractor;
 
+    private XWPFStylesDataCache stylesDataCache;
+
+    private IConverterListener converterListener;
+
     /**
      * Set the image extractor.
      * 
@@ -50,4 +56,45 @@ public class Options
         return extractor;
     }
 
+    /**
+     * Set the cache of the resolved style tables shared by the conversions of docx with the same styles (ex : docx
+     * generated from the same template). Use it only to convert docx loaded from a package and not modified in memory.
+     * 
+     * @param stylesDataCache the cache or null (default) to resolve the style tables for each conversion.
+     */
+    public void setStylesDataCache( XWPFStylesDataCache stylesDataCache )
+    {
+        this.stylesDataCache = stylesDataCache;
+    }
+
+    /**
+     * Returns the cache of the resolved style tables or null if it is not used.
+     * 
+     * @return the cache of the resolved style tables.
+     */
+    public XWPFStylesDataCache getStylesDataCache()
+    {
+        return stylesDataCache;
+    }
+
+    /**
+     * Set the listener notified of the steps of the conversions done with these options.
+     * 
+     * @param converterListener the listener or null (default).
+     */
+    public void setConverterListener( IConverterListener converterListener )
+    {
+        this.converterListener = converterListener;
+    }
+
+    /**
+     * Returns the listener notified of the steps of the conversions or null if there is no listener.
+     * 
+     * @return the converter listener.
+     */
+    public IConverterListener getConverterListener()
+    {
+        return converterListener;
+    }
+
 }
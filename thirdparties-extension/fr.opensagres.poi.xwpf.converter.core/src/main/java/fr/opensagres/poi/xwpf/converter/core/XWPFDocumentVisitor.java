@@ -172,14 +172,20 @@ public abstract class XWPFDocumentVisitor<T, O extends Options, E extends IXWPFM
     {
         this.document = document;
         this.options = options;
+        long startTime = System.nanoTime();
         this.stylesDocument = createStylesDocument( document );
+        IConverterListener listener = options != null ? options.getConverterListener() : null;
+        if ( listener != null )
+        {
+            listener.stylesLoaded( System.nanoTime() - startTime );
+        }
         this.masterPageManager = new MasterPageManager( document.getDocument(), this );
     }
 
     protected XWPFStylesDocument createStylesDocument( XWPFDocument document )
         throws XmlException, IOException
     {
-        return new XWPFStylesDocument( document );
+        return new XWPFStylesDocument( document, options != null ? options.getStylesDataCache() : null );
     }
 
     @Override
@@ -24,6 +24,9 @@
  */
 package fr.opensagres.poi.xwpf.converter.core.styles;
 
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.apache.poi.xwpf.usermodel.XWPFTable;
 import org.apache.poi.xwpf.usermodel.XWPFTableCell;
 import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTDocDefaults;
@@ -36,6 +39,19 @@ public abstract class AbstractValueProvider<Value, XWPFElement>
     implements IValueProvider<Value, XWPFElement>
 {
 
+    private static final AtomicInteger ORDINALS = new AtomicInteger();
+
+    /**
+     * Index of this provider in the styles values cache of {@link XWPFStylesDocument}.
+     */
+    private final int ordinal = ORDINALS.getAndIncrement();
+
+    /**
+     * True if the provider overrides the deprecated {@link #getKey} or {@link #getKeyBuffer} : its values are then
+     * cached with the String key instead of the ordinal.
+     */
+    private final boolean keyOverridden = isKeyOverridden( getClass() );
+
     public Value getValue( XWPFElement element, XWPFStylesDocument stylesDocument )
     {
         // long start = System.currentTimeMillis();
@@ -66,9 +82,10 @@ public abstract class AbstractValueProvider<Value, XWPFElement>
     {
 
         // 1) At first get from cache or compute the default value
-        String key = getKey( element, stylesDocument, null, null );
+        int slot = getSlot( element, null );
+        String key = getLegacyKey( element, stylesDocument, null, null );
         // search from the cache
-        Object defaultValue = stylesDocument.getValue( key );
+        Object defaultValue = getCachedValue( stylesDocument, null, slot, key );
         if ( defaultValue == null )
         {
             // compute the default value and cache it
@@ -77,7 +94,7 @@ public abstract class AbstractValueProvider<Value, XWPFElement>
             {
                 defaultValue = XWPFStylesDocument.EMPTY_VALUE;
             }
-            updateValueCache( stylesDocument, key, defaultValue );
+            updateValueCache( stylesDocument, null, slot, key, defaultValue );
         }
 
         // 2) Search value from the linked style
@@ -112,7 +129,7 @@ public abstract class AbstractValueProvider<Value, XWPFElement>
                 }
             }
         }
-        updateValueCache( stylesDocument, key, defaultValue );
+        updateValueCache( stylesDocument, null, slot, key, defaultValue );
         return getValueOrNull( defaultValue );
     }
 
@@ -219,8 +236,9 @@ public abstract class AbstractValueProvider<Value, XWPFElement>
         }
 
         // Search from cache
-        String key = getKey( element, stylesDocument, tableStyleID, type );
-        Object result = stylesDocument.getValue( key );
+        int slot = getSlot( element, type );
+        String key = getLegacyKey( element, stylesDocument, tableStyleID, type );
+        Object result = getCachedValue( stylesDocument, tableStyleID, slot, key );
         if ( result != null )
         {
             return getValueOrNull( result );
@@ -232,7 +250,7 @@ public abstract class AbstractValueProvider<Value, XWPFElement>
         if ( style == null )
         {
             // should never come
-            stylesDocument.setValue( key, defaultValue );
+            setCachedValue( stylesDocument, tableStyleID, slot, key, defaultValue );
             return null;
         }
 
@@ -245,7 +263,7 @@ public abstract class AbstractValueProvider<Value, XWPFElement>
             if ( value != null )
             {
                 // Value is computed, cache it and return it.
-                stylesDocument.setValue( key, value );
+                setCachedValue( stylesDocument, tableStyleID, slot, key, value );
                 return value;
             }
 
@@ -253,7 +271,7 @@ public abstract class AbstractValueProvider<Value, XWPFElement>
             value = getValueFromTableStyleId( element, stylesDocument, getBasisStyleID( style ), type );
         }
         value = value != null ? value : defaultValue;
-        updateValueCache( stylesDocument, key, value );
+        updateValueCache( stylesDocument, tableStyleID, slot, key, value );
         return getValueOrNull( value );
     }
 
@@ -313,8 +331,9 @@ public abstract class AbstractValueProvider<Value, XWPFElement>
         }
 
         // Search from cache
-        String key = getKey( element, stylesDocument, styleId, null );
-        Object result = stylesDocument.getValue( key );
+        int slot = getSlot( element, null );
+        String key = getLegacyKey( element, stylesDocument, styleId, null );
+        Object result = getCachedValue( stylesDocument, styleId, slot, key );
         if ( result != null )
         {
             return result;
@@ -327,7 +346,7 @@ public abstract class AbstractValueProvider<Value, XWPFElement>
         if ( style == null )
         {
             // should never come
-            stylesDocument.setValue( key, defaultValue );
+            setCachedValue( stylesDocument, styleId, slot, key, defaultValue );
             return null;
         }
 
@@ -336,36 +355,117 @@ public abstract class AbstractValueProvider<Value, XWPFElement>
         if ( value != null )
         {
             // Value is computed, cache it and return it.
-            stylesDocument.setValue( key, value );
+            setCachedValue( stylesDocument, styleId, slot, key, value );
             return value;
         }
 
         // Check if style has ancestor with basedOn
         value = getValueFromStyleId( element, stylesDocument, getBasisStyleID( style ), defaultValue );
         value = value != null ? value : defaultValue;
-        updateValueCache( stylesDocument, key, value );
+        updateValueCache( stylesDocument, styleId, slot, key, value );
         return value;
     }
 
-    private void updateValueCache( XWPFStylesDocument stylesDocument, String key, Object value )
+    private void updateValueCache( XWPFStylesDocument stylesDocument, String styleId, int slot, String key,
+                                   Object value )
     {
         if ( value != null )
         {
             // Value is computed, cache it and return it.
+            setCachedValue( stylesDocument, styleId, slot, key, value );
+        }
+        else
+        {
+            setCachedValue( stylesDocument, styleId, slot, key, XWPFStylesDocument.EMPTY_VALUE );
+        }
+    }
+
+    private Object getCachedValue( XWPFStylesDocument stylesDocument, String styleId, int slot, String key )
+    {
+        if ( key != null )
+        {
+            return stylesDocument.getValue( key );
+        }
+        return stylesDocument.getStyleValue( ordinal, styleId, slot );
+    }
+
+    private void setCachedValue( XWPFStylesDocument stylesDocument, String styleId, int slot, String key, Object value )
+    {
+        if ( key != null )
+        {
             stylesDocument.setValue( key, value );
         }
         else
         {
-            stylesDocument.setValue( key, XWPFStylesDocument.EMPTY_VALUE );
+            stylesDocument.setStyleValue( ordinal, styleId, slot, value );
+        }
+    }
+
+    /**
+     * Returns the String key of the cached value when the provider overrides {@link #getKey} or
+     * {@link #getKeyBuffer}, and null when the value is cached with the provider ordinal.
+     */
+    @SuppressWarnings( "deprecation" )
+    private String getLegacyKey( XWPFElement element, XWPFStylesDocument stylesDocument, String styleId,
+                                 org.openxmlformats.schemas.wordprocessingml.x2006.main.STTblStyleOverrideType.Enum type )
+    {
+        return keyOverridden ? getKey( element, stylesDocument, styleId, type ) : null;
+    }
+
+    private static boolean isKeyOverridden( Class<?> clazz )
+    {
+        for ( Class<?> current = clazz; current != AbstractValueProvider.class; current = current.getSuperclass() )
+        {
+            for ( Method method : current.getDeclaredMethods() )
+            {
+                if ( ( "getKey".equals( method.getName() ) || "getKeyBuffer".equals( method.getName() ) )
+                    && method.getParameterTypes().length == 4 )
+                {
+                    return true;
+                }
+            }
         }
+        return false;
     }
 
+    /**
+     * Returns the slot of the cached value in the styles values cache for the given table style override type (null
+     * if the value doesn't come from a table style override) or -1 if the value must not be cached.
+     */
+    private int getSlot( XWPFElement element,
+                         org.openxmlformats.schemas.wordprocessingml.x2006.main.STTblStyleOverrideType.Enum type )
+    {
+        int slot = ( type != null ? type.intValue() : 0 ) * 2 + getKeyVariant( element );
+        return slot < XWPFStylesDocument.STYLE_VALUE_SLOTS ? slot : -1;
+    }
+
+    /**
+     * Returns 0 or 1 when the value computed for the element from a given style differs with the context of the
+     * element (ex : paragraph in a table cell).
+     */
+    protected int getKeyVariant( XWPFElement element )
+    {
+        return 0;
+    }
+
+    /**
+     * @deprecated override {@link #getKeyVariant(Object)} to cache different values according the context of the
+     *             element. When this method is overridden, the values of the provider are still cached with the
+     *             returned key, but without the array-indexed cache of {@link XWPFStylesDocument}.
+     */
+    @Deprecated
     protected String getKey( XWPFElement element, XWPFStylesDocument stylesDocument, String styleId,
                              org.openxmlformats.schemas.wordprocessingml.x2006.main.STTblStyleOverrideType.Enum type )
     {
         return getKeyBuffer( element, stylesDocument, styleId, type ).toString();
     }
 
+    /**
+     * @deprecated override {@link #getKeyVariant(Object)} to cache different values according the context of the
+     *             element. When this method is overridden, the values of the provider are still cached with the
+     *             returned key, but without the array-indexed cache of {@link XWPFStylesDocument}.
+     */
+    @Deprecated
     protected StringBuilder getKeyBuffer( XWPFElement element,
                                           XWPFStylesDocument stylesDocument,
                                           String styleId,
@@ -0,0 +1,348 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.poi.xwpf.converter.core.styles;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openxmlformats.schemas.drawingml.x2006.main.ThemeDocument;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTFont;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTSettings;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTString;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTStyle;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTStyles;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTTblStylePr;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.FontsDocument;
+
+import fr.opensagres.poi.xwpf.converter.core.utils.StringUtils;
+
+/**
+ * Resolved style tables of a docx (style-id index, default styles, table style overrides, fonts alt names). Instances
+ * are never modified once built. The XmlBeans objects (styles, themes, settings) belong to one
+ * {@link XWPFStylesDocument}, only the {@link SharedTables} (plain Java values extracted from the styles and fonts) are
+ * shared with other documents of the same content by the {@link XWPFStylesDataCache}.
+ */
+public class XWPFStylesData
+{
+
+    private final CTStyles styles;
+
+    private final List<CTStyle> styleList;
+
+    private final SharedTables tables;
+
+    private final List<ThemeDocument> themeDocuments;
+
+    private final CTSettings ctSettings;
+
+    public XWPFStylesData( CTStyles styles, List<FontsDocument> fontsDocuments, List<ThemeDocument> themeDocuments,
+                           CTSettings ctSettings )
+    {
+        this.styles = styles;
+        this.styleList = getStyleList( styles );
+        this.tables = new SharedTables( styleList, fontsDocuments );
+        this.themeDocuments = themeDocuments;
+        this.ctSettings = ctSettings;
+    }
+
+    /**
+     * Create the style tables of a document with the given shared tables which were extracted from a document with the
+     * same styles and fonts. The fonts don't need to be parsed since only their alt names are used.
+     */
+    XWPFStylesData( SharedTables tables, CTStyles styles, List<ThemeDocument> themeDocuments, CTSettings ctSettings )
+    {
+        this.styles = styles;
+        this.styleList = getStyleList( styles );
+        this.tables = tables;
+        this.themeDocuments = themeDocuments;
+        this.ctSettings = ctSettings;
+    }
+
+    private static List<CTStyle> getStyleList( CTStyles styles )
+    {
+        // copy the XmlBeans list to access to the styles by index without searching them in the XML store
+        return styles != null ? new ArrayList<CTStyle>( styles.getStyleList() ) : Collections.<CTStyle> emptyList();
+    }
+
+    /**
+     * Returns the tables of this instance to share with the documents of the same content.
+     */
+    public SharedTables getSharedTables()
+    {
+        return tables;
+    }
+
+    /**
+     * Returns true if the given shared tables can be used with the given styles (checks the number of styles, in case
+     * of hash collision).
+     */
+    static boolean isCompatible( SharedTables tables, CTStyles styles )
+    {
+        int styleCount = styles != null ? styles.sizeOfStyleArray() : 0;
+        return tables.defaultStyles.length == styleCount;
+    }
+
+    public CTStyles getStyles()
+    {
+        return styles;
+    }
+
+    /**
+     * Returns the styles in the order of the styles.xml.
+     */
+    public List<CTStyle> getStyleList()
+    {
+        return styleList;
+    }
+
+    /**
+     * Returns true if the style at the given index of {@link #getStyleList()} is declared as default.
+     */
+    public boolean isDefaultStyle( int index )
+    {
+        return tables.defaultStyles[index];
+    }
+
+    public CTStyle getStyle( String styleId )
+    {
+        int index = getStyleIndex( styleId );
+        return index != -1 ? styleList.get( index ) : null;
+    }
+
+    /**
+     * Returns the index of the given style id in {@link #getStyleList()} and -1 if the style doesn't exist.
+     */
+    public int getStyleIndex( String styleId )
+    {
+        Integer index = tables.styleIndexes.get( styleId );
+        return index != null ? index : -1;
+    }
+
+    public int getStyleCount()
+    {
+        return styleList.size();
+    }
+
+    public CTTblStylePr getTableStyle( String tableStyleID,
+                                       org.openxmlformats.schemas.wordprocessingml.x2006.main.STTblStyleOverrideType.Enum type )
+    {
+        Integer styleIndex = tables.tableStyleIndexes.get( tableStyleID );
+        if ( styleIndex == null )
+        {
+            return null;
+        }
+        Integer overrideIndex = tables.tableStyleOverrideIndexes.get( tableStyleID ).get( type.intValue() );
+        if ( overrideIndex == null )
+        {
+            return null;
+        }
+        return styleList.get( styleIndex ).getTblStylePrArray( overrideIndex );
+    }
+
+    public CTStyle getDefaultParagraphStyle()
+    {
+        return getStyle( tables.defaultParagraphStyleIndex );
+    }
+
+    public CTStyle getDefaultTableStyle()
+    {
+        return getStyle( tables.defaultTableStyleIndex );
+    }
+
+    public CTStyle getDefaultCharacterStyle()
+    {
+        return getStyle( tables.defaultCharacterStyleIndex );
+    }
+
+    public CTStyle getDefaultNumberingStyle()
+    {
+        return getStyle( tables.defaultNumberingStyleIndex );
+    }
+
+    private CTStyle getStyle( int index )
+    {
+        return index != -1 ? styleList.get( index ) : null;
+    }
+
+    public List<String> getFontsAltName( String fontName )
+    {
+        return tables.fontsAltName.get( fontName );
+    }
+
+    public List<ThemeDocument> getThemeDocuments()
+    {
+        return themeDocuments;
+    }
+
+    public CTSettings getCTSettings()
+    {
+        return ctSettings;
+    }
+
+    /**
+     * Style tables which can be shared by the documents of the same content and by several threads: the indexes of the
+     * styles and the fonts alt names are plain Java objects which are never modified once built.
+     */
+    public static class SharedTables
+    {
+
+        private final boolean[] defaultStyles;
+
+        private final Map<String, Integer> styleIndexes;
+
+        /**
+         * Index of the style which declares the table style overrides (firstRow, lastCol...) of a style id.
+         */
+        private final Map<String, Integer> tableStyleIndexes;
+
+        /**
+         * Index of the override in the table style overrides of the style, by override type.
+         */
+        private final Map<String, Map<Integer, Integer>> tableStyleOverrideIndexes;
+
+        private final Map<String, List<String>> fontsAltName;
+
+        private int defaultParagraphStyleIndex = -1;
+
+        private int defaultTableStyleIndex = -1;
+
+        private int defaultCharacterStyleIndex = -1;
+
+        private int defaultNumberingStyleIndex = -1;
+
+        private SharedTables( List<CTStyle> styleList, List<FontsDocument> fontsDocuments )
+        {
+            this.defaultStyles = new boolean[styleList.size()];
+            this.styleIndexes = new HashMap<String, Integer>();
+            this.tableStyleIndexes = new HashMap<String, Integer>();
+            this.tableStyleOverrideIndexes = new HashMap<String, Map<Integer, Integer>>();
+            this.fontsAltName = computeFontsAltName( fontsDocuments );
+            computeStyles( styleList );
+        }
+
+        private void computeStyles( List<CTStyle> styleList )
+        {
+            int i = 0;
+            for ( CTStyle style : styleList )
+            {
+                org.openxmlformats.schemas.wordprocessingml.x2006.main.STOnOff.Enum isDefault = style.getDefault();
+                org.openxmlformats.schemas.wordprocessingml.x2006.main.STStyleType.Enum type = style.getType();
+
+                boolean isDefaultStyle =
+                    ( isDefault != null && isDefault.intValue() == org.openxmlformats.schemas.wordprocessingml.x2006.main.STOnOff.INT_X_1 );
+                if ( isDefaultStyle )
+                {
+                    // default
+                    if ( type != null )
+                    {
+                        switch ( type.intValue() )
+                        {
+                            case org.openxmlformats.schemas.wordprocessingml.x2006.main.STStyleType.INT_CHARACTER:
+                                defaultCharacterStyleIndex = i;
+                                break;
+                            case org.openxmlformats.schemas.wordprocessingml.x2006.main.STStyleType.INT_NUMBERING:
+                                defaultNumberingStyleIndex = i;
+                                break;
+                            case org.openxmlformats.schemas.wordprocessingml.x2006.main.STStyleType.INT_PARAGRAPH:
+                                defaultParagraphStyleIndex = i;
+                                break;
+                            case org.openxmlformats.schemas.wordprocessingml.x2006.main.STStyleType.INT_TABLE:
+                                defaultTableStyleIndex = i;
+                                break;
+                        }
+                    }
+                }
+                defaultStyles[i] = isDefaultStyle;
+                styleIndexes.put( style.getStyleId(), i );
+
+                // table style overrides (firstRow, lastCol...), the first declared override wins.
+                List<CTTblStylePr> tblStylePrs = style.getTblStylePrList();
+                if ( !tblStylePrs.isEmpty() )
+                {
+                    Map<Integer, Integer> overrideIndexes = new HashMap<Integer, Integer>();
+                    for ( int j = 0; j < tblStylePrs.size(); j++ )
+                    {
+                        CTTblStylePr tblStylePr = tblStylePrs.get( j );
+                        if ( tblStylePr.getType() != null )
+                        {
+                            Integer overrideType = tblStylePr.getType().intValue();
+                            if ( !overrideIndexes.containsKey( overrideType ) )
+                            {
+                                overrideIndexes.put( overrideType, j );
+                            }
+                        }
+                    }
+                    tableStyleIndexes.put( style.getStyleId(), i );
+                    tableStyleOverrideIndexes.put( style.getStyleId(), overrideIndexes );
+                }
+                i++;
+            }
+        }
+
+        private static Map<String, List<String>> computeFontsAltName( List<FontsDocument> fontsDocuments )
+        {
+            Map<String, List<String>> fontsAltName = new HashMap<String, List<String>>();
+            if ( fontsDocuments == null )
+            {
+                return fontsAltName;
+            }
+            // Compute fonts alt name
+            // see spec 17.8.3.1 altName (Alternate Names for Font)
+            for ( FontsDocument fontsDocument : fontsDocuments )
+            {
+                CTString altName = null;
+                List<CTFont> fonts = fontsDocument.getFonts().getFontList();
+                for ( CTFont font : fonts )
+                {
+                    altName = font.getAltName();
+                    if ( altName != null && StringUtils.isNotEmpty( altName.getVal() ) )
+                    {
+                        List<String> altNames = new ArrayList<String>();
+                        // This element specifies a set of alternative names which can be used to locate the font
+                        // specified by the parent
+                        // element. This set of alternative names is stored in a comma-delimited list, with all
+                        // adjacent commas ignored (i.e.
+                        // a value of Name A, Name B is equivalent to Name A,,,,,,,,, Name B).
+                        String[] names = altName.getVal().split( "," );
+                        String name = null;
+                        for ( int i = 0; i < names.length; i++ )
+                        {
+                            name = names[i];
+                            if ( StringUtils.isNotEmpty( name ) )
+                            {
+                                altNames.add( name );
+                            }
+                        }
+                        fontsAltName.put( font.getName(), Collections.unmodifiableList( altNames ) );
+                    }
+                }
+            }
+            return fontsAltName;
+        }
+    }
+}
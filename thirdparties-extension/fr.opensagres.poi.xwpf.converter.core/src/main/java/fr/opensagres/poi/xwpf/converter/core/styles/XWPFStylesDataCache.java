@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.poi.xwpf.converter.core.styles;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of the {@link XWPFStylesData.SharedTables} keyed by the content hash of the styles and fonts parts. When a
+ * docx is generated several times from the same template, those parts don't change and the style tables are resolved
+ * only once. Only plain Java values are cached: the XmlBeans objects of a docx are never shared with the conversion of
+ * another docx. The least recently used entry is evicted when the cache is full. Setting max entries to 0 disables the
+ * cache.
+ * <p>
+ * The cache is not used by default : set it with
+ * {@link fr.opensagres.poi.xwpf.converter.core.Options#setStylesDataCache(XWPFStylesDataCache)} only to convert
+ * documents loaded from a package and not modified in memory, because the hash is computed from the parts of the
+ * package.
+ */
+public class XWPFStylesDataCache
+{
+
+    public static final int DEFAULT_MAX_ENTRIES = 16;
+
+    private final Map<String, XWPFStylesData.SharedTables> cache;
+
+    private volatile int maxEntries;
+
+    public XWPFStylesDataCache()
+    {
+        this( DEFAULT_MAX_ENTRIES );
+    }
+
+    public XWPFStylesDataCache( int maxEntries )
+    {
+        this.maxEntries = maxEntries;
+        this.cache = new LinkedHashMap<String, XWPFStylesData.SharedTables>( 16, 0.75f, true )
+        {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry( Map.Entry<String, XWPFStylesData.SharedTables> eldest )
+            {
+                return size() > XWPFStylesDataCache.this.maxEntries;
+            }
+        };
+    }
+
+    public boolean isEnabled()
+    {
+        return maxEntries > 0;
+    }
+
+    public synchronized XWPFStylesData.SharedTables get( String contentHash )
+    {
+        return cache.get( contentHash );
+    }
+
+    public synchronized void put( String contentHash, XWPFStylesData.SharedTables tables )
+    {
+        if ( isEnabled() )
+        {
+            cache.put( contentHash, tables );
+        }
+    }
+
+    public synchronized int size()
+    {
+        return cache.size();
+    }
+
+    public synchronized void clear()
+    {
+        cache.clear();
+    }
+
+    public int getMaxEntries()
+    {
+        return maxEntries;
+    }
+
+    public synchronized void setMaxEntries( int maxEntries )
+    {
+        this.maxEntries = maxEntries;
+        if ( cache.size() > maxEntries )
+        {
+            cache.clear();
+        }
+    }
+}
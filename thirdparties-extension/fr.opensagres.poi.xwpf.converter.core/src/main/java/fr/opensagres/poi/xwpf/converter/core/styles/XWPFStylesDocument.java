@@ -29,13 +29,19 @@ import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.ZipEntry;
 
 import org.apache.poi.ooxml.POIXMLDocumentPart;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.ZipPackagePart;
 import org.apache.poi.xwpf.usermodel.ParagraphAlignment;
 import org.apache.poi.xwpf.usermodel.UnderlinePatterns;
 import org.apache.poi.xwpf.usermodel.VerticalAlign;
@@ -51,7 +57,6 @@ import org.apache.xmlbeans.XmlException;
 import org.openxmlformats.schemas.drawingml.x2006.main.ThemeDocument;
 import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTBorder;
 import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTDocDefaults;
-import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTFont;
 import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTNumPr;
 import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTP;
 import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTPPr;
@@ -149,41 +154,36 @@ import fr.opensagres.poi.xwpf.converter.core.styles.table.row.TableRowMarginLeft
 import fr.opensagres.poi.xwpf.converter.core.styles.table.row.TableRowMarginRightValueProvider;
 import fr.opensagres.poi.xwpf.converter.core.styles.table.row.TableRowMarginTopValueProvider;
 import fr.opensagres.poi.xwpf.converter.core.utils.DxaUtil;
-import fr.opensagres.poi.xwpf.converter.core.utils.StringUtils;
 
 public class XWPFStylesDocument
 {
 
     public static final Object EMPTY_VALUE = new Object();
 
-    private static final float DEFAULT_TAB_STOP_POINT = DxaUtil.dxa2points( 720f );
-
-    private final Map<String, CTStyle> stylesByStyleId;
+    /**
+     * Number of cached values per value provider and style: table style override type (0 when the value doesn't come
+     * from a table style override) x key variant (0 or 1, see {@link AbstractValueProvider#getKeyVariant(Object)}).
+     */
+    public static final int STYLE_VALUE_SLOTS = 32;
 
-    private CTStyle defaultParagraphStyle;
+    private static final float DEFAULT_TAB_STOP_POINT = DxaUtil.dxa2points( 720f );
 
-    private CTStyle defaultTableStyle;
+    private final XWPFStylesData stylesData;
 
     private final Map<String, Object> values;
 
-    private CTStyle defaultCharacterStyle;
-
-    private CTStyle defaultNumberingStyle;
+    /**
+     * Values computed by the {@link AbstractValueProvider} indexed by provider ordinal, style index (the last index is
+     * used for the default value) and slot. Arrays are created on demand so lookups don't allocate anything.
+     */
+    private Object[][][] styleValues;
 
     private Map<XWPFTable, TableInfo> tableInfos;
 
     private Float defaultTabStop;
 
-    private CTSettings ctSettings;
-
-    private List<ThemeDocument> themeDocuments;
-
-    private final Map<String, List<String>> fontsAltName;
-
     private final Map<String, String> fontsToUse;
 
-    private CTStyles styles;
-
     public XWPFStylesDocument( XWPFDocument document )
         throws XmlException, IOException
     {
@@ -193,8 +193,21 @@ public class XWPFStylesDocument
     public XWPFStylesDocument( XWPFDocument document, boolean lazyInitialization )
         throws XmlException, IOException
     {
-        this( document.getStyle(), getFontsDocument( document ), getThemeDocuments( document ),
-              getCTSettings( document ), lazyInitialization );
+        this( createStylesData( document ), lazyInitialization );
+    }
+
+    /**
+     * Create a styles document of the given docx which takes the resolved style tables from the given cache when a
+     * docx with the same styles and fonts parts was already resolved. The docx must not be modified in memory (see
+     * {@link XWPFStylesDataCache}).
+     * 
+     * @param document the docx loaded from a package.
+     * @param cache the cache or null to resolve the style tables of the docx.
+     */
+    public XWPFStylesDocument( XWPFDocument document, XWPFStylesDataCache cache )
+        throws XmlException, IOException
+    {
+        this( getStylesData( document, cache ), true );
     }
 
     public XWPFStylesDocument( IOpenXMLFormatsPartProvider provider )
@@ -214,92 +227,62 @@ public class XWPFStylesDocument
                                CTSettings ctSettings, boolean lazyInitialization )
         throws XmlException, IOException
     {
-        this.styles = styles;
-        this.stylesByStyleId = new HashMap<String, CTStyle>();
+        this( new XWPFStylesData( styles, fontsDocuments, themeDocuments, ctSettings ), lazyInitialization );
+    }
+
+    /**
+     * Create a styles document which uses the given resolved style tables. The values cache is owned by this instance.
+     */
+    public XWPFStylesDocument( XWPFStylesData stylesData, boolean lazyInitialization )
+        throws XmlException, IOException
+    {
+        this.stylesData = stylesData;
         this.values = new HashMap<String, Object>();
-        this.fontsAltName = updateFonts( fontsDocuments );
         this.fontsToUse = new HashMap<String, String>();
-        this.themeDocuments = themeDocuments;
-        this.ctSettings = ctSettings;
         if ( lazyInitialization )
         {
             initialize();
         }
     }
 
-    private Map<String, List<String>> updateFonts( List<FontsDocument> fontsDocuments )
+    /**
+     * Returns the resolved style tables of the given docx. They are created with the tables of the given cache when the
+     * styles and fonts parts were already resolved for a docx with the same content (ex: docx generated from the same
+     * template): the styles, themes and settings of the docx are used, only the fonts are not parsed.
+     */
+    private static XWPFStylesData getStylesData( XWPFDocument document, XWPFStylesDataCache cache )
+        throws XmlException, IOException
     {
-        Map<String, List<String>> fontsAltName = new HashMap<String, List<String>>();
-        // Compute fonts alt name
-        // see spec 17.8.3.1 altName (Alternate Names for Font)
-        for ( FontsDocument fontsDocument : fontsDocuments )
+        String contentHash = cache != null && cache.isEnabled() ? getContentHash( document ) : null;
+        if ( contentHash == null )
         {
-            CTString altName = null;
-            List<CTFont> fonts = fontsDocument.getFonts().getFontList();
-            for ( CTFont font : fonts )
-            {
-                altName = font.getAltName();
-                if ( altName != null && StringUtils.isNotEmpty( altName.getVal() ) )
-                {
-                    List<String> altNames = new ArrayList<String>();
-                    // This element specifies a set of alternative names which can be used to locate the font
-                    // specified by the parent
-                    // element. This set of alternative names is stored in a comma-delimited list, with all
-                    // adjacent commas ignored (i.e.
-                    // a value of Name A, Name B is equivalent to Name A,,,,,,,,, Name B).
-                    String[] names = altName.getVal().split( "," );
-                    String name = null;
-                    for ( int i = 0; i < names.length; i++ )
-                    {
-                        name = names[i];
-                        if ( StringUtils.isNotEmpty( name ) )
-                        {
-                            altNames.add( name );
-                        }
-                    }
-                    fontsAltName.put( font.getName(), altNames );
-                }
-            }
+            return createStylesData( document );
+        }
+        XWPFStylesData.SharedTables tables = cache.get( contentHash );
+        CTStyles styles = document.getStyle();
+        if ( tables != null && XWPFStylesData.isCompatible( tables, styles ) )
+        {
+            return new XWPFStylesData( tables, styles, getThemeDocuments( document ), getCTSettings( document ) );
         }
-        return fontsAltName;
+        XWPFStylesData stylesData = createStylesData( document );
+        cache.put( contentHash, stylesData.getSharedTables() );
+        return stylesData;
+    }
+
+    private static XWPFStylesData createStylesData( XWPFDocument document )
+        throws XmlException, IOException
+    {
+        return new XWPFStylesData( document.getStyle(), getFontsDocument( document ), getThemeDocuments( document ),
+                                   getCTSettings( document ) );
     }
 
     protected void initialize()
         throws XmlException, IOException
     {
-        List<CTStyle> s = styles.getStyleList();
-        for ( CTStyle style : s )
+        List<CTStyle> s = stylesData.getStyleList();
+        for ( int i = 0; i < s.size(); i++ )
         {
-            org.openxmlformats.schemas.wordprocessingml.x2006.main.STOnOff.Enum isDefault = style.getDefault();
-            org.openxmlformats.schemas.wordprocessingml.x2006.main.STStyleType.Enum type = style.getType();
-
-            boolean isDefaultStyle =
-                ( isDefault != null && isDefault.intValue() == org.openxmlformats.schemas.wordprocessingml.x2006.main.STOnOff.INT_X_1 );
-            if ( isDefaultStyle )
-            {
-                // default
-                if ( type != null )
-                {
-                    switch ( type.intValue() )
-                    {
-                        case org.openxmlformats.schemas.wordprocessingml.x2006.main.STStyleType.INT_CHARACTER:
-                            defaultCharacterStyle = style;
-                            break;
-                        case org.openxmlformats.schemas.wordprocessingml.x2006.main.STStyleType.INT_NUMBERING:
-                            defaultNumberingStyle = style;
-                            break;
-                        case org.openxmlformats.schemas.wordprocessingml.x2006.main.STStyleType.INT_PARAGRAPH:
-                            defaultParagraphStyle = style;
-                            break;
-                        case org.openxmlformats.schemas.wordprocessingml.x2006.main.STStyleType.INT_TABLE:
-                            defaultTableStyle = style;
-                            break;
-                    }
-                }
-
-            }
-            visitStyle( style, isDefaultStyle );
-            stylesByStyleId.put( style.getStyleId(), style );
+            visitStyle( s.get( i ), stylesData.isDefaultStyle( i ) );
         }
     }
 
@@ -308,21 +291,26 @@ public class XWPFStylesDocument
 
     }
 
+    public XWPFStylesData getStylesData()
+    {
+        return stylesData;
+    }
+
     public CTStyle getDefaultParagraphStyle()
     {
-        return defaultParagraphStyle;
+        return stylesData.getDefaultParagraphStyle();
     }
 
     public CTStyle getStyle( String styleId )
     {
-        return stylesByStyleId.get( styleId );
+        return stylesData.getStyle( styleId );
     }
 
     public CTDocDefaults getDocDefaults()
     {
         try
         {
-            return styles.getDocDefaults();
+            return stylesData.getStyles().getDocDefaults();
         }
         catch ( Exception e )
         {
@@ -1321,17 +1309,17 @@ public class XWPFStylesDocument
 
     public CTStyle getDefaultCharacterStyle()
     {
-        return defaultCharacterStyle;
+        return stylesData.getDefaultCharacterStyle();
     }
 
     public CTStyle getDefaultNumberingStyle()
     {
-        return defaultNumberingStyle;
+        return stylesData.getDefaultNumberingStyle();
     }
 
     public CTStyle getDefaultTableStyle()
     {
-        return defaultTableStyle;
+        return stylesData.getDefaultTableStyle();
     }
 
     public CTStyle getStyle( CTString basedOn )
@@ -1353,6 +1341,65 @@ public class XWPFStylesDocument
         values.put( key, value );
     }
 
+    /**
+     * Returns the cached value computed by the provider with the given ordinal for the given style id (null for the
+     * default value) and slot, or null if the value is not computed.
+     */
+    public Object getStyleValue( int providerOrdinal, String styleId, int slot )
+    {
+        Object[] slots = getStyleValueSlots( providerOrdinal, styleId, slot, false );
+        return slots != null ? slots[slot] : null;
+    }
+
+    public void setStyleValue( int providerOrdinal, String styleId, int slot, Object value )
+    {
+        Object[] slots = getStyleValueSlots( providerOrdinal, styleId, slot, true );
+        if ( slots != null )
+        {
+            slots[slot] = value;
+        }
+    }
+
+    private Object[] getStyleValueSlots( int providerOrdinal, String styleId, int slot, boolean create )
+    {
+        if ( slot < 0 )
+        {
+            return null;
+        }
+        int styleIndex = styleId != null ? stylesData.getStyleIndex( styleId ) : stylesData.getStyleCount();
+        if ( styleIndex < 0 )
+        {
+            // unknown style, the value is not cached.
+            return null;
+        }
+        if ( styleValues == null || providerOrdinal >= styleValues.length )
+        {
+            if ( !create )
+            {
+                return null;
+            }
+            int length = Math.max( providerOrdinal + 1, styleValues == null ? 64 : styleValues.length * 2 );
+            styleValues = styleValues == null ? new Object[length][][] : Arrays.copyOf( styleValues, length );
+        }
+        Object[][] valuesByStyle = styleValues[providerOrdinal];
+        if ( valuesByStyle == null )
+        {
+            if ( !create )
+            {
+                return null;
+            }
+            valuesByStyle = new Object[stylesData.getStyleCount() + 1][];
+            styleValues[providerOrdinal] = valuesByStyle;
+        }
+        Object[] slots = valuesByStyle[styleIndex];
+        if ( slots == null && create )
+        {
+            slots = new Object[STYLE_VALUE_SLOTS];
+            valuesByStyle[styleIndex] = slots;
+        }
+        return slots;
+    }
+
     public TableCellInfo getTableCellInfo( XWPFTableCell cell )
     {
         XWPFTable table = cell.getTableRow().getTable();
@@ -1377,21 +1424,7 @@ public class XWPFStylesDocument
     public CTTblStylePr getTableStyle( String tableStyleID,
                                        org.openxmlformats.schemas.wordprocessingml.x2006.main.STTblStyleOverrideType.Enum type )
     {
-        CTStyle style = getStyle( tableStyleID );
-        if ( style == null )
-        {
-            return null;
-        }
-        // TODO cache it
-        List<CTTblStylePr> tblStylePrs = style.getTblStylePrList();
-        for ( CTTblStylePr tblStylePr : tblStylePrs )
-        {
-            if ( type.equals( tblStylePr.getType() ) )
-            {
-                return tblStylePr;
-            }
-        }
-        return null;
+        return stylesData.getTableStyle( tableStyleID, type );
     }
 
     /**
@@ -1430,7 +1463,7 @@ public class XWPFStylesDocument
 
     public CTSettings getCTSettings()
     {
-        return ctSettings;
+        return stylesData.getCTSettings();
     }
 
     private static CTSettings getCTSettings( XWPFDocument document )
@@ -1536,6 +1569,89 @@ public class XWPFStylesDocument
 		}
     }
 
+    private static class ContentDigestVisitor extends DocumentVisitor {
+
+		private final MessageDigest digest;
+
+		private IOException error;
+
+		ContentDigestVisitor(MessageDigest digest) {
+			this.digest = digest;
+		}
+
+		@Override
+		protected boolean acceptRelationshipType(String relationshipType) {
+			return XWPFRelation.STYLES.getRelation().equals(relationshipType)
+					|| XWPFRelation.FONT_TABLE.getRelation().equals(relationshipType);
+		}
+
+		@Override
+		protected boolean visitDocumentPart(String relationshipType, POIXMLDocumentPart p) {
+			try {
+				digest.update(relationshipType.getBytes("UTF-8"));
+				PackagePart part = p.getPackagePart();
+				if (part instanceof ZipPackagePart) {
+					// the part was not modified since it was loaded from the zip, use the CRC of the zip entry
+					// instead of reading the part.
+					ZipEntry entry = ((ZipPackagePart) part).getZipArchive();
+					if (entry != null && entry.getCrc() != -1 && entry.getSize() != -1) {
+						digest.update((entry.getSize() + ":" + entry.getCrc()).getBytes("UTF-8"));
+						return false;
+					}
+				}
+				InputStream inputStream = part.getInputStream();
+				try {
+					byte[] buffer = new byte[4096];
+					int n;
+					while ((n = inputStream.read(buffer)) != -1) {
+						digest.update(buffer, 0, n);
+					}
+				} finally {
+					inputStream.close();
+				}
+			} catch (IOException e) {
+				error = e;
+				return true;
+			}
+			return false;
+		}
+
+		IOException getError() {
+			return error;
+		}
+    }
+
+    /**
+     * Returns the SHA-1 of the styles and fonts parts of the given docx (of the size and CRC of their zip entries when
+     * they are known) or null if it cannot be computed.
+     */
+    private static String getContentHash( XWPFDocument document )
+    {
+        MessageDigest digest;
+        try
+        {
+            digest = MessageDigest.getInstance( "SHA-1" );
+        }
+        catch ( NoSuchAlgorithmException e )
+        {
+            return null;
+        }
+        ContentDigestVisitor visitor = new ContentDigestVisitor( digest );
+        visitor.visitDocument( document );
+        if ( visitor.getError() != null )
+        {
+            return null;
+        }
+        byte[] hash = digest.digest();
+        StringBuilder contentHash = new StringBuilder( hash.length * 2 );
+        for ( int i = 0; i < hash.length; i++ )
+        {
+            contentHash.append( Character.forDigit( ( hash[i] >> 4 ) & 0xF, 16 ) );
+            contentHash.append( Character.forDigit( hash[i] & 0xF, 16 ) );
+        }
+        return contentHash.toString();
+    }
+
     private static XWPFSettings getSettings( XWPFDocument document )
     {
     	final SettingsDocumentVisitor visitor = new SettingsDocumentVisitor();
@@ -1545,7 +1661,7 @@ public class XWPFStylesDocument
 
     public List<ThemeDocument> getThemeDocuments()
     {
-        return themeDocuments;
+        return stylesData.getThemeDocuments();
     }
 
     private static class ThemeDocumentVisitor extends DocumentVisitor {
@@ -1622,7 +1738,7 @@ public class XWPFStylesDocument
     public List<String> getFontsAltName( String fontName )
         throws Exception
     {
-        return fontsAltName.get( fontName );
+        return stylesData.getFontsAltName( fontName );
     }
 
     public String getFontNameToUse( String fontName )
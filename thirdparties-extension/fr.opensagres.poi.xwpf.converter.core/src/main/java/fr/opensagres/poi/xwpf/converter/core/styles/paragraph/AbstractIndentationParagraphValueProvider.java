@@ -28,9 +28,6 @@ import org.apache.poi.xwpf.usermodel.BodyType;
 import org.apache.poi.xwpf.usermodel.XWPFParagraph;
 import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTInd;
 import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTPPr;
-import org.openxmlformats.schemas.wordprocessingml.x2006.main.STTblStyleOverrideType.Enum;
-
-import fr.opensagres.poi.xwpf.converter.core.styles.XWPFStylesDocument;
 
 public abstract class AbstractIndentationParagraphValueProvider<Value>
     extends AbstractParagraphValueProvider<Value>
@@ -56,14 +53,13 @@ public abstract class AbstractIndentationParagraphValueProvider<Value>
     }
 
     @Override
-    protected StringBuilder getKeyBuffer( XWPFParagraph element, XWPFStylesDocument stylesDocument, String styleId,
-                                          Enum type )
+    protected int getKeyVariant( XWPFParagraph element )
     {
         if ( element.getPartType() == BodyType.TABLECELL )
         {
-            return super.getKeyBuffer( element, stylesDocument, styleId, type ).append( "_cell" );
+            return 1;
         }
-        return super.getKeyBuffer( element, stylesDocument, styleId, type );
+        return 0;
     }
 
     public abstract Value getValue( CTInd ind );
@@ -29,9 +29,6 @@ import org.apache.poi.xwpf.usermodel.XWPFParagraph;
 import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTDocDefaults;
 import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTPPr;
 import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTSpacing;
-import org.openxmlformats.schemas.wordprocessingml.x2006.main.STTblStyleOverrideType.Enum;
-
-import fr.opensagres.poi.xwpf.converter.core.styles.XWPFStylesDocument;
 
 public abstract class AbstractSpacingParagraphValueProvider<Value>
     extends AbstractParagraphValueProvider<Value>
@@ -58,14 +55,13 @@ public abstract class AbstractSpacingParagraphValueProvider<Value>
     }
 
     @Override
-    protected StringBuilder getKeyBuffer( XWPFParagraph element, XWPFStylesDocument stylesDocument, String styleId,
-                                          Enum type )
+    protected int getKeyVariant( XWPFParagraph element )
     {
         if ( element.getPartType() == BodyType.TABLECELL )
         {
-            return super.getKeyBuffer( element, stylesDocument, styleId, type ).append( "_cell" );
+            return 1;
         }
-        return super.getKeyBuffer( element, stylesDocument, styleId, type );
+        return 0;
     }
     
     protected abstract Value getValue( CTSpacing ind );
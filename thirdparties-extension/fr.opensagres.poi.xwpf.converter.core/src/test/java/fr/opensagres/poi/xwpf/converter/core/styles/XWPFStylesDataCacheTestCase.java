@@ -0,0 +1,116 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.poi.xwpf.converter.core.styles;
+
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import fr.opensagres.poi.xwpf.converter.core.Options;
+
+public class XWPFStylesDataCacheTestCase
+{
+
+    private XWPFStylesDataCache cache;
+
+    @Before
+    public void createCache()
+    {
+        cache = new XWPFStylesDataCache();
+    }
+
+    @Test
+    public void testSameTemplateSharesStyleTables()
+        throws Exception
+    {
+        XWPFDocument document1 = new XWPFDocument( Data.class.getResourceAsStream( "TestFontStylesBasedOn.docx" ) );
+        XWPFDocument document2 = new XWPFDocument( Data.class.getResourceAsStream( "TestFontStylesBasedOn.docx" ) );
+
+        XWPFStylesDocument stylesDocument1 = new XWPFStylesDocument( document1, cache );
+        XWPFStylesDocument stylesDocument2 = new XWPFStylesDocument( document2, cache );
+
+        Assert.assertEquals( 1, cache.size() );
+        Assert.assertSame( stylesDocument1.getStylesData().getSharedTables(),
+                           stylesDocument2.getStylesData().getSharedTables() );
+        // the XmlBeans objects are never shared between documents
+        Assert.assertNotSame( stylesDocument1.getStylesData().getStyles(), stylesDocument2.getStylesData().getStyles() );
+        Assert.assertNotSame( stylesDocument1.getStyle( "Style1" ), stylesDocument2.getStyle( "Style1" ) );
+        Assert.assertEquals( stylesDocument1.getStylesData().getStyleCount(),
+                             stylesDocument2.getStylesData().getStyleCount() );
+
+        // values are resolved for each document with the shared style tables
+        XWPFRun run1 = getFirstRun( document1, "Style1" );
+        XWPFRun run2 = getFirstRun( document2, "Style1" );
+        Assert.assertEquals( stylesDocument1.getFontSize( run1 ), stylesDocument2.getFontSize( run2 ) );
+        Assert.assertEquals( Boolean.TRUE, stylesDocument2.getFontStyleBold( run2 ) );
+    }
+
+    @Test
+    public void testOtherTemplateDoesntShareStyleTables()
+        throws Exception
+    {
+        XWPFDocument document1 = new XWPFDocument( Data.class.getResourceAsStream( "TestFontStylesBasedOn.docx" ) );
+        XWPFDocument document2 = new XWPFDocument( Data.class.getResourceAsStream( "TableBorders.docx" ) );
+
+        new XWPFStylesDocument( document1, cache );
+        new XWPFStylesDocument( document2, cache );
+
+        Assert.assertEquals( 2, cache.size() );
+    }
+
+    @Test
+    public void testCacheDisabled()
+        throws Exception
+    {
+        cache.setMaxEntries( 0 );
+
+        XWPFDocument document = new XWPFDocument( Data.class.getResourceAsStream( "TestFontStylesBasedOn.docx" ) );
+        new XWPFStylesDocument( document, cache );
+
+        Assert.assertEquals( 0, cache.size() );
+    }
+
+    @Test
+    public void testCacheNotUsedByDefault()
+        throws Exception
+    {
+        Assert.assertNull( new Options().getStylesDataCache() );
+    }
+
+    private static XWPFRun getFirstRun( XWPFDocument document, String styleId )
+    {
+        for ( XWPFParagraph paragraph : document.getParagraphs() )
+        {
+            if ( styleId.equals( paragraph.getStyleID() ) )
+            {
+                return paragraph.getRuns().get( 0 );
+            }
+        }
+        return null;
+    }
+}
@@ -51,6 +51,14 @@ public class PdfConverter extends AbstractXWPFConverter<PdfOptions> {
 		try {
 			// PdfMapper mapper = new PdfMapper( document, out, options );
 
+			if (options != null && options.isSinglePass()) {
+				// process content once, the total page count fields are
+				// written when the PDF document is closed.
+				PdfMapper mapper = new PdfMapper(document, out, options, null);
+				mapper.start();
+				return;
+			}
+
 			// process content
 			ByteArrayOutputStream tempOut = new ByteArrayOutputStream();
 			PdfMapper mapper = new PdfMapper(document, tempOut, options, null);
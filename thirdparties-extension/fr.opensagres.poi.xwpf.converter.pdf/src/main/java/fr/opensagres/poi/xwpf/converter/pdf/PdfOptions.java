@@ -28,6 +28,7 @@ import com.lowagie.text.pdf.BaseFont;
 import com.lowagie.text.pdf.PdfWriter;
 
 import fr.opensagres.poi.xwpf.converter.core.Options;
+import fr.opensagres.poi.xwpf.converter.pdf.internal.ResolvedFontCache;
 import fr.opensagres.xdocreport.itext.extension.IPdfWriterConfiguration;
 import fr.opensagres.xdocreport.itext.extension.font.IFontProvider;
 import fr.opensagres.xdocreport.itext.extension.font.ITextFontRegistry;
@@ -47,6 +48,10 @@ public class PdfOptions
 
     private IPdfWriterConfiguration configuration;
 
+    private boolean singlePass;
+
+    private ResolvedFontCache fontCache;
+
     private PdfOptions()
     {
         this.fontEncoding = BaseFont.IDENTITY_H;
@@ -137,4 +142,53 @@ public class PdfOptions
         this.configuration = configuration;
     }
 
+    /**
+     * Set true to write the PDF in one pass when the document contains total page count fields (NUMPAGES). By default,
+     * the document is written a second time with the page count computed by the first pass. In single pass mode, the
+     * total page count is written when the PDF document is closed, in an area which is reserved for 4 digits.
+     * 
+     * @param singlePass true to write the PDF in one pass.
+     * @return this instance
+     */
+    public PdfOptions singlePass( boolean singlePass )
+    {
+        this.singlePass = singlePass;
+        return this;
+    }
+
+    /**
+     * Returns true if the PDF is written in one pass when the document contains total page count fields and false
+     * otherwise.
+     * 
+     * @return
+     */
+    public boolean isSinglePass()
+    {
+        return singlePass;
+    }
+
+    /**
+     * Set the cache of resolved fonts to share between conversions of documents generated from the same template. By
+     * default, a cache is created for each conversion.
+     * 
+     * @param fontCache the cache of resolved fonts to share and null to create a cache for each conversion.
+     * @return this instance
+     */
+    public PdfOptions fontCache( ResolvedFontCache fontCache )
+    {
+        this.fontCache = fontCache;
+        return this;
+    }
+
+    /**
+     * Returns the cache of resolved fonts shared between conversions and null if a cache is created for each
+     * conversion.
+     * 
+     * @return
+     */
+    public ResolvedFontCache getFontCache()
+    {
+        return fontCache;
+    }
+
 }
@@ -118,11 +118,15 @@ public class FastPdfMapper
 
     private VerticalAlign currentRunVerticalAlign = VerticalAlign.BASELINE;
 
+    private final ResolvedFontCache fontCache;
+
     public FastPdfMapper( IOpenXMLFormatsPartProvider provider, OutputStream out, PdfOptions options )
         throws Exception
     {
         super( provider, options != null ? options : PdfOptions.getDefault() );
         this.out = out;
+        this.fontCache =
+            this.options.getFontCache() != null ? this.options.getFontCache() : new ResolvedFontCache();
     }
 
     // ------------------------- Document
@@ -390,6 +394,20 @@ public class FastPdfMapper
 
 	private Font getFont( String fontFamily, Float fontSize, int fontStyle, Color fontColor )
     {
+        Font font = fontCache.getFont( fontFamily, fontSize, fontStyle, fontColor );
+        if ( font == null )
+        {
+            font = resolveFont( fontFamily, fontSize, fontStyle, fontColor );
+            if ( font != null )
+            {
+                fontCache.putFont( fontFamily, fontSize, fontStyle, fontColor, font );
+            }
+        }
+        return font;
+    }
+
+	private Font resolveFont( String fontFamily, Float fontSize, int fontStyle, Color fontColor )
+    {
 
         String fontToUse = stylesDocument.getFontNameToUse( fontFamily );
         if ( StringUtils.isNotEmpty( fontToUse ) )
@@ -149,12 +149,16 @@ public class PdfMapper
 
     private Map<MultiValueTriplet<XWPFPictureData, Long, Long>, Image> imageCache;
 
+    private final ResolvedFontCache fontCache;
+
     public PdfMapper( XWPFDocument document, OutputStream out, PdfOptions options, Integer expectedPageCount )
         throws Exception
     {
         super( document, options != null ? options : PdfOptions.getDefault() );
         this.out = out;
         this.expectedPageCount = expectedPageCount;
+        this.fontCache =
+            this.options.getFontCache() != null ? this.options.getFontCache() : new ResolvedFontCache();
     }
 
     // ------------------------- Document
@@ -601,6 +605,20 @@ public class PdfMapper
     }
 
     private Font getFont( String fontFamily, Float fontSize, int fontStyle, Color fontColor )
+    {
+        Font font = fontCache.getFont( fontFamily, fontSize, fontStyle, fontColor );
+        if ( font == null )
+        {
+            font = resolveFont( fontFamily, fontSize, fontStyle, fontColor );
+            if ( font != null )
+            {
+                fontCache.putFont( fontFamily, fontSize, fontStyle, fontColor, font );
+            }
+        }
+        return font;
+    }
+
+    private Font resolveFont( String fontFamily, Float fontSize, int fontStyle, Color fontColor )
     {
 
         String fontToUse = stylesDocument.getFontNameToUse( fontFamily );
@@ -688,6 +706,10 @@ public class PdfMapper
         {
             textChunk = new Chunk( String.valueOf( expectedPageCount ), currentRunFont );
         }
+        else if ( processingTotalPageCountField && options.isSinglePass() )
+        {
+            textChunk = createTotalPageCountChunk( text, currentRunFont );
+        }
         else
         {
             textChunk =
@@ -735,6 +757,22 @@ public class PdfMapper
         return textChunk;
     }
 
+    /**
+     * Create a chunk for the total page count which is written when the PDF document is closed.
+     */
+    private Chunk createTotalPageCountChunk( String text, Font currentRunFont )
+    {
+        try
+        {
+            return pdfDocument.createTotalPageCountChunk( currentRunFont );
+        }
+        catch ( DocumentException e )
+        {
+            LOGGER.severe( e.getMessage() );
+            return new Chunk( text, currentRunFont );
+        }
+    }
+
     private void createAndAddChunks( IITextContainer parent, String textContent, UnderlinePatterns underlinePatterns,
                                      Color backgroundColor, boolean pageNumber, Font font, Font fontAsian,
                                      Font fontComplex )
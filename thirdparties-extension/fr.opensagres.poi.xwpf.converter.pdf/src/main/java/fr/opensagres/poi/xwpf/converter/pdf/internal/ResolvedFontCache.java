@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.poi.xwpf.converter.pdf.internal;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.lowagie.text.Font;
+
+import fr.opensagres.poi.xwpf.converter.core.Color;
+
+/**
+ * Cache of the iText {@link Font} resolved for a docx font family, size, style and color (with the fonts alt names
+ * fallback). Runs of a document use a few distinct combinations, so the font is resolved once and the same
+ * {@link Font} instance is reused for the next runs. The fonts must not be modified.
+ * <p>
+ * A cache is created for each conversion. It can be shared between conversions of documents generated from the same
+ * template with {@link fr.opensagres.poi.xwpf.converter.pdf.PdfOptions#fontCache(ResolvedFontCache)} when the same
+ * font provider and font encoding are used.
+ * </p>
+ */
+public class ResolvedFontCache
+{
+
+    private final Map<FontKey, Font> fonts;
+
+    // key reused to search a font without creating a key instance.
+    private final FontKey lookupKey;
+
+    public ResolvedFontCache()
+    {
+        this.fonts = new HashMap<FontKey, Font>();
+        this.lookupKey = new FontKey();
+    }
+
+    /**
+     * Returns the cached font and null if the font is not resolved.
+     */
+    public synchronized Font getFont( String fontFamily, float fontSize, int fontStyle, Color fontColor )
+    {
+        lookupKey.update( fontFamily, fontSize, fontStyle, fontColor );
+        return fonts.get( lookupKey );
+    }
+
+    public synchronized void putFont( String fontFamily, float fontSize, int fontStyle, Color fontColor, Font font )
+    {
+        FontKey key = new FontKey();
+        key.update( fontFamily, fontSize, fontStyle, fontColor );
+        fonts.put( key, font );
+    }
+
+    public synchronized int size()
+    {
+        return fonts.size();
+    }
+
+    public synchronized void clear()
+    {
+        fonts.clear();
+    }
+
+    private static class FontKey
+    {
+
+        private String fontFamily;
+
+        private int fontSize;
+
+        private int fontStyle;
+
+        private boolean hasColor;
+
+        private int rgb;
+
+        private int hash;
+
+        void update( String fontFamily, float fontSize, int fontStyle, Color fontColor )
+        {
+            this.fontFamily = fontFamily;
+            this.fontSize = Float.floatToIntBits( fontSize );
+            this.fontStyle = fontStyle;
+            this.hasColor = fontColor != null;
+            // alpha is ignored by java.awt.Color(int)
+            this.rgb = fontColor != null ? fontColor.getRGB() & 0xFFFFFF : 0;
+            int h = fontFamily != null ? fontFamily.hashCode() : 0;
+            h = 31 * h + this.fontSize;
+            h = 31 * h + fontStyle;
+            h = 31 * h + ( hasColor ? rgb : -1 );
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash;
+        }
+
+        @Override
+        public boolean equals( Object obj )
+        {
+            if ( this == obj )
+            {
+                return true;
+            }
+            if ( !( obj instanceof FontKey ) )
+            {
+                return false;
+            }
+            FontKey other = (FontKey) obj;
+            return fontSize == other.fontSize && fontStyle == other.fontStyle && hasColor == other.hasColor
+                && rgb == other.rgb
+                && ( fontFamily == null ? other.fontFamily == null : fontFamily.equals( other.fontFamily ) );
+        }
+    }
+}
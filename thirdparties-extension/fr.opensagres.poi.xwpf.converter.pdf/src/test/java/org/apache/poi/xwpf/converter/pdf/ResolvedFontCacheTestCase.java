@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.apache.poi.xwpf.converter.pdf;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.lowagie.text.Font;
+
+import fr.opensagres.poi.xwpf.converter.core.Color;
+import fr.opensagres.poi.xwpf.converter.pdf.internal.ResolvedFontCache;
+
+public class ResolvedFontCacheTestCase
+{
+
+    @Test
+    public void testSameFont()
+    {
+        ResolvedFontCache cache = new ResolvedFontCache();
+        Font font = new Font();
+        cache.putFont( "Arial", 11f, Font.BOLD, new Color( 255, 0, 0 ), font );
+
+        Assert.assertSame( font, cache.getFont( "Arial", 11f, Font.BOLD, new Color( 255, 0, 0 ) ) );
+        Assert.assertEquals( 1, cache.size() );
+    }
+
+    @Test
+    public void testOtherFont()
+    {
+        ResolvedFontCache cache = new ResolvedFontCache();
+        cache.putFont( "Arial", 11f, Font.BOLD, null, new Font() );
+
+        Assert.assertNull( cache.getFont( "Arial", 11f, Font.BOLD, Color.BLACK ) );
+        Assert.assertNull( cache.getFont( "Arial", 12f, Font.BOLD, null ) );
+        Assert.assertNull( cache.getFont( "Arial", 11f, Font.ITALIC, null ) );
+        Assert.assertNull( cache.getFont( "Calibri", 11f, Font.BOLD, null ) );
+        Assert.assertNull( cache.getFont( null, 11f, Font.BOLD, null ) );
+    }
+
+    @Test
+    public void testNullFontFamily()
+    {
+        ResolvedFontCache cache = new ResolvedFontCache();
+        Font font = new Font();
+        cache.putFont( null, -1f, Font.NORMAL, null, font );
+
+        Assert.assertSame( font, cache.getFont( null, -1f, Font.NORMAL, null ) );
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package org.apache.poi.xwpf.converter.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.poi.openxml4j.util.ZipSecureFile;
+import org.apache.poi.xwpf.converter.core.AbstractXWPFPOIConverterTest;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.junit.Assert;
+import org.junit.Test;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.CTP;
+import org.openxmlformats.schemas.wordprocessingml.x2006.main.STFldCharType;
+
+import com.lowagie.text.pdf.PRStream;
+import com.lowagie.text.pdf.PdfName;
+import com.lowagie.text.pdf.PdfObject;
+import com.lowagie.text.pdf.PdfReader;
+
+import fr.opensagres.poi.xwpf.converter.pdf.PdfConverter;
+import fr.opensagres.poi.xwpf.converter.pdf.PdfOptions;
+
+/**
+ * Tests of the NUMPAGES fields rendered with {@link PdfOptions#singlePass(boolean)}.
+ */
+public class SinglePassPdfConverterTestCase
+{
+
+    private static final Pattern TOTAL_PAGE_COUNT = Pattern.compile( "\\((\\d+)\\)Tj" );
+
+    @Test
+    public void TestTitle()
+        throws Exception
+    {
+        assertSinglePass( "TestTitle.docx" );
+    }
+
+    @Test
+    public void CV2()
+        throws Exception
+    {
+        assertSinglePass( "CV2.docx" );
+    }
+
+    @Test
+    public void MoreThan9999Pages()
+        throws Exception
+    {
+        XWPFDocument document = new XWPFDocument();
+        XWPFParagraph paragraph = document.createParagraph();
+        paragraph.createRun().setText( "Page 1 of " );
+        addNumPagesField( paragraph.getCTP() );
+        for ( int i = 2; i <= 10000; i++ )
+        {
+            paragraph = document.createParagraph();
+            paragraph.setPageBreak( true );
+            paragraph.createRun().setText( "Page " + i );
+        }
+
+        PdfReader reader = new PdfReader( convert( document, true ) );
+        Assert.assertEquals( 10000, reader.getNumberOfPages() );
+        Assert.assertEquals( "[10000]", getTotalPageCounts( reader ).toString() );
+    }
+
+    private static void assertSinglePass( String fileInName )
+        throws Exception
+    {
+        // the default 2 passes gives the expected page count
+        int pageCount = new PdfReader( convert( loadDocument( fileInName ), false ) ).getNumberOfPages();
+
+        PdfReader reader = new PdfReader( convert( loadDocument( fileInName ), true ) );
+        Assert.assertEquals( pageCount, reader.getNumberOfPages() );
+        List<Integer> totalPageCounts = getTotalPageCounts( reader );
+        Assert.assertFalse( totalPageCounts.isEmpty() );
+        for ( Integer totalPageCount : totalPageCounts )
+        {
+            Assert.assertEquals( pageCount, totalPageCount.intValue() );
+        }
+    }
+
+    private static XWPFDocument loadDocument( String fileInName )
+        throws IOException
+    {
+        // Adjust the minInflateRatio otherwise the file triggers a false positive for a zip bomb
+        ZipSecureFile.setMinInflateRatio( 0 );
+        return new XWPFDocument( AbstractXWPFPOIConverterTest.class.getResourceAsStream( fileInName ) );
+    }
+
+    private static byte[] convert( XWPFDocument document, boolean singlePass )
+        throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PdfConverter.getInstance().convert( document, out, PdfOptions.create().singlePass( singlePass ) );
+        return out.toByteArray();
+    }
+
+    /**
+     * Add <w:fldChar begin/> <w:instrText>NUMPAGES</w:instrText> <w:fldChar separate/> <w:t>1</w:t>
+     * <w:fldChar end/> to the given paragraph.
+     */
+    private static void addNumPagesField( CTP paragraph )
+    {
+        paragraph.addNewR().addNewFldChar().setFldCharType( STFldCharType.BEGIN );
+        paragraph.addNewR().addNewInstrText().setStringValue( " NUMPAGES " );
+        paragraph.addNewR().addNewFldChar().setFldCharType( STFldCharType.SEPARATE );
+        paragraph.addNewR().addNewT().setStringValue( "1" );
+        paragraph.addNewR().addNewFldChar().setFldCharType( STFldCharType.END );
+    }
+
+    /**
+     * Returns the page counts written in the templates (form XObjects) of the total page count chunks.
+     */
+    private static List<Integer> getTotalPageCounts( PdfReader reader )
+        throws IOException
+    {
+        List<Integer> totalPageCounts = new ArrayList<Integer>();
+        for ( int i = 1; i < reader.getXrefSize(); i++ )
+        {
+            PdfObject object = reader.getPdfObject( i );
+            if ( object != null && object.isStream() && PdfName.FORM.equals( ( (PRStream) object ).get( PdfName.SUBTYPE ) ) )
+            {
+                Matcher matcher =
+                    TOTAL_PAGE_COUNT.matcher( new String( PdfReader.getStreamBytes( (PRStream) object ), "ISO-8859-1" ) );
+                if ( matcher.find() )
+                {
+                    totalPageCounts.add( Integer.valueOf( matcher.group( 1 ) ) );
+                }
+            }
+        }
+        return totalPageCounts;
+    }
+}
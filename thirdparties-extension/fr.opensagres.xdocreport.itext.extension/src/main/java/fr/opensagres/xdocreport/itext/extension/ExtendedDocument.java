@@ -24,14 +24,22 @@
  */
 package fr.opensagres.xdocreport.itext.extension;
 
+import java.awt.Color;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import com.lowagie.text.Chunk;
 import com.lowagie.text.Document;
 import com.lowagie.text.DocumentException;
 import com.lowagie.text.Element;
+import com.lowagie.text.Font;
+import com.lowagie.text.Image;
 import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.PdfTemplate;
 import com.lowagie.text.pdf.PdfWriter;
 
 public class ExtendedDocument
@@ -56,6 +64,14 @@ public class ExtendedDocument
 
     private PageOrientation orientation = PageOrientation.Portrait;
 
+    /**
+     * Text used to compute the width reserved for the total page count. A page count with more digits is condensed to
+     * fit in this width.
+     */
+    private static final String TOTAL_PAGE_COUNT_RESERVED_TEXT = "0000";
+
+    private List<TotalPageCountTemplate> totalPageCountTemplates;
+
     public ExtendedDocument( OutputStream out, IPdfWriterConfiguration configuration )
         throws DocumentException
     {
@@ -82,6 +98,66 @@ public class ExtendedDocument
         return writer.getCurrentPageNumber();
     }
 
+    /**
+     * Create a chunk which displays the total page count of the document. The total page count is unknown while the
+     * document is written, so the chunk is an image of a {@link PdfTemplate} which is filled when the document is
+     * closed. This avoids to write the whole document twice to know the page count.
+     * 
+     * @param font the font of the total page count.
+     * @return
+     * @throws DocumentException
+     */
+    public Chunk createTotalPageCountChunk( Font font )
+        throws DocumentException
+    {
+        BaseFont baseFont = font.getBaseFont() != null ? font.getBaseFont() : font.getCalculatedBaseFont( false );
+        float size = font.getCalculatedSize();
+        float ascent = baseFont.getFontDescriptor( BaseFont.ASCENT, size );
+        float descent = baseFont.getFontDescriptor( BaseFont.DESCENT, size );
+        float width = baseFont.getWidthPoint( TOTAL_PAGE_COUNT_RESERVED_TEXT, size );
+        PdfTemplate template = writer.getDirectContent().createTemplate( width, ascent - descent );
+        if ( totalPageCountTemplates == null )
+        {
+            totalPageCountTemplates = new ArrayList<TotalPageCountTemplate>();
+        }
+        totalPageCountTemplates.add( new TotalPageCountTemplate( template, baseFont, size, descent, font.getColor() ) );
+        return new Chunk( Image.getInstance( template ), 0, descent );
+    }
+
+    /**
+     * Write the total page count in the templates of the chunks created with {@link #createTotalPageCountChunk(Font)}.
+     * 
+     * @param pageCount
+     */
+    protected void writeTotalPageCount( int pageCount )
+    {
+        if ( totalPageCountTemplates == null )
+        {
+            return;
+        }
+        String text = String.valueOf( pageCount );
+        for ( TotalPageCountTemplate totalPageCount : totalPageCountTemplates )
+        {
+            PdfTemplate template = totalPageCount.template;
+            template.beginText();
+            if ( totalPageCount.color != null )
+            {
+                template.setColorFill( totalPageCount.color );
+            }
+            template.setFontAndSize( totalPageCount.baseFont, totalPageCount.size );
+            float width = totalPageCount.baseFont.getWidthPoint( text, totalPageCount.size );
+            if ( width > template.getWidth() )
+            {
+                // the page count has more digits than the reserved width (more than 9999 pages) : the text is
+                // condensed to fit in the template instead of overlapping the text which follows the chunk.
+                template.setHorizontalScaling( template.getWidth() * 100 / width );
+            }
+            template.setTextMatrix( 0, -totalPageCount.descent );
+            template.showText( text );
+            template.endText();
+        }
+    }
+
     public boolean setOriginalMargins( float marginLeft, float marginRight, float marginTop, float marginBottom )
     {
         this.originMarginTop = marginTop;
@@ -198,4 +274,30 @@ public class ExtendedDocument
         }
         this.orientation = orientation;
     }
+
+    /**
+     * Template of a total page count chunk and the font used to write the page count.
+     */
+    private static class TotalPageCountTemplate
+    {
+
+        private final PdfTemplate template;
+
+        private final BaseFont baseFont;
+
+        private final float size;
+
+        private final float descent;
+
+        private final Color color;
+
+        public TotalPageCountTemplate( PdfTemplate template, BaseFont baseFont, float size, float descent, Color color )
+        {
+            this.template = template;
+            this.baseFont = baseFont;
+            this.size = size;
+            this.descent = descent;
+            this.color = color;
+        }
+    }
 }
@@ -85,6 +85,17 @@ public class ExtendedHeaderFooter
         }
     }
 
+    /**
+     * Write the total page count in the total page count chunks when the document is closed.
+     * 
+     * @see ExtendedDocument#createTotalPageCountChunk(com.lowagie.text.Font)
+     */
+    @Override
+    public void onCloseDocument( PdfWriter writer, Document doc )
+    {
+        document.writeTotalPageCount( writer.getPageNumber() - 1 );
+    }
+
     protected float getFooterY( IMasterPageHeaderFooter footer )
     {
         return document.getOriginMarginBottom() + footer.getTotalHeight();
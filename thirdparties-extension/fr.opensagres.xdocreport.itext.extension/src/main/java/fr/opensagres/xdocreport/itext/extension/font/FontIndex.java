@@ -0,0 +1,717 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.itext.extension.font;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.lowagie.text.pdf.BaseFont;
+
+/**
+ * Index of the font files of a set of directories: font name (postscript and full names) -> font file path and font
+ * family -> full names of the family members, with the last modified date and length of each font file. Building the
+ * index opens each font file to read its names (like iText <code>FontFactory.registerDirectories()</code>), but once
+ * the index is stored to a file, loading it doesn't open any font file.
+ * <p>
+ * The index can be built at build time with :
+ * 
+ * <pre>
+ * java fr.opensagres.xdocreport.itext.extension.font.FontIndex fonts.idx [directory...]
+ * </pre>
+ * 
+ * </p>
+ */
+public class FontIndex
+{
+
+    private static final Logger LOGGER = Logger.getLogger( FontIndex.class.getName() );
+
+    private static final String HEADER = "# XDocReport font index 2";
+
+    private static final String FILE = "F";
+
+    private static final String NAME = "N";
+
+    private static final String MEMBER = "M";
+
+    // the separator, the line breaks and the escape character are escaped in the values of a line
+    private static final String SEPARATOR = "\t";
+
+    private static final char ESCAPE = '\\';
+
+    // platform, encoding, language of the names used for the font family (see FontFactoryImp#TTFamilyOrder)
+    private static final String[] TT_FAMILY_ORDER = { "3", "1", "1033", "3", "0", "1033", "1", "0", "0", "0", "3",
+        "0" };
+
+    /**
+     * Font file of the index with the names of the fonts it contains.
+     */
+    static class FontFile
+    {
+
+        final String path;
+
+        final long lastModified;
+
+        final long length;
+
+        // {name, font path} (the font path of a TrueType collection is path,index)
+        final List<String[]> names = new ArrayList<String[]>();
+
+        // {family name, full name}
+        final List<String[]> members = new ArrayList<String[]>();
+
+        FontFile( String path, long lastModified, long length )
+        {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.length = length;
+        }
+
+        void addName( String name, String fontPath )
+        {
+            names.add( new String[] { name, fontPath } );
+        }
+
+        void addMember( String familyName, String fullName )
+        {
+            members.add( new String[] { familyName, fullName } );
+        }
+
+        boolean isUpToDate( File file )
+        {
+            return file.lastModified() == lastModified && file.length() == length;
+        }
+    }
+
+    private final Map<String, FontFile> files;
+
+    private volatile Map<String, String> fontPaths;
+
+    private volatile Map<String, List<String>> families;
+
+    public FontIndex()
+    {
+        this.files = new LinkedHashMap<String, FontFile>();
+        this.fontPaths = Collections.emptyMap();
+        this.families = Collections.emptyMap();
+    }
+
+    /**
+     * Returns the directories scanned by iText <code>FontFactory.registerDirectories()</code> : the directory of the
+     * system fonts of Windows, Linux and Mac OS.
+     */
+    public static List<File> getDefaultDirectories()
+    {
+        List<File> directories = new ArrayList<File>();
+        directories.add( new File( "c:/windows/fonts" ) );
+        directories.add( new File( "c:/winnt/fonts" ) );
+        directories.add( new File( "d:/windows/fonts" ) );
+        directories.add( new File( "d:/winnt/fonts" ) );
+        directories.add( new File( "/usr/share/X11/fonts" ) );
+        directories.add( new File( "/usr/X/lib/X11/fonts" ) );
+        directories.add( new File( "/usr/openwin/lib/X11/fonts" ) );
+        directories.add( new File( "/usr/share/fonts" ) );
+        directories.add( new File( "/usr/X11R6/lib/X11/fonts" ) );
+        directories.add( new File( "/Library/Fonts" ) );
+        directories.add( new File( "/System/Library/Fonts" ) );
+        return directories;
+    }
+
+    /**
+     * Build the index of the font files of the given directories and their sub directories.
+     */
+    public static FontIndex build( List<File> directories )
+    {
+        FontIndex index = new FontIndex();
+        index.update( directories );
+        return index;
+    }
+
+    /**
+     * Load the index from the given file if it exists, otherwise build it from the given directories and store it to
+     * the file. An index file which cannot be read (ex : index stored by another version) is rebuilt.
+     * 
+     * @param indexFile the file of the index.
+     * @param directories the font directories.
+     * @param checkModified true to update the index with the font files which were added, modified or removed since
+     *            the index was stored and false to use the stored index as is (ex : index built at build time for an
+     *            immutable image).
+     */
+    public static FontIndex loadOrBuild( File indexFile, List<File> directories, boolean checkModified )
+        throws IOException
+    {
+        if ( indexFile.exists() )
+        {
+            FontIndex index = null;
+            try
+            {
+                index = load( indexFile );
+            }
+            catch ( IOException e )
+            {
+                LOGGER.log( Level.WARNING, "Cannot load the font index " + indexFile + ", the index is rebuilt.", e );
+            }
+            if ( index != null )
+            {
+                if ( checkModified && index.update( directories ) )
+                {
+                    index.store( indexFile );
+                }
+                return index;
+            }
+        }
+        FontIndex index = build( directories );
+        index.store( indexFile );
+        return index;
+    }
+
+    /**
+     * Update the index with the font files of the given directories : font files which are new or which were modified
+     * are parsed, font files which don't exist anymore are removed.
+     * 
+     * @return true if the index changed and false otherwise.
+     */
+    public synchronized boolean update( List<File> directories )
+    {
+        Map<String, File> fontFiles = new LinkedHashMap<String, File>();
+        for ( File directory : directories )
+        {
+            collectFontFiles( directory, fontFiles );
+        }
+        boolean changed = files.keySet().retainAll( fontFiles.keySet() );
+        for ( Map.Entry<String, File> entry : fontFiles.entrySet() )
+        {
+            FontFile fontFile = files.get( entry.getKey() );
+            if ( fontFile == null || !fontFile.isUpToDate( entry.getValue() ) )
+            {
+                fontFile = parse( entry.getValue() );
+                if ( fontFile != null )
+                {
+                    files.put( fontFile.path, fontFile );
+                }
+                else
+                {
+                    files.remove( entry.getKey() );
+                }
+                changed = true;
+            }
+        }
+        if ( changed )
+        {
+            updateNames();
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the path of the font file (path,index for a TrueType collection) for the given postscript or full name
+     * (not case sensitive) and null if the font is not indexed.
+     */
+    public String getFontPath( String fontName )
+    {
+        return fontPaths.get( fontName.toLowerCase() );
+    }
+
+    /**
+     * Returns the full names of the fonts of the given family (not case sensitive), shortest names first, and null if
+     * the family is not indexed.
+     */
+    public List<String> getFamilyMembers( String familyName )
+    {
+        return families.get( familyName.toLowerCase() );
+    }
+
+    /**
+     * Returns the names (in lower case) of the indexed fonts.
+     */
+    public Set<String> getFontNames()
+    {
+        return fontPaths.keySet();
+    }
+
+    public synchronized int getFontFileCount()
+    {
+        return files.size();
+    }
+
+    /**
+     * Load an index stored with {@link #store(File)}.
+     * 
+     * @throws IOException if the file cannot be read or is not a valid index.
+     */
+    public static FontIndex load( File indexFile )
+        throws IOException
+    {
+        Reader reader = new InputStreamReader( new FileInputStream( indexFile ), "UTF-8" );
+        try
+        {
+            return load( reader );
+        }
+        finally
+        {
+            reader.close();
+        }
+    }
+
+    static FontIndex load( Reader reader )
+        throws IOException
+    {
+        FontIndex index = new FontIndex();
+        BufferedReader lines = new BufferedReader( reader );
+        String line = lines.readLine();
+        if ( !HEADER.equals( line ) )
+        {
+            throw new IOException( "Invalid font index header: " + line );
+        }
+        FontFile fontFile = null;
+        while ( ( line = lines.readLine() ) != null )
+        {
+            String[] values = line.split( SEPARATOR, -1 );
+            for ( int i = 0; i < values.length; i++ )
+            {
+                values[i] = unescape( values[i], line );
+            }
+            if ( FILE.equals( values[0] ) && values.length == 4 )
+            {
+                fontFile = new FontFile( values[1], parseLong( values[2], line ), parseLong( values[3], line ) );
+                index.files.put( fontFile.path, fontFile );
+            }
+            else if ( NAME.equals( values[0] ) && values.length == 3 && fontFile != null )
+            {
+                fontFile.addName( values[1], values[2] );
+            }
+            else if ( MEMBER.equals( values[0] ) && values.length == 3 && fontFile != null )
+            {
+                fontFile.addMember( values[1], values[2] );
+            }
+            else if ( line.length() > 0 )
+            {
+                throw new IOException( "Invalid font index line: " + line );
+            }
+        }
+        index.updateNames();
+        return index;
+    }
+
+    private static long parseLong( String value, String line )
+        throws IOException
+    {
+        try
+        {
+            return Long.parseLong( value );
+        }
+        catch ( NumberFormatException e )
+        {
+            throw new IOException( "Invalid font index line: " + line );
+        }
+    }
+
+    /**
+     * Store the index to the given file.
+     */
+    public void store( File indexFile )
+        throws IOException
+    {
+        File parent = indexFile.getAbsoluteFile().getParentFile();
+        if ( parent != null && !parent.exists() )
+        {
+            parent.mkdirs();
+        }
+        // write to a temporary file of the same directory (unique for each process and each thread) and rename it, to
+        // avoid to load a partial index written by another process.
+        File tmpFile = File.createTempFile( indexFile.getName(), ".tmp", parent );
+        boolean stored = false;
+        try
+        {
+            Writer writer = new OutputStreamWriter( new FileOutputStream( tmpFile ), "UTF-8" );
+            try
+            {
+                store( writer );
+            }
+            finally
+            {
+                writer.close();
+            }
+            if ( !tmpFile.renameTo( indexFile ) )
+            {
+                indexFile.delete();
+                if ( !tmpFile.renameTo( indexFile ) )
+                {
+                    throw new IOException( "Cannot write the font index " + indexFile );
+                }
+            }
+            stored = true;
+        }
+        finally
+        {
+            if ( !stored )
+            {
+                tmpFile.delete();
+            }
+        }
+    }
+
+    synchronized void store( Writer writer )
+        throws IOException
+    {
+        BufferedWriter out = new BufferedWriter( writer );
+        out.write( HEADER );
+        out.newLine();
+        for ( FontFile fontFile : files.values() )
+        {
+            writeLine( out, FILE, fontFile.path, String.valueOf( fontFile.lastModified ),
+                       String.valueOf( fontFile.length ) );
+            for ( String[] name : fontFile.names )
+            {
+                writeLine( out, NAME, name[0], name[1] );
+            }
+            for ( String[] member : fontFile.members )
+            {
+                writeLine( out, MEMBER, member[0], member[1] );
+            }
+        }
+        out.flush();
+    }
+
+    private static void writeLine( BufferedWriter out, String... values )
+        throws IOException
+    {
+        for ( int i = 0; i < values.length; i++ )
+        {
+            if ( i > 0 )
+            {
+                out.write( SEPARATOR );
+            }
+            out.write( escape( values[i] ) );
+        }
+        out.newLine();
+    }
+
+    private static String escape( String value )
+    {
+        StringBuilder escaped = null;
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            char c = value.charAt( i );
+            String escape = null;
+            switch ( c )
+            {
+                case '\t':
+                    escape = "\\t";
+                    break;
+                case '\n':
+                    escape = "\\n";
+                    break;
+                case '\r':
+                    escape = "\\r";
+                    break;
+                case ESCAPE:
+                    escape = "\\\\";
+                    break;
+            }
+            if ( escape != null && escaped == null )
+            {
+                escaped = new StringBuilder( value.substring( 0, i ) );
+            }
+            if ( escaped != null )
+            {
+                if ( escape != null )
+                {
+                    escaped.append( escape );
+                }
+                else
+                {
+                    escaped.append( c );
+                }
+            }
+        }
+        return escaped != null ? escaped.toString() : value;
+    }
+
+    private static String unescape( String value, String line )
+        throws IOException
+    {
+        if ( value.indexOf( ESCAPE ) == -1 )
+        {
+            return value;
+        }
+        StringBuilder unescaped = new StringBuilder( value.length() );
+        for ( int i = 0; i < value.length(); i++ )
+        {
+            char c = value.charAt( i );
+            if ( c != ESCAPE )
+            {
+                unescaped.append( c );
+                continue;
+            }
+            if ( ++i == value.length() )
+            {
+                throw new IOException( "Invalid font index line: " + line );
+            }
+            switch ( value.charAt( i ) )
+            {
+                case 't':
+                    unescaped.append( '\t' );
+                    break;
+                case 'n':
+                    unescaped.append( '\n' );
+                    break;
+                case 'r':
+                    unescaped.append( '\r' );
+                    break;
+                case ESCAPE:
+                    unescaped.append( ESCAPE );
+                    break;
+                default:
+                    throw new IOException( "Invalid font index line: " + line );
+            }
+        }
+        return unescaped.toString();
+    }
+
+    /**
+     * Add the given font file to the index.
+     */
+    synchronized void addFontFile( FontFile fontFile )
+    {
+        files.put( fontFile.path, fontFile );
+        updateNames();
+    }
+
+    private void updateNames()
+    {
+        // names and families are replaced (and not updated) to be read without lock.
+        Map<String, String> fontPaths = new HashMap<String, String>();
+        Map<String, List<String>> families = new HashMap<String, List<String>>();
+        for ( FontFile fontFile : files.values() )
+        {
+            for ( String[] name : fontFile.names )
+            {
+                fontPaths.put( name[0], name[1] );
+            }
+            for ( String[] member : fontFile.members )
+            {
+                addMember( families, member[0], member[1] );
+            }
+        }
+        for ( Map.Entry<String, List<String>> entry : families.entrySet() )
+        {
+            entry.setValue( Collections.unmodifiableList( entry.getValue() ) );
+        }
+        this.fontPaths = Collections.unmodifiableMap( fontPaths );
+        this.families = Collections.unmodifiableMap( families );
+    }
+
+    /**
+     * Add the given full name to the family, ordered by length like FontFactoryImp#registerFamily does.
+     */
+    private static void addMember( Map<String, List<String>> families, String familyName, String fullName )
+    {
+        List<String> members = families.get( familyName );
+        if ( members == null )
+        {
+            members = new ArrayList<String>();
+            families.put( familyName, members );
+        }
+        int fullNameLength = fullName.length();
+        for ( int i = 0; i < members.size(); i++ )
+        {
+            if ( members.get( i ).length() >= fullNameLength )
+            {
+                members.add( i, fullName );
+                return;
+            }
+        }
+        members.add( fullName );
+    }
+
+    private static void collectFontFiles( File directory, Map<String, File> fontFiles )
+    {
+        File[] children = directory.listFiles();
+        if ( children == null )
+        {
+            return;
+        }
+        for ( File file : children )
+        {
+            if ( file.isDirectory() )
+            {
+                collectFontFiles( file, fontFiles );
+                continue;
+            }
+            String name = file.getPath();
+            String suffix = name.length() < 4 ? null : name.substring( name.length() - 4 ).toLowerCase();
+            if ( ".afm".equals( suffix ) || ".pfm".equals( suffix ) )
+            {
+                // Only register Type 1 fonts with matching .pfb files
+                File pfb = new File( name.substring( 0, name.length() - 4 ) + ".pfb" );
+                if ( pfb.exists() )
+                {
+                    fontFiles.put( name, file );
+                }
+            }
+            else if ( ".ttf".equals( suffix ) || ".otf".equals( suffix ) || ".ttc".equals( suffix ) )
+            {
+                fontFiles.put( name, file );
+            }
+        }
+    }
+
+    /**
+     * Read the names of the fonts of the given file like FontFactoryImp#register(String, String) does.
+     * 
+     * @return the parsed font file and null if the file cannot be read.
+     */
+    private static FontFile parse( File file )
+    {
+        String path = file.getPath();
+        FontFile fontFile = new FontFile( path, file.lastModified(), file.length() );
+        try
+        {
+            String lowerPath = path.toLowerCase();
+            if ( lowerPath.endsWith( ".ttc" ) )
+            {
+                String[] names = BaseFont.enumerateTTCNames( path );
+                for ( int i = 0; i < names.length; i++ )
+                {
+                    parseTrueType( fontFile, path + "," + i );
+                }
+            }
+            else if ( lowerPath.endsWith( ".ttf" ) || lowerPath.endsWith( ".otf" ) )
+            {
+                parseTrueType( fontFile, path );
+            }
+            else
+            {
+                // Type 1 font (afm or pfm)
+                BaseFont bf = BaseFont.createFont( path, BaseFont.CP1252, false );
+                String fullName = bf.getFullFontName()[0][3].toLowerCase();
+                String familyName = bf.getFamilyFontName()[0][3].toLowerCase();
+                String psName = bf.getPostscriptFontName().toLowerCase();
+                fontFile.addMember( familyName, fullName );
+                fontFile.addName( psName, path );
+                fontFile.addName( fullName, path );
+            }
+            return fontFile;
+        }
+        catch ( Exception e )
+        {
+            LOGGER.log( Level.FINE, "Cannot read the font " + path, e );
+            return null;
+        }
+    }
+
+    private static void parseTrueType( FontFile fontFile, String fontPath )
+        throws Exception
+    {
+        Object[] allNames = BaseFont.getAllFontNames( fontPath, BaseFont.WINANSI, null );
+        fontFile.addName( ( (String) allNames[0] ).toLowerCase(), fontPath );
+        // register all the font names with all the locales
+        String[][] names = (String[][]) allNames[2]; // full name
+        for ( int i = 0; i < names.length; i++ )
+        {
+            fontFile.addName( names[i][3].toLowerCase(), fontPath );
+        }
+        String familyName = null;
+        names = (String[][]) allNames[1]; // family name
+        for ( int k = 0; k < TT_FAMILY_ORDER.length && familyName == null; k += 3 )
+        {
+            for ( int i = 0; i < names.length; i++ )
+            {
+                if ( isFamilyOrder( names[i], k ) )
+                {
+                    familyName = names[i][3].toLowerCase();
+                    break;
+                }
+            }
+        }
+        if ( familyName != null )
+        {
+            String lastName = "";
+            names = (String[][]) allNames[2]; // full name
+            for ( int i = 0; i < names.length; i++ )
+            {
+                for ( int k = 0; k < TT_FAMILY_ORDER.length; k += 3 )
+                {
+                    if ( isFamilyOrder( names[i], k ) )
+                    {
+                        String fullName = names[i][3];
+                        if ( !fullName.equals( lastName ) )
+                        {
+                            lastName = fullName;
+                            fontFile.addMember( familyName, fullName );
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isFamilyOrder( String[] name, int k )
+    {
+        return TT_FAMILY_ORDER[k].equals( name[0] ) && TT_FAMILY_ORDER[k + 1].equals( name[1] )
+            && TT_FAMILY_ORDER[k + 2].equals( name[2] );
+    }
+
+    /**
+     * Build the index of the given directories (or the default directories) and store it to the given file.
+     */
+    public static void main( String[] args )
+        throws IOException
+    {
+        if ( args.length < 1 )
+        {
+            System.err.println( "Usage: FontIndex <index file> [font directory...]" );
+            System.exit( 1 );
+        }
+        List<File> directories = new ArrayList<File>();
+        for ( int i = 1; i < args.length; i++ )
+        {
+            directories.add( new File( args[i] ) );
+        }
+        FontIndex index = build( directories.isEmpty() ? getDefaultDirectories() : directories );
+        index.store( new File( args[0] ) );
+        System.out.println( index.getFontFileCount() + " font files indexed in " + args[0] );
+    }
+}
@@ -0,0 +1,157 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.itext.extension.font;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import com.lowagie.text.ExceptionConverter;
+import com.lowagie.text.Font;
+import com.lowagie.text.FontFactory;
+import com.lowagie.text.pdf.BaseFont;
+
+/**
+ * Font registry which resolves fonts with a {@link FontIndex} instead of calling
+ * <code>FontFactory.registerDirectories()</code>, which opens all the font files of the system on the first font
+ * request. With a stored index, only the font files which are used by the document are opened (and cached by iText).
+ * Fonts which are not indexed are searched in the fonts registered in the iText {@link FontFactory}.
+ */
+public class IndexedFontRegistry
+    extends AbstractFontRegistry
+{
+
+    private static boolean builtinFontsCleared = false;
+
+    private final FontIndex index;
+
+    public IndexedFontRegistry( FontIndex index )
+    {
+        this.index = index;
+    }
+
+    /**
+     * Create a registry for the default font directories with the index stored in the given file. The index is built
+     * if the file doesn't exist.
+     * 
+     * @param indexFile the file of the index.
+     * @param checkModified true to update the index with the font files which were added, modified or removed since
+     *            the index was stored.
+     */
+    public static IndexedFontRegistry create( File indexFile, boolean checkModified )
+        throws IOException
+    {
+        return new IndexedFontRegistry( FontIndex.loadOrBuild( indexFile, FontIndex.getDefaultDirectories(),
+                                                               checkModified ) );
+    }
+
+    public FontIndex getIndex()
+    {
+        return index;
+    }
+
+    @Override
+    public Font getFont( String familyName, String encoding, float size, int style, Color color )
+    {
+        clearBuiltinFontsIfNeeded();
+        if ( familyName == null )
+        {
+            return new Font( Font.UNDEFINED, size, style, color );
+        }
+        familyName = resolveFamilyName( familyName, style );
+        String fontName = familyName;
+        int fontStyle = style;
+        // select the member of the family for the style like FontFactoryImp#getFont does.
+        List<String> members = index.getFamilyMembers( familyName );
+        if ( members != null )
+        {
+            int s = style == Font.UNDEFINED ? Font.NORMAL : style;
+            int fs = Font.NORMAL;
+            boolean found = false;
+            for ( String member : members )
+            {
+                String lcf = member.toLowerCase();
+                fs = Font.NORMAL;
+                if ( lcf.indexOf( "bold" ) != -1 )
+                {
+                    fs |= Font.BOLD;
+                }
+                if ( lcf.indexOf( "italic" ) != -1 || lcf.indexOf( "oblique" ) != -1 )
+                {
+                    fs |= Font.ITALIC;
+                }
+                if ( ( s & Font.BOLDITALIC ) == fs )
+                {
+                    fontName = member;
+                    found = true;
+                    break;
+                }
+            }
+            if ( style != Font.UNDEFINED && found )
+            {
+                fontStyle &= ~fs;
+            }
+        }
+        String fontPath = index.getFontPath( fontName );
+        if ( fontPath == null )
+        {
+            // font not indexed : search in the fonts registered in the FontFactory
+            try
+            {
+                return FontFactory.getFont( familyName, encoding, size, style, color );
+            }
+            catch ( ExceptionConverter e )
+            {
+                return new Font( Font.UNDEFINED, size, style, color );
+            }
+        }
+        try
+        {
+            BaseFont baseFont = BaseFont.createFont( fontPath, encoding, FontFactory.defaultEmbedding );
+            return new Font( baseFont, size, fontStyle, color );
+        }
+        catch ( Exception e )
+        {
+            return new Font( Font.UNDEFINED, size, style, color );
+        }
+    }
+
+    private static void clearBuiltinFontsIfNeeded()
+    {
+        if ( !builtinFontsCleared )
+        {
+            // clear built-in fonts which may clash with document fonts
+            ExtendedBaseFont.clearBuiltinFonts();
+            builtinFontsCleared = true;
+        }
+    }
+
+    @Override
+    protected String resolveFamilyName( String familyName, int style )
+    {
+        return familyName;
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.itext.extension;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import com.lowagie.text.Font;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.pdf.PRStream;
+import com.lowagie.text.pdf.PdfName;
+import com.lowagie.text.pdf.PdfObject;
+import com.lowagie.text.pdf.PdfReader;
+
+public class TotalPageCountTestCase
+    extends TestCase
+{
+
+    public void testTotalPageCount()
+        throws Exception
+    {
+        byte[] pdf = createPDF( 3 );
+
+        PdfReader reader = new PdfReader( pdf );
+        assertEquals( 3, reader.getNumberOfPages() );
+        List<String> templates = getTemplateContents( reader );
+        assertEquals( 1, templates.size() );
+        String template = templates.get( 0 );
+        assertTrue( template, template.contains( "(3)Tj" ) );
+        assertFalse( template, template.contains( "Tz" ) );
+    }
+
+    public void testTotalPageCountWithMoreThan9999Pages()
+        throws Exception
+    {
+        byte[] pdf = createPDF( 10000 );
+
+        PdfReader reader = new PdfReader( pdf );
+        assertEquals( 10000, reader.getNumberOfPages() );
+        List<String> templates = getTemplateContents( reader );
+        assertEquals( 1, templates.size() );
+        String template = templates.get( 0 );
+        // the 5 digits are condensed to fit in the width reserved for 4 digits
+        assertTrue( template, template.contains( "(10000)Tj" ) );
+        assertTrue( template, template.contains( "Tz" ) );
+    }
+
+    private static byte[] createPDF( int pageCount )
+        throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExtendedDocument document = new ExtendedDocument( out, null );
+        document.open();
+
+        Paragraph paragraph = new Paragraph( "Page 1 of " );
+        paragraph.add( document.createTotalPageCountChunk( new Font() ) );
+        document.add( paragraph );
+        for ( int i = 2; i <= pageCount; i++ )
+        {
+            document.newPage();
+            document.add( new Paragraph( "Page " + i ) );
+        }
+        document.close();
+        return out.toByteArray();
+    }
+
+    /**
+     * Returns the content of the form XObjects of the PDF, which are the templates of the total page count chunks.
+     */
+    private static List<String> getTemplateContents( PdfReader reader )
+        throws Exception
+    {
+        List<String> contents = new ArrayList<String>();
+        for ( int i = 1; i < reader.getXrefSize(); i++ )
+        {
+            PdfObject object = reader.getPdfObject( i );
+            if ( object != null && object.isStream() && PdfName.FORM.equals( ( (PRStream) object ).get( PdfName.SUBTYPE ) ) )
+            {
+                contents.add( new String( PdfReader.getStreamBytes( (PRStream) object ), "ISO-8859-1" ) );
+            }
+        }
+        return contents;
+    }
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (C) 2011-2015 The XDocReport Team <xdocreport@googlegroups.com>
+ *
+ * All rights reserved.
+ *
+ * Permission is hereby granted, free  of charge, to any person obtaining
+ * a  copy  of this  software  and  associated  documentation files  (the
+ * "Software"), to  deal in  the Software without  restriction, including
+ * without limitation  the rights to  use, copy, modify,  merge, publish,
+ * distribute,  sublicense, and/or sell  copies of  the Software,  and to
+ * permit persons to whom the Software  is furnished to do so, subject to
+ * the following conditions:
+ *
+ * The  above  copyright  notice  and  this permission  notice  shall  be
+ * included in all copies or substantial portions of the Software.
+ *
+ * THE  SOFTWARE IS  PROVIDED  "AS  IS", WITHOUT  WARRANTY  OF ANY  KIND,
+ * EXPRESS OR  IMPLIED, INCLUDING  BUT NOT LIMITED  TO THE  WARRANTIES OF
+ * MERCHANTABILITY,    FITNESS    FOR    A   PARTICULAR    PURPOSE    AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE
+ * LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION
+ * OF CONTRACT, TORT OR OTHERWISE,  ARISING FROM, OUT OF OR IN CONNECTION
+ * WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ */
+package fr.opensagres.xdocreport.itext.extension.font;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+public class FontIndexTestCase
+    extends TestCase
+{
+
+    public void testFamilyMembers()
+    {
+        FontIndex index = createIndex();
+
+        assertEquals( "/fonts/arial.ttf", index.getFontPath( "Arial" ) );
+        assertEquals( "/fonts/arialbd.ttf", index.getFontPath( "arialmt-bold" ) );
+        assertEquals( "/fonts/cambria.ttc,0", index.getFontPath( "Cambria" ) );
+        assertNull( index.getFontPath( "Unknown" ) );
+
+        // shortest names first
+        assertEquals( Arrays.asList( "Arial", "Arial Bold" ), index.getFamilyMembers( "ARIAL" ) );
+        assertNull( index.getFamilyMembers( "Unknown" ) );
+    }
+
+    public void testStoreAndLoad()
+        throws IOException
+    {
+        FontIndex index = createIndex();
+        StringWriter writer = new StringWriter();
+        index.store( writer );
+
+        FontIndex loaded = FontIndex.load( new StringReader( writer.toString() ) );
+        assertEquals( 3, loaded.getFontFileCount() );
+        assertEquals( index.getFontNames(), loaded.getFontNames() );
+        assertEquals( "/fonts/arialbd.ttf", loaded.getFontPath( "Arial Bold" ) );
+        assertEquals( Arrays.asList( "Arial", "Arial Bold" ), loaded.getFamilyMembers( "arial" ) );
+
+        StringWriter reloaded = new StringWriter();
+        loaded.store( reloaded );
+        assertEquals( writer.toString(), reloaded.toString() );
+    }
+
+    public void testStoreAndLoadWithSeparatorInPath()
+        throws IOException
+    {
+        FontIndex index = new FontIndex();
+        String path = "/fonts/my\tfonts\\\n/arial.ttf";
+        FontIndex.FontFile arial = new FontIndex.FontFile( path, 1000L, 3000L );
+        arial.addName( "arial", path );
+        arial.addMember( "arial", "Arial" );
+        index.addFontFile( arial );
+        StringWriter writer = new StringWriter();
+        index.store( writer );
+
+        FontIndex loaded = FontIndex.load( new StringReader( writer.toString() ) );
+        assertEquals( 1, loaded.getFontFileCount() );
+        assertEquals( path, loaded.getFontPath( "Arial" ) );
+    }
+
+    public void testStoreToFile()
+        throws IOException
+    {
+        File indexFile = File.createTempFile( "fonts", ".idx" );
+        try
+        {
+            createIndex().store( indexFile );
+            assertEquals( 3, FontIndex.load( indexFile ).getFontFileCount() );
+            // the index is stored again over the existing file
+            createIndex().store( indexFile );
+            assertEquals( 3, FontIndex.load( indexFile ).getFontFileCount() );
+        }
+        finally
+        {
+            indexFile.delete();
+        }
+    }
+
+    public void testLoadInvalidIndex()
+    {
+        try
+        {
+            FontIndex.load( new StringReader( "arial\t/fonts/arial.ttf" ) );
+            fail( "Invalid index must not be loaded" );
+        }
+        catch ( IOException e )
+        {
+            // expected
+        }
+    }
+
+    public void testLoadIndexWithInvalidLength()
+    {
+        try
+        {
+            FontIndex.load( new StringReader( "# XDocReport font index 2\nF\t/fonts/arial.ttf\t1000\tabc" ) );
+            fail( "Invalid index must not be loaded" );
+        }
+        catch ( IOException e )
+        {
+            // expected
+        }
+    }
+
+    public void testLoadOrBuildWithOldIndex()
+        throws IOException
+    {
+        File indexFile = File.createTempFile( "fonts", ".idx" );
+        try
+        {
+            Writer writer = new OutputStreamWriter( new FileOutputStream( indexFile ), "UTF-8" );
+            writer.write( "# XDocReport font index 0\narial\t/fonts/arial.ttf\n" );
+            writer.close();
+
+            // the old index is rebuilt (without font files, as no directory is given) and stored again
+            FontIndex index = FontIndex.loadOrBuild( indexFile, Collections.<File> emptyList(), false );
+            assertEquals( 0, index.getFontFileCount() );
+            assertEquals( 0, FontIndex.load( indexFile ).getFontFileCount() );
+        }
+        finally
+        {
+            indexFile.delete();
+        }
+    }
+
+    public void testNamesAreUnmodifiable()
+    {
+        FontIndex index = createIndex();
+        try
+        {
+            index.getFamilyMembers( "arial" ).clear();
+            fail( "Family members must not be modifiable" );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            // expected
+        }
+        try
+        {
+            index.getFontNames().clear();
+            fail( "Font names must not be modifiable" );
+        }
+        catch ( UnsupportedOperationException e )
+        {
+            // expected
+        }
+        assertEquals( Arrays.asList( "Arial", "Arial Bold" ), index.getFamilyMembers( "arial" ) );
+    }
+
+    private static FontIndex createIndex()
+    {
+        FontIndex index = new FontIndex();
+
+        FontIndex.FontFile arialBold = new FontIndex.FontFile( "/fonts/arialbd.ttf", 1000L, 2000L );
+        arialBold.addName( "arialmt-bold", "/fonts/arialbd.ttf" );
+        arialBold.addName( "arial bold", "/fonts/arialbd.ttf" );
+        arialBold.addMember( "arial", "Arial Bold" );
+        index.addFontFile( arialBold );
+
+        FontIndex.FontFile arial = new FontIndex.FontFile( "/fonts/arial.ttf", 1000L, 3000L );
+        arial.addName( "arialmt", "/fonts/arial.ttf" );
+        arial.addName( "arial", "/fonts/arial.ttf" );
+        arial.addMember( "arial", "Arial" );
+        index.addFontFile( arial );
+
+        FontIndex.FontFile cambria = new FontIndex.FontFile( "/fonts/cambria.ttc", 1000L, 4000L );
+        cambria.addName( "cambria", "/fonts/cambria.ttc,0" );
+        cambria.addMember( "cambria", "Cambria" );
+        index.addFontFile( cambria );
+        return index;
+    }
+}